@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.model.entity.EntityId;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ManagedResourceAddress} and {@link EntityId} parsing, equality and hashing benchmarks.
+ * {@code addressFromString} measures the cached lookup, {@code addressParse} the parser itself.
+ *
+ * @author Emanuel Muckenhuber
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressBenchmark {
+
+    private String address = "/server[@name='default']/subsystem[@name='web']/connector[@name='http']/ssl";
+    private String entityId = "connector[@name='http']";
+    private String plainEntityId = "ssl";
+
+    private ManagedResourceAddress first;
+    private ManagedResourceAddress second;
+
+    @Setup
+    public void setup() {
+        first = ManagedResourceAddress.fromString(address);
+        second = ManagedResourceAddress.fromString(address);
+    }
+
+    /**
+     * Hits the parsed address cache after the first invocation.
+     */
+    @Benchmark
+    public ManagedResourceAddress addressFromString() {
+        return ManagedResourceAddress.fromString(address);
+    }
+
+    @Benchmark
+    public ManagedResourceAddress addressParse() {
+        return ManagedResourceAddress.parse(address);
+    }
+
+    @Benchmark
+    public boolean addressEquals() {
+        return first.equals(second);
+    }
+
+    @Benchmark
+    public int addressHashCode() {
+        return first.hashCode();
+    }
+
+    @Benchmark
+    public EntityId entityIdFromString() {
+        return EntityId.fromString(entityId);
+    }
+
+    @Benchmark
+    public EntityId plainEntityIdFromString() {
+        return EntityId.fromString(plainEntityId);
+    }
+
+    @Benchmark
+    public int entityIdHashCode() {
+        return first.getLastElement().hashCode() + first.get(0).hashCode();
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.builders.CompositeTypeBuilder;
+import org.jboss.model.types.builders.MetaTypeFactory;
+import org.jboss.model.values.CompositeValueSupport;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link CompositeValueSupport} construction and item access benchmarks.
+ *
+ * @author Emanuel Muckenhuber
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeValueBenchmark {
+
+    @Param({"4", "16", "64"})
+    private int items;
+
+    private CompositeMetaType metaType;
+    private String[] itemNames;
+    private MetaValue[] itemValues;
+    private CompositeValueSupport composite;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        final CompositeFixture fixture = new CompositeFixture(items);
+        metaType = fixture.metaType;
+        itemNames = fixture.itemNames;
+        itemValues = fixture.itemValues;
+        composite = new CompositeValueSupport(metaType, itemNames, itemValues);
+    }
+
+    @Benchmark
+    public CompositeValueSupport construct() {
+        return new CompositeValueSupport(metaType, itemNames, itemValues);
+    }
+
+    @Benchmark
+    public MetaValue get() {
+        final String name = itemNames[cursor++ % itemNames.length];
+        return composite.get(name);
+    }
+
+    @Benchmark
+    public CompositeValueSupport set() {
+        final int i = cursor++ % itemNames.length;
+        composite.set(itemNames[i], itemValues[i]);
+        return composite;
+    }
+
+    @Benchmark
+    public int hash() {
+        return new CompositeValueSupport(metaType, itemNames, itemValues).hashCode();
+    }
+
+    static final class CompositeFixture {
+
+        final CompositeMetaType metaType;
+        final String[] itemNames;
+        final MetaValue[] itemValues;
+
+        CompositeFixture(final int items) {
+            final CompositeTypeBuilder builder = MetaTypeFactory.compositeTypeBuilder("bench");
+            itemNames = new String[items];
+            itemValues = new MetaValue[items];
+            for(int i = 0; i < items; i++) {
+                final String name = "item" + i;
+                if(i % 2 == 0) {
+                    builder.addItem(name, SimpleMetaType.STRING);
+                    itemValues[i] = SimpleValueSupport.wrap("value" + i);
+                } else {
+                    builder.addItem(name, SimpleMetaType.INTEGER);
+                    itemValues[i] = SimpleValueSupport.wrap(i);
+                }
+                itemNames[i] = name;
+            }
+            metaType = builder.create();
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SimpleValueSupport#create(Object, SimpleMetaType)} conversion benchmarks.
+ *
+ * @author Emanuel Muckenhuber
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleValueBenchmark {
+
+    private String intString = "12345";
+    private String longString = "1234567890123";
+    private String doubleString = "3.14159";
+    private String booleanString = "true";
+    private Integer boxedInt = Integer.valueOf(42);
+    private Long boxedLong = Long.valueOf(42L);
+    private BigDecimal decimal = new BigDecimal("42.5");
+
+    @Benchmark
+    public SimpleValue stringToInteger() {
+        return SimpleValueSupport.create(intString, SimpleMetaType.INTEGER);
+    }
+
+    @Benchmark
+    public SimpleValue stringToIntegerPrimitive() {
+        return SimpleValueSupport.create(intString, SimpleMetaType.INTEGER_PRIMITIVE);
+    }
+
+    @Benchmark
+    public SimpleValue stringToLong() {
+        return SimpleValueSupport.create(longString, SimpleMetaType.LONG);
+    }
+
+    @Benchmark
+    public SimpleValue stringToDouble() {
+        return SimpleValueSupport.create(doubleString, SimpleMetaType.DOUBLE);
+    }
+
+    @Benchmark
+    public SimpleValue stringToBoolean() {
+        return SimpleValueSupport.create(booleanString, SimpleMetaType.BOOLEAN);
+    }
+
+    @Benchmark
+    public SimpleValue stringToString() {
+        return SimpleValueSupport.create(intString, SimpleMetaType.STRING);
+    }
+
+    @Benchmark
+    public SimpleValue integerToLong() {
+        return SimpleValueSupport.create(boxedInt, SimpleMetaType.LONG);
+    }
+
+    @Benchmark
+    public SimpleValue longToString() {
+        return SimpleValueSupport.create(boxedLong, SimpleMetaType.STRING);
+    }
+
+    @Benchmark
+    public SimpleValue bigDecimalToDouble() {
+        return SimpleValueSupport.create(decimal, SimpleMetaType.DOUBLE);
+    }
+
+    @Benchmark
+    public SimpleValue wrapInt() {
+        return SimpleValueSupport.wrap(boxedInt.intValue());
+    }
+
+    @Benchmark
+    public SimpleValue wrapBoolean() {
+        return SimpleValueSupport.wrap(true);
+    }
+
+}
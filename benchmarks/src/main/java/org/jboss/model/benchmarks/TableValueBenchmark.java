@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.TableMetaType;
+import org.jboss.model.types.builders.MetaTypeFactory;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.CompositeValueSupport;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.model.values.TableValueSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link TableValueSupport} put and lookup benchmarks.
+ *
+ * @author Emanuel Muckenhuber
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableValueBenchmark {
+
+    @Param({"16", "1024"})
+    private int rows;
+
+    private TableMetaType metaType;
+    private CompositeValue[] values;
+    private MetaValue[][] keys;
+    private TableValueSupport table;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        metaType = MetaTypeFactory.tableTypeBuilder("bench")
+            .addIndexColumn("name", SimpleMetaType.STRING)
+            .addColumn("count", SimpleMetaType.INTEGER)
+            .addColumn("enabled", SimpleMetaType.BOOLEAN)
+            .create();
+        final String[] itemNames = new String[] { "name", "count", "enabled" };
+        values = new CompositeValue[rows];
+        keys = new MetaValue[rows][];
+        table = new TableValueSupport(metaType);
+        for(int i = 0; i < rows; i++) {
+            final MetaValue[] itemValues = new MetaValue[] {
+                    SimpleValueSupport.wrap("row" + i), SimpleValueSupport.wrap(i), SimpleValueSupport.wrap(i % 2 == 0) };
+            values[i] = new CompositeValueSupport(metaType.getRowType(), itemNames, itemValues);
+            keys[i] = new MetaValue[] { SimpleValueSupport.wrap("row" + i) };
+            table.put(values[i]);
+        }
+    }
+
+    @Benchmark
+    public TableValueSupport putAll() {
+        final TableValueSupport t = new TableValueSupport(metaType);
+        for(final CompositeValue value : values) {
+            t.put(value);
+        }
+        return t;
+    }
+
+    @Benchmark
+    public CompositeValue get() {
+        return table.get(keys[cursor++ % keys.length]);
+    }
+
+    @Benchmark
+    public boolean containsKey() {
+        return table.containsKey(keys[cursor++ % keys.length]);
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.binary;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.SimpleTypes;
+
+/**
+ * The constants of the binary {@code MetaType} / {@code MetaValue} format.
+ *
+ * <pre>
+ * stream    := MAGIC VERSION (type | value)*
+ * type      := T_NULL | T_SIMPLE index | T_REF id | T_xxx definition
+ * value     := V_NULL | V_EMPTY | V_VALUE content
+ * </pre>
+ *
+ * Every non simple type gets the next id of the stream once its definition has been written,
+ * following references to the same type are written as {@link #T_REF} and the id.
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class BinaryFormat implements SimpleTypes {
+
+    static final int MAGIC = 0x4D56;
+    static final int VERSION = 1;
+
+    // types
+    static final int T_NULL = 0;
+    static final int T_SIMPLE = 1;
+    static final int T_REF = 2;
+    static final int T_ENUM = 3;
+    static final int T_ARRAY = 4;
+    static final int T_COLLECTION = 5;
+    static final int T_COMPOSITE = 6;
+    static final int T_MUTABLE_COMPOSITE = 7;
+    static final int T_TABLE = 8;
+    static final int T_COMPOSITE_MAP = 9;
+    static final int T_MAP = 10;
+
+    // values
+    static final int V_NULL = 0;
+    /** A simple or enum value wrapping <code>null</code> */
+    static final int V_EMPTY = 1;
+    static final int V_VALUE = 2;
+
+    // arrays
+    static final int A_NULL = 0;
+    static final int A_OBJECT = 1;
+    static final int A_BOOLEAN = 2;
+    static final int A_BYTE = 3;
+    static final int A_CHAR = 4;
+    static final int A_SHORT = 5;
+    static final int A_INT = 6;
+    static final int A_LONG = 7;
+    static final int A_FLOAT = 8;
+    static final int A_DOUBLE = 9;
+
+    // array elements
+    static final int E_NULL = 0;
+    static final int E_VALUE = 1;
+    static final int E_ARRAY = 2;
+    static final int E_OBJECT = 3;
+
+    /** The simple types, the index is part of the format and must not be changed */
+    static final SimpleMetaType[] SIMPLE_TYPES = new SimpleMetaType[] {
+        VOID, STRING, DATE, BIGDECIMAL, BIGINTEGER,
+        BOOLEAN, BOOLEAN_PRIMITIVE, BYTE, BYTE_PRIMITIVE, CHARACTER, CHARACTER_PRIMITIVE,
+        SHORT, SHORT_PRIMITIVE, INTEGER, INTEGER_PRIMITIVE, LONG, LONG_PRIMITIVE,
+        FLOAT, FLOAT_PRIMITIVE, DOUBLE, DOUBLE_PRIMITIVE
+    };
+
+    private static final Map<SimpleMetaType, Integer> SIMPLE_INDEXES = new IdentityHashMap<SimpleMetaType, Integer>();
+
+    static {
+        for(int i = 0; i < SIMPLE_TYPES.length; i++) {
+            SIMPLE_INDEXES.put(SIMPLE_TYPES[i], i);
+        }
+    }
+
+    private BinaryFormat() {
+        //
+    }
+
+    static int indexOf(final SimpleMetaType metaType) {
+        final Integer index = SIMPLE_INDEXES.get(metaType);
+        if(index == null) {
+            throw new IllegalArgumentException("unknown simple type " + metaType);
+        }
+        return index.intValue();
+    }
+
+}
@@ -0,0 +1,549 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.binary;
+
+import static org.jboss.model.binary.BinaryFormat.*;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.CollectionMetaType;
+import org.jboss.model.types.CompositeMapMetaType;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.EnumMetaType;
+import org.jboss.model.types.ImmutableCompositeMetaType;
+import org.jboss.model.types.ImmutableTableMetaType;
+import org.jboss.model.types.MapMetaType;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MutableCompositeMetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.TableMetaType;
+import org.jboss.model.values.ByteValueSupport;
+import org.jboss.model.values.CharacterValueSupport;
+import org.jboss.model.values.CollectionValueSupport;
+import org.jboss.model.values.CompactCompositeValueSupport;
+import org.jboss.model.values.CompositeMapValue;
+import org.jboss.model.values.CompositeMapValueSupport;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.DoubleValueSupport;
+import org.jboss.model.values.EnumValueSupport;
+import org.jboss.model.values.FloatValueSupport;
+import org.jboss.model.values.ImmutableSimpleValueSupport;
+import org.jboss.model.values.MapValue;
+import org.jboss.model.values.MapValueSupport;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.MetaValueFactory;
+import org.jboss.model.values.ShortValueSupport;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.TableValue;
+import org.jboss.model.values.TableValueSupport;
+
+/**
+ * Binary {@code MetaType} / {@code MetaValue} reader, for the output of a
+ * {@link MetaValueBinaryWriter}. Simple values are created as immutable values, common values
+ * are shared.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class BinaryMetaValueReader {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final DataInput input;
+    private final List<MetaType> types = new ArrayList<MetaType>();
+
+    /**
+     * Create a new reader and read the stream header.
+     *
+     * @param input the data input
+     * @throws IOException
+     * @throws StreamCorruptedException if the stream header is invalid or the version is not supported
+     */
+    public BinaryMetaValueReader(final DataInput input) throws IOException {
+        if(input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        this.input = input;
+        final int magic = input.readUnsignedShort();
+        if(magic != MAGIC) {
+            throw new StreamCorruptedException("invalid stream header " + Integer.toHexString(magic));
+        }
+        final int version = input.readUnsignedByte();
+        if(version > VERSION) {
+            throw new StreamCorruptedException("unsupported version " + version);
+        }
+    }
+
+    /**
+     * Read a meta type.
+     *
+     * @return the meta type, can be <code>null</code>
+     * @throws IOException
+     */
+    public MetaType readMetaType() throws IOException {
+        return readType();
+    }
+
+    /**
+     * Read a meta value, written together with its meta type.
+     *
+     * @return the meta value, can be <code>null</code>
+     * @throws IOException
+     */
+    public MetaValue read() throws IOException {
+        final MetaType metaType = readType();
+        if(metaType == null) {
+            return null;
+        }
+        return readValue(metaType);
+    }
+
+    /**
+     * Read a meta value, written without its meta type.
+     *
+     * @param metaType the meta type
+     * @return the meta value, can be <code>null</code>
+     * @throws IOException
+     */
+    public MetaValue read(final MetaType metaType) throws IOException {
+        if(metaType == null) {
+            throw new IllegalArgumentException("null meta type");
+        }
+        return readValue(metaType);
+    }
+
+    MetaType readType() throws IOException {
+        final int tag = input.readUnsignedByte();
+        final MetaType metaType;
+        switch(tag) {
+            case T_NULL:
+                return null;
+            case T_SIMPLE:
+                return readSimpleType();
+            case T_REF:
+                final int id = readCount();
+                if(id >= types.size()) {
+                    throw new StreamCorruptedException("invalid type reference " + id);
+                }
+                return types.get(id);
+            case T_ENUM: {
+                final String className = readString();
+                final int size = readCount();
+                final List<String> validValues = new ArrayList<String>(size);
+                for(int i = 0; i < size; i++) {
+                    validValues.add(readString());
+                }
+                metaType = new EnumMetaType(className, validValues);
+                break;
+            }
+            case T_ARRAY: {
+                final int dimension = readCount();
+                final boolean primitiveArray = input.readBoolean();
+                metaType = new ArrayMetaType(dimension, readType(), primitiveArray);
+                break;
+            }
+            case T_COLLECTION: {
+                final String className = readString();
+                final String typeName = readString();
+                final String description = readString();
+                metaType = new CollectionMetaType(className, typeName, description, readType());
+                break;
+            }
+            case T_COMPOSITE:
+            case T_MUTABLE_COMPOSITE: {
+                final String typeName = readString();
+                final String description = readString();
+                final int size = readCount();
+                final String[] itemNames = new String[size];
+                final String[] itemDescriptions = new String[size];
+                final MetaType[] itemTypes = new MetaType[size];
+                for(int i = 0; i < size; i++) {
+                    itemNames[i] = readString();
+                    itemDescriptions[i] = readString();
+                    itemTypes[i] = readType();
+                }
+                if(tag == T_COMPOSITE) {
+                    metaType = new ImmutableCompositeMetaType(typeName, description, itemNames, itemDescriptions, itemTypes);
+                } else {
+                    final MutableCompositeMetaType compositeType = new MutableCompositeMetaType(typeName, description);
+                    for(int i = 0; i < size; i++) {
+                        compositeType.addItem(itemNames[i], itemDescriptions[i], itemTypes[i]);
+                    }
+                    final int keys = readCount();
+                    if(keys > 0) {
+                        final Set<String> keySet = new LinkedHashSet<String>();
+                        for(int i = 0; i < keys; i++) {
+                            keySet.add(readString());
+                        }
+                        compositeType.setKeys(keySet);
+                    }
+                    if(input.readBoolean()) {
+                        compositeType.freeze();
+                    }
+                    metaType = compositeType;
+                }
+                break;
+            }
+            case T_TABLE: {
+                final String typeName = readString();
+                final String description = readString();
+                final CompositeMetaType rowType = readType(CompositeMetaType.class);
+                final int size = readCount();
+                final String[] indexNames = new String[size];
+                for(int i = 0; i < size; i++) {
+                    indexNames[i] = readString();
+                }
+                metaType = new ImmutableTableMetaType(typeName, description, rowType, indexNames);
+                break;
+            }
+            case T_COMPOSITE_MAP: {
+                final String indexName = readString();
+                final String description = readString();
+                metaType = new CompositeMapMetaType(readType(CompositeMetaType.class), indexName, description);
+                break;
+            }
+            case T_MAP: {
+                final MetaType keyType = readType();
+                metaType = new MapMetaType(keyType, readType());
+                break;
+            }
+            default:
+                throw new StreamCorruptedException("invalid type " + tag);
+        }
+        types.add(metaType);
+        return metaType;
+    }
+
+    <T extends MetaType> T readType(final Class<T> expected) throws IOException {
+        final MetaType metaType = readType();
+        if(expected.isInstance(metaType) == false) {
+            throw new StreamCorruptedException("expected " + expected.getSimpleName() + " but was " + metaType);
+        }
+        return expected.cast(metaType);
+    }
+
+    SimpleMetaType readSimpleType() throws IOException {
+        final int index = input.readUnsignedByte();
+        if(index >= SIMPLE_TYPES.length) {
+            throw new StreamCorruptedException("invalid simple type " + index);
+        }
+        return SIMPLE_TYPES[index];
+    }
+
+    MetaValue readValue(final MetaType metaType) throws IOException {
+        final int tag = input.readUnsignedByte();
+        if(tag == V_NULL) {
+            return null;
+        } else if (tag == V_EMPTY) {
+            if(metaType.isSimple()) {
+                return new ImmutableSimpleValueSupport(metaType.as(SimpleMetaType.class), null);
+            } else if (metaType.isEnum()) {
+                return new EnumValueSupport(metaType.as(EnumMetaType.class), (String) null);
+            }
+        } else if (tag == V_VALUE) {
+            if(metaType.isSimple()) {
+                return readSimple(metaType.as(SimpleMetaType.class));
+            } else if (metaType.isEnum()) {
+                final EnumMetaType enumType = metaType.as(EnumMetaType.class);
+                final int index = readCount();
+                if(index == 0) {
+                    return new EnumValueSupport(enumType, readString());
+                }
+                final List<String> validValues = enumType.getValidValues();
+                if(index > validValues.size()) {
+                    throw new StreamCorruptedException("invalid enum index " + index + " for " + enumType);
+                }
+                return new EnumValueSupport(enumType, validValues.get(index - 1));
+            } else if (metaType.isArray()) {
+                return MetaValueFactory.createArray(readArray(), metaType.as(ArrayMetaType.class));
+            } else if (metaType.isCollection()) {
+                final CollectionMetaType collectionType = metaType.as(CollectionMetaType.class);
+                final MetaType elementType = collectionType.getElementType();
+                final int size = readCount();
+                final List<MetaValue> elements = new ArrayList<MetaValue>(size);
+                for(int i = 0; i < size; i++) {
+                    elements.add(readValue(elementType));
+                }
+                return new CollectionValueSupport(collectionType, elements);
+            } else if (metaType.isComposite()) {
+                return readComposite(metaType.as(CompositeMetaType.class));
+            } else if (metaType.isTable()) {
+                final TableMetaType tableType = metaType.as(TableMetaType.class);
+                final CompositeMetaType rowType = tableType.getRowType();
+                final TableValue table = new TableValueSupport(tableType);
+                final int size = readCount();
+                for(int i = 0; i < size; i++) {
+                    table.put(readComposite(rowType));
+                }
+                return table;
+            } else if (metaType instanceof CompositeMapMetaType) {
+                final CompositeMapMetaType mapType = metaType.as(CompositeMapMetaType.class);
+                final CompositeMetaType entryType = mapType.getEntryType();
+                final CompositeMapValue map = new CompositeMapValueSupport(mapType);
+                final int size = readCount();
+                for(int i = 0; i < size; i++) {
+                    map.put(readComposite(entryType));
+                }
+                return map;
+            } else if (metaType instanceof MapMetaType) {
+                final MapMetaType mapType = metaType.as(MapMetaType.class);
+                final MapValue map = new MapValueSupport(mapType);
+                final int size = readCount();
+                for(int i = 0; i < size; i++) {
+                    final MetaValue key = readValue(mapType.getKeyType());
+                    map.put(key, readValue(mapType.getValueType()));
+                }
+                return map;
+            }
+            throw new IllegalArgumentException("unknown meta type " + metaType);
+        }
+        throw new StreamCorruptedException("invalid value " + tag + " for " + metaType);
+    }
+
+    CompositeValue readComposite(final CompositeMetaType metaType) throws IOException {
+        final CompactCompositeValueSupport value = new CompactCompositeValueSupport(metaType);
+        for(final String itemName : metaType.itemSet()) {
+            final MetaValue itemValue = readValue(metaType.getType(itemName));
+            if(itemValue != null) {
+                value.set(itemName, itemValue);
+            }
+        }
+        return value;
+    }
+
+    SimpleValue readSimple(final SimpleMetaType metaType) throws IOException {
+        if(metaType == STRING) {
+            return SimpleValue.Factory.createImmutable(readString(), STRING);
+        } else if (metaType == BOOLEAN || metaType == BOOLEAN_PRIMITIVE) {
+            return SimpleValue.Factory.createImmutable(Boolean.valueOf(input.readBoolean()), metaType);
+        } else if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            return SimpleValue.Factory.createImmutable(Integer.valueOf(decode(readVarInt())), metaType);
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            return SimpleValue.Factory.createImmutable(Long.valueOf(decode(readVarLong())), metaType);
+        } else if (metaType == DOUBLE || metaType == DOUBLE_PRIMITIVE) {
+            return new DoubleValueSupport(metaType, input.readDouble());
+        } else if (metaType == FLOAT || metaType == FLOAT_PRIMITIVE) {
+            return new FloatValueSupport(metaType, input.readFloat());
+        } else if (metaType == SHORT || metaType == SHORT_PRIMITIVE) {
+            return new ShortValueSupport(metaType, input.readShort());
+        } else if (metaType == BYTE || metaType == BYTE_PRIMITIVE) {
+            return new ByteValueSupport(metaType, input.readByte());
+        } else if (metaType == CHARACTER || metaType == CHARACTER_PRIMITIVE) {
+            return new CharacterValueSupport(metaType, input.readChar());
+        }
+        return new ImmutableSimpleValueSupport(metaType, (Serializable) readObject(metaType));
+    }
+
+    /**
+     * Read a plain simple object.
+     */
+    Object readObject(final SimpleMetaType metaType) throws IOException {
+        if(metaType == STRING) {
+            return readString();
+        } else if (metaType == BOOLEAN || metaType == BOOLEAN_PRIMITIVE) {
+            return Boolean.valueOf(input.readBoolean());
+        } else if (metaType == BYTE || metaType == BYTE_PRIMITIVE) {
+            return Byte.valueOf(input.readByte());
+        } else if (metaType == CHARACTER || metaType == CHARACTER_PRIMITIVE) {
+            return Character.valueOf(input.readChar());
+        } else if (metaType == SHORT || metaType == SHORT_PRIMITIVE) {
+            return Short.valueOf(input.readShort());
+        } else if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            return Integer.valueOf(decode(readVarInt()));
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            return Long.valueOf(decode(readVarLong()));
+        } else if (metaType == FLOAT || metaType == FLOAT_PRIMITIVE) {
+            return Float.valueOf(input.readFloat());
+        } else if (metaType == DOUBLE || metaType == DOUBLE_PRIMITIVE) {
+            return Double.valueOf(input.readDouble());
+        } else if (metaType == DATE) {
+            return new Date(input.readLong());
+        } else if (metaType == BIGINTEGER) {
+            return new BigInteger(readBytes());
+        } else if (metaType == BIGDECIMAL) {
+            final BigInteger unscaled = new BigInteger(readBytes());
+            return new BigDecimal(unscaled, decode(readVarInt()));
+        }
+        return null;
+    }
+
+    Object readArray() throws IOException {
+        final int tag = input.readUnsignedByte();
+        if(tag == A_NULL) {
+            return null;
+        }
+        final int length = readCount();
+        switch(tag) {
+            case A_OBJECT: {
+                final Object[] objects = new Object[length];
+                for(int i = 0; i < length; i++) {
+                    objects[i] = readElement();
+                }
+                return objects;
+            }
+            case A_BOOLEAN: {
+                final boolean[] booleans = new boolean[length];
+                for(int i = 0; i < length; i++) {
+                    booleans[i] = input.readBoolean();
+                }
+                return booleans;
+            }
+            case A_BYTE: {
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                return bytes;
+            }
+            case A_CHAR: {
+                final char[] chars = new char[length];
+                for(int i = 0; i < length; i++) {
+                    chars[i] = input.readChar();
+                }
+                return chars;
+            }
+            case A_SHORT: {
+                final short[] shorts = new short[length];
+                for(int i = 0; i < length; i++) {
+                    shorts[i] = input.readShort();
+                }
+                return shorts;
+            }
+            case A_INT: {
+                final int[] ints = new int[length];
+                for(int i = 0; i < length; i++) {
+                    ints[i] = decode(readVarInt());
+                }
+                return ints;
+            }
+            case A_LONG: {
+                final long[] longs = new long[length];
+                for(int i = 0; i < length; i++) {
+                    longs[i] = decode(readVarLong());
+                }
+                return longs;
+            }
+            case A_FLOAT: {
+                final float[] floats = new float[length];
+                for(int i = 0; i < length; i++) {
+                    floats[i] = input.readFloat();
+                }
+                return floats;
+            }
+            case A_DOUBLE: {
+                final double[] doubles = new double[length];
+                for(int i = 0; i < length; i++) {
+                    doubles[i] = input.readDouble();
+                }
+                return doubles;
+            }
+            default:
+                throw new StreamCorruptedException("invalid array " + tag);
+        }
+    }
+
+    Object readElement() throws IOException {
+        final int tag = input.readUnsignedByte();
+        switch(tag) {
+            case E_NULL:
+                return null;
+            case E_VALUE:
+                return read();
+            case E_ARRAY:
+                return readArray();
+            case E_OBJECT:
+                return readObject(readSimpleType());
+            default:
+                throw new StreamCorruptedException("invalid array element " + tag);
+        }
+    }
+
+    String readString() throws IOException {
+        final int length = readCount();
+        if(length == 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length - 1];
+        input.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    byte[] readBytes() throws IOException {
+        final byte[] bytes = new byte[readCount()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read a non negative var-int, like a size or an index.
+     */
+    int readCount() throws IOException {
+        final int count = readVarInt();
+        if(count < 0) {
+            throw new StreamCorruptedException("invalid size " + count);
+        }
+        return count;
+    }
+
+    int readVarInt() throws IOException {
+        int result = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            final int b = input.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("malformed var-int");
+    }
+
+    long readVarLong() throws IOException {
+        long result = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            final int b = input.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("malformed var-long");
+    }
+
+    static int decode(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long decode(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
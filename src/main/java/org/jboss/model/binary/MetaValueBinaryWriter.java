@@ -0,0 +1,517 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.binary;
+
+import static org.jboss.model.binary.BinaryFormat.*;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.CollectionMetaType;
+import org.jboss.model.types.CompositeMapMetaType;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.EnumMetaType;
+import org.jboss.model.types.MapMetaType;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
+import org.jboss.model.types.MutableCompositeMetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.TableMetaType;
+import org.jboss.model.values.ArrayValue;
+import org.jboss.model.values.BooleanValueSupport;
+import org.jboss.model.values.ByteValueSupport;
+import org.jboss.model.values.CollectionValue;
+import org.jboss.model.values.CompositeMapValue;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.DoubleValueSupport;
+import org.jboss.model.values.EnumValue;
+import org.jboss.model.values.FloatValueSupport;
+import org.jboss.model.values.IntValueSupport;
+import org.jboss.model.values.LongValueSupport;
+import org.jboss.model.values.MapValue;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.ShortValueSupport;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.TableValue;
+
+/**
+ * Binary {@code MetaType} / {@code MetaValue} writer. Values are written guided by their
+ * {@code MetaType}, so a composite value only contains the item values and not the item names.
+ * Every {@code MetaType} except the simple types is written once per stream, following uses of
+ * the same type are written as a reference. Types which can no longer change are matched by
+ * equality, so equal instances are only written once, while a {@link MutableCompositeMetaType}
+ * which is not frozen yet is matched by identity. The output can be read using a
+ * {@link BinaryMetaValueReader}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class MetaValueBinaryWriter {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final DataOutput output;
+    /** The ids of the written types by identity. */
+    private final Map<MetaType, Integer> types = new IdentityHashMap<MetaType, Integer>();
+    /** The ids of the written stable types by equality. */
+    private final Map<MetaType, Integer> stableTypes = new HashMap<MetaType, Integer>();
+    private int nextId;
+
+    /**
+     * Create a new writer and write the stream header.
+     *
+     * @param output the data output
+     * @throws IOException
+     */
+    public MetaValueBinaryWriter(final DataOutput output) throws IOException {
+        if(output == null) {
+            throw new IllegalArgumentException("null output");
+        }
+        this.output = output;
+        output.writeShort(MAGIC);
+        output.writeByte(VERSION);
+    }
+
+    /**
+     * Write a meta type.
+     *
+     * @param metaType the meta type, can be <code>null</code>
+     * @return this
+     * @throws IOException
+     */
+    public MetaValueBinaryWriter writeMetaType(final MetaType metaType) throws IOException {
+        writeType(metaType);
+        return this;
+    }
+
+    /**
+     * Write a meta value together with its meta type.
+     *
+     * @param value the meta value, can be <code>null</code>
+     * @return this
+     * @throws IOException
+     */
+    public MetaValueBinaryWriter write(final MetaValue value) throws IOException {
+        if(value == null) {
+            writeType(null);
+        } else {
+            final MetaType metaType = value.getMetaType();
+            writeType(metaType);
+            writeValue(value, metaType);
+        }
+        return this;
+    }
+
+    /**
+     * Write a meta value without its meta type. The value needs to be read using the same
+     * meta type.
+     *
+     * @param value the meta value, can be <code>null</code>
+     * @param metaType the meta type
+     * @return this
+     * @throws IOException
+     */
+    public MetaValueBinaryWriter write(final MetaValue value, final MetaType metaType) throws IOException {
+        if(metaType == null) {
+            throw new IllegalArgumentException("null meta type");
+        }
+        writeValue(value, metaType);
+        return this;
+    }
+
+    void writeType(final MetaType metaType) throws IOException {
+        if(metaType == null) {
+            output.writeByte(T_NULL);
+            return;
+        }
+        if(metaType instanceof SimpleMetaType) {
+            output.writeByte(T_SIMPLE);
+            output.writeByte(indexOf((SimpleMetaType) metaType));
+            return;
+        }
+        Integer id = types.get(metaType);
+        final boolean stable = id == null && MetaTypeValidators.isStable(metaType);
+        if(stable) {
+            id = stableTypes.get(metaType);
+            if(id != null) {
+                types.put(metaType, id);
+            }
+        }
+        if(id != null) {
+            output.writeByte(T_REF);
+            writeVarInt(id.intValue());
+            return;
+        }
+        if(metaType instanceof EnumMetaType) {
+            final List<String> validValues = ((EnumMetaType) metaType).getValidValues();
+            output.writeByte(T_ENUM);
+            writeString(metaType.getTypeName());
+            writeVarInt(validValues.size());
+            for(final String validValue : validValues) {
+                writeString(validValue);
+            }
+        } else if (metaType instanceof ArrayMetaType) {
+            final ArrayMetaType arrayType = (ArrayMetaType) metaType;
+            output.writeByte(T_ARRAY);
+            writeVarInt(arrayType.getDimension());
+            output.writeBoolean(arrayType.isPrimitiveArray());
+            writeType(arrayType.getElementType());
+        } else if (metaType instanceof CollectionMetaType) {
+            output.writeByte(T_COLLECTION);
+            writeString(metaType.getClassName());
+            writeString(metaType.getTypeName());
+            writeString(metaType.getDescription());
+            writeType(((CollectionMetaType) metaType).getElementType());
+        } else if (metaType instanceof CompositeMetaType) {
+            final CompositeMetaType compositeType = (CompositeMetaType) metaType;
+            final boolean mutable = metaType instanceof MutableCompositeMetaType;
+            output.writeByte(mutable ? T_MUTABLE_COMPOSITE : T_COMPOSITE);
+            writeString(metaType.getTypeName());
+            writeString(metaType.getDescription());
+            final Set<String> itemNames = compositeType.itemSet();
+            writeVarInt(itemNames.size());
+            for(final String itemName : itemNames) {
+                writeString(itemName);
+                writeString(compositeType.getDescription(itemName));
+                writeType(compositeType.getType(itemName));
+            }
+            if(mutable) {
+                final Set<String> keys = compositeType.keySet();
+                if(keys.equals(itemNames)) {
+                    writeVarInt(0);
+                } else {
+                    writeVarInt(keys.size());
+                    for(final String key : keys) {
+                        writeString(key);
+                    }
+                }
+                output.writeBoolean(((MutableCompositeMetaType) metaType).isFrozen());
+            }
+        } else if (metaType instanceof TableMetaType) {
+            final TableMetaType tableType = (TableMetaType) metaType;
+            output.writeByte(T_TABLE);
+            writeString(metaType.getTypeName());
+            writeString(metaType.getDescription());
+            writeType(tableType.getRowType());
+            final List<String> indexNames = tableType.getIndexNames();
+            writeVarInt(indexNames.size());
+            for(final String indexName : indexNames) {
+                writeString(indexName);
+            }
+        } else if (metaType instanceof CompositeMapMetaType) {
+            final CompositeMapMetaType mapType = (CompositeMapMetaType) metaType;
+            output.writeByte(T_COMPOSITE_MAP);
+            writeString(mapType.getIndexName());
+            writeString(metaType.getDescription());
+            writeType(mapType.getEntryType());
+        } else if (metaType instanceof MapMetaType) {
+            final MapMetaType mapType = (MapMetaType) metaType;
+            output.writeByte(T_MAP);
+            writeType(mapType.getKeyType());
+            writeType(mapType.getValueType());
+        } else {
+            throw new IllegalArgumentException("unknown meta type " + metaType);
+        }
+        // nested types got their ids first, the same as when reading
+        final Integer assigned = Integer.valueOf(nextId++);
+        types.put(metaType, assigned);
+        if(stable) {
+            stableTypes.put(metaType, assigned);
+        }
+    }
+
+    void writeValue(final MetaValue value, final MetaType metaType) throws IOException {
+        if(value == null) {
+            output.writeByte(V_NULL);
+        } else if (metaType.isSimple()) {
+            final SimpleValue simple = value.as(SimpleValue.class);
+            if(isPrimitive(simple) == false && simple.getValue() == null) {
+                output.writeByte(V_EMPTY);
+            } else {
+                output.writeByte(V_VALUE);
+                writeSimple(simple, metaType.as(SimpleMetaType.class));
+            }
+        } else if (metaType.isEnum()) {
+            final String name = value.as(EnumValue.class).getValue();
+            if(name == null) {
+                output.writeByte(V_EMPTY);
+            } else {
+                output.writeByte(V_VALUE);
+                // the index of the valid value, 0 followed by the name for an unknown value
+                final int index = metaType.as(EnumMetaType.class).getValidValues().indexOf(name);
+                writeVarInt(index + 1);
+                if(index < 0) {
+                    writeString(name);
+                }
+            }
+        } else if (metaType.isArray()) {
+            output.writeByte(V_VALUE);
+            writeArray(value.as(ArrayValue.class).getValue());
+        } else if (metaType.isCollection()) {
+            final CollectionValue collection = value.as(CollectionValue.class);
+            final MetaType elementType = metaType.as(CollectionMetaType.class).getElementType();
+            output.writeByte(V_VALUE);
+            writeVarInt(collection.size());
+            for(final MetaValue element : collection) {
+                writeValue(element, elementType);
+            }
+        } else if (metaType.isComposite()) {
+            output.writeByte(V_VALUE);
+            writeComposite(value.as(CompositeValue.class), metaType.as(CompositeMetaType.class));
+        } else if (metaType.isTable()) {
+            final TableValue table = value.as(TableValue.class);
+            final CompositeMetaType rowType = metaType.as(TableMetaType.class).getRowType();
+            output.writeByte(V_VALUE);
+            writeVarInt(table.size());
+            for(final CompositeValue row : table) {
+                writeComposite(row, rowType);
+            }
+        } else if (metaType instanceof CompositeMapMetaType) {
+            final CompositeMapValue map = value.as(CompositeMapValue.class);
+            final CompositeMetaType entryType = metaType.as(CompositeMapMetaType.class).getEntryType();
+            output.writeByte(V_VALUE);
+            writeVarInt(map.size());
+            for(final CompositeValue entry : map.values()) {
+                writeComposite(entry, entryType);
+            }
+        } else if (metaType instanceof MapMetaType) {
+            final MapValue map = value.as(MapValue.class);
+            final MapMetaType mapType = metaType.as(MapMetaType.class);
+            output.writeByte(V_VALUE);
+            writeVarInt(map.size());
+            for(final Map.Entry<MetaValue, MetaValue> entry : map.entrySet()) {
+                writeValue(entry.getKey(), mapType.getKeyType());
+                writeValue(entry.getValue(), mapType.getValueType());
+            }
+        } else {
+            throw new IllegalArgumentException("unknown meta type " + metaType);
+        }
+    }
+
+    void writeComposite(final CompositeValue value, final CompositeMetaType metaType) throws IOException {
+        for(final String itemName : metaType.itemSet()) {
+            writeValue(value.get(itemName), metaType.getType(itemName));
+        }
+    }
+
+    void writeSimple(final SimpleValue value, final SimpleMetaType metaType) throws IOException {
+        if(isPrimitive(value) == false) {
+            writeObject(value.getValue(), metaType);
+        } else if (metaType == BOOLEAN || metaType == BOOLEAN_PRIMITIVE) {
+            output.writeBoolean(value.booleanValue());
+        } else if (metaType == BYTE || metaType == BYTE_PRIMITIVE) {
+            output.writeByte(value.intValue());
+        } else if (metaType == SHORT || metaType == SHORT_PRIMITIVE) {
+            output.writeShort(value.intValue());
+        } else if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            writeVarInt(encode(value.intValue()));
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            writeVarLong(encode(value.longValue()));
+        } else if (metaType == FLOAT || metaType == FLOAT_PRIMITIVE) {
+            output.writeFloat(value.floatValue());
+        } else if (metaType == DOUBLE || metaType == DOUBLE_PRIMITIVE) {
+            output.writeDouble(value.doubleValue());
+        } else {
+            writeObject(value.getValue(), metaType);
+        }
+    }
+
+    /**
+     * Write a plain, non <code>null</code>, simple object.
+     */
+    void writeObject(final Object value, final SimpleMetaType metaType) throws IOException {
+        if(metaType == STRING) {
+            writeString(value.toString());
+        } else if (metaType == BOOLEAN || metaType == BOOLEAN_PRIMITIVE) {
+            output.writeBoolean(((Boolean) value).booleanValue());
+        } else if (metaType == BYTE || metaType == BYTE_PRIMITIVE) {
+            output.writeByte(((Number) value).byteValue());
+        } else if (metaType == CHARACTER || metaType == CHARACTER_PRIMITIVE) {
+            output.writeChar(((Character) value).charValue());
+        } else if (metaType == SHORT || metaType == SHORT_PRIMITIVE) {
+            output.writeShort(((Number) value).shortValue());
+        } else if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            writeVarInt(encode(((Number) value).intValue()));
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            writeVarLong(encode(((Number) value).longValue()));
+        } else if (metaType == FLOAT || metaType == FLOAT_PRIMITIVE) {
+            output.writeFloat(((Number) value).floatValue());
+        } else if (metaType == DOUBLE || metaType == DOUBLE_PRIMITIVE) {
+            output.writeDouble(((Number) value).doubleValue());
+        } else if (metaType == DATE) {
+            output.writeLong(((Date) value).getTime());
+        } else if (metaType == BIGINTEGER) {
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (metaType == BIGDECIMAL) {
+            final BigDecimal decimal = (BigDecimal) value;
+            writeBytes(decimal.unscaledValue().toByteArray());
+            writeVarInt(encode(decimal.scale()));
+        } else if (metaType != VOID) {
+            throw new IllegalArgumentException("unknown simple type " + metaType);
+        }
+    }
+
+    void writeArray(final Object array) throws IOException {
+        if(array == null) {
+            output.writeByte(A_NULL);
+        } else if (array instanceof Object[]) {
+            final Object[] objects = (Object[]) array;
+            output.writeByte(A_OBJECT);
+            writeVarInt(objects.length);
+            for(final Object element : objects) {
+                writeElement(element);
+            }
+        } else if (array instanceof boolean[]) {
+            final boolean[] booleans = (boolean[]) array;
+            output.writeByte(A_BOOLEAN);
+            writeVarInt(booleans.length);
+            for(final boolean b : booleans) {
+                output.writeBoolean(b);
+            }
+        } else if (array instanceof byte[]) {
+            output.writeByte(A_BYTE);
+            writeBytes((byte[]) array);
+        } else if (array instanceof char[]) {
+            final char[] chars = (char[]) array;
+            output.writeByte(A_CHAR);
+            writeVarInt(chars.length);
+            for(final char c : chars) {
+                output.writeChar(c);
+            }
+        } else if (array instanceof short[]) {
+            final short[] shorts = (short[]) array;
+            output.writeByte(A_SHORT);
+            writeVarInt(shorts.length);
+            for(final short s : shorts) {
+                output.writeShort(s);
+            }
+        } else if (array instanceof int[]) {
+            final int[] ints = (int[]) array;
+            output.writeByte(A_INT);
+            writeVarInt(ints.length);
+            for(final int i : ints) {
+                writeVarInt(encode(i));
+            }
+        } else if (array instanceof long[]) {
+            final long[] longs = (long[]) array;
+            output.writeByte(A_LONG);
+            writeVarInt(longs.length);
+            for(final long l : longs) {
+                writeVarLong(encode(l));
+            }
+        } else if (array instanceof float[]) {
+            final float[] floats = (float[]) array;
+            output.writeByte(A_FLOAT);
+            writeVarInt(floats.length);
+            for(final float f : floats) {
+                output.writeFloat(f);
+            }
+        } else if (array instanceof double[]) {
+            final double[] doubles = (double[]) array;
+            output.writeByte(A_DOUBLE);
+            writeVarInt(doubles.length);
+            for(final double d : doubles) {
+                output.writeDouble(d);
+            }
+        } else {
+            throw new IllegalArgumentException("not an array " + array);
+        }
+    }
+
+    void writeElement(final Object element) throws IOException {
+        if(element == null) {
+            output.writeByte(E_NULL);
+        } else if (element instanceof MetaValue) {
+            final MetaValue value = (MetaValue) element;
+            output.writeByte(E_VALUE);
+            write(value);
+        } else if (element.getClass().isArray()) {
+            output.writeByte(E_ARRAY);
+            writeArray(element);
+        } else {
+            final SimpleMetaType metaType = SimpleMetaType.resolve(element.getClass().getName());
+            output.writeByte(E_OBJECT);
+            output.writeByte(indexOf(metaType));
+            writeObject(element, metaType);
+        }
+    }
+
+    void writeString(final String value) throws IOException {
+        if(value == null) {
+            writeVarInt(0);
+            return;
+        }
+        final byte[] bytes = value.getBytes(UTF_8);
+        writeVarInt(bytes.length + 1);
+        output.write(bytes);
+    }
+
+    void writeBytes(final byte[] bytes) throws IOException {
+        writeVarInt(bytes.length);
+        output.write(bytes);
+    }
+
+    void writeVarInt(int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    void writeVarLong(long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            output.writeByte(((int) value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    /**
+     * Zig-zag encoding, so that small negative numbers have a short var-int representation.
+     */
+    static int encode(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static long encode(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static boolean isPrimitive(final SimpleValue value) {
+        return value instanceof IntValueSupport || value instanceof LongValueSupport
+                || value instanceof DoubleValueSupport || value instanceof BooleanValueSupport
+                || value instanceof FloatValueSupport || value instanceof ShortValueSupport
+                || value instanceof ByteValueSupport;
+    }
+
+}
@@ -35,10 +35,34 @@ public class EntityId implements Comparable<EntityId>, Serializable {
 
     private static final long serialVersionUID = 2737753027936998087L;
 
+    private static final WeakInterner<EntityId> POOL = new WeakInterner<EntityId>();
+    private static final WeakInterner<String> NAMES = new WeakInterner<String>();
+
     private final String elementName;
     private final String idAttributeName;
 
     private final String idAttributeValue;
+    private final transient int hashCode;
+
+    /** The element type, lazily resolved. */
+    private transient volatile EntityIdType elementType;
+
+    /**
+     * Gets the canonical EntityId for the given element name and optional id
+     * attribute. Equal ids share one instance.
+     *
+     * @param elementName
+     *            the name of the element. Cannot be <code>null</code>
+     * @param idAttributeName
+     *            the name of the attribute. Can be <code>null</code>
+     * @param idAttributeValue
+     *            the value of the attribute. Cannot be <code>null</code> if
+     *            <code>idAttributeName</code> is not <code>null</code>
+     * @return the shared instance
+     */
+    public static EntityId create(final String elementName, final String idAttributeName, final String idAttributeValue) {
+        return POOL.intern(new EntityId(intern(elementName), intern(idAttributeName), idAttributeValue));
+    }
 
     /**
      * Parses a string in the format returned by {@link #toString()} back into
@@ -57,29 +81,7 @@ public class EntityId implements Comparable<EntityId>, Serializable {
         if (stringForm == null)
             throw new IllegalArgumentException("stringForm is null");
 
-        int idx = stringForm.indexOf("[@");
-        if (idx == -1) {
-            return new EntityId(stringForm, null, null);
-        } else if (idx == stringForm.length() - 2) {
-            throw new IllegalArgumentException(stringForm + " contains an id "
-                    + "attribute delimiter ('@') but does not contain an id attribute");
-        } else if (!stringForm.endsWith("']")) {
-            throw new IllegalArgumentException(stringForm + " contains an id "
-                    + "attribute delimiter (\"[@'\") but does not property terminate "
-                    + "the id attribute section with \"']");
-        } else {
-            String elementName = stringForm.substring(0, idx);
-            // Trim foo[@bar='baz'] down to bar='baz
-            String idAttrStr = stringForm.substring(idx + 2, stringForm.length() - 2);
-            idx = idAttrStr.indexOf("='");
-            if (idx == -1 || idx == idAttrStr.length() - 2) {
-                throw new IllegalArgumentException(stringForm + " contains an id "
-                        + "attribute section (\"[@'...']\") but does not contain an id attribute value");
-            }
-            String idAttr = idAttrStr.substring(0, idx);
-            String idAttrVal = idAttrStr.substring(idx + 2);
-            return new EntityId(elementName, idAttr, idAttrVal);
-        }
+        return ManagedResourceAddressParser.parseId(stringForm, 0, stringForm.length());
     }
 
     /**
@@ -116,6 +118,31 @@ public class EntityId implements Comparable<EntityId>, Serializable {
         this.elementName = elementName;
         this.idAttributeName = idAttributeName;
         this.idAttributeValue = idAttributeName == null ? null : idAttributeValue;
+        this.hashCode = calculateHashCode();
+    }
+
+    /**
+     * Gets the canonical instance of this id.
+     *
+     * @return the shared instance equal to this id
+     */
+    public EntityId intern() {
+        return POOL.intern(this);
+    }
+
+    /**
+     * Gets the type of this id, identified by the {@link #getElementName() element name}
+     * only.
+     *
+     * @return the shared element type
+     */
+    public EntityIdType getElementType() {
+        EntityIdType type = elementType;
+        if (type == null) {
+            type = EntityIdType.create(elementName);
+            elementType = type;
+        }
+        return type;
     }
 
     /**
@@ -151,6 +178,10 @@ public class EntityId implements Comparable<EntityId>, Serializable {
 
     @Override
     public int hashCode() {
+        return hashCode;
+    }
+
+    private int calculateHashCode() {
         int hash = 19;
         hash += 31 * elementName.hashCode();
         if (idAttributeName != null) {
@@ -165,7 +196,7 @@ public class EntityId implements Comparable<EntityId>, Serializable {
         boolean equals = this == obj;
         if (!equals && obj instanceof EntityId) {
             EntityId other = (EntityId) obj;
-            equals = (elementName.equals(other.elementName) && safeEquals(idAttributeName, other.idAttributeName) && safeEquals(
+            equals = (hashCode == other.hashCode && elementName.equals(other.elementName) && safeEquals(idAttributeName, other.idAttributeName) && safeEquals(
                     idAttributeValue, other.idAttributeValue));
         }
         return equals;
@@ -200,6 +231,17 @@ public class EntityId implements Comparable<EntityId>, Serializable {
         return result;
     }
 
+    private Object readResolve() {
+        return create(elementName, idAttributeName, idAttributeValue);
+    }
+
+    /**
+     * Share element and attribute names, which are repeated across a large number of ids.
+     */
+    static String intern(final String name) {
+        return name == null ? null : NAMES.intern(name);
+    }
+
     private static boolean safeEquals(Object a, Object b) {
         return a == b || (a != null && a.equals(b));
     }
@@ -35,8 +35,40 @@ public class EntityIdType implements Serializable {
 
     private static final long serialVersionUID = 2737753027936998087L;
 
+    private static final WeakInterner<EntityIdType> POOL = new WeakInterner<EntityIdType>();
+
     private final String elementName;
     private final String idAttributeName;
+    private final transient int hashCode;
+
+    /**
+     * Gets the canonical EntityIdType with the given element name and a
+     * <code>null</code> {@link #getIdAttributeName() id attribute}.
+     *
+     * @param elementName
+     *            the name of the element. Cannot be <code>null</code>
+     * @return the shared instance
+     */
+    public static EntityIdType create(final String elementName) {
+        return create(elementName, null);
+    }
+
+    /**
+     * Gets the canonical EntityIdType with the given element name and an optional
+     * attribute name. Equal types share one instance.
+     *
+     * @param elementName
+     *            the name of the element. Cannot be <code>null</code>
+     * @param idAttributeName
+     *            the name of the attribute. Can be <code>null</code>
+     * @return the shared instance
+     */
+    public static EntityIdType create(final String elementName, final String idAttributeName) {
+        if (elementName == null) {
+            throw new IllegalArgumentException("elementName is null");
+        }
+        return POOL.intern(new EntityIdType(EntityId.intern(elementName), EntityId.intern(idAttributeName)));
+    }
 
     /**
      * Creates a new EntityId with the given element name and a
@@ -65,6 +97,16 @@ public class EntityIdType implements Serializable {
         }
         this.elementName = elementName;
         this.idAttributeName = idAttributeName;
+        this.hashCode = calculateHashCode();
+    }
+
+    /**
+     * Gets the canonical instance of this type.
+     *
+     * @return the shared instance equal to this type
+     */
+    public EntityIdType intern() {
+        return POOL.intern(this);
     }
 
     /**
@@ -89,6 +131,10 @@ public class EntityIdType implements Serializable {
 
     @Override
     public int hashCode() {
+        return hashCode;
+    }
+
+    private int calculateHashCode() {
         int hash = 19;
         hash += 31 * elementName.hashCode();
         if (idAttributeName != null) {
@@ -102,7 +148,7 @@ public class EntityIdType implements Serializable {
         boolean equals = this == obj;
         if (!equals && obj instanceof EntityIdType) {
             EntityIdType other = (EntityIdType) obj;
-            equals = (elementName.equals(other.elementName) && safeEquals(idAttributeName, other.idAttributeName));
+            equals = (hashCode == other.hashCode && elementName.equals(other.elementName) && safeEquals(idAttributeName, other.idAttributeName));
         }
         return equals;
     }
@@ -118,6 +164,10 @@ public class EntityIdType implements Serializable {
         return sb.toString();
     }
 
+    private Object readResolve() {
+        return create(elementName, idAttributeName);
+    }
+
     private static boolean safeEquals(Object a, Object b) {
         return a == b || (a != null && a.equals(b));
     }
@@ -0,0 +1,528 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.model.entity.info.ManagedResourceAttributeInfo;
+import org.jboss.model.entity.info.ManagedResourceChildrenInfo;
+import org.jboss.model.entity.info.ManagedResourceInfo;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
+import org.jboss.model.values.MetaValue;
+
+/**
+ * A persistent, immutable view of a managed resource tree.
+ * <p>
+ * An {@code ImmutableManagedResource} is never modified after creation, so a reference to a
+ * root is a consistent snapshot of the whole tree and taking it is free. The update methods
+ * return a new resource, copying only the path from this resource to the changed descendant
+ * and sharing all untouched subtrees and attribute values with the previous version. Children and
+ * attributes are held in persistent hash tries, so copying a resource on the path does not copy
+ * its sibling maps either and an update costs O(depth &times; log32 fan-out).
+ * </p>
+ * <p>
+ * Attribute values are cloned when set, values returned by {@link #getAttribute(String)} are
+ * shared between versions and must not be modified.
+ * </p>
+ *
+ * @see ManagedResource
+ * @author Emanuel Muckenhuber
+ */
+public final class ImmutableManagedResource implements Serializable {
+
+    private static final long serialVersionUID = 3461981630472958185L;
+
+    private static final PersistentHashMap<String, MetaValue> NO_ATTRIBUTES = PersistentHashMap.empty();
+    private static final PersistentHashMap<EntityIdType, PersistentHashMap<EntityId, ImmutableManagedResource>> NO_CHILDREN = PersistentHashMap.empty();
+    private static final PersistentHashMap<EntityId, ImmutableManagedResource> NO_TYPED_CHILDREN = PersistentHashMap.empty();
+
+    /** The entity address. */
+    private final ManagedResourceAddress address;
+    private final boolean idOnly;
+
+    /** The entity info. */
+    private final ManagedResourceInfo entityInfo;
+
+    /** The attribute values. */
+    private final PersistentHashMap<String, MetaValue> attributeValues;
+
+    /** The children grouped by type. */
+    private final PersistentHashMap<EntityIdType, PersistentHashMap<EntityId, ImmutableManagedResource>> children;
+
+    private ImmutableManagedResource(final ManagedResourceAddress address, final ManagedResourceInfo info, final boolean idOnly,
+            final PersistentHashMap<String, MetaValue> attributeValues, final PersistentHashMap<EntityIdType, PersistentHashMap<EntityId, ImmutableManagedResource>> children) {
+        this.address = address;
+        this.entityInfo = info;
+        this.idOnly = idOnly;
+        this.attributeValues = attributeValues;
+        this.children = children;
+    }
+
+    /**
+     * Create a new empty resource, with idOnly false.
+     *
+     * @param address the entity address
+     * @param info the model entity info
+     * @return the resource
+     */
+    public static ImmutableManagedResource create(final ManagedResourceAddress address, final ManagedResourceInfo info) {
+        return create(address, info, false);
+    }
+
+    /**
+     * Create a new empty resource.
+     *
+     * @param address the entity address
+     * @param info the model entity info
+     * @param idOnly true if this is a idOnly entity
+     * @return the resource
+     */
+    public static ImmutableManagedResource create(final ManagedResourceAddress address, final ManagedResourceInfo info, final boolean idOnly) {
+        if (address == null) {
+            throw new IllegalArgumentException("address is null");
+        }
+        if(info == null) {
+            throw new IllegalArgumentException("info is null");
+        }
+        if(address.isRoot() == false) {
+            // Check the ID type
+            final EntityIdType type = address.getLastElement().getElementType();
+            if(! info.getIdentifierType().equals(type)) {
+                throw new IllegalArgumentException(String.format("invalid identifier type (%s), should be (%s)",
+                        info.getIdentifierType(), type));
+            }
+        }
+        return new ImmutableManagedResource(address, info, idOnly, NO_ATTRIBUTES, NO_CHILDREN);
+    }
+
+    /**
+     * Create an immutable copy of a managed resource tree. This is a one time deep copy,
+     * later snapshots and updates are sharing the unchanged parts.
+     *
+     * @param resource the managed resource
+     * @return the immutable resource
+     */
+    public static ImmutableManagedResource copyOf(final ManagedResource resource) {
+        if(resource == null) {
+            throw new IllegalArgumentException("null resource");
+        }
+        PersistentHashMap<String, MetaValue> attributeValues = NO_ATTRIBUTES;
+        PersistentHashMap<EntityIdType, PersistentHashMap<EntityId, ImmutableManagedResource>> children = NO_CHILDREN;
+        if(resource.isIdOnly() == false) {
+            for (final Map.Entry<String, MetaValue> entry : resource.getAttributeValues().entrySet()) {
+                final MetaValue value = entry.getValue();
+                attributeValues = attributeValues.with(entry.getKey(), value != null ? value.clone() : null);
+            }
+            for(final ManagedResource child : resource.getAllChildren()) {
+                final EntityId id = child.getAddress().getLastElement();
+                PersistentHashMap<EntityId, ImmutableManagedResource> typed = children.get(id.getElementType());
+                if(typed == null) {
+                    typed = NO_TYPED_CHILDREN;
+                }
+                children = children.with(id.getElementType(), typed.with(id, copyOf(child)));
+            }
+        }
+        return new ImmutableManagedResource(resource.getAddress(), resource.getEntityInfo(), resource.isIdOnly(), attributeValues, children);
+    }
+
+    /**
+     * Create a mutable deep copy of this resource tree.
+     *
+     * @return the managed resource
+     */
+    public ManagedResource toManagedResource() {
+        final ManagedResource resource = new ManagedResource(address, entityInfo, idOnly);
+        for (final Map.Entry<String, MetaValue> entry : attributeValues.entrySet()) {
+            final MetaValue value = entry.getValue();
+            resource.getAttributeValues().put(entry.getKey(), value != null ? value.clone() : null);
+        }
+        for(final Map<EntityId, ImmutableManagedResource> typed : children.values()) {
+            for(final Map.Entry<EntityId, ImmutableManagedResource> entry : typed.entrySet()) {
+                resource.addChildEntity(entry.getKey(), entry.getValue().toManagedResource());
+            }
+        }
+        return resource;
+    }
+
+    /**
+     * Get the entity address
+     *
+     * @return the entity address
+     */
+    public ManagedResourceAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Gets the entity type info.
+     *
+     * @return the entityInfo
+     */
+    public ManagedResourceInfo getEntityInfo() {
+        return entityInfo;
+    }
+
+    /**
+     * Get the available attribute names for this resource.
+     *
+     * @return the attribute names
+     */
+    public Set<String> getAttributeNames() {
+        return entityInfo.getAttributeNames();
+    }
+
+    /**
+     * Get an attribute value.
+     *
+     * @param attributeName the attribute name
+     * @return the attribute value, <code>null</code> if not set
+     */
+    public MetaValue getAttribute(final String attributeName) {
+        checkIdOnly();
+        if(attributeName == null) {
+            throw new IllegalArgumentException("null attribute name");
+        }
+        return attributeValues.get(attributeName);
+    }
+
+    /**
+     * Get an attribute value.
+     *
+     * @param <T> the expected <code>MetaValue</code> type
+     * @param attributeName the attribute name
+     * @param expected the expected class
+     * @return the attribute value, <code>null</code> if not set
+     */
+    public <T extends MetaValue> T getAttribute(final String attributeName, Class<T> expected) {
+        final MetaValue value = getAttribute(attributeName);
+        if (value == null) {
+            return null;
+        }
+        return expected.cast(value);
+    }
+
+    /**
+     * Get a child entity.
+     *
+     * @param id the entity id
+     * @return the child entity, <code>null</code> if it does not exist
+     */
+    public ImmutableManagedResource getChildEntity(final EntityId id) {
+        if(id == null) {
+            throw new IllegalArgumentException("null entity id");
+        }
+        final Map<EntityId, ImmutableManagedResource> typed = children.get(id.getElementType());
+        if(typed == null) {
+            return null;
+        }
+        return typed.get(id);
+    }
+
+    /**
+     * Get a descendant entity.
+     *
+     * @param relativeAddress the address relative to this entity
+     * @return the entity, <code>null</code> if it does not exist
+     */
+    public ImmutableManagedResource getChildEntity(final ManagedResourceAddress relativeAddress) {
+        if(relativeAddress == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        ImmutableManagedResource element = this;
+        for (int i = 0; i < relativeAddress.size(); i++) {
+            element = element.getChildEntity(relativeAddress.get(i));
+            if (element == null) {
+                return null;
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Get the children for a given type.
+     *
+     * @param entityType the entity type
+     * @return the entities
+     */
+    public Collection<ImmutableManagedResource> getChildren(final EntityIdType entityType) {
+        if(entityType == null) {
+            throw new IllegalArgumentException("null entity type");
+        }
+        final Map<EntityId, ImmutableManagedResource> typed = children.get(entityType);
+        if(typed != null) {
+            return Collections.unmodifiableCollection(typed.values());
+        } else {
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * Get the child entity types.
+     *
+     * @return the child types
+     */
+    public Set<EntityIdType> getChildTypes() {
+        return Collections.unmodifiableSet(children.keySet());
+    }
+
+    /**
+     * Set an attribute value.
+     *
+     * @param attributeName the attribute name
+     * @param value the value to set
+     * @return the updated resource
+     * @throws IllegalArgumentException if the types don't match
+     */
+    public ImmutableManagedResource setAttribute(final String attributeName, final MetaValue value) {
+        checkIdOnly();
+        if (isRoot()) {
+            throw new IllegalStateException("Cannot mutate content of a root entity");
+        }
+        if(attributeName == null) {
+            throw new IllegalArgumentException("null attribute name");
+        }
+        final ManagedResourceAttributeInfo attribute = entityInfo.getAttributeInfo(attributeName);
+        if(attribute == null) {
+            throw new IllegalArgumentException(String.format("attribute (%s) not declared.", attributeName));
+        }
+        final MetaType attributeType = attribute.getType();
+        if(! MetaTypeValidators.get(attributeType).isValue(value)) {
+            throw new IllegalArgumentException(String.format("invalid attribute value (%s), should be (%s).", attributeName, attributeType));
+        }
+        return new ImmutableManagedResource(address, entityInfo, idOnly, attributeValues.with(attributeName, value != null ? value.clone() : null), children);
+    }
+
+    /**
+     * Set an attribute value of a descendant.
+     *
+     * @param relativeAddress the address relative to this entity
+     * @param attributeName the attribute name
+     * @param value the value to set
+     * @return the updated resource
+     * @throws IllegalArgumentException if the descendant does not exist or the types don't match
+     */
+    public ImmutableManagedResource setAttribute(final ManagedResourceAddress relativeAddress, final String attributeName, final MetaValue value) {
+        return update(relativeAddress, 0, new Update() {
+            ImmutableManagedResource apply(final ImmutableManagedResource resource) {
+                return resource.setAttribute(attributeName, value);
+            }
+        });
+    }
+
+    /**
+     * Undefine an attribute. As for {@link ManagedResource#undefineAttribute(String)} the attribute
+     * is kept as an explicit <code>null</code> value.
+     *
+     * @param attributeName the attribute name
+     * @return the updated resource, or this resource if the attribute is already undefined
+     * @throws IllegalArgumentException if the attribute is not declared
+     */
+    ImmutableManagedResource undefineAttribute(final String attributeName) {
+        checkIdOnly();
+        if (isRoot()) {
+            throw new IllegalStateException("Cannot mutate content of a root entity");
+        }
+        if(attributeName == null) {
+            throw new IllegalArgumentException("null attribute name");
+        }
+        if(entityInfo.getAttributeInfo(attributeName) == null) {
+            throw new IllegalArgumentException(String.format("attribute (%s) not declared.", attributeName));
+        }
+        if(attributeValues.containsKey(attributeName) && attributeValues.get(attributeName) == null) {
+            return this;
+        }
+        return new ImmutableManagedResource(address, entityInfo, idOnly, attributeValues.with(attributeName, null), children);
+    }
+
+    ImmutableManagedResource undefineAttribute(final ManagedResourceAddress relativeAddress, final String attributeName) {
+        return update(relativeAddress, 0, new Update() {
+            ImmutableManagedResource apply(final ImmutableManagedResource resource) {
+                return resource.undefineAttribute(attributeName);
+            }
+        });
+    }
+
+    /**
+     * Add a child entity, replacing an existing child with the same id.
+     *
+     * @param entity the child entity
+     * @return the updated resource
+     */
+    public ImmutableManagedResource addChildEntity(final ImmutableManagedResource entity) {
+        if(entity == null) {
+            throw new IllegalArgumentException("null entity");
+        }
+        final EntityId id = entity.getAddress().getLastElement();
+        if(id == null) {
+            throw new IllegalArgumentException("root entity cannot be a child");
+        }
+        final EntityIdType type = id.getElementType();
+        final Map<EntityId, ImmutableManagedResource> typed = children.get(type);
+        if(typed == null) {
+            final ManagedResourceChildrenInfo info = entityInfo.getChildInfo(type);
+            if(info == null) {
+                throw new IllegalArgumentException(String.format("child type (%s) not declared.", type));
+            }
+        } else if (typed.containsKey(id) == false) {
+            final int max = entityInfo.getChildInfo(type).getCardinality().getMax();
+            if(max != -1 && typed.size() >= max) {
+                throw new IllegalArgumentException(String.format("max number of (%d) children reached.", max));
+            }
+        }
+        return withChild(id, entity);
+    }
+
+    /**
+     * Add a child entity to a descendant.
+     *
+     * @param relativeAddress the address of the parent relative to this entity
+     * @param entity the child entity
+     * @return the updated resource
+     * @throws IllegalArgumentException if the descendant does not exist
+     */
+    public ImmutableManagedResource addChildEntity(final ManagedResourceAddress relativeAddress, final ImmutableManagedResource entity) {
+        return update(relativeAddress, 0, new Update() {
+            ImmutableManagedResource apply(final ImmutableManagedResource resource) {
+                return resource.addChildEntity(entity);
+            }
+        });
+    }
+
+    /**
+     * Remove a child entity.
+     *
+     * @param id the entity id
+     * @return the updated resource, or this resource if there is no such child
+     */
+    public ImmutableManagedResource removeChildEntity(final EntityId id) {
+        if(id == null) {
+            throw new IllegalArgumentException("null entity id");
+        }
+        final EntityIdType type = id.getElementType();
+        final PersistentHashMap<EntityId, ImmutableManagedResource> typed = children.get(type);
+        if(typed == null || typed.containsKey(id) == false) {
+            return this;
+        }
+        final int min = entityInfo.getChildInfo(type).getCardinality().getMin();
+        if(min != 0 && typed.size() - 1 < min) {
+            throw new IllegalArgumentException(String.format("min number of (%d) children reached.", min));
+        }
+        final PersistentHashMap<EntityIdType, PersistentHashMap<EntityId, ImmutableManagedResource>> children;
+        if(typed.size() == 1) {
+            children = this.children.without(type);
+        } else {
+            children = this.children.with(type, typed.without(id));
+        }
+        return new ImmutableManagedResource(address, entityInfo, idOnly, attributeValues, children);
+    }
+
+    /**
+     * Remove a descendant entity.
+     *
+     * @param relativeAddress the address of the entity to remove, relative to this entity
+     * @return the updated resource, or this resource if there is no such entity
+     */
+    public ImmutableManagedResource removeChildEntity(final ManagedResourceAddress relativeAddress) {
+        if(relativeAddress == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        if(relativeAddress.isRoot()) {
+            throw new IllegalArgumentException("cannot remove the entity itself");
+        }
+        final EntityId id = relativeAddress.getLastElement();
+        final ManagedResourceAddress parent = relativeAddress.getParent();
+        if(getChildEntity(parent) == null) {
+            return this;
+        }
+        return update(parent, 0, new Update() {
+            ImmutableManagedResource apply(final ImmutableManagedResource resource) {
+                return resource.removeChildEntity(id);
+            }
+        });
+    }
+
+    /**
+     * Gets whether this entity represents the root of a model.
+     *
+     * @return <code>true</code> if this is the root entity
+     */
+    public boolean isRoot() {
+        return this.address == ManagedResourceAddress.ROOT;
+    }
+
+    public boolean isIdOnly() {
+        return this.idOnly;
+    }
+
+    /**
+     * Apply an update to a descendant and copy the path up to this entity.
+     */
+    private ImmutableManagedResource update(final ManagedResourceAddress relativeAddress, final int i, final Update update) {
+        if(relativeAddress == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        if(i == relativeAddress.size()) {
+            return update.apply(this);
+        }
+        final EntityId id = relativeAddress.get(i);
+        final ImmutableManagedResource child = getChildEntity(id);
+        if(child == null) {
+            throw new IllegalArgumentException(String.format("no such entity (%s)", relativeAddress.getSubAddress(0, i + 1)));
+        }
+        final ImmutableManagedResource updated = child.update(relativeAddress, i + 1, update);
+        if(updated == child) {
+            return this;
+        }
+        return withChild(id, updated);
+    }
+
+    /**
+     * Copy this entity, replacing a single child. The child maps share all untouched nodes.
+     */
+    private ImmutableManagedResource withChild(final EntityId id, final ImmutableManagedResource child) {
+        final EntityIdType type = id.getElementType();
+        PersistentHashMap<EntityId, ImmutableManagedResource> typed = this.children.get(type);
+        if(typed == null) {
+            typed = NO_TYPED_CHILDREN;
+        }
+        return new ImmutableManagedResource(address, entityInfo, idOnly, attributeValues, children.with(type, typed.with(id, child)));
+    }
+
+    private void checkIdOnly() {
+        if (idOnly) {
+            throw new IllegalStateException("Element is id-only; content cannot be accessed");
+        }
+    }
+
+    private abstract static class Update {
+
+        abstract ImmutableManagedResource apply(ImmutableManagedResource resource);
+
+    }
+
+}
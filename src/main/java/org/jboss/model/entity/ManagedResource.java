@@ -23,9 +23,11 @@
 package org.jboss.model.entity;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -33,6 +35,7 @@ import org.jboss.model.entity.info.ManagedResourceAttributeInfo;
 import org.jboss.model.entity.info.ManagedResourceChildrenInfo;
 import org.jboss.model.entity.info.ManagedResourceInfo;
 import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
 import org.jboss.model.values.MetaValue;
 
 /**
@@ -75,6 +78,12 @@ public class ManagedResource implements Serializable, Cloneable {
     /** The children grouped by type. */
     private final Map<EntityIdType, ManagedResourceChildren> children = new HashMap<EntityIdType, ManagedResourceChildren>();
 
+    /** The address index this entity is part of. */
+    private transient ManagedResourceIndex index;
+
+    /** The journal of the store this entity is part of. */
+    private transient ManagedResourceStore.Journal journal;
+
     /**
      * Create a new ManagedResource, with idOnly false.
      *
@@ -100,7 +109,7 @@ public class ManagedResource implements Serializable, Cloneable {
             throw new IllegalArgumentException("info is null");
         }
         // Check the ID type
-        final EntityIdType type = new EntityIdType(address.getLastElement().getElementName());
+        final EntityIdType type = address.getLastElement().getElementType();
         if(! info.getIdentifierType().equals(type)) {
             throw new IllegalArgumentException(String.format("invalid identifier type (%s), should be (%s)",
                     info.getIdentifierType(), type));
@@ -176,10 +185,38 @@ public class ManagedResource implements Serializable, Cloneable {
             throw new IllegalArgumentException(String.format("attribute (%s) not declared.", attributeName));
         }
         final MetaType attributeType = attribute.getType();
-        if(! attributeType.isValue(value)) {
+        if(! MetaTypeValidators.get(attributeType).isValue(value)) {
             throw new IllegalArgumentException(String.format("invalid attribute value (%s), should be (%s).", attributeName, attributeType));
         }
         attributeValues.put(attributeName, value);
+        if(journal != null) {
+            journal.attributeSet(this, attributeName, value);
+        }
+    }
+
+    /**
+     * Undefine an attribute. The attribute is kept as an explicit <code>null</code> value, so that
+     * an updated view passed to {@link ManagedResourceDiff} can tell an undefined attribute apart
+     * from one which is just not part of the view.
+     *
+     * @param attributeName the attribute name
+     * @throws IllegalArgumentException if the attribute is not declared
+     */
+    protected void undefineAttribute(final String attributeName) {
+        checkIdOnly();
+        if (isRoot()) {
+            throw new IllegalStateException("Cannot mutate content of a root entity");
+        }
+        if(attributeName == null) {
+            throw new IllegalArgumentException("null attribute name");
+        }
+        if(entityInfo.getAttributeInfo(attributeName) == null) {
+            throw new IllegalArgumentException(String.format("attribute (%s) not declared.", attributeName));
+        }
+        attributeValues.put(attributeName, null);
+        if(journal != null) {
+            journal.attributeUndefined(this, attributeName);
+        }
     }
 
     /**
@@ -223,7 +260,7 @@ public class ManagedResource implements Serializable, Cloneable {
         if(id == null) {
             throw new IllegalArgumentException("null entity id");
         }
-        final EntityIdType type = new EntityIdType(id.getElementName()); // TODO
+        final EntityIdType type = id.getElementType();
         ManagedResourceChildren children = this.children.get(type);
         if(children == null) {
             return null;
@@ -257,7 +294,7 @@ public class ManagedResource implements Serializable, Cloneable {
         if(entity == null) {
             throw new IllegalArgumentException("null entity");
         }
-        final EntityIdType type = new EntityIdType(id.getElementName()); // TODO
+        final EntityIdType type = id.getElementType();
         ManagedResourceChildren children = this.children.get(type);
         if(children == null) {
             final ManagedResourceChildrenInfo info = entityInfo.getChildInfo(type);
@@ -268,6 +305,12 @@ public class ManagedResource implements Serializable, Cloneable {
             this.children.put(type, children);
         }
         children.addChild(id, entity);
+        if(index != null) {
+            index.add(entity);
+        }
+        if(journal != null) {
+            journal.childAdded(this, entity);
+        }
     }
 
     /**
@@ -280,13 +323,22 @@ public class ManagedResource implements Serializable, Cloneable {
         if(id == null) {
             throw new IllegalArgumentException("null entity id");
         }
-        final EntityIdType type = new EntityIdType(id.getElementName()); // TODO
+        final EntityIdType type = id.getElementType();
         final ManagedResourceChildren children = this.children.get(type);
         if(children == null) {
             return false;
-        } else {
-            return children.removeChild(id);
         }
+        final ManagedResource child = children.getChild(id);
+        if(children.removeChild(id)) {
+            if(index != null && child.index == index) {
+                index.remove(child.getAddress());
+            }
+            if(journal != null) {
+                journal.childRemoved(child);
+            }
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -307,7 +359,18 @@ public class ManagedResource implements Serializable, Cloneable {
         }
     }
 
+    /**
+     * Get a descendant by its address relative to this entity. For an indexed entity
+     * a nested address is resolved against {@link #getAddress()} and looked up in the
+     * {@link #getIndex() index} instead of walking the children.
+     *
+     * @param relativeAddress the relative address
+     * @return the entity, <code>null</code> if it does not exist
+     */
     public ManagedResource getChildEntity(final ManagedResourceAddress relativeAddress) {
+        if(index != null && relativeAddress.size() > 1) {
+            return index.get(ManagedResourceAddress.fromRelativeAddress(address, relativeAddress));
+        }
         ManagedResource element = this;
         for (int i = 0; i < relativeAddress.size(); i++) {
             element = element.getChildEntity(relativeAddress.get(i));
@@ -318,6 +381,49 @@ public class ManagedResource implements Serializable, Cloneable {
         return element;
     }
 
+    /**
+     * Get the address index this entity is part of.
+     *
+     * @return the index, <code>null</code> if the entity is not indexed
+     * @see ManagedResourceIndex
+     */
+    public ManagedResourceIndex getIndex() {
+        return index;
+    }
+
+    void setIndex(final ManagedResourceIndex index) {
+        this.index = index;
+    }
+
+    void setJournal(final ManagedResourceStore.Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Get the attribute values.
+     *
+     * @return the backing attribute map
+     */
+    Map<String, MetaValue> getAttributeValues() {
+        return attributeValues;
+    }
+
+    /**
+     * Get all direct children, regardless of their type.
+     *
+     * @return the children
+     */
+    Collection<ManagedResource> getAllChildren() {
+        if(children.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final List<ManagedResource> result = new ArrayList<ManagedResource>();
+        for(final ManagedResourceChildren typed : children.values()) {
+            result.addAll(typed.getChildren());
+        }
+        return result;
+    }
+
     /**
      * Gets whether this entity represents the root of a model, against which
      * all addresses are relative.
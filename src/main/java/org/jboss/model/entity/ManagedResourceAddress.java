@@ -22,6 +22,7 @@
 package org.jboss.model.entity;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -196,14 +197,54 @@ public final class ManagedResourceAddress implements Comparable<ManagedResourceA
         if (stringRepresentation == null || stringRepresentation.equals(SEPARATOR) || stringRepresentation.equals(""))
             return root();
 
-        String toMatch = stringRepresentation.startsWith(SEPARATOR) ? stringRepresentation.substring(1)
-                : stringRepresentation;
-        String[] el = toMatch.split(SEPARATOR);
-        EntityId[] parts = new EntityId[el.length];
-        for (int i = 0; i < parts.length; i++) {
-            parts[i] = EntityId.fromString(el[i]);
-        }
-        return new ManagedResourceAddress(parts, true);
+        return ManagedResourceAddressParser.parseCached(stringRepresentation);
+    }
+
+    /**
+     * Parses a ManagedResourceAddress from a character sequence, in the same format as
+     * {@link #fromString(String)}. The result is not cached.
+     *
+     * @param chars
+     *            the characters
+     * @return the ManagedResourceAddress
+     */
+    public static ManagedResourceAddress parse(CharSequence chars) {
+        if (chars == null)
+            throw new IllegalArgumentException("null chars");
+        return ManagedResourceAddressParser.parse(chars);
+    }
+
+    /**
+     * Parses a ManagedResourceAddress from UTF-8 encoded bytes, in the same format as
+     * {@link #fromString(String)}.
+     *
+     * @param bytes
+     *            the bytes
+     * @param offset
+     *            the offset of the first byte
+     * @param length
+     *            the number of bytes
+     * @return the ManagedResourceAddress
+     */
+    public static ManagedResourceAddress parse(byte[] bytes, int offset, int length) {
+        if (bytes == null)
+            throw new IllegalArgumentException("null bytes");
+        return ManagedResourceAddressParser.parse(bytes, offset, length);
+    }
+
+    /**
+     * Parses a ManagedResourceAddress from the remaining UTF-8 encoded bytes of a buffer,
+     * in the same format as {@link #fromString(String)}. The position of the buffer is not
+     * changed.
+     *
+     * @param buffer
+     *            the buffer
+     * @return the ManagedResourceAddress
+     */
+    public static ManagedResourceAddress parse(ByteBuffer buffer) {
+        if (buffer == null)
+            throw new IllegalArgumentException("null buffer");
+        return ManagedResourceAddressParser.parse(buffer);
     }
 
     /**
@@ -283,7 +324,7 @@ public final class ManagedResourceAddress implements Comparable<ManagedResourceA
     public List<EntityIdType> getEntityIdTypes() {
         List<EntityIdType> result = new ArrayList<EntityIdType>(elements.length);
         for (EntityId id : elements) {
-            result.add(new EntityIdType(id.getElementName(), id.getIdAttributeName()));
+            result.add(EntityIdType.create(id.getElementName(), id.getIdAttributeName()));
         }
         return result;
     }
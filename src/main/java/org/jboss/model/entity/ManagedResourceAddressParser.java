@@ -0,0 +1,346 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single pass parser for the string form of {@link ManagedResourceAddress} and {@link EntityId}.
+ * <p>
+ * The input is scanned once and the {@code EntityId}s are created directly from the scanned
+ * ranges, without splitting the input or creating intermediate substrings. The id attribute
+ * value ends at a <code>']</code> followed by a separator or the end of the input, so values
+ * may contain separators. UTF-8 input is parsed in place if it only contains ASCII characters.
+ * Recently parsed address strings are kept in a bounded cache. The cache is not an LRU cache:
+ * an entry is marked as referenced on a hit, and once the cache is full an insert advances a
+ * clock hand over the entries, clearing the mark of referenced ones and evicting the first one
+ * which is not referenced (second-chance). A hit is lock-free and does not allocate, a miss
+ * parses the string and allocates the address and the {@code EntityId}s which are not interned
+ * yet.
+ * </p>
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class ManagedResourceAddressParser {
+
+    /** The max number of cached addresses. */
+    static final int MAX_CACHED = 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char SEPARATOR = '/';
+    private static final EntityId[] NO_IDS = new EntityId[0];
+
+    private static final AddressCache CACHE = new AddressCache(MAX_CACHED);
+
+    private ManagedResourceAddressParser() {
+        //
+    }
+
+    /**
+     * Parse an address string, using the cache.
+     *
+     * @param s the string
+     * @return the address
+     */
+    static ManagedResourceAddress parseCached(final String s) {
+        final ManagedResourceAddress cached = CACHE.get(s);
+        if(cached != null) {
+            return cached;
+        }
+        final ManagedResourceAddress address = parse(s);
+        CACHE.put(s, address);
+        return address;
+    }
+
+    /**
+     * Parse an address.
+     *
+     * @param s the characters
+     * @return the address
+     */
+    static ManagedResourceAddress parse(final CharSequence s) {
+        final EntityId[] elements = parseElements(s, 0, s.length());
+        if(elements.length == 0) {
+            return ManagedResourceAddress.ROOT;
+        }
+        return ManagedResourceAddress.fromElements(elements);
+    }
+
+    /**
+     * Parse an UTF-8 encoded address.
+     *
+     * @param bytes the bytes
+     * @param offset the offset
+     * @param length the length
+     * @return the address
+     */
+    static ManagedResourceAddress parse(final byte[] bytes, final int offset, final int length) {
+        if(offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        for(int i = offset; i < offset + length; i++) {
+            if(bytes[i] < 0) {
+                return parse(new String(bytes, offset, length, UTF_8));
+            }
+        }
+        return parse(new AsciiSequence(bytes, offset, length));
+    }
+
+    /**
+     * Parse the remaining UTF-8 encoded bytes of a buffer. The buffer position is not changed.
+     *
+     * @param buffer the buffer
+     * @return the address
+     */
+    static ManagedResourceAddress parse(final ByteBuffer buffer) {
+        if(buffer.hasArray()) {
+            return parse(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Parse the elements of an address, where a single leading separator and trailing
+     * separators are ignored. Each other separator delimits an element.
+     */
+    static EntityId[] parseElements(final CharSequence s, int start, final int end) {
+        if(start < end && s.charAt(start) == SEPARATOR) {
+            start++;
+        }
+        // trailing separators do not count as elements
+        int last = end;
+        while(last > start && s.charAt(last - 1) == SEPARATOR) {
+            last--;
+        }
+        if(start == last) {
+            return NO_IDS;
+        }
+        EntityId[] elements = new EntityId[4];
+        int count = 0;
+        int i = start;
+        for(;;) {
+            final int next = segmentEnd(s, i, last);
+            if(count == elements.length) {
+                final EntityId[] grown = new EntityId[count << 1];
+                System.arraycopy(elements, 0, grown, 0, count);
+                elements = grown;
+            }
+            elements[count++] = parseId(s, i, next);
+            if(next == last) {
+                break;
+            }
+            i = next + 1;
+        }
+        if(count == elements.length) {
+            return elements;
+        }
+        final EntityId[] result = new EntityId[count];
+        System.arraycopy(elements, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Find the end of the segment starting at a given index.
+     */
+    static int segmentEnd(final CharSequence s, final int start, final int end) {
+        int i = start;
+        while(i < end) {
+            final char c = s.charAt(i);
+            if(c == SEPARATOR) {
+                return i;
+            }
+            if(c == '[' && i + 1 < end && s.charAt(i + 1) == '@') {
+                final int close = valueEnd(s, i + 2, end);
+                if(close != -1) {
+                    return close + 2;
+                }
+                // invalid, reported by parseId
+            }
+            i++;
+        }
+        return end;
+    }
+
+    /**
+     * Find the <code>']</code> terminating an id attribute value, which is followed by a separator
+     * or the end of the input.
+     *
+     * @return the index of the quote, <code>-1</code> if there is none
+     */
+    static int valueEnd(final CharSequence s, final int start, final int end) {
+        for(int i = start; i + 1 < end; i++) {
+            if(s.charAt(i) == '\'' && s.charAt(i + 1) == ']' && (i + 2 == end || s.charAt(i + 2) == SEPARATOR)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse a single id in the form <code>name</code> or <code>name[@attribute='value']</code>.
+     */
+    static EntityId parseId(final CharSequence s, final int start, final int end) {
+        int bracket = -1;
+        for(int i = start; i + 1 < end; i++) {
+            if(s.charAt(i) == '[' && s.charAt(i + 1) == '@') {
+                bracket = i;
+                break;
+            }
+        }
+        if(bracket == -1) {
+            return EntityId.create(s.subSequence(start, end).toString(), null, null);
+        }
+        if(bracket == end - 2) {
+            throw new IllegalArgumentException(s.subSequence(start, end) + " contains an id "
+                    + "attribute delimiter ('@') but does not contain an id attribute");
+        }
+        if(end - start < 2 || s.charAt(end - 2) != '\'' || s.charAt(end - 1) != ']') {
+            throw new IllegalArgumentException(s.subSequence(start, end) + " contains an id "
+                    + "attribute delimiter (\"[@'\") but does not property terminate "
+                    + "the id attribute section with \"']");
+        }
+        final int attributeEnd = end - 2;
+        int equals = -1;
+        for(int i = bracket + 2; i + 1 < attributeEnd; i++) {
+            if(s.charAt(i) == '=' && s.charAt(i + 1) == '\'') {
+                equals = i;
+                break;
+            }
+        }
+        if(equals == -1 || equals + 2 >= attributeEnd) {
+            throw new IllegalArgumentException(s.subSequence(start, end) + " contains an id "
+                    + "attribute section (\"[@'...']\") but does not contain an id attribute value");
+        }
+        return EntityId.create(s.subSequence(start, bracket).toString(),
+                s.subSequence(bracket + 2, equals).toString(),
+                s.subSequence(equals + 2, attributeEnd).toString());
+    }
+
+    /**
+     * A view of ASCII bytes as characters.
+     */
+    static final class AsciiSequence implements CharSequence {
+
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        AsciiSequence(final byte[] bytes, final int offset, final int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(final int index) {
+            return (char) bytes[offset + index];
+        }
+
+        public CharSequence subSequence(final int start, final int end) {
+            return new AsciiSequence(bytes, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            final char[] chars = new char[length];
+            for(int i = 0; i < length; i++) {
+                chars[i] = (char) bytes[offset + i];
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * Bounded cache of parsed addresses. A hit is a read of a {@code ConcurrentHashMap} and sets
+     * the referenced flag of the entry. Inserts take the clock lock and advance the clock hand
+     * over the entries, evicting the first entry which was not referenced since the hand last
+     * passed it.
+     */
+    static final class AddressCache {
+
+        private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+        private final Entry[] clock;
+        private int hand;
+
+        AddressCache(final int capacity) {
+            this.clock = new Entry[capacity];
+        }
+
+        ManagedResourceAddress get(final String key) {
+            final Entry entry = entries.get(key);
+            if(entry == null) {
+                return null;
+            }
+            if(entry.referenced == false) {
+                entry.referenced = true;
+            }
+            return entry.address;
+        }
+
+        void put(final String key, final ManagedResourceAddress address) {
+            final Entry entry = new Entry(key, address);
+            synchronized (clock) {
+                if(entries.putIfAbsent(key, entry) != null) {
+                    return;
+                }
+                for(;;) {
+                    final Entry current = clock[hand];
+                    if(current == null) {
+                        break;
+                    }
+                    if(current.referenced) {
+                        // second chance
+                        current.referenced = false;
+                        hand = (hand + 1) % clock.length;
+                    } else {
+                        entries.remove(current.key, current);
+                        break;
+                    }
+                }
+                clock[hand] = entry;
+                hand = (hand + 1) % clock.length;
+            }
+        }
+    }
+
+    static final class Entry {
+
+        final String key;
+        final ManagedResourceAddress address;
+        volatile boolean referenced;
+
+        Entry(final String key, final ManagedResourceAddress address) {
+            this.key = key;
+            this.address = address;
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.io.Serializable;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * A single change between two managed resource trees.
+ *
+ * @see ManagedResourceDiff
+ * @author Emanuel Muckenhuber
+ */
+public final class ManagedResourceChange implements Serializable {
+
+    private static final long serialVersionUID = -4629514416713380545L;
+
+    /** The change types. */
+    public enum Type {
+        /** A resource was added. */
+        ADD,
+        /** A resource was removed. */
+        REMOVE,
+        /** An attribute was set or undefined. */
+        WRITE_ATTRIBUTE,
+    }
+
+    private final Type type;
+    private final ManagedResourceAddress address;
+    private final String attributeName;
+    private final MetaValue value;
+    private final ManagedResource resource;
+
+    private ManagedResourceChange(final Type type, final ManagedResourceAddress address, final String attributeName, final MetaValue value,
+            final ManagedResource resource) {
+        this.type = type;
+        this.address = address;
+        this.attributeName = attributeName;
+        this.value = value;
+        this.resource = resource;
+    }
+
+    static ManagedResourceChange add(final ManagedResource resource) {
+        return new ManagedResourceChange(Type.ADD, resource.getAddress(), null, null, resource);
+    }
+
+    static ManagedResourceChange remove(final ManagedResourceAddress address) {
+        return new ManagedResourceChange(Type.REMOVE, address, null, null, null);
+    }
+
+    static ManagedResourceChange writeAttribute(final ManagedResourceAddress address, final String attributeName, final MetaValue value) {
+        return new ManagedResourceChange(Type.WRITE_ATTRIBUTE, address, attributeName, value, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the address of the added, removed or written resource.
+     *
+     * @return the address
+     */
+    public ManagedResourceAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Get the attribute name of a {@link Type#WRITE_ATTRIBUTE} change.
+     *
+     * @return the attribute name, <code>null</code> for other change types
+     */
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * Get the new attribute value of a {@link Type#WRITE_ATTRIBUTE} change.
+     *
+     * @return the value, <code>null</code> if the attribute is undefined
+     */
+    public MetaValue getValue() {
+        return value;
+    }
+
+    /**
+     * Get the added resource of an {@link Type#ADD} change.
+     *
+     * @return the resource, <code>null</code> for other change types
+     */
+    public ManagedResource getResource() {
+        return resource;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(type).append(' ').append(address);
+        if(type == Type.WRITE_ATTRIBUTE) {
+            builder.append(" ").append(attributeName).append('=').append(value);
+        }
+        return builder.toString();
+    }
+
+}
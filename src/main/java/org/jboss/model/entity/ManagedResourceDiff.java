@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * Computes and applies the differences between two {@link ManagedResource} trees.
+ * <p>
+ * The updated tree is compared against the current one. An {@link ManagedResource#isIdOnly() idOnly}
+ * placeholder in the updated tree stands for an unchanged subtree and is skipped, a resource
+ * missing in the updated tree was removed and a resource missing in the current tree was added.
+ * A placeholder has to refer to an existing resource, it cannot be added.
+ * For the remaining resources the attribute values contained in the updated resource are compared,
+ * an attribute which is not contained is unchanged, so that partial views created by a
+ * {@link ManagedResourceProjection} can be passed back. An attribute is only undefined if the
+ * updated resource holds an explicit <code>null</code> value, see
+ * {@link ManagedResource#undefineAttribute(String)}. The changes are ordered so that
+ * they can be applied one after the other: the attribute changes of a resource come first,
+ * followed by the removed and added children, followed by the changes of the remaining children.
+ * </p>
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class ManagedResourceDiff {
+
+    private ManagedResourceDiff() {
+        //
+    }
+
+    /**
+     * Compute the changes between two resource trees.
+     *
+     * @param current the current tree
+     * @param updated the updated tree, which may contain idOnly placeholders
+     * @return the changes
+     * @throws IllegalArgumentException if the trees don't have the same root address, or for a
+     *         placeholder of a resource which does not exist in the current tree
+     */
+    public static List<ManagedResourceChange> diff(final ManagedResource current, final ManagedResource updated) {
+        if(current == null) {
+            throw new IllegalArgumentException("null current resource");
+        }
+        if(updated == null) {
+            throw new IllegalArgumentException("null updated resource");
+        }
+        if(current.getAddress().equals(updated.getAddress()) == false) {
+            throw new IllegalArgumentException(String.format("different addresses (%s), (%s)", current.getAddress(), updated.getAddress()));
+        }
+        final List<ManagedResourceChange> changes = new ArrayList<ManagedResourceChange>();
+        diff(current, updated, changes);
+        return changes;
+    }
+
+    static void diff(final ManagedResource current, final ManagedResource updated, final List<ManagedResourceChange> changes) {
+        if(updated.isIdOnly() || current.isIdOnly()) {
+            return;
+        }
+        final ManagedResourceAddress address = current.getAddress();
+
+        // attributes
+        final Map<String, MetaValue> currentValues = current.getAttributeValues();
+        final Map<String, MetaValue> updatedValues = updated.getAttributeValues();
+        for(final Map.Entry<String, MetaValue> entry : updatedValues.entrySet()) {
+            final MetaValue value = entry.getValue();
+            final MetaValue existing = currentValues.get(entry.getKey());
+            if(value == null ? existing != null : value.equals(existing) == false) {
+                changes.add(ManagedResourceChange.writeAttribute(address, entry.getKey(), value));
+            }
+        }
+
+        // children
+        final Collection<ManagedResource> currentChildren = current.getAllChildren();
+        final Collection<ManagedResource> updatedChildren = updated.getAllChildren();
+        if(currentChildren.isEmpty() && updatedChildren.isEmpty()) {
+            return;
+        }
+        final Map<EntityId, ManagedResource> remaining = new HashMap<EntityId, ManagedResource>(currentChildren.size() * 2);
+        for(final ManagedResource child : currentChildren) {
+            remaining.put(child.getAddress().getLastElement(), child);
+        }
+        final List<ManagedResource[]> common = new ArrayList<ManagedResource[]>();
+        final List<ManagedResource> added = new ArrayList<ManagedResource>();
+        for(final ManagedResource child : updatedChildren) {
+            final ManagedResource existing = remaining.remove(child.getAddress().getLastElement());
+            if(existing == null) {
+                checkNoPlaceholders(child);
+                added.add(child);
+            } else {
+                common.add(new ManagedResource[] { existing, child });
+            }
+        }
+        for(final ManagedResource removed : remaining.values()) {
+            changes.add(ManagedResourceChange.remove(removed.getAddress()));
+        }
+        for(final ManagedResource child : added) {
+            changes.add(ManagedResourceChange.add(child));
+        }
+        for(final ManagedResource[] pair : common) {
+            diff(pair[0], pair[1], changes);
+        }
+    }
+
+    /**
+     * Check that an added subtree does not contain placeholders, which can only stand for
+     * existing resources.
+     */
+    static void checkNoPlaceholders(final ManagedResource added) {
+        if(added.isIdOnly()) {
+            throw new IllegalArgumentException(String.format("placeholder for a missing resource (%s)", added.getAddress()));
+        }
+        for(final ManagedResource child : added.getAllChildren()) {
+            checkNoPlaceholders(child);
+        }
+    }
+
+    /**
+     * Apply changes to a resource tree.
+     *
+     * @param root the root of the tree to modify
+     * @param changes the changes
+     * @throws IllegalArgumentException if a change does not apply to the tree
+     */
+    public static void apply(final ManagedResource root, final List<ManagedResourceChange> changes) {
+        if(root == null) {
+            throw new IllegalArgumentException("null root");
+        }
+        if(changes == null) {
+            throw new IllegalArgumentException("null changes");
+        }
+        for(final ManagedResourceChange change : changes) {
+            final ManagedResourceAddress relative = relativize(root, change.getAddress());
+            switch (change.getType()) {
+                case ADD: {
+                    final ManagedResource parent = getResource(root, relative.getParent());
+                    parent.addChildEntity(new ManagedResource(change.getResource()));
+                    break;
+                }
+                case REMOVE: {
+                    final ManagedResource parent = getResource(root, relative.getParent());
+                    if(parent.removeChildEntity(relative.getLastElement()) == false) {
+                        throw new IllegalArgumentException(String.format("no such entity (%s)", change.getAddress()));
+                    }
+                    break;
+                }
+                case WRITE_ATTRIBUTE: {
+                    final ManagedResource resource = getResource(root, relative);
+                    final MetaValue value = change.getValue();
+                    if(value == null) {
+                        resource.undefineAttribute(change.getAttributeName());
+                    } else {
+                        resource.setAttribute(change.getAttributeName(), value.clone());
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply changes to an immutable resource tree.
+     *
+     * @param root the root of the tree
+     * @param changes the changes
+     * @return the updated tree
+     * @throws IllegalArgumentException if a change does not apply to the tree
+     */
+    public static ImmutableManagedResource apply(final ImmutableManagedResource root, final List<ManagedResourceChange> changes) {
+        if(root == null) {
+            throw new IllegalArgumentException("null root");
+        }
+        if(changes == null) {
+            throw new IllegalArgumentException("null changes");
+        }
+        ImmutableManagedResource result = root;
+        for(final ManagedResourceChange change : changes) {
+            final ManagedResourceAddress relative = relativize(root.getAddress(), change.getAddress());
+            switch (change.getType()) {
+                case ADD:
+                    result = result.addChildEntity(relative.getParent(), ImmutableManagedResource.copyOf(change.getResource()));
+                    break;
+                case REMOVE: {
+                    final ImmutableManagedResource updated = result.removeChildEntity(relative);
+                    if(updated == result) {
+                        throw new IllegalArgumentException(String.format("no such entity (%s)", change.getAddress()));
+                    }
+                    result = updated;
+                    break;
+                }
+                case WRITE_ATTRIBUTE:
+                    if(change.getValue() == null) {
+                        result = result.undefineAttribute(relative, change.getAttributeName());
+                    } else {
+                        result = result.setAttribute(relative, change.getAttributeName(), change.getValue());
+                    }
+                    break;
+            }
+        }
+        return result;
+    }
+
+    static ManagedResourceAddress relativize(final ManagedResource root, final ManagedResourceAddress address) {
+        return relativize(root.getAddress(), address);
+    }
+
+    static ManagedResourceAddress relativize(final ManagedResourceAddress base, final ManagedResourceAddress address) {
+        if(address.isChildOrEquals(base) == false) {
+            throw new IllegalArgumentException(String.format("address (%s) is not part of (%s)", address, base));
+        }
+        if(base.size() == address.size()) {
+            return ManagedResourceAddress.ROOT;
+        }
+        return address.getSubAddress(base.size(), address.size());
+    }
+
+    static ManagedResource getResource(final ManagedResource root, final ManagedResourceAddress relative) {
+        final ManagedResource resource = root.getChildEntity(relative);
+        if(resource == null) {
+            throw new IllegalArgumentException(String.format("no such entity (%s)", relative));
+        }
+        return resource;
+    }
+
+}
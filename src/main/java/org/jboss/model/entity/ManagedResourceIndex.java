@@ -0,0 +1,221 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie index over a {@link ManagedResource} tree, keyed by the {@link EntityId} elements of the
+ * absolute {@link ManagedResourceAddress}. Once created the index is kept in sync by
+ * {@link ManagedResource#addChildEntity(ManagedResource)} and
+ * {@link ManagedResource#removeChildEntity(EntityId)} on any indexed resource.
+ * <p/>
+ * Like {@code ManagedResource} the index is not thread-safe.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class ManagedResourceIndex {
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Create a new index over a resource and all its descendants.
+     *
+     * @param resource the resource to index
+     */
+    public ManagedResourceIndex(final ManagedResource resource) {
+        if(resource == null) {
+            throw new IllegalArgumentException("null resource");
+        }
+        add(resource);
+    }
+
+    /**
+     * Get a resource by its absolute address.
+     *
+     * @param address the address
+     * @return the resource, <code>null</code> if it is not indexed
+     */
+    public ManagedResource get(final ManagedResourceAddress address) {
+        final Node node = find(address);
+        return node == null ? null : node.resource;
+    }
+
+    /**
+     * Get a resource and all its indexed descendants, in depth-first order.
+     *
+     * @param address the address of the subtree
+     * @return the resources, empty if nothing is indexed under the address
+     */
+    public List<ManagedResource> getSubtree(final ManagedResourceAddress address) {
+        final List<ManagedResource> resources = new ArrayList<ManagedResource>();
+        final Node node = find(address);
+        if(node != null) {
+            collect(node, resources);
+        }
+        return resources;
+    }
+
+    /**
+     * Whether a resource is indexed under the given address.
+     *
+     * @param address the address
+     * @return <code>true</code> if the address is indexed
+     */
+    public boolean contains(final ManagedResourceAddress address) {
+        return get(address) != null;
+    }
+
+    /**
+     * Get the number of indexed resources.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Index a resource and its descendants, replacing any subtree previously indexed at its address.
+     *
+     * @param resource the resource
+     */
+    void add(final ManagedResource resource) {
+        final ManagedResourceAddress address = resource.getAddress();
+        final int length = address.size();
+        Node node = root;
+        for(int i = 0; i < length; i++) {
+            node = node.getOrCreate(address.get(i));
+        }
+        clear(node);
+        index(node, resource);
+    }
+
+    /**
+     * Remove a resource and its descendants from the index.
+     *
+     * @param address the resource address
+     * @return <code>true</code> if the address was indexed
+     */
+    boolean remove(final ManagedResourceAddress address) {
+        final int length = address.size();
+        if(length == 0) {
+            final boolean indexed = root.resource != null;
+            clear(root);
+            return indexed;
+        }
+        final Node[] path = new Node[length];
+        Node node = root;
+        for(int i = 0; i < length; i++) {
+            path[i] = node;
+            node = node.get(address.get(i));
+            if(node == null) {
+                return false;
+            }
+        }
+        final boolean indexed = node.resource != null;
+        clear(node);
+        // prune the empty branch
+        for(int i = length - 1; i >= 0; i--) {
+            final Node parent = path[i];
+            parent.children.remove(address.get(i));
+            if(parent.resource != null || parent.children.isEmpty() == false || parent == root) {
+                break;
+            }
+        }
+        return indexed;
+    }
+
+    private Node find(final ManagedResourceAddress address) {
+        if(address == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        final int length = address.size();
+        Node node = root;
+        for(int i = 0; i < length && node != null; i++) {
+            node = node.get(address.get(i));
+        }
+        return node;
+    }
+
+    private void index(final Node node, final ManagedResource resource) {
+        node.resource = resource;
+        resource.setIndex(this);
+        size++;
+        for(final ManagedResource child : resource.getAllChildren()) {
+            index(node.getOrCreate(child.getAddress().getLastElement()), child);
+        }
+    }
+
+    private void clear(final Node node) {
+        if(node.resource != null) {
+            node.resource.setIndex(null);
+            node.resource = null;
+            size--;
+        }
+        if(node.children != null) {
+            for(final Node child : node.children.values()) {
+                clear(child);
+            }
+            node.children = null;
+        }
+    }
+
+    private static void collect(final Node node, final List<ManagedResource> resources) {
+        if(node.resource != null) {
+            resources.add(node.resource);
+        }
+        if(node.children != null) {
+            for(final Node child : node.children.values()) {
+                collect(child, resources);
+            }
+        }
+    }
+
+    static final class Node {
+
+        private ManagedResource resource;
+        private Map<EntityId, Node> children;
+
+        Node get(final EntityId id) {
+            return children == null ? null : children.get(id);
+        }
+
+        Node getOrCreate(final EntityId id) {
+            if(children == null) {
+                children = new HashMap<EntityId, Node>();
+            }
+            Node node = children.get(id);
+            if(node == null) {
+                node = new Node();
+                children.put(id, node);
+            }
+            return node;
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hierarchical lock manager keyed by {@link ManagedResourceAddress}.
+ * <p>
+ * Locking an address in shared or exclusive mode also takes the matching intention lock on
+ * every ancestor, so an exclusive lock on one subtree does not conflict with locks on any
+ * disjoint subtree, while still conflicting with locks on its ancestors and descendants.
+ * All locks of a request are acquired in the order defined by
+ * {@link ManagedResourceAddressComparator}, which sorts ancestors before their descendants,
+ * so concurrent requests cannot deadlock.
+ * </p>
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class ManagedResourceLockManager {
+
+    /** The lock modes. */
+    enum Mode {
+        INTENTION_SHARED,
+        INTENTION_EXCLUSIVE,
+        SHARED,
+        EXCLUSIVE,
+        ;
+
+        /**
+         * Combine two modes requested for the same address. The result is at least as strong
+         * as both modes.
+         */
+        Mode combine(final Mode other) {
+            if(this == other) {
+                return this;
+            }
+            if(this == EXCLUSIVE || other == EXCLUSIVE) {
+                return EXCLUSIVE;
+            }
+            if(this == INTENTION_SHARED) {
+                return other;
+            }
+            if(other == INTENTION_SHARED) {
+                return this;
+            }
+            // shared + intention exclusive
+            return EXCLUSIVE;
+        }
+
+        Mode intention() {
+            return this == SHARED || this == INTENTION_SHARED ? INTENTION_SHARED : INTENTION_EXCLUSIVE;
+        }
+    }
+
+    private final ConcurrentMap<ManagedResourceAddress, Node> locks = new ConcurrentHashMap<ManagedResourceAddress, Node>();
+
+    /**
+     * Acquire the locks for a request. Blocks until all locks are held.
+     *
+     * @param shared the addresses to lock shared
+     * @param exclusive the addresses to lock exclusive
+     * @return the held locks
+     */
+    Locks lock(final Collection<ManagedResourceAddress> shared, final Collection<ManagedResourceAddress> exclusive) {
+        final Map<ManagedResourceAddress, Mode> modes = new TreeMap<ManagedResourceAddress, Mode>(ManagedResourceAddressComparator.INSTANCE);
+        for(final ManagedResourceAddress address : shared) {
+            add(modes, address, Mode.SHARED);
+        }
+        for(final ManagedResourceAddress address : exclusive) {
+            add(modes, address, Mode.EXCLUSIVE);
+        }
+        final Locks locks = new Locks(modes.size());
+        boolean ok = false;
+        try {
+            for(final Map.Entry<ManagedResourceAddress, Mode> entry : modes.entrySet()) {
+                locks.add(acquire(entry.getKey(), entry.getValue()));
+            }
+            ok = true;
+        } finally {
+            if(ok == false) {
+                locks.release();
+            }
+        }
+        return locks;
+    }
+
+    /**
+     * Get the number of addresses currently locked or waited for.
+     *
+     * @return the number of lock entries
+     */
+    int size() {
+        return locks.size();
+    }
+
+    static void add(final Map<ManagedResourceAddress, Mode> modes, final ManagedResourceAddress address, final Mode mode) {
+        if(address == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        final Mode intention = mode.intention();
+        for(int i = 0; i < address.size(); i++) {
+            merge(modes, address.getAncestor(i), intention);
+        }
+        merge(modes, address, mode);
+    }
+
+    static void merge(final Map<ManagedResourceAddress, Mode> modes, final ManagedResourceAddress address, final Mode mode) {
+        final Mode existing = modes.get(address);
+        modes.put(address, existing == null ? mode : existing.combine(mode));
+    }
+
+    Held acquire(final ManagedResourceAddress address, final Mode mode) {
+        for(;;) {
+            Node node = locks.get(address);
+            if(node == null) {
+                final Node created = new Node();
+                node = locks.putIfAbsent(address, created);
+                if(node == null) {
+                    node = created;
+                }
+            }
+            synchronized (node) {
+                if(node.retired) {
+                    // removed concurrently, retry with a new node
+                    continue;
+                }
+                node.users++;
+                boolean interrupted = false;
+                while(node.isCompatible(mode) == false) {
+                    try {
+                        node.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                node.held[mode.ordinal()]++;
+                if(interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new Held(address, node, mode);
+        }
+    }
+
+    void release(final Held held) {
+        final Node node = held.node;
+        synchronized (node) {
+            node.held[held.mode.ordinal()]--;
+            if(--node.users == 0) {
+                node.retired = true;
+                locks.remove(held.address, node);
+            } else {
+                node.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * The lock state of a single address.
+     */
+    static final class Node {
+
+        /** The number of holders per mode. */
+        final int[] held = new int[4];
+        /** The number of holders and waiters. */
+        int users;
+        /** Whether this node was removed from the lock table. */
+        boolean retired;
+
+        boolean isCompatible(final Mode mode) {
+            final int is = held[Mode.INTENTION_SHARED.ordinal()];
+            final int ix = held[Mode.INTENTION_EXCLUSIVE.ordinal()];
+            final int s = held[Mode.SHARED.ordinal()];
+            final int x = held[Mode.EXCLUSIVE.ordinal()];
+            switch (mode) {
+                case INTENTION_SHARED:
+                    return x == 0;
+                case INTENTION_EXCLUSIVE:
+                    return s == 0 && x == 0;
+                case SHARED:
+                    return ix == 0 && x == 0;
+                default:
+                    return is == 0 && ix == 0 && s == 0 && x == 0;
+            }
+        }
+    }
+
+    /**
+     * A single held lock.
+     */
+    static final class Held {
+
+        final ManagedResourceAddress address;
+        final Node node;
+        final Mode mode;
+
+        Held(final ManagedResourceAddress address, final Node node, final Mode mode) {
+            this.address = address;
+            this.node = node;
+            this.mode = mode;
+        }
+    }
+
+    /**
+     * The locks held for a request, released in reverse acquisition order.
+     */
+    final class Locks {
+
+        private final List<Held> held;
+
+        Locks(final int size) {
+            this.held = new ArrayList<Held>(size);
+        }
+
+        void add(final Held lock) {
+            held.add(lock);
+        }
+
+        void release() {
+            for(int i = held.size() - 1; i >= 0; i--) {
+                ManagedResourceLockManager.this.release(held.get(i));
+            }
+            held.clear();
+        }
+    }
+
+}
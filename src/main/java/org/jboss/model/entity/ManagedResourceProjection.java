@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * A partial view definition for reading a {@link ManagedResource} tree.
+ * <p>
+ * Projecting a tree only copies the resources within the projection: resources beyond the
+ * maximum depth and children of types not selected by the child type filter are returned as
+ * {@link ManagedResource#isIdOnly() idOnly} placeholders, without copying their attributes or
+ * visiting their subtrees. The attribute filter selects the attribute values copied for the
+ * resources within the projection. The root of the projected tree is always complete.
+ * </p>
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceProjection {
+
+    /** The unlimited depth. */
+    public static final int UNLIMITED = -1;
+
+    private int maxDepth = UNLIMITED;
+    private final Set<EntityIdType> childTypes = new HashSet<EntityIdType>();
+    private final Set<String> attributes = new HashSet<String>();
+
+    public static ManagedResourceProjection create() {
+        return new ManagedResourceProjection();
+    }
+
+    /**
+     * Set the maximum depth of complete resources, relative to the root of the projection.
+     * The children at <code>maxDepth + 1</code> are included as placeholders.
+     *
+     * @param maxDepth the max depth, or {@link #UNLIMITED}
+     * @return this
+     */
+    public ManagedResourceProjection setMaxDepth(final int maxDepth) {
+        if(maxDepth < UNLIMITED) {
+            throw new IllegalArgumentException("invalid max depth " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Select a child type to include. If no type is selected, all children are included.
+     *
+     * @param type the child type
+     * @return this
+     */
+    public ManagedResourceProjection addChildType(final EntityIdType type) {
+        if(type == null) {
+            throw new IllegalArgumentException("null child type");
+        }
+        childTypes.add(type);
+        return this;
+    }
+
+    /**
+     * Select an attribute to include. If no attribute is selected, all attributes are included.
+     *
+     * @param attributeName the attribute name
+     * @return this
+     */
+    public ManagedResourceProjection addAttribute(final String attributeName) {
+        if(attributeName == null) {
+            throw new IllegalArgumentException("null attribute name");
+        }
+        attributes.add(attributeName);
+        return this;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public Set<EntityIdType> getChildTypes() {
+        return Collections.unmodifiableSet(childTypes);
+    }
+
+    public Set<String> getAttributes() {
+        return Collections.unmodifiableSet(attributes);
+    }
+
+    /**
+     * Create the projection of a resource tree.
+     *
+     * @param resource the root of the tree
+     * @return the projected tree
+     */
+    public ManagedResource project(final ManagedResource resource) {
+        if(resource == null) {
+            throw new IllegalArgumentException("null resource");
+        }
+        return project(resource, 0);
+    }
+
+    ManagedResource project(final ManagedResource source, final int depth) {
+        if(source.isIdOnly()) {
+            return placeholder(source);
+        }
+        final ManagedResource target = new ManagedResource(source.getAddress(), source.getEntityInfo());
+        final Map<String, MetaValue> values = target.getAttributeValues();
+        if(attributes.isEmpty()) {
+            for(final Map.Entry<String, MetaValue> entry : source.getAttributeValues().entrySet()) {
+                values.put(entry.getKey(), copy(entry.getValue()));
+            }
+        } else {
+            final Map<String, MetaValue> sourceValues = source.getAttributeValues();
+            for(final String attribute : attributes) {
+                if(sourceValues.containsKey(attribute)) {
+                    values.put(attribute, copy(sourceValues.get(attribute)));
+                }
+            }
+        }
+        final boolean complete = maxDepth == UNLIMITED || depth < maxDepth;
+        for(final ManagedResource child : source.getAllChildren()) {
+            final EntityId id = child.getAddress().getLastElement();
+            if(complete && (childTypes.isEmpty() || childTypes.contains(id.getElementType()))) {
+                target.addChildEntity(id, project(child, depth + 1));
+            } else {
+                target.addChildEntity(id, placeholder(child));
+            }
+        }
+        return target;
+    }
+
+    static ManagedResource placeholder(final ManagedResource resource) {
+        return new ManagedResource(resource.getAddress(), resource.getEntityInfo(), true);
+    }
+
+    static MetaValue copy(final MetaValue value) {
+        return value != null ? value.clone() : null;
+    }
+
+}
@@ -0,0 +1,451 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * Thread-safe store for a {@link ManagedResource} tree.
+ * <p>
+ * Every access locks the addressed resource, shared for reads and exclusive for writes, and
+ * takes the matching intention locks on its ancestors. Reads and writes on disjoint subtrees
+ * therefore run concurrently, e.g. a write to one subsystem does not block reads of another,
+ * while a write still excludes concurrent access to the resource's own subtree. Adding or
+ * removing a child locks the parent exclusively.
+ * </p>
+ * <p>
+ * All addresses are relative to the root resource of the store. The resources of the store
+ * must only be accessed through the store, and must not be part of a {@link ManagedResourceIndex}.
+ * </p>
+ * <p>
+ * Next to the locked tree the store keeps a persistent {@link ImmutableManagedResource} version
+ * of it, which is updated before the exclusive locks of a write are released. A
+ * {@link #snapshot(ManagedResourceAddress) snapshot} is a lock-free read of the current version.
+ * The resources of the store record their changes in a journal, and only the recorded changes
+ * are applied to the version, together once a write action completes. Write actions must
+ * therefore change the resources through their mutators, and must not modify attribute values
+ * in place.
+ * </p>
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceStore {
+
+    private static final Collection<ManagedResourceAddress> NONE = Collections.emptySet();
+
+    private final ManagedResource root;
+    private final AtomicReference<ImmutableManagedResource> version;
+    private final ManagedResourceLockManager lockManager = new ManagedResourceLockManager();
+    private final Journal journal;
+
+    public ManagedResourceStore(final ManagedResource root) {
+        if(root == null) {
+            throw new IllegalArgumentException("null root");
+        }
+        this.root = root;
+        this.version = new AtomicReference<ImmutableManagedResource>(ImmutableManagedResource.copyOf(root));
+        this.journal = new Journal(root.getAddress().size());
+        journal.attach(root);
+    }
+
+    /**
+     * Execute an action holding a shared lock on a resource.
+     *
+     * @param <T> the result type
+     * @param address the resource address
+     * @param action the action, which must not modify or retain the resource
+     * @return the result of the action
+     * @throws IllegalArgumentException if the resource does not exist
+     */
+    public <T> T read(final ManagedResourceAddress address, final Action<T> action) {
+        if(action == null) {
+            throw new IllegalArgumentException("null action");
+        }
+        final ManagedResourceLockManager.Locks locks = lockManager.lock(Collections.singleton(address), NONE);
+        try {
+            return action.execute(getResource(address));
+        } finally {
+            locks.release();
+        }
+    }
+
+    /**
+     * Execute an action holding an exclusive lock on a resource.
+     *
+     * @param <T> the result type
+     * @param address the resource address
+     * @param action the action, which must not retain the resource
+     * @return the result of the action
+     * @throws IllegalArgumentException if the resource does not exist
+     */
+    public <T> T write(final ManagedResourceAddress address, final Action<T> action) {
+        if(action == null) {
+            throw new IllegalArgumentException("null action");
+        }
+        final ManagedResourceLockManager.Locks locks = lockManager.lock(NONE, Collections.singleton(address));
+        final boolean outer = journal.begin();
+        try {
+            return action.execute(getResource(address));
+        } finally {
+            try {
+                if(outer) {
+                    journal.commit();
+                }
+            } finally {
+                locks.release();
+            }
+        }
+    }
+
+    /**
+     * Execute an action holding shared locks on a set of resources and exclusive locks on
+     * another. The resources are looked up by the action using the root passed to it.
+     *
+     * @param <T> the result type
+     * @param shared the addresses to lock shared
+     * @param exclusive the addresses to lock exclusive
+     * @param action the action
+     * @return the result of the action
+     */
+    public <T> T execute(final Collection<ManagedResourceAddress> shared, final Collection<ManagedResourceAddress> exclusive, final Action<T> action) {
+        if(shared == null) {
+            throw new IllegalArgumentException("null shared addresses");
+        }
+        if(exclusive == null) {
+            throw new IllegalArgumentException("null exclusive addresses");
+        }
+        if(action == null) {
+            throw new IllegalArgumentException("null action");
+        }
+        final ManagedResourceLockManager.Locks locks = lockManager.lock(shared, exclusive);
+        final boolean outer = journal.begin();
+        try {
+            return action.execute(root);
+        } finally {
+            try {
+                if(outer) {
+                    journal.commit();
+                }
+            } finally {
+                locks.release();
+            }
+        }
+    }
+
+    /**
+     * Check whether a resource exists.
+     *
+     * @param address the resource address
+     * @return true if the resource exists, false otherwise
+     */
+    public boolean contains(final ManagedResourceAddress address) {
+        if(address == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        if(address.isRoot()) {
+            return true;
+        }
+        final ManagedResourceLockManager.Locks locks = lockManager.lock(Collections.singleton(address.getParent()), NONE);
+        try {
+            return root.getChildEntity(address) != null;
+        } finally {
+            locks.release();
+        }
+    }
+
+    /**
+     * Get a copy of an attribute value.
+     *
+     * @param address the resource address
+     * @param attributeName the attribute name
+     * @return the attribute value, <code>null</code> if not set
+     */
+    public MetaValue getAttribute(final ManagedResourceAddress address, final String attributeName) {
+        return read(address, new Action<MetaValue>() {
+            public MetaValue execute(final ManagedResource resource) {
+                final MetaValue value = resource.getAttribute(attributeName);
+                return value != null ? value.clone() : null;
+            }
+        });
+    }
+
+    /**
+     * Set an attribute value.
+     *
+     * @param address the resource address
+     * @param attributeName the attribute name
+     * @param value the value to set
+     * @throws IllegalArgumentException if the types don't match
+     */
+    public void setAttribute(final ManagedResourceAddress address, final String attributeName, final MetaValue value) {
+        final ManagedResourceLockManager.Locks locks = lockManager.lock(NONE, Collections.singleton(address));
+        try {
+            getResource(address).setAttribute(attributeName, value != null ? value.clone() : null);
+        } finally {
+            locks.release();
+        }
+    }
+
+    /**
+     * Add a child resource.
+     *
+     * @param parent the parent address
+     * @param child the child resource
+     */
+    public void addChildEntity(final ManagedResourceAddress parent, final ManagedResource child) {
+        if(child == null) {
+            throw new IllegalArgumentException("null entity");
+        }
+        final ManagedResourceLockManager.Locks locks = lockManager.lock(NONE, Collections.singleton(parent));
+        try {
+            getResource(parent).addChildEntity(child);
+        } finally {
+            locks.release();
+        }
+    }
+
+    /**
+     * Remove a child resource.
+     *
+     * @param address the address of the resource to remove
+     * @return true if the resource was removed, false otherwise
+     */
+    public boolean removeChildEntity(final ManagedResourceAddress address) {
+        if(address == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        if(address.isRoot()) {
+            throw new IllegalArgumentException("cannot remove the root resource");
+        }
+        final ManagedResourceLockManager.Locks locks = lockManager.lock(NONE, Collections.singleton(address.getParent()));
+        try {
+            return getResource(address.getParent()).removeChildEntity(address.getLastElement());
+        } finally {
+            locks.release();
+        }
+    }
+
+    /**
+     * Read a partial view of a subtree.
+     *
+     * @param address the resource address
+     * @param projection the projection
+     * @return the projected subtree
+     */
+    public ManagedResource read(final ManagedResourceAddress address, final ManagedResourceProjection projection) {
+        if(projection == null) {
+            throw new IllegalArgumentException("null projection");
+        }
+        return read(address, new Action<ManagedResource>() {
+            public ManagedResource execute(final ManagedResource resource) {
+                return projection.project(resource);
+            }
+        });
+    }
+
+    /**
+     * Take an immutable snapshot of a subtree. This does not lock or copy anything, the snapshot
+     * is the subtree of the current version and reflects all completed writes.
+     *
+     * @param address the resource address
+     * @return the snapshot
+     * @throws IllegalArgumentException if the resource does not exist
+     */
+    public ImmutableManagedResource snapshot(final ManagedResourceAddress address) {
+        if(address == null) {
+            throw new IllegalArgumentException("null address");
+        }
+        final ImmutableManagedResource resource = version.get().getChildEntity(address);
+        if(resource == null) {
+            throw new IllegalArgumentException(String.format("no such entity (%s)", address));
+        }
+        return resource;
+    }
+
+    ManagedResource getResource(final ManagedResourceAddress address) {
+        final ManagedResource resource = root.getChildEntity(address);
+        if(resource == null) {
+            throw new IllegalArgumentException(String.format("no such entity (%s)", address));
+        }
+        return resource;
+    }
+
+    /**
+     * Apply an update to the current version. Writers of disjoint subtrees can publish
+     * concurrently, so the update is retried on contention.
+     */
+    private void publish(final Update update) {
+        for(;;) {
+            final ImmutableManagedResource current = version.get();
+            if(version.compareAndSet(current, update.apply(current))) {
+                return;
+            }
+        }
+    }
+
+    private abstract static class Update {
+
+        abstract ImmutableManagedResource apply(ImmutableManagedResource current);
+
+    }
+
+    /**
+     * Records the changes the resources of the store report from their mutators. Changes made
+     * within a write action are collected per thread and published once the action completes,
+     * other changes are published right away.
+     */
+    final class Journal {
+
+        /** The changes of the current write action. */
+        private final ThreadLocal<List<Update>> pending = new ThreadLocal<List<Update>>();
+        /** The size of the root address, stripped from the resource addresses. */
+        private final int base;
+
+        Journal(final int base) {
+            this.base = base;
+        }
+
+        /**
+         * Start collecting the changes of the current thread.
+         *
+         * @return <code>false</code> if already collecting
+         */
+        boolean begin() {
+            if(pending.get() != null) {
+                return false;
+            }
+            pending.set(new ArrayList<Update>());
+            return true;
+        }
+
+        /**
+         * Publish the collected changes of the current thread.
+         */
+        void commit() {
+            final List<Update> updates = pending.get();
+            pending.remove();
+            if(updates.isEmpty()) {
+                return;
+            }
+            publish(new Update() {
+                ImmutableManagedResource apply(ImmutableManagedResource current) {
+                    for(final Update update : updates) {
+                        current = update.apply(current);
+                    }
+                    return current;
+                }
+            });
+        }
+
+        void attributeSet(final ManagedResource resource, final String attributeName, final MetaValue value) {
+            final ManagedResourceAddress address = relative(resource);
+            record(new Update() {
+                ImmutableManagedResource apply(final ImmutableManagedResource current) {
+                    return current.setAttribute(address, attributeName, value);
+                }
+            });
+        }
+
+        void attributeUndefined(final ManagedResource resource, final String attributeName) {
+            final ManagedResourceAddress address = relative(resource);
+            record(new Update() {
+                ImmutableManagedResource apply(final ImmutableManagedResource current) {
+                    return current.undefineAttribute(address, attributeName);
+                }
+            });
+        }
+
+        void childAdded(final ManagedResource parent, final ManagedResource child) {
+            attach(child);
+            final ManagedResourceAddress address = relative(parent);
+            final ImmutableManagedResource copy = ImmutableManagedResource.copyOf(child);
+            record(new Update() {
+                ImmutableManagedResource apply(final ImmutableManagedResource current) {
+                    return current.addChildEntity(address, copy);
+                }
+            });
+        }
+
+        void childRemoved(final ManagedResource child) {
+            final ManagedResourceAddress address = relative(child);
+            detach(child);
+            record(new Update() {
+                ImmutableManagedResource apply(final ImmutableManagedResource current) {
+                    return current.removeChildEntity(address);
+                }
+            });
+        }
+
+        void attach(final ManagedResource resource) {
+            resource.setJournal(this);
+            for(final ManagedResource child : resource.getAllChildren()) {
+                attach(child);
+            }
+        }
+
+        void detach(final ManagedResource resource) {
+            resource.setJournal(null);
+            for(final ManagedResource child : resource.getAllChildren()) {
+                detach(child);
+            }
+        }
+
+        private void record(final Update update) {
+            final List<Update> updates = pending.get();
+            if(updates != null) {
+                updates.add(update);
+            } else {
+                publish(update);
+            }
+        }
+
+        private ManagedResourceAddress relative(final ManagedResource resource) {
+            final ManagedResourceAddress address = resource.getAddress();
+            return base == 0 ? address : address.getSubAddress(base, address.size());
+        }
+    }
+
+    /**
+     * An action executed while holding the locks.
+     *
+     * @param <T> the result type
+     */
+    public interface Action<T> {
+
+        /**
+         * Execute the action.
+         *
+         * @param resource the locked resource
+         * @return the result
+         */
+        T execute(ManagedResource resource);
+
+    }
+
+}
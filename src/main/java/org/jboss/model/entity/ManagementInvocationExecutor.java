@@ -0,0 +1,247 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jboss.model.entity.info.Impact;
+import org.jboss.model.entity.info.ManagedResourceInfo;
+import org.jboss.model.entity.info.ManagedResourceInfoUtils;
+import org.jboss.model.entity.info.ManagedResourceOperationInfo;
+
+/**
+ * Executes batches of {@link ManagementInvocation}s against a {@link ManagedResourceStore}.
+ * <p>
+ * The invocations of a batch are grouped by their target address. For each group the operations
+ * are resolved against the {@link ManagedResourceInfo} of the target's
+ * {@link ManagedResourceStore#snapshot(ManagedResourceAddress) snapshot}, without locking, and
+ * the target resource is then locked and looked up once. The invocations of a group run in order, independent groups
+ * run in parallel on the given executor. A group only takes a shared lock if all its
+ * operations are {@link Impact#READ_ONLY}.
+ * </p>
+ * <p>
+ * Every failure, including {@code Error}s, is recorded as the {@link ManagementInvocationResult}
+ * of the affected invocations, so each invocation of a batch has a result.
+ * </p>
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class ManagementInvocationExecutor {
+
+    private final ManagedResourceStore store;
+    private final ManagementOperationHandler handler;
+    private final Executor executor;
+
+    public ManagementInvocationExecutor(final ManagedResourceStore store, final ManagementOperationHandler handler, final Executor executor) {
+        if(store == null) {
+            throw new IllegalArgumentException("null store");
+        }
+        if(handler == null) {
+            throw new IllegalArgumentException("null handler");
+        }
+        if(executor == null) {
+            throw new IllegalArgumentException("null executor");
+        }
+        this.store = store;
+        this.handler = handler;
+        this.executor = executor;
+    }
+
+    /**
+     * Execute a batch of invocations. Blocks until all invocations completed. If the executor
+     * rejects a group it runs on the calling thread.
+     *
+     * @param invocations the invocations
+     * @return the results, in the order of the invocations
+     */
+    public List<ManagementInvocationResult> execute(final List<ManagementInvocation> invocations) {
+        if(invocations == null) {
+            throw new IllegalArgumentException("null invocations");
+        }
+        final ManagementInvocationResult[] results = new ManagementInvocationResult[invocations.size()];
+        final Map<ManagedResourceAddress, List<Integer>> groups = new LinkedHashMap<ManagedResourceAddress, List<Integer>>();
+        for(int i = 0; i < results.length; i++) {
+            final ManagementInvocation invocation = invocations.get(i);
+            if(invocation == null) {
+                throw new IllegalArgumentException("null invocation");
+            }
+            if(invocation.getEntityAddress() == null) {
+                throw new IllegalArgumentException("null invocation address");
+            }
+            if(invocation.getOperationId() == null) {
+                throw new IllegalArgumentException("null operation id");
+            }
+            List<Integer> group = groups.get(invocation.getEntityAddress());
+            if(group == null) {
+                group = new ArrayList<Integer>();
+                groups.put(invocation.getEntityAddress(), group);
+            }
+            group.add(Integer.valueOf(i));
+        }
+        final List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(groups.size());
+        try {
+            Group first = null;
+            for(final Map.Entry<ManagedResourceAddress, List<Integer>> entry : groups.entrySet()) {
+                final Group group = new Group(entry.getKey(), entry.getValue(), invocations, results);
+                if(first == null) {
+                    // run the first group on the calling thread
+                    first = group;
+                } else {
+                    final FutureTask<Void> task = new FutureTask<Void>(group, null);
+                    tasks.add(task);
+                    try {
+                        executor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        task.run();
+                    }
+                }
+            }
+            if(first != null) {
+                first.run();
+            }
+        } finally {
+            await(tasks);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Wait for the submitted groups, also if the calling thread is interrupted.
+     */
+    private static void await(final List<FutureTask<Void>> tasks) {
+        boolean interrupted = false;
+        for(final FutureTask<Void> task : tasks) {
+            for(;;) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // not thrown, a group records its failures in the results
+                    break;
+                }
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The invocations targeting a single address.
+     */
+    class Group implements Runnable {
+
+        private final ManagedResourceAddress address;
+        private final List<Integer> indexes;
+        private final List<ManagementInvocation> invocations;
+        private final ManagementInvocationResult[] results;
+
+        Group(final ManagedResourceAddress address, final List<Integer> indexes, final List<ManagementInvocation> invocations,
+                final ManagementInvocationResult[] results) {
+            this.address = address;
+            this.indexes = indexes;
+            this.invocations = invocations;
+            this.results = results;
+        }
+
+        public void run() {
+            try {
+                invoke();
+            } catch (Throwable t) {
+                fail(t);
+            }
+        }
+
+        private void invoke() {
+            // resolve against the lock-free snapshot, the action checks that the resource was not replaced since
+            final ManagedResourceInfo info = store.snapshot(address).getEntityInfo();
+            final int size = indexes.size();
+            final ManagedResourceOperationInfo[] operations = new ManagedResourceOperationInfo[size];
+            boolean readOnly = true;
+            boolean resolved = false;
+            for(int i = 0; i < size; i++) {
+                final int index = indexes.get(i).intValue();
+                final ManagementInvocation invocation = invocations.get(index);
+                final ManagedResourceOperationInfo operation = ManagedResourceInfoUtils.resolveOperationInfo(info, invocation.getOperationId(), invocation.getParams());
+                if(operation == null) {
+                    results[index] = new ManagementInvocationResult(invocation, null,
+                            new IllegalArgumentException(String.format("no matching operation (%s) for (%s)", invocation.getOperationId(), address)));
+                    continue;
+                }
+                operations[i] = operation;
+                readOnly &= operation.getImpact() == Impact.READ_ONLY;
+                resolved = true;
+            }
+            if(resolved == false) {
+                return;
+            }
+            final ManagedResourceStore.Action<Void> action = new ManagedResourceStore.Action<Void>() {
+                public Void execute(final ManagedResource resource) {
+                    if(resource.getEntityInfo() != info) {
+                        throw new IllegalStateException(String.format("entity (%s) was replaced concurrently", address));
+                    }
+                    for(int i = 0; i < size; i++) {
+                        if(operations[i] == null) {
+                            continue;
+                        }
+                        final int index = indexes.get(i).intValue();
+                        final ManagementInvocation invocation = invocations.get(index);
+                        try {
+                            results[index] = new ManagementInvocationResult(invocation, handler.invoke(resource, operations[i], invocation.getParams()), null);
+                        } catch (Throwable t) {
+                            results[index] = new ManagementInvocationResult(invocation, null, t);
+                        }
+                    }
+                    return null;
+                }
+            };
+            if(readOnly) {
+                store.read(address, action);
+            } else {
+                store.write(address, action);
+            }
+        }
+
+        /**
+         * Record a failure for all invocations of the group without a result.
+         */
+        void fail(final Throwable t) {
+            for(final Integer index : indexes) {
+                if(results[index.intValue()] == null) {
+                    results[index.intValue()] = new ManagementInvocationResult(invocations.get(index.intValue()), null, t);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * The outcome of a {@link ManagementInvocation}, either a result value or a failure.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class ManagementInvocationResult {
+
+    private final ManagementInvocation invocation;
+    private final MetaValue result;
+    private final Throwable failure;
+
+    ManagementInvocationResult(final ManagementInvocation invocation, final MetaValue result, final Throwable failure) {
+        this.invocation = invocation;
+        this.result = result;
+        this.failure = failure;
+    }
+
+    public ManagementInvocation getInvocation() {
+        return invocation;
+    }
+
+    /**
+     * Get the result value.
+     *
+     * @return the result, <code>null</code> if the operation failed or did not return a value
+     */
+    public MetaValue getResult() {
+        return result;
+    }
+
+    /**
+     * Get the failure.
+     *
+     * @return the failure, <code>null</code> if the operation succeeded
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[invocation=" + invocation.getOperationId() + "@" + invocation.getEntityAddress()
+                + (failure == null ? ", result=" + result : ", failure=" + failure) + "]";
+    }
+
+}
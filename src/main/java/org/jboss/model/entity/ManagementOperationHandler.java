@@ -0,0 +1,47 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import org.jboss.model.entity.info.ManagedResourceOperationInfo;
+import org.jboss.model.values.MetaValue;
+
+/**
+ * Executes a resolved management operation against a managed resource.
+ *
+ * @see ManagementInvocationExecutor
+ * @author Emanuel Muckenhuber
+ */
+public interface ManagementOperationHandler {
+
+    /**
+     * Invoke an operation. This is called while holding the lock on the resource, shared
+     * for {@link org.jboss.model.entity.info.Impact#READ_ONLY} operations and exclusive otherwise.
+     *
+     * @param resource the target resource
+     * @param operation the resolved operation
+     * @param params the invocation parameters, matching the operation signature
+     * @return the operation result
+     */
+    MetaValue invoke(ManagedResource resource, ManagedResourceOperationInfo operation, MetaValue[] params);
+
+}
@@ -0,0 +1,442 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.model.entity;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash array mapped trie. {@link #with(Object, Object)} and {@link #without(Object)}
+ * return a new map, copying only the nodes on the path to the changed key and sharing all other
+ * nodes with this map, so an update costs O(log32 n) instead of a full copy.
+ * <p/>
+ * The {@code Map} mutators are not supported. Keys must not be <code>null</code>.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+    private static final long serialVersionUID = -2372178465139260574L;
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentHashMap EMPTY = new PersistentHashMap(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Get the empty map.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get a map with a key mapped to a value, replacing an existing mapping.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the updated map
+     */
+    PersistentHashMap<K, V> with(final K key, final V value) {
+        if(key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        final Leaf leaf = new Leaf(key, hash(key), value);
+        if(root == null) {
+            return new PersistentHashMap<K, V>(leaf, 1);
+        }
+        final boolean added = root.find(key, leaf.hash, 0) == null;
+        return new PersistentHashMap<K, V>(root.with(leaf, 0), added ? size + 1 : size);
+    }
+
+    /**
+     * Get a map without the mapping for a key.
+     *
+     * @param key the key
+     * @return the updated map, or this map if the key is not mapped
+     */
+    PersistentHashMap<K, V> without(final Object key) {
+        if(containsKey(key) == false) {
+            return this;
+        }
+        final Node updated = root.without(key, hash(key), 0);
+        return updated == null ? PersistentHashMap.<K, V>empty() : new PersistentHashMap<K, V>(updated, size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(final Object key) {
+        return find(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        final Leaf leaf = find(key);
+        return leaf == null ? null : (V) leaf.value;
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<K, V>(root);
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private Leaf find(final Object key) {
+        if(key == null || root == null) {
+            return null;
+        }
+        return root.find(key, hash(key), 0);
+    }
+
+    static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Create the smallest subtree holding two nodes with different hashes.
+     */
+    static Node merge(final Node first, final int firstHash, final Node second, final int secondHash, final int shift) {
+        final int firstIndex = (firstHash >>> shift) & MASK;
+        final int secondIndex = (secondHash >>> shift) & MASK;
+        if(firstIndex == secondIndex) {
+            return new Branch(1 << firstIndex, new Node[] { merge(first, firstHash, second, secondHash, shift + BITS) });
+        }
+        final int bitmap = (1 << firstIndex) | (1 << secondIndex);
+        return new Branch(bitmap, firstIndex < secondIndex ? new Node[] { first, second } : new Node[] { second, first });
+    }
+
+    abstract static class Node implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        abstract Leaf find(Object key, int hash, int shift);
+
+        abstract Node with(Leaf leaf, int shift);
+
+        /** Remove a mapped key, <code>null</code> if the node is empty afterwards. */
+        abstract Node without(Object key, int hash, int shift);
+
+        /** The child nodes, <code>null</code> for a leaf. */
+        abstract Node[] children();
+
+    }
+
+    static final class Leaf extends Node implements Map.Entry<Object, Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        final Object key;
+        final int hash;
+        final Object value;
+
+        Leaf(final Object key, final int hash, final Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+
+        Leaf find(final Object key, final int hash, final int shift) {
+            return this.hash == hash && this.key.equals(key) ? this : null;
+        }
+
+        Node with(final Leaf leaf, final int shift) {
+            if(leaf.hash != hash) {
+                return merge(this, hash, leaf, leaf.hash, shift);
+            }
+            if(key.equals(leaf.key)) {
+                return leaf;
+            }
+            return new Collision(hash, new Leaf[] { this, leaf });
+        }
+
+        Node without(final Object key, final int hash, final int shift) {
+            return null;
+        }
+
+        Node[] children() {
+            return null;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public Object setValue(final Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean equals(final Object obj) {
+            if(obj instanceof Map.Entry<?, ?> == false) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return key.equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Inner node, holding one child for each bit set in the bitmap.
+     */
+    static final class Branch extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        final int bitmap;
+        final Node[] nodes;
+
+        Branch(final int bitmap, final Node[] nodes) {
+            this.bitmap = bitmap;
+            this.nodes = nodes;
+        }
+
+        Leaf find(final Object key, final int hash, final int shift) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if((bitmap & bit) == 0) {
+                return null;
+            }
+            return nodes[index(bit)].find(key, hash, shift + BITS);
+        }
+
+        Node with(final Leaf leaf, final int shift) {
+            final int bit = 1 << ((leaf.hash >>> shift) & MASK);
+            final int index = index(bit);
+            if((bitmap & bit) == 0) {
+                final Node[] updated = new Node[nodes.length + 1];
+                System.arraycopy(nodes, 0, updated, 0, index);
+                updated[index] = leaf;
+                System.arraycopy(nodes, index, updated, index + 1, nodes.length - index);
+                return new Branch(bitmap | bit, updated);
+            }
+            return replace(index, nodes[index].with(leaf, shift + BITS));
+        }
+
+        Node without(final Object key, final int hash, final int shift) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            final int index = index(bit);
+            final Node child = nodes[index].without(key, hash, shift + BITS);
+            if(child != null) {
+                if(nodes.length == 1 && child.children() == null) {
+                    // a single leaf does not need a branch
+                    return child;
+                }
+                return replace(index, child);
+            }
+            if(nodes.length == 1) {
+                return null;
+            }
+            if(nodes.length == 2 && nodes[1 - index].children() == null) {
+                return nodes[1 - index];
+            }
+            final Node[] updated = new Node[nodes.length - 1];
+            System.arraycopy(nodes, 0, updated, 0, index);
+            System.arraycopy(nodes, index + 1, updated, index, updated.length - index);
+            return new Branch(bitmap & ~bit, updated);
+        }
+
+        Node[] children() {
+            return nodes;
+        }
+
+        private Node replace(final int index, final Node child) {
+            final Node[] updated = nodes.clone();
+            updated[index] = child;
+            return new Branch(bitmap, updated);
+        }
+
+        private int index(final int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * Leaves with equal hashes but different keys.
+     */
+    static final class Collision extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        final int hash;
+        final Leaf[] leaves;
+
+        Collision(final int hash, final Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        Leaf find(final Object key, final int hash, final int shift) {
+            if(this.hash != hash) {
+                return null;
+            }
+            for(final Leaf leaf : leaves) {
+                if(leaf.key.equals(key)) {
+                    return leaf;
+                }
+            }
+            return null;
+        }
+
+        Node with(final Leaf leaf, final int shift) {
+            if(leaf.hash != hash) {
+                return merge(this, hash, leaf, leaf.hash, shift);
+            }
+            for(int i = 0; i < leaves.length; i++) {
+                if(leaves[i].key.equals(leaf.key)) {
+                    final Leaf[] updated = leaves.clone();
+                    updated[i] = leaf;
+                    return new Collision(hash, updated);
+                }
+            }
+            final Leaf[] updated = new Leaf[leaves.length + 1];
+            System.arraycopy(leaves, 0, updated, 0, leaves.length);
+            updated[leaves.length] = leaf;
+            return new Collision(hash, updated);
+        }
+
+        Node without(final Object key, final int hash, final int shift) {
+            int index = 0;
+            while(leaves[index].key.equals(key) == false) {
+                index++;
+            }
+            if(leaves.length == 2) {
+                return leaves[1 - index];
+            }
+            final Leaf[] updated = new Leaf[leaves.length - 1];
+            System.arraycopy(leaves, 0, updated, 0, index);
+            System.arraycopy(leaves, index + 1, updated, index, updated.length - index);
+            return new Collision(hash, updated);
+        }
+
+        Node[] children() {
+            return leaves;
+        }
+    }
+
+    /**
+     * Depth-first iterator over the leaves.
+     */
+    static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        /** The trie is at most 7 levels deep, plus a collision node. */
+        private final Node[][] stack = new Node[8][];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Leaf next;
+
+        EntryIterator(final Node root) {
+            if(root != null) {
+                if(root.children() == null) {
+                    next = (Leaf) root;
+                } else {
+                    push(root.children());
+                    advance();
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            final Leaf current = next;
+            if(current == null) {
+                throw new NoSuchElementException();
+            }
+            next = null;
+            advance();
+            return (Map.Entry<K, V>) (Map.Entry<?, ?>) current;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void push(final Node[] nodes) {
+            depth++;
+            stack[depth] = nodes;
+            positions[depth] = 0;
+        }
+
+        private void advance() {
+            while(depth >= 0) {
+                final Node[] nodes = stack[depth];
+                if(positions[depth] == nodes.length) {
+                    stack[depth--] = null;
+                    continue;
+                }
+                final Node node = nodes[positions[depth]++];
+                final Node[] children = node.children();
+                if(children == null) {
+                    next = (Leaf) node;
+                    return;
+                }
+                push(children);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A concurrent canonicalizing pool. Equal instances are mapped to a single shared instance,
+ * which is only weakly referenced by the pool and dropped once it is no longer in use.
+ *
+ * @param <T> the pooled type
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class WeakInterner<T> {
+
+    private final ConcurrentMap<Ref<T>, Ref<T>> pool = new ConcurrentHashMap<Ref<T>, Ref<T>>();
+    private final ReferenceQueue<T> queue = new ReferenceQueue<T>();
+
+    /**
+     * Get the canonical instance for a given value.
+     *
+     * @param value the value
+     * @return the canonical instance, which is the value itself if there was no equal instance yet
+     */
+    T intern(final T value) {
+        if(value == null) {
+            throw new IllegalArgumentException("null value");
+        }
+        expunge();
+        final Ref<T> ref = new Ref<T>(value, queue);
+        for(;;) {
+            final Ref<T> existing = pool.putIfAbsent(ref, ref);
+            if(existing == null) {
+                return value;
+            }
+            final T canonical = existing.get();
+            if(canonical != null) {
+                return canonical;
+            }
+            // cleared, but not yet expunged
+            pool.remove(existing, existing);
+        }
+    }
+
+    /**
+     * Get the number of pooled instances.
+     *
+     * @return the size
+     */
+    int size() {
+        expunge();
+        return pool.size();
+    }
+
+    private void expunge() {
+        Reference<? extends T> ref;
+        while((ref = queue.poll()) != null) {
+            pool.remove(ref, ref);
+        }
+    }
+
+    static final class Ref<T> extends WeakReference<T> {
+
+        private final int hashCode;
+
+        Ref(final T referent, final ReferenceQueue<T> queue) {
+            super(referent, queue);
+            this.hashCode = referent.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(obj == this) {
+                return true;
+            }
+            if(obj instanceof Ref<?> == false) {
+                return false;
+            }
+            final Ref<?> other = (Ref<?>) obj;
+            if(hashCode != other.hashCode) {
+                return false;
+            }
+            final T referent = get();
+            return referent != null && referent.equals(other.get());
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.entity.info;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * Compiled dispatch index for the operations or adders of a {@link ManagedResourceInfo}. The
+ * signatures are indexed by feature name and by their set of parameter names, so resolving an
+ * invocation is a hash lookup on the invocation parameter names and only the parameters of the
+ * signatures declaring exactly those names are type checked.
+ *
+ * <p>
+ * Signatures containing a nillable parameter can also match an invocation with the same number
+ * of, but differently named parameters. These are kept in a separate list, which is only checked
+ * for signatures declared before the first signature matching the exact parameter names, so the
+ * first matching signature in declaration order is resolved either way.
+ * </p>
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class ManagedResourceDispatcher<T extends ManagedResourceFeatureInfo> {
+
+    /** All signatures. */
+    private final Group<T> all = new Group<T>();
+
+    /** The signatures by feature name. */
+    private final Map<String, Group<T>> byName = new HashMap<String, Group<T>>();
+
+    static ManagedResourceDispatcher<ManagedResourceOperationInfo> forOperations(final ManagedResourceOperationInfo[] operations) {
+        final ManagedResourceDispatcher<ManagedResourceOperationInfo> dispatcher = new ManagedResourceDispatcher<ManagedResourceOperationInfo>();
+        for(final ManagedResourceOperationInfo operation : operations) {
+            dispatcher.add(operation, operation.getSignature());
+        }
+        return dispatcher;
+    }
+
+    static ManagedResourceDispatcher<ManagedResourceAdderInfo> forAdders(final ManagedResourceAdderInfo[] adders) {
+        final ManagedResourceDispatcher<ManagedResourceAdderInfo> dispatcher = new ManagedResourceDispatcher<ManagedResourceAdderInfo>();
+        for(final ManagedResourceAdderInfo adder : adders) {
+            dispatcher.add(adder, adder.getSignature());
+        }
+        return dispatcher;
+    }
+
+    private ManagedResourceDispatcher() {
+        //
+    }
+
+    private void add(final T feature, final ManagedResourceParameterInfo[] signature) {
+        all.add(new Entry<T>(feature, signature));
+        Group<T> group = byName.get(feature.getName());
+        if(group == null) {
+            group = new Group<T>();
+            byName.put(feature.getName(), group);
+        }
+        group.add(new Entry<T>(feature, signature));
+    }
+
+    /**
+     * Resolve the first signature matching the invocation parameters.
+     *
+     * @param params the invocation parameters
+     * @return the matching feature, <code>null</code> if there is none
+     */
+    T resolve(final Map<String, MetaValue> params) {
+        return all.resolve(params);
+    }
+
+    /**
+     * Resolve the first signature of a given feature name matching the invocation parameters.
+     *
+     * @param name the feature name
+     * @param params the invocation parameters
+     * @return the matching feature, <code>null</code> if there is none
+     */
+    T resolve(final String name, final Map<String, MetaValue> params) {
+        final Group<T> group = byName.get(name);
+        return group != null ? group.resolve(params) : null;
+    }
+
+    /**
+     * Resolve the first signature of a given feature name matching positional invocation parameters.
+     *
+     * @param name the feature name
+     * @param params the invocation parameters, in signature order
+     * @return the matching feature, <code>null</code> if there is none
+     */
+    T resolve(final String name, final MetaValue[] params) {
+        final Group<T> group = byName.get(name);
+        return group != null ? group.resolve(params) : null;
+    }
+
+    static final class Group<T> {
+
+        /** The signatures by parameter names, chained in declaration order. */
+        private final Map<Set<String>, Entry<T>> exact = new HashMap<Set<String>, Entry<T>>();
+
+        /** The signatures which might match differently named parameters. */
+        private final List<Entry<T>> lenient = new ArrayList<Entry<T>>();
+
+        /** All signatures in declaration order. */
+        private final List<Entry<T>> entries = new ArrayList<Entry<T>>();
+
+        void add(final Entry<T> entry) {
+            entry.ordinal = entries.size();
+            entries.add(entry);
+            if(entry.unique) {
+                final Entry<T> first = exact.get(entry.names);
+                if(first == null) {
+                    exact.put(entry.names, entry);
+                } else {
+                    Entry<T> last = first;
+                    while(last.next != null) {
+                        last = last.next;
+                    }
+                    last.next = entry;
+                }
+            }
+            if(entry.nillable || entry.unique == false) {
+                lenient.add(entry);
+            }
+        }
+
+        T resolve(final Map<String, MetaValue> params) {
+            // Set.equals() / hashCode() are defined over the elements, so the key set can be used directly
+            Entry<T> match = exact.get(params.keySet());
+            while(match != null && match.checkTypes(params) == false) {
+                match = match.next;
+            }
+            // a lenient signature only wins if it was declared before the exact match
+            final int limit = match != null ? match.ordinal : Integer.MAX_VALUE;
+            for(final Entry<T> entry : lenient) {
+                if(entry.ordinal > limit) {
+                    break;
+                }
+                if(entry.matches(params)) {
+                    return entry.feature;
+                }
+            }
+            return match != null ? match.feature : null;
+        }
+
+        T resolve(final MetaValue[] params) {
+            for(final Entry<T> entry : entries) {
+                if(entry.matches(params)) {
+                    return entry.feature;
+                }
+            }
+            return null;
+        }
+    }
+
+    static final class Entry<T> {
+
+        final T feature;
+        final ManagedResourceParameterInfo[] signature;
+        final Set<String> names;
+        /** Whether the parameter names are unique. */
+        final boolean unique;
+        /** Whether there is a nillable parameter. */
+        final boolean nillable;
+        /** The declaration ordinal within the group. */
+        int ordinal;
+        /** The next signature with the same parameter names. */
+        Entry<T> next;
+
+        Entry(final T feature, final ManagedResourceParameterInfo[] signature) {
+            this.feature = feature;
+            this.signature = signature;
+            final Set<String> names = new HashSet<String>(signature.length * 2);
+            boolean nillable = false;
+            for(final ManagedResourceParameterInfo parameter : signature) {
+                names.add(parameter.getName());
+                nillable |= parameter.isNillable();
+            }
+            this.names = Collections.unmodifiableSet(names);
+            this.unique = names.size() == signature.length;
+            this.nillable = nillable;
+        }
+
+        /**
+         * Check the parameter types, the parameter names are already known to match.
+         */
+        boolean checkTypes(final Map<String, MetaValue> params) {
+            for(final ManagedResourceParameterInfo parameter : signature) {
+                if(parameter.isValue(params.get(parameter.getName())) == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Full signature check, for parameters not matching the parameter names.
+         */
+        boolean matches(final Map<String, MetaValue> params) {
+            if(signature.length != params.size()) {
+                return false;
+            }
+            if(unique && names.equals(params.keySet())) {
+                // already checked by name
+                return false;
+            }
+            return checkTypes(params);
+        }
+
+        /**
+         * Positional signature check.
+         */
+        boolean matches(final MetaValue[] params) {
+            if(signature.length != params.length) {
+                return false;
+            }
+            for(int i = 0; i < signature.length; i++) {
+                if(signature[i].isValue(params[i]) == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
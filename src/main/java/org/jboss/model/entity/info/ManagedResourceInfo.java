@@ -22,9 +22,13 @@
 
 package org.jboss.model.entity.info;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -67,6 +71,18 @@ public class ManagedResourceInfo implements Serializable, Cloneable, MetaType {
     /** The fields. */
     private final Fields fields;
 
+    /** The attribute descriptors by name. */
+    private transient Map<String, ManagedResourceAttributeInfo> attributesByName;
+
+    /** The read-only views. */
+    private transient List<ManagedResourceAttributeInfo> attributeList;
+    private transient List<ManagedResourceOperationInfo> operationList;
+    private transient List<ManagedResourceAdderInfo> adderList;
+
+    /** The compiled operation and adder dispatchers. */
+    private transient ManagedResourceDispatcher<ManagedResourceOperationInfo> operationDispatcher;
+    private transient ManagedResourceDispatcher<ManagedResourceAdderInfo> adderDispatcher;
+
     public ManagedResourceInfo(EntityIdType identifierType, String description, ManagedResourceAttributeInfo[] attributes,
             ManagedResourceOperationInfo[] operations, ManagedResourceAdderInfo[] adders, Map<EntityIdType, ManagedResourceChildrenInfo> children) throws IllegalArgumentException {
         this(identifierType, description, attributes, operations, adders, children, null);
@@ -103,6 +119,28 @@ public class ManagedResourceInfo implements Serializable, Cloneable, MetaType {
             //
         }
         this.fields = fields;
+        init();
+    }
+
+    private void init() {
+        final Map<String, ManagedResourceAttributeInfo> byName = new HashMap<String, ManagedResourceAttributeInfo>(attributes.length * 2);
+        for(final ManagedResourceAttributeInfo attribute : attributes) {
+            // first declaration wins, same as the previous linear lookup
+            if(byName.containsKey(attribute.getName()) == false) {
+                byName.put(attribute.getName(), attribute);
+            }
+        }
+        this.attributesByName = Collections.unmodifiableMap(byName);
+        this.attributeList = Collections.unmodifiableList(Arrays.asList(attributes));
+        this.operationList = Collections.unmodifiableList(Arrays.asList(operations));
+        this.adderList = Collections.unmodifiableList(Arrays.asList(adders));
+        this.operationDispatcher = ManagedResourceDispatcher.forOperations(operations);
+        this.adderDispatcher = ManagedResourceDispatcher.forAdders(adders);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
     }
 
     public Fields getFields() {
@@ -121,31 +159,65 @@ public class ManagedResourceInfo implements Serializable, Cloneable, MetaType {
         return attributes.length == 0 ? attributes : attributes.clone();
     }
 
+    /**
+     * Get a read-only view of the attribute descriptors.
+     *
+     * @return the attributes
+     */
+    public List<ManagedResourceAttributeInfo> getAttributeList() {
+        return attributeList;
+    }
+
+    /**
+     * Get the attribute names.
+     *
+     * @return an unmodifiable set of attribute names
+     */
     public Set<String> getAttributeNames() {
-        final Set<String> set = new HashSet<String>();
-        for(final ManagedResourceAttributeInfo attribute : attributes) {
-            set.add(attribute.getName());
-        }
-        return set;
+        return attributesByName.keySet();
     }
 
     public ManagedResourceAttributeInfo getAttributeInfo(final String name) {
-        for(final ManagedResourceAttributeInfo attribute : attributes) {
-            if(name.equals(attribute.getName())) {
-                return attribute;
-            }
+        if(name == null) {
+            throw new IllegalArgumentException("null attribute name");
         }
-        return null;
+        return attributesByName.get(name);
     }
 
     public ManagedResourceOperationInfo[] getOperations() {
         return operations.length == 0 ? operations : operations.clone();
     }
 
+    /**
+     * Get a read-only view of the operation descriptors.
+     *
+     * @return the operations
+     */
+    public List<ManagedResourceOperationInfo> getOperationList() {
+        return operationList;
+    }
+
+    ManagedResourceDispatcher<ManagedResourceOperationInfo> getOperationDispatcher() {
+        return operationDispatcher;
+    }
+
     public ManagedResourceAdderInfo[] getAdders() {
         return adders.length == 0 ? adders : adders.clone();
     }
 
+    /**
+     * Get a read-only view of the adder descriptors.
+     *
+     * @return the adders
+     */
+    public List<ManagedResourceAdderInfo> getAdderList() {
+        return adderList;
+    }
+
+    ManagedResourceDispatcher<ManagedResourceAdderInfo> getAdderDispatcher() {
+        return adderDispatcher;
+    }
+
     public ManagedResourceChildrenInfo getChildInfo(final EntityIdType type) {
         return childrenInfo.get(type);
     }
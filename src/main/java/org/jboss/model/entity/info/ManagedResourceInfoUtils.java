@@ -48,12 +48,52 @@ public class ManagedResourceInfoUtils {
         if(resourceInfo == null) {
             throw new IllegalArgumentException("null managed resource info");
         }
-        for(final ManagedResourceOperationInfo operationInfo : resourceInfo.getOperations()) {
-            if(matches(operationInfo, params)) {
-                return operationInfo;
-            }
+        if(params == null) {
+            throw new IllegalArgumentException("null invocation parameters");
+        }
+        return resourceInfo.getOperationDispatcher().resolve(params);
+    }
+
+    /**
+     * Try to resolve the operation info for given operation name and invocation parameters.
+     *
+     * @param resourceInfo the managed resource info
+     * @param operationName the operation name
+     * @param params the invocation parameters
+     * @return the operation info, <code>null</code> if there is not matching operation signature
+     */
+    public static ManagedResourceOperationInfo resolveOperationInfo(final ManagedResourceInfo resourceInfo, final String operationName, final Map<String, MetaValue> params) {
+        if(resourceInfo == null) {
+            throw new IllegalArgumentException("null managed resource info");
+        }
+        if(operationName == null) {
+            throw new IllegalArgumentException("null operation name");
+        }
+        if(params == null) {
+            throw new IllegalArgumentException("null invocation parameters");
+        }
+        return resourceInfo.getOperationDispatcher().resolve(operationName, params);
+    }
+
+    /**
+     * Try to resolve the operation info for given operation name and positional invocation parameters.
+     *
+     * @param resourceInfo the managed resource info
+     * @param operationName the operation name
+     * @param params the invocation parameters, in signature order
+     * @return the operation info, <code>null</code> if there is not matching operation signature
+     */
+    public static ManagedResourceOperationInfo resolveOperationInfo(final ManagedResourceInfo resourceInfo, final String operationName, final MetaValue[] params) {
+        if(resourceInfo == null) {
+            throw new IllegalArgumentException("null managed resource info");
+        }
+        if(operationName == null) {
+            throw new IllegalArgumentException("null operation name");
+        }
+        if(params == null) {
+            throw new IllegalArgumentException("null invocation parameters");
         }
-        return null;
+        return resourceInfo.getOperationDispatcher().resolve(operationName, params);
     }
 
     /**
@@ -67,12 +107,31 @@ public class ManagedResourceInfoUtils {
         if(resourceInfo == null) {
             throw new IllegalArgumentException("null managed resource info");
         }
-        for(final ManagedResourceAdderInfo adderInfo : resourceInfo.getAdders()) {
-            if(matches(adderInfo, params)) {
-                return adderInfo;
-            }
+        if(params == null) {
+            throw new IllegalArgumentException("null invocation parameters");
+        }
+        return resourceInfo.getAdderDispatcher().resolve(params);
+    }
+
+    /**
+     * Try to resolve the adder info for given adder name and invocation parameters.
+     *
+     * @param resourceInfo the managed resource info
+     * @param adderName the adder name
+     * @param params the invocation parameters
+     * @return the adder info, <code>null</code> if there is not matching adder signature
+     */
+    public static ManagedResourceAdderInfo resolveAdderInfo(final ManagedResourceInfo resourceInfo, final String adderName, final Map<String, MetaValue> params) {
+        if(resourceInfo == null) {
+            throw new IllegalArgumentException("null managed resource info");
+        }
+        if(adderName == null) {
+            throw new IllegalArgumentException("null adder name");
+        }
+        if(params == null) {
+            throw new IllegalArgumentException("null invocation parameters");
         }
-        return null;
+        return resourceInfo.getAdderDispatcher().resolve(adderName, params);
     }
 
     /**
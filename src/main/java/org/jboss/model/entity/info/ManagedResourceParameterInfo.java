@@ -23,6 +23,7 @@
 package org.jboss.model.entity.info;
 
 import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
 import org.jboss.model.values.MetaValue;
 
 /**
@@ -112,7 +113,7 @@ public class ManagedResourceParameterInfo extends ManagedResourceFeatureInfo {
         if(metaValue == null) {
             return nillable;
         }
-        return type.isValue(metaValue);
+        return MetaTypeValidators.get(type).isValue(metaValue);
     }
 
 }
@@ -38,7 +38,7 @@ public class MockManagedResourceInfo extends ManagedResourceInfo {
     private static final long serialVersionUID = 1L;
 
     public static MockManagedResourceInfo create(final String entityType) {
-        return new MockManagedResourceInfo(new EntityIdType(entityType));
+        return new MockManagedResourceInfo(EntityIdType.create(entityType));
     }
 
     /**
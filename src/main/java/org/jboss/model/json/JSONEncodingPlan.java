@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.json;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.CollectionMetaType;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
+import org.jboss.model.types.TableMetaType;
+
+/**
+ * The JSON encoding plan of a {@code MetaType}. Everything which only depends on the type is
+ * resolved in advance: the kind of the type, the plans of the element and row types and, for
+ * composite types, the item order, the item types and plans and the escaped keys, both as
+ * chars and as UTF-8 bytes.
+ * <p>
+ * Plans are compiled once per type and cached, so encoding the rows of a table does not
+ * repeat the item type lookups for every row. Types which can still change, e.g. a
+ * {@code MutableCompositeMetaType} which is not frozen, are compiled on every use.
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class JSONEncodingPlan {
+
+    static final int SIMPLE = 0;
+    static final int ENUM = 1;
+    static final int ARRAY = 2;
+    static final int COLLECTION = 3;
+    static final int COMPOSITE = 4;
+    static final int TABLE = 5;
+    static final int UNKNOWN = -1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String[] NO_NAMES = new String[0];
+    private static final MetaType[] NO_TYPES = new MetaType[0];
+    private static final JSONEncodingPlan[] NO_PLANS = new JSONEncodingPlan[0];
+    private static final byte[][] NO_BYTES = new byte[0][];
+
+    /** The cached plans, weak so that the plans of unused types can be collected. */
+    private static final Map<MetaType, JSONEncodingPlan> PLANS = Collections.synchronizedMap(new WeakHashMap<MetaType, JSONEncodingPlan>());
+
+    /** The kind of the type. */
+    final int kind;
+    /** The element plan of an array or collection, the row plan of a table. */
+    final JSONEncodingPlan element;
+    /** The array dimension. */
+    final int dimension;
+    /** The composite item names, in item order. */
+    final String[] names;
+    /** The composite item types. */
+    final MetaType[] types;
+    /** The composite item plans. */
+    final JSONEncodingPlan[] items;
+    /** The quoted composite keys, followed by the ':'. */
+    final String[] keys;
+    /** The UTF-8 encoded {@link #keys}. */
+    final byte[][] encodedKeys;
+    /** The type description of an unknown type. */
+    final String description;
+
+    /**
+     * Get the encoding plan of a meta type.
+     *
+     * @param metaType the meta type
+     * @return the plan
+     */
+    static JSONEncodingPlan get(final MetaType metaType) {
+        if(metaType == null) {
+            throw new IllegalArgumentException("null meta type");
+        }
+        JSONEncodingPlan plan = PLANS.get(metaType);
+        if(plan == null) {
+            plan = new JSONEncodingPlan(metaType);
+            if(MetaTypeValidators.isStable(metaType)) {
+                PLANS.put(metaType, plan);
+            }
+        }
+        return plan;
+    }
+
+    private JSONEncodingPlan(final MetaType metaType) {
+        JSONEncodingPlan element = null;
+        int dimension = 0;
+        String[] names = NO_NAMES;
+        MetaType[] types = NO_TYPES;
+        JSONEncodingPlan[] items = NO_PLANS;
+        String[] keys = NO_NAMES;
+        byte[][] encodedKeys = NO_BYTES;
+        String description = null;
+        if(metaType.isSimple()) {
+            kind = SIMPLE;
+        } else if (metaType.isEnum()) {
+            kind = ENUM;
+        } else if (metaType.isArray()) {
+            final ArrayMetaType arrayType = metaType.as(ArrayMetaType.class);
+            kind = ARRAY;
+            element = get(arrayType.getElementType());
+            dimension = arrayType.getDimension();
+        } else if (metaType.isCollection()) {
+            kind = COLLECTION;
+            element = get(metaType.as(CollectionMetaType.class).getElementType());
+        } else if (metaType.isComposite()) {
+            final CompositeMetaType compositeType = metaType.as(CompositeMetaType.class);
+            final Set<String> itemNames = compositeType.itemSet();
+            final int size = itemNames.size();
+            kind = COMPOSITE;
+            names = itemNames.toArray(new String[size]);
+            types = new MetaType[size];
+            items = new JSONEncodingPlan[size];
+            keys = new String[size];
+            encodedKeys = new byte[size][];
+            for(int i = 0; i < size; i++) {
+                types[i] = compositeType.getType(names[i]);
+                items[i] = get(types[i]);
+                keys[i] = JSONObject.quote(names[i]) + ':';
+                encodedKeys[i] = keys[i].getBytes(UTF_8);
+            }
+        } else if (metaType.isTable()) {
+            kind = TABLE;
+            element = get(metaType.as(TableMetaType.class).getRowType());
+        } else {
+            kind = UNKNOWN;
+            description = String.valueOf(metaType);
+        }
+        this.element = element;
+        this.dimension = dimension;
+        this.names = names;
+        this.types = types;
+        this.items = items;
+        this.keys = keys;
+        this.encodedKeys = encodedKeys;
+        this.description = description;
+    }
+
+}
@@ -0,0 +1,330 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.json;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.CollectionMetaType;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.EnumMetaType;
+import org.jboss.model.types.InvalidTypeException;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.TableMetaType;
+import org.jboss.model.values.ArrayValue;
+import org.jboss.model.values.ArrayValueSupport;
+import org.jboss.model.values.CollectionValue;
+import org.jboss.model.values.CollectionValueSupport;
+import org.jboss.model.values.CompactCompositeValueSupport;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.EnumValue;
+import org.jboss.model.values.EnumValueSupport;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.TableValue;
+import org.jboss.model.values.TableValueSupport;
+
+/**
+ * Type-directed streaming JSON to {@code MetaValue} reader. The JSON text is consumed from a
+ * {@link JSONTokener} and the {@code MetaValue} is created directly while parsing, guided by the
+ * expected {@code MetaType}, without building an intermediate {@link JSONObject} / {@link JSONArray}
+ * tree. Items not defined by a composite type, or values not matching the expected type, are
+ * rejected as soon as they are encountered.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class JSONMetaValueReader {
+
+    private final JSONTokener x;
+
+    public JSONMetaValueReader(final JSONTokener tokener) {
+        if(tokener == null) {
+            throw new IllegalArgumentException("null tokener");
+        }
+        this.x = tokener;
+    }
+
+    public JSONMetaValueReader(final InputStream is) {
+        this(new UTF8JSONTokener(is));
+    }
+
+    public JSONMetaValueReader(final Reader reader) {
+        this(new JSONTokener(reader));
+    }
+
+    public JSONMetaValueReader(final String source) {
+        this(new JSONTokener(source));
+    }
+
+    /**
+     * Read the next value.
+     *
+     * @param metaType the expected meta type
+     * @return the meta value, <code>null</code> for a JSON <code>null</code>
+     * @throws JSONException for a syntax error or if the value does not match the meta type
+     */
+    public MetaValue read(final MetaType metaType) throws JSONException {
+        if(metaType == null) {
+            throw new IllegalArgumentException("null metaType");
+        }
+        return readValue(metaType);
+    }
+
+    MetaValue readValue(final MetaType metaType) throws JSONException {
+        final char c = x.nextClean();
+        if(c == 0) {
+            throw x.syntaxError("Missing value");
+        }
+        x.back();
+        if(c == '{') {
+            if(metaType.isComposite()) {
+                return readComposite(metaType.as(CompositeMetaType.class));
+            }
+            throw x.syntaxError("Unexpected object for type " + metaType);
+        } else if (c == '[' || c == '(') {
+            if (metaType.isArray()) {
+                return readArray(metaType.as(ArrayMetaType.class));
+            } else if (metaType.isCollection()) {
+                return readCollection(metaType.as(CollectionMetaType.class));
+            } else if (metaType.isTable()) {
+                return readTable(metaType.as(TableMetaType.class));
+            }
+            throw x.syntaxError("Unexpected array for type " + metaType);
+        } else if ((c == '-' || (c >= '0' && c <= '9')) && metaType.isSimple()) {
+            final SimpleValue number = readNumber(metaType.as(SimpleMetaType.class));
+            if(number != null) {
+                return number;
+            }
+        }
+        final Object value = x.nextValue();
+        if(value == JSONObject.NULL) {
+            return null;
+        }
+        if(metaType.isSimple()) {
+            try {
+                return SimpleValue.Factory.createImmutable(value, metaType.as(SimpleMetaType.class));
+            } catch (IllegalArgumentException e) {
+                throw x.syntaxError("Invalid value '" + value + "' for type " + metaType);
+            } catch (InvalidTypeException e) {
+                throw x.syntaxError("Invalid value '" + value + "' for type " + metaType);
+            }
+        } else if (metaType.isEnum()) {
+            return readEnum(value, metaType.as(EnumMetaType.class));
+        }
+        throw x.syntaxError("Unexpected value '" + value + "' for type " + metaType);
+    }
+
+    /**
+     * Read a number directly as the expected simple type.
+     *
+     * @return the simple value, <code>null</code> if the next token is not a plain number
+     */
+    SimpleValue readNumber(final SimpleMetaType metaType) throws JSONException {
+        switch (x.nextNumber()) {
+        case JSONTokener.INTEGRAL_NUMBER:
+            final long l = x.longNumber();
+            try {
+                return SimpleValue.Factory.createImmutable(l, metaType);
+            } catch (IllegalArgumentException e) {
+                throw x.syntaxError("Invalid value '" + l + "' for type " + metaType);
+            }
+        case JSONTokener.DECIMAL_NUMBER:
+            final double d = x.doubleNumber();
+            try {
+                return SimpleValue.Factory.createImmutable(d, metaType);
+            } catch (IllegalArgumentException e) {
+                throw x.syntaxError("Invalid value '" + d + "' for type " + metaType);
+            }
+        default:
+            return null;
+        }
+    }
+
+    EnumValue readEnum(final Object value, final EnumMetaType metaType) throws JSONException {
+        final String name = value.toString();
+        if(metaType.getValidValues().contains(name) == false) {
+            throw x.syntaxError("Invalid value '" + name + "' for type " + metaType);
+        }
+        return new EnumValueSupport(metaType, name);
+    }
+
+    ArrayValue readArray(final ArrayMetaType metaType) throws JSONException {
+        return new ArrayValueSupport(metaType, readArray(metaType.getElementType(), metaType.getDimension()));
+    }
+
+    Object[] readArray(final MetaType elementType, final int dimension) throws JSONException {
+        final List<Object> list = new ArrayList<Object>();
+        if(start()) {
+            do {
+                if(dimension > 1) {
+                    list.add(readArray(elementType, dimension - 1));
+                } else {
+                    list.add(readElement(elementType));
+                }
+            } while(next());
+        }
+        return list.toArray();
+    }
+
+    CollectionValue readCollection(final CollectionMetaType metaType) throws JSONException {
+        final MetaType elementType = metaType.getElementType();
+        final List<MetaValue> list = new ArrayList<MetaValue>();
+        if(start()) {
+            do {
+                list.add(readElement(elementType));
+            } while(next());
+        }
+        return new CollectionValueSupport(metaType, list);
+    }
+
+    TableValue readTable(final TableMetaType metaType) throws JSONException {
+        final CompositeMetaType rowType = metaType.getRowType();
+        final TableValue table = new TableValueSupport(metaType);
+        if(start()) {
+            do {
+                if(x.nextClean() != '{') {
+                    throw x.syntaxError("Expected a row of type " + rowType);
+                }
+                x.back();
+                table.put(readComposite(rowType));
+            } while(next());
+        }
+        return table;
+    }
+
+    CompositeValue readComposite(final CompositeMetaType metaType) throws JSONException {
+        final CompositeValue value = new CompactCompositeValueSupport(metaType);
+        final Set<String> keys = new HashSet<String>();
+        if (x.nextClean() != '{') {
+            throw x.syntaxError("A JSONObject text must begin with '{'");
+        }
+        for (;;) {
+            final String key;
+            char c = x.nextClean();
+            switch (c) {
+            case 0:
+                throw x.syntaxError("A JSONObject text must end with '}'");
+            case '}':
+                return value;
+            case '"':
+            case '\'':
+                key = x.nextKey(c);
+                break;
+            default:
+                x.back();
+                key = x.nextValue().toString();
+            }
+            if(metaType.containsItem(key) == false) {
+                throw x.syntaxError("Unknown item '" + key + "' for type " + metaType);
+            }
+            if(keys.add(key) == false) {
+                throw x.syntaxError("Duplicate key \"" + key + "\"");
+            }
+
+            c = x.nextClean();
+            if (c == '=') {
+                if (x.next() != '>') {
+                    x.back();
+                }
+            } else if (c != ':') {
+                throw x.syntaxError("Expected a ':' after a key");
+            }
+            final MetaValue itemValue = readValue(metaType.getType(key));
+            if(itemValue != null) {
+                value.set(key, itemValue);
+            }
+
+            switch (x.nextClean()) {
+            case ';':
+            case ',':
+                if (x.nextClean() == '}') {
+                    return value;
+                }
+                x.back();
+                break;
+            case '}':
+                return value;
+            default:
+                throw x.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Read an array element, where an empty element is a <code>null</code> value.
+     */
+    MetaValue readElement(final MetaType elementType) throws JSONException {
+        final char c = x.nextClean();
+        x.back();
+        if(c == ',' || c == ';') {
+            return null;
+        }
+        return readValue(elementType);
+    }
+
+    /**
+     * Consume the start of an array.
+     *
+     * @return <code>false</code> if the array is empty
+     */
+    boolean start() throws JSONException {
+        final char c = x.nextClean();
+        if(c != '[' && c != '(') {
+            throw x.syntaxError("A JSONArray text must start with '['");
+        }
+        if (x.nextClean() == ']') {
+            return false;
+        }
+        x.back();
+        return true;
+    }
+
+    /**
+     * Consume an array separator.
+     *
+     * @return <code>false</code> if the end of the array was reached
+     */
+    boolean next() throws JSONException {
+        switch (x.nextClean()) {
+        case ';':
+        case ',':
+            if (x.nextClean() == ']') {
+                return false;
+            }
+            x.back();
+            return true;
+        case ']':
+        case ')':
+            return false;
+        default:
+            throw x.syntaxError("Expected a ',' or ']'");
+        }
+    }
+
+}
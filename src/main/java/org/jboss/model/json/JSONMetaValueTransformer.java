@@ -37,10 +37,10 @@ import org.jboss.model.values.ArrayValue;
 import org.jboss.model.values.ArrayValueSupport;
 import org.jboss.model.values.CollectionValue;
 import org.jboss.model.values.CollectionValueSupport;
+import org.jboss.model.values.CompactCompositeValueSupport;
 import org.jboss.model.values.CompositeMapValue;
 import org.jboss.model.values.CompositeMapValueSupport;
 import org.jboss.model.values.CompositeValue;
-import org.jboss.model.values.CompositeValueSupport;
 import org.jboss.model.values.EnumValueSupport;
 import org.jboss.model.values.MetaValue;
 import org.jboss.model.values.MetaValueTransformer;
@@ -70,7 +70,14 @@ public class JSONMetaValueTransformer implements MetaValueTransformer<Object, Me
             throw new IllegalArgumentException("null metaType");
         }
         if(metaType.isSimple()) {
-            return SimpleValue.Factory.create(value, metaType.as(SimpleMetaType.class));
+            final SimpleMetaType simpleType = metaType.as(SimpleMetaType.class);
+            // numbers are converted directly to the primitive of the simple type
+            if(value instanceof Integer || value instanceof Long) {
+                return SimpleValue.Factory.create(((Number) value).longValue(), simpleType);
+            } else if (value instanceof Double) {
+                return SimpleValue.Factory.create(((Double) value).doubleValue(), simpleType);
+            }
+            return SimpleValue.Factory.create(value, simpleType);
         } else if (metaType.isEnum()) {
             return new EnumValueSupport(metaType.as(EnumMetaType.class), (String) value);
         } else if (metaType.isArray()) {
@@ -118,7 +125,7 @@ public class JSONMetaValueTransformer implements MetaValueTransformer<Object, Me
     }
 
     CompositeValue createComposite(final JSONObject json, final CompositeMetaType metaType) throws JSONException {
-        final CompositeValue value = new CompositeValueSupport(metaType);
+        final CompositeValue value = new CompactCompositeValueSupport(metaType);
         for(final String itemName : metaType.itemSet()) {
             final MetaType itemType = metaType.getType(itemName);
             if(json.has(itemName)) {
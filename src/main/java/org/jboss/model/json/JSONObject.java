@@ -25,12 +25,12 @@ SOFTWARE.
 */
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeSet;
@@ -126,9 +126,9 @@ public class JSONObject {
 
 
     /**
-     * The map where the JSONObject's properties are kept.
+     * The map where the JSONObject's properties are kept, in insertion order.
      */
-    private Map map;
+    private final JSONObjectMap map;
 
 
     /**
@@ -144,7 +144,17 @@ public class JSONObject {
      * Construct an empty JSONObject.
      */
     public JSONObject() {
-        this.map = new HashMap();
+        this.map = new JSONObjectMap();
+    }
+
+
+    /**
+     * Construct an empty JSONObject with room for a number of keys.
+     *
+     * @param initialCapacity The expected number of keys.
+     */
+    JSONObject(int initialCapacity) {
+        this.map = new JSONObjectMap(initialCapacity);
     }
 
 
@@ -189,6 +199,10 @@ public class JSONObject {
                 throw x.syntaxError("A JSONObject text must end with '}'");
             case '}':
                 return;
+            case '"':
+            case '\'':
+                key = x.nextKey(c);
+                break;
             default:
                 x.back();
                 key = x.nextValue().toString();
@@ -237,7 +251,7 @@ public class JSONObject {
      * @throws JSONException 
      */
     public JSONObject(Map map) {
-        this.map = new HashMap();
+        this.map = new JSONObjectMap();
         if (map != null) {
             Iterator i = map.entrySet().iterator();
             while (i.hasNext()) {
@@ -1101,60 +1115,79 @@ public class JSONObject {
      * @return  A String correctly formatted for insertion in a JSON text.
      */
     public static String quote(String string) {
+        final StringWriter sw = new StringWriter(string == null ? 2 : string.length() + 4);
+        try {
+            return quote(string, sw).toString();
+        } catch (IOException ignored) {
+            // will never happen - we are writing to a string writer
+            return "";
+        }
+    }
+
+    /**
+     * Write a string in double quotes with backslash sequences in all the
+     * right places to a writer, without building an intermediate string.
+     * @param string A String
+     * @param w The writer
+     * @return The writer.
+     * @throws IOException
+     */
+    public static Writer quote(String string, Writer w) throws IOException {
         if (string == null || string.length() == 0) {
-            return "\"\"";
+            w.write("\"\"");
+            return w;
         }
 
         char         b;
         char         c = 0;
         int          i;
         int          len = string.length();
-        StringBuffer sb = new StringBuffer(len + 4);
         String       t;
 
-        sb.append('"');
+        w.write('"');
         for (i = 0; i < len; i += 1) {
             b = c;
             c = string.charAt(i);
             switch (c) {
             case '\\':
             case '"':
-                sb.append('\\');
-                sb.append(c);
+                w.write('\\');
+                w.write(c);
                 break;
             case '/':
                 if (b == '<') {
-                    sb.append('\\');
+                    w.write('\\');
                 }
-                sb.append(c);
+                w.write(c);
                 break;
             case '\b':
-                sb.append("\\b");
+                w.write("\\b");
                 break;
             case '\t':
-                sb.append("\\t");
+                w.write("\\t");
                 break;
             case '\n':
-                sb.append("\\n");
+                w.write("\\n");
                 break;
             case '\f':
-                sb.append("\\f");
+                w.write("\\f");
                 break;
             case '\r':
-                sb.append("\\r");
+                w.write("\\r");
                 break;
             default:
                 if (c < ' ' || (c >= '\u0080' && c < '\u00a0') ||
                                (c >= '\u2000' && c < '\u2100')) {
                     t = "000" + Integer.toHexString(c);
-                    sb.append("\\u" + t.substring(t.length() - 4));
+                    w.write("\\u");
+                    w.write(t.substring(t.length() - 4));
                 } else {
-                    sb.append(c);
+                    w.write(c);
                 }
             }
         }
-        sb.append('"');
-        return sb.toString();
+        w.write('"');
+        return w;
     }
 
     /**
@@ -1289,17 +1322,15 @@ public class JSONObject {
      */
     public String toString() {
         try {
-            Iterator     keys = keys();
             StringBuffer sb = new StringBuffer("{");
 
-            while (keys.hasNext()) {
-                if (sb.length() > 1) {
+            for (int i = 0; i < this.map.size(); i++) {
+                if (i > 0) {
                     sb.append(',');
                 }
-                Object o = keys.next();
-                sb.append(quote(o.toString()));
+                sb.append(quote(this.map.keyAt(i).toString()));
                 sb.append(':');
-                sb.append(valueToString(this.map.get(o)));
+                sb.append(valueToString(this.map.valueAt(i)));
             }
             sb.append('}');
             return sb.toString();
@@ -1554,18 +1585,15 @@ public class JSONObject {
       */
      public Writer write(Writer writer) throws JSONException {
         try {
-            boolean  b = false;
-            Iterator keys = keys();
             writer.write('{');
 
-            while (keys.hasNext()) {
-                if (b) {
+            for (int i = 0; i < this.map.size(); i++) {
+                if (i > 0) {
                     writer.write(',');
                 }
-                Object k = keys.next();
-                writer.write(quote(k.toString()));
+                quote(this.map.keyAt(i).toString(), writer);
                 writer.write(':');
-                Object v = this.map.get(k);
+                Object v = this.map.valueAt(i);
                 if (v instanceof JSONObject) {
                     ((JSONObject)v).write(writer);
                 } else if (v instanceof JSONArray) {
@@ -1573,7 +1601,6 @@ public class JSONObject {
                 } else {
                     writer.write(valueToString(v));
                 }
-                b = true;
             }
             writer.write('}');
             return writer;
@@ -0,0 +1,328 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The insertion ordered map behind a {@link JSONObject}. The keys and values are kept in two
+ * parallel arrays. Small maps are searched linearly, larger ones through an open addressing index
+ * table. The keys and values can be accessed by position, so that they can be iterated without
+ * creating entries.
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class JSONObjectMap extends AbstractMap<Object, Object> {
+
+    /** Up to this size the keys are searched linearly. */
+    private static final int LINEAR_THRESHOLD = 8;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] keys;
+    private Object[] values;
+    private int size;
+
+    /** The positions + 1 of the keys, <code>null</code> for small maps. */
+    private int[] index;
+
+    private transient Set<Object> keySet;
+    private transient Set<Map.Entry<Object, Object>> entrySet;
+
+    JSONObjectMap() {
+        this.keys = EMPTY;
+        this.values = EMPTY;
+    }
+
+    JSONObjectMap(final int initialCapacity) {
+        if(initialCapacity < 0) {
+            throw new IllegalArgumentException("negative capacity");
+        }
+        this.keys = initialCapacity == 0 ? EMPTY : new Object[initialCapacity];
+        this.values = initialCapacity == 0 ? EMPTY : new Object[initialCapacity];
+    }
+
+    /**
+     * Get the key at a position.
+     *
+     * @param i the position, in insertion order
+     * @return the key
+     */
+    Object keyAt(final int i) {
+        return keys[i];
+    }
+
+    /**
+     * Get the value at a position.
+     *
+     * @param i the position, in insertion order
+     * @return the value
+     */
+    Object valueAt(final int i) {
+        return values[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        final int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public Object put(final Object key, final Object value) {
+        if(key == null) {
+            throw new NullPointerException("null key");
+        }
+        final int i = indexOf(key);
+        if(i >= 0) {
+            final Object old = values[i];
+            values[i] = value;
+            return old;
+        }
+        if(size == keys.length) {
+            final int capacity = size < 4 ? 4 : size * 2;
+            keys = copyOf(keys, capacity);
+            values = copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        if(index != null) {
+            if(size * 2 > index.length) {
+                rehash();
+            } else {
+                insert(key, size);
+            }
+        } else if(size > LINEAR_THRESHOLD) {
+            rehash();
+        }
+        return null;
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        final int i = indexOf(key);
+        if(i < 0) {
+            return null;
+        }
+        return removeAt(i);
+    }
+
+    @Override
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            keys[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+        index = null;
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        Set<Object> keySet = this.keySet;
+        if(keySet == null) {
+            keySet = new AbstractSet<Object>() {
+
+                @Override
+                public Iterator<Object> iterator() {
+                    return new PositionIterator<Object>() {
+                        @Override
+                        Object get(int i) {
+                            return keys[i];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+            };
+            this.keySet = keySet;
+        }
+        return keySet;
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        Set<Map.Entry<Object, Object>> entrySet = this.entrySet;
+        if(entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<Object, Object>>() {
+
+                @Override
+                public Iterator<Map.Entry<Object, Object>> iterator() {
+                    return new PositionIterator<Map.Entry<Object, Object>>() {
+                        @Override
+                        Map.Entry<Object, Object> get(int i) {
+                            return new SimpleEntry<Object, Object>(keys[i], values[i]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            this.entrySet = entrySet;
+        }
+        return entrySet;
+    }
+
+    private int indexOf(final Object key) {
+        if(key == null) {
+            return -1;
+        }
+        final Object[] keys = this.keys;
+        if(index == null) {
+            // identity first, keys read by the tokener are shared
+            for(int i = 0; i < size; i++) {
+                if(keys[i] == key) {
+                    return i;
+                }
+            }
+            for(int i = 0; i < size; i++) {
+                if(key.equals(keys[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final int[] index = this.index;
+        final int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        for(;;) {
+            final int position = index[slot];
+            if(position == 0) {
+                return -1;
+            }
+            final Object k = keys[position - 1];
+            if(k == key || key.equals(k)) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private Object removeAt(final int i) {
+        final Object old = values[i];
+        final int moved = size - i - 1;
+        if(moved > 0) {
+            System.arraycopy(keys, i + 1, keys, i, moved);
+            System.arraycopy(values, i + 1, values, i, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        if(index != null) {
+            if(size > LINEAR_THRESHOLD) {
+                rehash();
+            } else {
+                index = null;
+            }
+        }
+        return old;
+    }
+
+    private void rehash() {
+        int length = 16;
+        while(length < size * 2) {
+            length <<= 1;
+        }
+        index = new int[length];
+        for(int i = 0; i < size; i++) {
+            insert(keys[i], i + 1);
+        }
+    }
+
+    private void insert(final Object key, final int position) {
+        final int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while(index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position;
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static Object[] copyOf(final Object[] array, final int length) {
+        final Object[] copy = new Object[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    abstract class PositionIterator<T> implements Iterator<T> {
+
+        private int next;
+        private int last = -1;
+
+        abstract T get(int i);
+
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        public T next() {
+            if(next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return get(last);
+        }
+
+        public void remove() {
+            if(last < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+
+}
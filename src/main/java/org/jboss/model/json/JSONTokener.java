@@ -1,9 +1,7 @@
 package org.jboss.model.json;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
 
 /*
 Copyright (c) 2002 JSON.org
@@ -33,18 +31,75 @@ SOFTWARE.
  * A JSONTokener takes a source string and extracts characters and tokens from
  * it. It is used by the JSONObject and JSONArray constructors to parse
  * JSON source strings.
+ * <p>
+ * The characters are read in blocks into a char buffer, which is reused for
+ * the whole text. Strings and unquoted tokens are scanned directly in that
+ * buffer, and object keys are shared between objects using the same key.
+ * Subclasses can provide the characters from a different source by
+ * overriding {@link #read(char[], int, int)}.
+ *
  * @author JSON.org
  * @version 2010-02-02
  */
 public class JSONTokener {
 
-    private int 	character;
-	private boolean eof;
-    private int 	index;
-    private int 	line;
-    private char 	previous;
-    private Reader 	reader;
+    /** The default buffer size. */
+    static final int BUFFER_SIZE = 8192;
+
+    /** The size of the object key cache, a power of two. */
+    private static final int KEY_CACHE_SIZE = 256;
+
+    /** {@link #nextNumber()}: the next token is not a plain number. */
+    static final int NOT_A_NUMBER = 0;
+
+    /** {@link #nextNumber()}: an integral number, see {@link #longNumber()}. */
+    static final int INTEGRAL_NUMBER = 1;
+
+    /** {@link #nextNumber()}: a decimal number, see {@link #doubleNumber()}. */
+    static final int DECIMAL_NUMBER = 2;
+
+    /** The powers of ten which are exactly representable as a double. */
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    /** The characters terminating an unquoted token. */
+    private static final boolean[] DELIMITERS = new boolean[128];
+    static {
+        for (char c : ",:]}/\\\"[{;=#".toCharArray()) {
+            DELIMITERS[c] = true;
+        }
+        for (char c = 0; c < ' '; c++) {
+            DELIMITERS[c] = true;
+        }
+    }
+
+    private final Reader reader;
+    private char[] buffer;
+    private int position;
+    private int limit;
+    /** The index of the first character in the buffer. */
+    private int offset;
+    private boolean eof;
     private boolean usePrevious;
+    private int mark = -1;
+
+    private int line = 1;
+    /** The index of the first character of the line, -1 for the first line. */
+    private int lineStart = -1;
+    private int previousLine;
+    private int previousLineStart;
+
+    private char[] scratch;
+    private int scratchLength;
+    private String[] keys;
+
+    private long longNumber;
+    private double doubleNumber;
 
 
     /**
@@ -53,14 +108,11 @@ public class JSONTokener {
      * @param reader     A reader.
      */
     public JSONTokener(Reader reader) {
-        this.reader = reader.markSupported() ? 
-        		reader : new BufferedReader(reader);
-        this.eof = false;
-        this.usePrevious = false;
-        this.previous = 0;
-        this.index = 0;
-        this.character = 1;
-        this.line = 1;
+        if (reader == null) {
+            throw new IllegalArgumentException("null reader");
+        }
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
     }
 
 
@@ -70,7 +122,76 @@ public class JSONTokener {
      * @param s     A source string.
      */
     public JSONTokener(String s) {
-        this(new StringReader(s));
+        this.reader = null;
+        this.buffer = s.toCharArray();
+        this.limit = buffer.length;
+    }
+
+
+    /**
+     * Construct a JSONTokener reading its characters through
+     * {@link #read(char[], int, int)}.
+     *
+     * @param bufferSize The initial size of the char buffer.
+     */
+    protected JSONTokener(int bufferSize) {
+        this.reader = null;
+        this.buffer = new char[Math.max(bufferSize, 16)];
+    }
+
+
+    /**
+     * Read characters from the source.
+     *
+     * @param cbuf The destination buffer.
+     * @param off  The offset at which to start storing characters.
+     * @param len  The maximum number of characters to read, at least 2.
+     * @return The number of characters read, or -1 at the end of the source.
+     * @throws IOException If the source cannot be read.
+     */
+    protected int read(char[] cbuf, int off, int len) throws IOException {
+        if (reader == null) {
+            return -1;
+        }
+        return reader.read(cbuf, off, len);
+    }
+
+
+    /**
+     * Read the next block of characters into the buffer. The previous
+     * character is kept, so that {@link #back()} is always possible.
+     *
+     * @return false at the end of the source.
+     */
+    private boolean fill() throws JSONException {
+        final int from = Math.max((mark >= 0 ? mark : position) - 1, 0);
+        if (from > 0) {
+            System.arraycopy(buffer, from, buffer, 0, limit - from);
+            offset += from;
+            position -= from;
+            limit -= from;
+            if (mark >= 0) {
+                mark -= from;
+            }
+        }
+        if (buffer.length - limit < 2) {
+            final char[] grown = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        try {
+            int n;
+            do {
+                n = read(buffer, limit, buffer.length - limit);
+            } while (n == 0);
+            if (n < 0) {
+                return false;
+            }
+            limit += n;
+            return true;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
     }
 
 
@@ -80,13 +201,19 @@ public class JSONTokener {
      * the next number or identifier.
      */
     public void back() throws JSONException {
-        if (usePrevious || index <= 0) {
+        if (usePrevious || index() <= 0) {
             throw new JSONException("Stepping back two steps is not supported");
         }
-        this.index -= 1;
-        this.character -= 1;
         this.usePrevious = true;
-        this.eof = false;
+        if (eof) {
+            this.eof = false;
+            return;
+        }
+        final char c = buffer[--position];
+        if (c == '\n' || c == '\r') {
+            this.line = previousLine;
+            this.lineStart = previousLineStart;
+        }
     }
 
 
@@ -108,9 +235,9 @@ public class JSONTokener {
         }
         return -1;
     }
-    
+
     public boolean end() {
-    	return eof && !usePrevious;    	
+        return eof && !usePrevious;
     }
 
 
@@ -123,7 +250,7 @@ public class JSONTokener {
         next();
         if (end()) {
             return false;
-        } 
+        }
         back();
         return true;
     }
@@ -135,34 +262,29 @@ public class JSONTokener {
      * @return The next character, or 0 if past the end of the source string.
      */
     public char next() throws JSONException {
-        int c;
-        if (this.usePrevious) {
-        	this.usePrevious = false;
-            c = this.previous;
-        } else {
-	        try {
-	            c = this.reader.read();
-	        } catch (IOException exception) {
-	            throw new JSONException(exception);
-	        }
-	
-	        if (c <= 0) { // End of stream
-	        	this.eof = true;
-	        	c = 0;
-	        } 
-        }
-    	this.index += 1;
-    	if (this.previous == '\r') {
-    		this.line += 1;
-    		this.character = c == '\n' ? 0 : 1;
-    	} else if (c == '\n') {
-    		this.line += 1;
-    		this.character = 0;
-    	} else {
-    		this.character += 1;
-    	}
-    	this.previous = (char) c;
-        return this.previous;
+        this.usePrevious = false;
+        if (position == limit && fill() == false) {
+            this.eof = true;
+            return 0;
+        }
+        final char c = buffer[position++];
+        if (c == '\n' || c == '\r') {
+            newLine(c);
+        }
+        return c;
+    }
+
+
+    /**
+     * Track a consumed line break, a "\r\n" sequence counts as one.
+     */
+    private void newLine(char c) {
+        this.previousLine = line;
+        this.previousLineStart = lineStart;
+        if (c == '\r' || position < 2 || buffer[position - 2] != '\r') {
+            this.line += 1;
+        }
+        this.lineStart = index();
     }
 
 
@@ -197,17 +319,17 @@ public class JSONTokener {
              return "";
          }
 
-         char[] buffer = new char[n];
+         char[] chars = new char[n];
          int pos = 0;
 
          while (pos < n) {
-             buffer[pos] = next();
+             chars[pos] = next();
              if (end()) {
-                 throw syntaxError("Substring bounds error");                 
+                 throw syntaxError("Substring bounds error");
              }
              pos += 1;
          }
-         return new String(buffer);
+         return new String(chars);
      }
 
 
@@ -218,7 +340,15 @@ public class JSONTokener {
      */
     public char nextClean() throws JSONException {
         for (;;) {
-            char c = next();
+            if (position < limit) {
+                final char c = buffer[position];
+                if (c > ' ') {
+                    this.usePrevious = false;
+                    this.position += 1;
+                    return c;
+                }
+            }
+            final char c = next();
             if (c == 0 || c > ' ') {
                 return c;
             }
@@ -238,53 +368,157 @@ public class JSONTokener {
      * @throws JSONException Unterminated string.
      */
     public String nextString(char quote) throws JSONException {
-        char c;
-        StringBuffer sb = new StringBuffer();
+        return scanString(quote, false);
+    }
+
+
+    /**
+     * Return an object key up to the next close quote character, the same
+     * as {@link #nextString(char)}. Keys which are read repeatedly are
+     * returned as the same String instance.
+     * @param quote The quoting character.
+     * @return      The key.
+     * @throws JSONException Unterminated string.
+     */
+    public String nextKey(char quote) throws JSONException {
+        return scanString(quote, true);
+    }
+
+
+    private String scanString(final char quote, final boolean key) throws JSONException {
+        this.scratchLength = 0;
         for (;;) {
-            c = next();
-            switch (c) {
-            case 0:
-            case '\n':
-            case '\r':
+            if (position == limit && fill() == false) {
+                next();
                 throw syntaxError("Unterminated string");
-            case '\\':
-                c = next();
-                switch (c) {
-                case 'b':
-                    sb.append('\b');
-                    break;
-                case 't':
-                    sb.append('\t');
-                    break;
-                case 'n':
-                    sb.append('\n');
-                    break;
-                case 'f':
-                    sb.append('\f');
-                    break;
-                case 'r':
-                    sb.append('\r');
-                    break;
-                case 'u':
-                    sb.append((char)Integer.parseInt(next(4), 16));
+            }
+            final char[] b = buffer;
+            final int l = limit;
+            final int start = position;
+            int p = start;
+            char c = 0;
+            while (p < l) {
+                c = b[p];
+                if (c == quote || c == '\\' || c == '\n' || c == '\r' || c == 0) {
                     break;
-                case '"':
-                case '\'':
-                case '\\':
-                case '/':
-                	sb.append(c);
-                	break;
-                default:
-                    throw syntaxError("Illegal escape.");
                 }
+                p++;
+            }
+            this.usePrevious = false;
+            if (p == l) {
+                append(b, start, p - start);
+                this.position = p;
+                continue;
+            }
+            if (c == quote && scratchLength == 0) {
+                this.position = p + 1;
+                return key ? key(b, start, p - start) : new String(b, start, p - start);
+            }
+            append(b, start, p - start);
+            this.position = p;
+            c = next();
+            if (c == quote) {
+                return key ? key(scratch, 0, scratchLength) : new String(scratch, 0, scratchLength);
+            } else if (c != '\\') {
+                throw syntaxError("Unterminated string");
+            }
+            c = next();
+            switch (c) {
+            case 'b':
+                append('\b');
                 break;
-            default:
-                if (c == quote) {
-                    return sb.toString();
+            case 't':
+                append('\t');
+                break;
+            case 'n':
+                append('\n');
+                break;
+            case 'f':
+                append('\f');
+                break;
+            case 'r':
+                append('\r');
+                break;
+            case 'u':
+                int u = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int h = dehexchar(next());
+                    if (h < 0) {
+                        throw syntaxError("Illegal escape.");
+                    }
+                    u = (u << 4) | h;
                 }
-                sb.append(c);
+                append((char) u);
+                break;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                append(c);
+                break;
+            default:
+                throw syntaxError("Illegal escape.");
+            }
+        }
+    }
+
+
+    private void append(final char c) {
+        if (scratch == null || scratchLength == scratch.length) {
+            grow(1);
+        }
+        scratch[scratchLength++] = c;
+    }
+
+
+    private void append(final char[] chars, final int off, final int len) {
+        if (len == 0) {
+            return;
+        }
+        if (scratch == null || scratch.length - scratchLength < len) {
+            grow(len);
+        }
+        System.arraycopy(chars, off, scratch, scratchLength, len);
+        scratchLength += len;
+    }
+
+
+    private void grow(final int len) {
+        final int size = scratch == null ? 64 : scratch.length;
+        final char[] grown = new char[Math.max(size * 2, scratchLength + len)];
+        if (scratch != null) {
+            System.arraycopy(scratch, 0, grown, 0, scratchLength);
+        }
+        scratch = grown;
+    }
+
+
+    /**
+     * Get the String for a key, reusing the String of the previous
+     * occurrence if any.
+     */
+    private String key(final char[] chars, final int off, final int len) {
+        int h = 0;
+        for (int i = off; i < off + len; i++) {
+            h = 31 * h + chars[i];
+        }
+        if (keys == null) {
+            keys = new String[KEY_CACHE_SIZE];
+        }
+        final int slot = (h ^ (h >>> 16)) & (KEY_CACHE_SIZE - 1);
+        final String cached = keys[slot];
+        if (cached != null && cached.length() == len && cached.hashCode() == h) {
+            int i = 0;
+            while (i < len && cached.charAt(i) == chars[off + i]) {
+                i++;
+            }
+            if (i == len) {
+                return cached;
             }
         }
+        final String key = new String(chars, off, len);
+        keys[slot] = key;
+        return key;
     }
 
 
@@ -295,7 +529,7 @@ public class JSONTokener {
      * @return   A string.
      */
     public String nextTo(char d) throws JSONException {
-        StringBuffer sb = new StringBuffer();
+        StringBuilder sb = new StringBuilder();
         for (;;) {
             char c = next();
             if (c == d || c == 0 || c == '\n' || c == '\r') {
@@ -317,7 +551,7 @@ public class JSONTokener {
      */
     public String nextTo(String delimiters) throws JSONException {
         char c;
-        StringBuffer sb = new StringBuffer();
+        StringBuilder sb = new StringBuilder();
         for (;;) {
             c = next();
             if (delimiters.indexOf(c) >= 0 || c == 0 ||
@@ -341,7 +575,6 @@ public class JSONTokener {
      */
     public Object nextValue() throws JSONException {
         char c = nextClean();
-        String s;
 
         switch (c) {
             case '"':
@@ -365,21 +598,205 @@ public class JSONTokener {
          * formatting character.
          */
 
-        StringBuffer sb = new StringBuffer();
-        while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
-            sb.append(c);
-            c = next();
-        }
         back();
-
-        s = sb.toString().trim();
-        if (s.equals("")) {
+        if ((c >= '0' && c <= '9') || c == '-') {
+            switch (nextNumber()) {
+                case INTEGRAL_NUMBER:
+                    final long l = longNumber;
+                    if (l == (int) l) {
+                        return Integer.valueOf((int) l);
+                    }
+                    return Long.valueOf(l);
+                case DECIMAL_NUMBER:
+                    return Double.valueOf(doubleNumber);
+            }
+        }
+        final String s = nextUnquoted().trim();
+        if (s.length() == 0) {
             throw syntaxError("Missing value");
         }
         return JSONObject.stringToValue(s);
     }
 
 
+    /**
+     * Scan a number in one pass, directly from the buffer. Only plain
+     * decimal numbers are recognized: an optional minus sign, digits, an
+     * optional fraction and an optional exponent, followed by the end of the
+     * unquoted token. Anything else, like hex numbers, integers not fitting
+     * into 18 digits or unquoted text starting with a digit, is left
+     * unconsumed for {@link #nextValue()}.
+     *
+     * @return {@link #INTEGRAL_NUMBER}, {@link #DECIMAL_NUMBER} or
+     * {@link #NOT_A_NUMBER} if nothing was consumed.
+     */
+    int nextNumber() throws JSONException {
+        final boolean startUsePrevious = this.usePrevious;
+        this.mark = position;
+        try {
+            char c = peek();
+            final boolean negative = c == '-';
+            if (negative) {
+                position += 1;
+                c = peek();
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            while (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits += 1;
+                position += 1;
+                c = peek();
+            }
+            final int integerDigits = digits;
+            boolean decimal = false;
+            if (c == '.') {
+                decimal = true;
+                position += 1;
+                c = peek();
+                while (c >= '0' && c <= '9') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits += 1;
+                    scale += 1;
+                    position += 1;
+                    c = peek();
+                }
+            }
+            int exponent = 0;
+            if (integerDigits > 0 && (c == 'e' || c == 'E')) {
+                decimal = true;
+                position += 1;
+                c = peek();
+                final boolean negativeExponent = c == '-';
+                if (c == '-' || c == '+') {
+                    position += 1;
+                    c = peek();
+                }
+                int exponentDigits = 0;
+                while (c >= '0' && c <= '9') {
+                    exponent = exponent * 10 + (c - '0');
+                    exponentDigits += 1;
+                    position += 1;
+                    c = peek();
+                }
+                if (exponentDigits == 0 || exponentDigits > 3) {
+                    return restore(startUsePrevious);
+                }
+                if (negativeExponent) {
+                    exponent = -exponent;
+                }
+            }
+            if (integerDigits == 0 || digits > 18) {
+                return restore(startUsePrevious);
+            }
+            // the number has to be the whole unquoted token
+            while (c == ' ') {
+                position += 1;
+                c = peek();
+            }
+            if (c != 0 && (c >= 128 || DELIMITERS[c] == false)) {
+                return restore(startUsePrevious);
+            }
+            this.usePrevious = false;
+            if (decimal == false) {
+                this.longNumber = negative ? -mantissa : mantissa;
+                return INTEGRAL_NUMBER;
+            }
+            final int power = exponent - scale;
+            double d;
+            if (mantissa < (1L << 53) && power >= -22 && power <= 22) {
+                // both operands are exact, so the result is correctly rounded
+                d = power < 0 ? mantissa / POWERS_OF_TEN[-power] : mantissa * POWERS_OF_TEN[power];
+                if (negative) {
+                    d = -d;
+                }
+            } else {
+                d = Double.parseDouble(new String(buffer, mark, position - mark).trim());
+            }
+            this.doubleNumber = d;
+            return DECIMAL_NUMBER;
+        } finally {
+            this.mark = -1;
+        }
+    }
+
+
+    /**
+     * Get the value of the last {@link #INTEGRAL_NUMBER}.
+     */
+    long longNumber() {
+        return longNumber;
+    }
+
+
+    /**
+     * Get the value of the last {@link #DECIMAL_NUMBER}.
+     */
+    double doubleNumber() {
+        return doubleNumber;
+    }
+
+
+    /**
+     * Get the character at the position without consuming it.
+     *
+     * @return The character, or 0 at the end of the source.
+     */
+    private char peek() throws JSONException {
+        if (position == limit && fill() == false) {
+            return 0;
+        }
+        return buffer[position];
+    }
+
+
+    /**
+     * Reset the position to the mark.
+     */
+    private int restore(boolean startUsePrevious) {
+        this.position = mark;
+        this.usePrevious = startUsePrevious;
+        return NOT_A_NUMBER;
+    }
+
+
+    /**
+     * Get the unquoted text up to the next formatting character.
+     */
+    String nextUnquoted() throws JSONException {
+        this.scratchLength = 0;
+        for (;;) {
+            if (position == limit && fill() == false) {
+                return scratchLength == 0 ? "" : new String(scratch, 0, scratchLength);
+            }
+            final char[] b = buffer;
+            final int l = limit;
+            final int start = position;
+            int p = start;
+            while (p < l) {
+                final char c = b[p];
+                if (c < 128 && DELIMITERS[c]) {
+                    break;
+                }
+                p++;
+            }
+            if (p > start) {
+                this.usePrevious = false;
+            }
+            this.position = p;
+            if (p < l) {
+                if (scratchLength == 0) {
+                    return new String(b, start, p - start);
+                }
+                append(b, start, p - start);
+                return new String(scratch, 0, scratchLength);
+            }
+            append(b, start, p - start);
+        }
+    }
+
+
     /**
      * Skip characters until the next character is the requested character.
      * If the requested character is not found, no characters are skipped.
@@ -389,29 +806,37 @@ public class JSONTokener {
      */
     public char skipTo(char to) throws JSONException {
         char c;
+        final int startLine = this.line;
+        final int startLineStart = this.lineStart;
+        final boolean startUsePrevious = this.usePrevious;
+        this.mark = position;
         try {
-            int startIndex = this.index;
-            int startCharacter = this.character;
-            int startLine = this.line;
-            reader.mark(Integer.MAX_VALUE);
             do {
                 c = next();
                 if (c == 0) {
-                    reader.reset();
-                    this.index = startIndex;
-                    this.character = startCharacter;
+                    this.position = mark;
+                    this.eof = false;
+                    this.usePrevious = startUsePrevious;
                     this.line = startLine;
+                    this.lineStart = startLineStart;
                     return c;
                 }
             } while (c != to);
-        } catch (IOException exc) {
-            throw new JSONException(exc);
+        } finally {
+            this.mark = -1;
         }
-
         back();
         return c;
     }
-    
+
+
+    /**
+     * Get the index of the next character.
+     */
+    private int index() {
+        return offset + position + (eof ? 1 : 0);
+    }
+
 
     /**
      * Make a JSONException to signal a syntax error.
@@ -430,6 +855,7 @@ public class JSONTokener {
      * @return " at {index} [character {character} line {line}]"
      */
     public String toString() {
-        return " at " + index + " [character " + this.character + " line " + this.line + "]";
+        final int index = index();
+        return " at " + index + " [character " + (index - lineStart) + " line " + this.line + "]";
     }
-}
\ No newline at end of file
+}
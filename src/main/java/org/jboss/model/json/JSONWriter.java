@@ -111,24 +111,82 @@ public class JSONWriter {
         if (s == null) {
             throw new JSONException("Null pointer");
         }
+        try {
+            this.beginValue();
+            this.write(s);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this.endValue();
+    }
+
+    /**
+     * Check the sequence and write the separator before a value.
+     * @throws JSONException If the value is out of sequence.
+     */
+    private void beginValue() throws IOException, JSONException {
         if (this.mode == 'o' || this.mode == 'a') {
-            try {
-                if (this.comma && this.mode == 'a') {
-                    this.writer.write(',');
-                }
-                this.writer.write(s);
-            } catch (IOException e) {
-                throw new JSONException(e);
-            }
-            if (this.mode == 'o') {
-                this.mode = 'k';
+            if (this.comma && this.mode == 'a') {
+                this.write(',');
             }
-            this.comma = true;
-            return this;
+            return;
         }
         throw new JSONException("Value out of sequence.");
     }
 
+    /**
+     * Update the state after a value was written.
+     * @return this
+     */
+    private JSONWriter endValue() {
+        if (this.mode == 'o') {
+            this.mode = 'k';
+        }
+        this.comma = true;
+        return this;
+    }
+
+    /**
+     * Write a character to the output.
+     * @param c The character.
+     */
+    protected void write(char c) throws IOException {
+        this.writer.write(c);
+    }
+
+    /**
+     * Write unquoted text to the output.
+     * @param s The text.
+     */
+    protected void write(String s) throws IOException {
+        this.writer.write(s);
+    }
+
+    /**
+     * Write a quoted string to the output.
+     * @param s The string.
+     */
+    protected void writeQuoted(String s) throws IOException {
+        JSONObject.quote(s, this.writer);
+    }
+
+    /**
+     * Write a long to the output.
+     * @param l The long.
+     */
+    protected void writeLong(long l) throws IOException {
+        this.writer.write(Long.toString(l));
+    }
+
+    /**
+     * Write a double to the output.
+     * @param d The double.
+     * @throws JSONException If the number is not finite.
+     */
+    protected void writeDouble(double d) throws IOException, JSONException {
+        this.writer.write(JSONObject.numberToString(Double.valueOf(d)));
+    }
+
     /**
      * Begin appending a new array. All values until the balancing
      * <code>endArray</code> will be appended to this array. The
@@ -162,7 +220,7 @@ public class JSONWriter {
         }
         this.pop(m);
         try {
-            this.writer.write(c);
+            this.write(c);
         } catch (IOException e) {
             throw new JSONException(e);
         }
@@ -206,10 +264,10 @@ public class JSONWriter {
             try {
                 stack[top - 1].putOnce(s, Boolean.TRUE);
                 if (this.comma) {
-                    this.writer.write(',');
+                    this.write(',');
                 }
-                this.writer.write(JSONObject.quote(s));
-                this.writer.write(':');
+                this.writeQuoted(s);
+                this.write(':');
                 this.comma = false;
                 this.mode = 'o';
                 return this;
@@ -295,7 +353,13 @@ public class JSONWriter {
      * @throws JSONException If the number is not finite.
      */
     public JSONWriter value(double d) throws JSONException {
-        return this.value(new Double(d));
+        try {
+            this.beginValue();
+            this.writeDouble(d);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this.endValue();
     }
 
     /**
@@ -305,7 +369,13 @@ public class JSONWriter {
      * @throws JSONException
      */
     public JSONWriter value(long l) throws JSONException {
-        return this.append(Long.toString(l));
+        try {
+            this.beginValue();
+            this.writeLong(l);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this.endValue();
     }
 
 
@@ -318,6 +388,19 @@ public class JSONWriter {
      * @throws JSONException If the value is out of sequence.
      */
     public JSONWriter value(Object o) throws JSONException {
+        if (o instanceof String) {
+            try {
+                this.beginValue();
+                this.writeQuoted((String) o);
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+            return this.endValue();
+        } else if (o instanceof Integer || o instanceof Long || o instanceof Short || o instanceof Byte) {
+            return this.value(((Number) o).longValue());
+        } else if (o instanceof Double) {
+            return this.value(((Double) o).doubleValue());
+        }
         return this.append(JSONObject.valueToString(o));
     }
 }
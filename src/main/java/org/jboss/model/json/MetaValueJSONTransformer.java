@@ -24,12 +24,8 @@ package org.jboss.model.json;
 
 import java.lang.reflect.Array;
 
-import org.jboss.model.types.ArrayMetaType;
-import org.jboss.model.types.CollectionMetaType;
 import org.jboss.model.types.CompositeMapMetaType;
-import org.jboss.model.types.CompositeMetaType;
 import org.jboss.model.types.MetaType;
-import org.jboss.model.types.TableMetaType;
 import org.jboss.model.values.ArrayValue;
 import org.jboss.model.values.CollectionValue;
 import org.jboss.model.values.CompositeMapValue;
@@ -64,93 +60,102 @@ public class MetaValueJSONTransformer implements MetaValueTransformer<MetaValue,
         if(value == null) {
             return null;
         }
-        if(metaType.isSimple()) {
+        return transform(value, JSONEncodingPlan.get(metaType));
+    }
+
+    Object transform(final MetaValue value, final JSONEncodingPlan plan) throws JSONException {
+        if(value == null) {
+            return null;
+        }
+        switch (plan.kind) {
+        case JSONEncodingPlan.SIMPLE:
             return value.as(SimpleValue.class).getValue();
-        } else if (metaType.isEnum()){
+        case JSONEncodingPlan.ENUM:
             return value.as(EnumValue.class).getValue();
-        } else if (metaType.isArray()) {
-            return createArray(value.as(ArrayValue.class), metaType.as(ArrayMetaType.class));
-        } else if (metaType.isCollection()) {
-            return createCollection(value.as(CollectionValue.class), metaType.as(CollectionMetaType.class));
-        } else if (metaType.isComposite()) {
-            return createComposite(value.as(CompositeValue.class), metaType.as(CompositeMetaType.class));
-        } else if (metaType.isTable()) {
-            return createTable(value.as(TableValue.class), metaType.as(TableMetaType.class));
-        } else {
-            throw new IllegalArgumentException("unknown meta type " + metaType);
+        case JSONEncodingPlan.ARRAY:
+            return createArray(value.as(ArrayValue.class), plan);
+        case JSONEncodingPlan.COLLECTION:
+            return createCollection(value.as(CollectionValue.class), plan);
+        case JSONEncodingPlan.COMPOSITE:
+            return createComposite(value.as(CompositeValue.class), plan);
+        case JSONEncodingPlan.TABLE:
+            return createTable(value.as(TableValue.class), plan);
+        default:
+            throw new IllegalArgumentException("unknown meta type " + plan.description);
         }
     }
 
-    JSONArray createArray(final ArrayValue value, final ArrayMetaType metaType) throws JSONException {
+    JSONArray createArray(final ArrayValue value, final JSONEncodingPlan plan) throws JSONException {
         final JSONArray array = new JSONArray();
-        final MetaType elementType = metaType.getElementType();
+        final JSONEncodingPlan elementPlan = plan.element;
         final int length = value.getLength();
-        final int dimension = metaType.getDimension();
-        if(dimension > 1) {
+        if(plan.dimension > 1) {
             for(int i = 0; i < length; i++) {
                 final Object subElement = value.getValue(i);
                 if(subElement != null) {
-                    final JSONArray subArray = createArray(subElement, elementType);
+                    final JSONArray subArray = createArray(subElement, elementPlan);
                     array.put(subArray);
                 }
             }
         } else {
             for(int i = 0; i < length; i++) {
                 final MetaValue itemValue = MetaValue.class.cast((value.getValue(i)));
-                array.put(transform(itemValue, elementType));
+                array.put(transform(itemValue, elementPlan));
             }
         }
         return array;
     }
 
-    JSONArray createArray(Object value, final MetaType elementType) throws JSONException{
+    JSONArray createArray(Object value, final JSONEncodingPlan elementPlan) throws JSONException{
         final JSONArray array = new JSONArray();
         int subSize = Array.getLength(value);
         for(int i = 0; i < subSize; i++) {
            Object subElement = Array.get(value, i);
            if (subElement instanceof MetaValue) {
-              subElement = transform((MetaValue)subElement, elementType);
+              subElement = transform((MetaValue)subElement, elementPlan);
            } else if (subElement != null && subElement.getClass().isArray()) {
-              subElement = createArray(subElement, elementType);
+              subElement = createArray(subElement, elementPlan);
            }
            array.put(subElement);
         }
         return array;
     }
 
-    JSONArray createCollection(final CollectionValue value, final CollectionMetaType metaType) throws JSONException {
+    JSONArray createCollection(final CollectionValue value, final JSONEncodingPlan plan) throws JSONException {
         final JSONArray array = new JSONArray();
-        final MetaType elementType = metaType.getElementType();
+        final JSONEncodingPlan elementPlan = plan.element;
         for(final MetaValue itemValue : value) {
-            array.put(transform(itemValue, elementType));
+            array.put(transform(itemValue, elementPlan));
         }
         return array;
     }
 
-    JSONObject createComposite(final CompositeValue value, final CompositeMetaType metaType) throws JSONException {
-        final JSONObject json = new JSONObject();
-        for(final String itemName : metaType.itemSet()) {
-            final MetaType itemType = metaType.getType(itemName);
-            final MetaValue itemValue = value.get(itemName);
-            json.put(itemName, transform(itemValue, itemType));
+    JSONObject createComposite(final CompositeValue value, final JSONEncodingPlan plan) throws JSONException {
+        final String[] names = plan.names;
+        final JSONEncodingPlan[] items = plan.items;
+        // the keys keep the item order of the composite type
+        final JSONObject json = new JSONObject(names.length);
+        for(int i = 0; i < names.length; i++) {
+            final MetaValue itemValue = value.get(names[i]);
+            json.put(names[i], transform(itemValue, items[i]));
         }
         return json;
     }
 
     JSONArray createCompositeMap(final CompositeMapValue composite, final CompositeMapMetaType metaType) throws JSONException {
         final JSONArray array = new JSONArray();
-        final CompositeMetaType entryType = metaType.getEntryType();
+        final JSONEncodingPlan entryPlan = JSONEncodingPlan.get(metaType.getEntryType());
         for(final CompositeValue entry : composite) {
-            array.put(createComposite(entry, entryType));
+            array.put(createComposite(entry, entryPlan));
         }
         return array;
     }
 
-    JSONArray createTable(final TableValue table, final TableMetaType metaType) throws JSONException {
+    JSONArray createTable(final TableValue table, final JSONEncodingPlan plan) throws JSONException {
         final JSONArray array = new JSONArray();
-        final CompositeMetaType rowType = metaType.getRowType();
+        final JSONEncodingPlan rowPlan = plan.element;
         for(final CompositeValue row : table) {
-            array.put(createComposite(row, rowType));
+            array.put(createComposite(row, rowPlan));
         }
         return array;
     }
@@ -0,0 +1,452 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jboss.model.types.MetaType;
+import org.jboss.model.values.ArrayValue;
+import org.jboss.model.values.CollectionValue;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.EnumValue;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.TableValue;
+
+/**
+ * Streaming {@code MetaValue} to JSON writer. Walks the value guided by its {@code MetaType} and
+ * writes the JSON text directly to the underlying writer, without building an intermediate
+ * {@link JSONObject} / {@link JSONArray} tree. The produced text is the same as the one of
+ * {@link MetaValueJSONTransformer}.
+ * <p>
+ * Large tables and collections can be encoded in parallel, see {@link #setExecutor(Executor, int, int, int)}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class MetaValueJSONWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final Writer writer;
+    /** The UTF-8 writer, <code>null</code> when writing to a user provided writer. */
+    private final UTF8Writer utf8;
+    /** The executor encoding large tables and collections, <code>null</code> to encode sequentially. */
+    private Executor executor;
+    /** The number of rows or elements from which on they are encoded in parallel. */
+    private int threshold;
+    /** The number of rows or elements encoded per chunk. */
+    private int chunkSize;
+    /** The number of chunks encoded at the same time. */
+    private int parallelism;
+
+    public MetaValueJSONWriter(final Writer writer) {
+        if(writer == null) {
+            throw new IllegalArgumentException("null writer");
+        }
+        this.writer = writer;
+        this.utf8 = null;
+    }
+
+    public MetaValueJSONWriter(final OutputStream os) {
+        this.utf8 = new UTF8Writer(os, BUFFER_SIZE);
+        this.writer = utf8;
+    }
+
+    public MetaValueJSONWriter(final WritableByteChannel channel) {
+        this.utf8 = new UTF8Writer(channel, BUFFER_SIZE);
+        this.writer = utf8;
+    }
+
+    /**
+     * Encode tables and collections with at least {@code threshold} rows or elements in parallel,
+     * using the default chunk size and one chunk per available processor.
+     *
+     * @param executor the executor, <code>null</code> to encode sequentially
+     * @param threshold the minimum number of rows or elements to encode in parallel
+     * @return this
+     * @see #setExecutor(Executor, int, int, int)
+     */
+    public MetaValueJSONWriter setExecutor(final Executor executor, final int threshold) {
+        return setExecutor(executor, threshold, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Encode tables and collections with at least {@code threshold} rows or elements in parallel.
+     * The rows are split into chunks of {@code chunkSize} rows, which are encoded by the executor
+     * and written in order. At most twice {@code parallelism} chunks are pending at any time, so
+     * the memory used does not depend on the size of the table. Chunks rejected by the executor, or
+     * not yet started when they are due, are encoded by the writing thread. Tables and collections
+     * nested in a chunk are encoded sequentially.
+     * <p>
+     * The values must not be modified while they are written.
+     *
+     * @param executor the executor, <code>null</code> to encode sequentially
+     * @param threshold the minimum number of rows or elements to encode in parallel
+     * @param chunkSize the number of rows or elements per chunk
+     * @param parallelism the number of chunks to encode at the same time
+     * @return this
+     */
+    public MetaValueJSONWriter setExecutor(final Executor executor, final int threshold, final int chunkSize, final int parallelism) {
+        if(threshold < 1) {
+            throw new IllegalArgumentException("invalid threshold " + threshold);
+        }
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException("invalid chunk size " + chunkSize);
+        }
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("invalid parallelism " + parallelism);
+        }
+        this.executor = executor;
+        this.threshold = threshold;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Write a meta value.
+     *
+     * @param value the meta value
+     * @param metaType the meta type
+     * @return this
+     * @throws JSONException
+     */
+    public MetaValueJSONWriter write(final MetaValue value, final MetaType metaType) throws JSONException {
+        if(metaType == null) {
+            throw new IllegalArgumentException("null meta type");
+        }
+        try {
+            writeValue(value, metaType);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Flush the underlying writer.
+     *
+     * @throws JSONException
+     */
+    public void flush() throws JSONException {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    void writeValue(final MetaValue value, final MetaType metaType) throws IOException, JSONException {
+        writeValue(value, JSONEncodingPlan.get(metaType));
+    }
+
+    void writeValue(final MetaValue value, final JSONEncodingPlan plan) throws IOException, JSONException {
+        if(value == null) {
+            writer.write("null");
+            return;
+        }
+        switch (plan.kind) {
+        case JSONEncodingPlan.SIMPLE:
+            writeObject(value.as(SimpleValue.class).getValue());
+            break;
+        case JSONEncodingPlan.ENUM:
+            writeObject(value.as(EnumValue.class).getValue());
+            break;
+        case JSONEncodingPlan.ARRAY:
+            writeArray(value.as(ArrayValue.class), plan);
+            break;
+        case JSONEncodingPlan.COLLECTION:
+            writeCollection(value.as(CollectionValue.class), plan);
+            break;
+        case JSONEncodingPlan.COMPOSITE:
+            writeComposite(value.as(CompositeValue.class), plan);
+            break;
+        case JSONEncodingPlan.TABLE:
+            writeTable(value.as(TableValue.class), plan);
+            break;
+        default:
+            throw new IllegalArgumentException("unknown meta type " + plan.description);
+        }
+    }
+
+    void writeArray(final ArrayValue value, final JSONEncodingPlan plan) throws IOException, JSONException {
+        final JSONEncodingPlan elementPlan = plan.element;
+        final int length = value.getLength();
+        final boolean nested = plan.dimension > 1;
+        boolean comma = false;
+        writer.write('[');
+        for(int i = 0; i < length; i++) {
+            final Object element = value.getValue(i);
+            if(nested && element == null) {
+                continue;
+            }
+            if(comma) {
+                writer.write(',');
+            }
+            writeElement(element, elementPlan);
+            comma = true;
+        }
+        writer.write(']');
+    }
+
+    void writeElement(final Object element, final JSONEncodingPlan elementPlan) throws IOException, JSONException {
+        if(element instanceof MetaValue) {
+            writeValue((MetaValue) element, elementPlan);
+        } else if(element != null && element.getClass().isArray()) {
+            final int length = Array.getLength(element);
+            writer.write('[');
+            for(int i = 0; i < length; i++) {
+                if(i > 0) {
+                    writer.write(',');
+                }
+                writeElement(Array.get(element, i), elementPlan);
+            }
+            writer.write(']');
+        } else {
+            writeObject(element);
+        }
+    }
+
+    void writeCollection(final CollectionValue value, final JSONEncodingPlan plan) throws IOException, JSONException {
+        final JSONEncodingPlan elementPlan = plan.element;
+        if(executor != null && value.size() >= threshold) {
+            writeParallel(value.toArray(new MetaValue[value.size()]), elementPlan);
+            return;
+        }
+        boolean comma = false;
+        writer.write('[');
+        for(final MetaValue itemValue : value) {
+            if(comma) {
+                writer.write(',');
+            }
+            writeValue(itemValue, elementPlan);
+            comma = true;
+        }
+        writer.write(']');
+    }
+
+    void writeComposite(final CompositeValue value, final JSONEncodingPlan plan) throws IOException, JSONException {
+        final String[] names = plan.names;
+        final JSONEncodingPlan[] items = plan.items;
+        boolean comma = false;
+        writer.write('{');
+        for(int i = 0; i < names.length; i++) {
+            final MetaValue itemValue = value.get(names[i]);
+            // null items are omitted, same as JSONObject.put(key, null)
+            if(itemValue == null) {
+                continue;
+            }
+            final JSONEncodingPlan itemPlan = items[i];
+            if(itemPlan.kind == JSONEncodingPlan.SIMPLE && itemValue.as(SimpleValue.class).getValue() == null) {
+                continue;
+            }
+            if(itemPlan.kind == JSONEncodingPlan.ENUM && itemValue.as(EnumValue.class).getValue() == null) {
+                continue;
+            }
+            if(comma) {
+                writer.write(',');
+            }
+            if(utf8 != null) {
+                utf8.writeEncoded(plan.encodedKeys[i]);
+            } else {
+                writer.write(plan.keys[i]);
+            }
+            writeValue(itemValue, itemPlan);
+            comma = true;
+        }
+        writer.write('}');
+    }
+
+    void writeTable(final TableValue table, final JSONEncodingPlan plan) throws IOException, JSONException {
+        final JSONEncodingPlan rowPlan = plan.element;
+        if(executor != null && table.size() >= threshold) {
+            final List<MetaValue> rows = new ArrayList<MetaValue>(table.size());
+            for(final CompositeValue row : table) {
+                rows.add(row);
+            }
+            writeParallel(rows.toArray(new MetaValue[rows.size()]), rowPlan);
+            return;
+        }
+        boolean comma = false;
+        writer.write('[');
+        for(final CompositeValue row : table) {
+            if(comma) {
+                writer.write(',');
+            }
+            writeComposite(row, rowPlan);
+            comma = true;
+        }
+        writer.write(']');
+    }
+
+    /**
+     * Encode the elements in chunks using the executor, and write the chunks in order. The next
+     * chunk is only submitted once the oldest pending one is written.
+     */
+    void writeParallel(final MetaValue[] elements, final JSONEncodingPlan elementPlan) throws IOException, JSONException {
+        final boolean bytes = utf8 != null;
+        final int maxPending = parallelism * 2;
+        final Queue<FutureTask<Object>> chunks = new ArrayDeque<FutureTask<Object>>(maxPending);
+        try {
+            writer.write('[');
+            int from = 0;
+            boolean comma = false;
+            while(from < elements.length || chunks.isEmpty() == false) {
+                while(from < elements.length && chunks.size() < maxPending) {
+                    final int to = Math.min(from + chunkSize, elements.length);
+                    final FutureTask<Object> chunk = new FutureTask<Object>(new ChunkEncoder(elements, from, to, elementPlan, bytes));
+                    chunks.add(chunk);
+                    try {
+                        executor.execute(chunk);
+                    } catch (RejectedExecutionException e) {
+                        chunk.run();
+                    }
+                    from = to;
+                }
+                final FutureTask<Object> chunk = chunks.remove();
+                // encode the chunk here if the executor did not start it yet, this is a no-op otherwise
+                // and avoids waiting on a saturated executor the writing thread might belong to
+                chunk.run();
+                final Object encoded = chunk.get();
+                if(comma) {
+                    writer.write(',');
+                }
+                if(bytes) {
+                    utf8.writeEncoded((byte[]) encoded);
+                } else {
+                    writer.write((char[]) encoded);
+                }
+                comma = true;
+            }
+            writer.write(']');
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSONException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof JSONException) {
+                throw (JSONException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JSONException(cause);
+        } finally {
+            // stop the remaining chunks after a failure
+            for(final FutureTask<Object> chunk : chunks) {
+                chunk.cancel(false);
+            }
+        }
+    }
+
+    void writeElements(final MetaValue[] elements, final int from, final int to, final JSONEncodingPlan elementPlan) throws IOException, JSONException {
+        for(int i = from; i < to; i++) {
+            if(i > from) {
+                writer.write(',');
+            }
+            writeValue(elements[i], elementPlan);
+        }
+    }
+
+    void writeObject(final Object value) throws IOException, JSONException {
+        if(value == null) {
+            writer.write("null");
+        } else if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            if(utf8 != null) {
+                utf8.writeLong(((Number) value).longValue());
+            } else {
+                writer.write(value.toString());
+            }
+        } else if(value instanceof Double && utf8 != null) {
+            utf8.writeDouble(((Double) value).doubleValue());
+        } else if(value instanceof Number) {
+            writer.write(JSONObject.numberToString((Number) value));
+        } else if(value instanceof Boolean) {
+            writer.write(((Boolean) value).booleanValue() ? "true" : "false");
+        } else {
+            writeQuoted(value.toString());
+        }
+    }
+
+    void writeQuoted(final String value) throws IOException {
+        if(utf8 != null) {
+            utf8.writeQuoted(value);
+        } else {
+            JSONObject.quote(value, writer);
+        }
+    }
+
+    /**
+     * Encodes a chunk of elements, to UTF-8 bytes or to chars.
+     */
+    static class ChunkEncoder implements Callable<Object> {
+
+        private final MetaValue[] elements;
+        private final int from;
+        private final int to;
+        private final JSONEncodingPlan elementPlan;
+        private final boolean bytes;
+
+        ChunkEncoder(final MetaValue[] elements, final int from, final int to, final JSONEncodingPlan elementPlan, final boolean bytes) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.elementPlan = elementPlan;
+            this.bytes = bytes;
+        }
+
+        public Object call() throws IOException, JSONException {
+            if(bytes) {
+                final ByteArrayOutputStream os = new ByteArrayOutputStream();
+                final MetaValueJSONWriter writer = new MetaValueJSONWriter(os);
+                writer.writeElements(elements, from, to, elementPlan);
+                writer.flush();
+                return os.toByteArray();
+            } else {
+                final CharArrayWriter chars = new CharArrayWriter();
+                new MetaValueJSONWriter(chars).writeElements(elements, from, to, elementPlan);
+                return chars.toCharArray();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link JSONTokener} reading UTF-8 encoded bytes. The bytes are decoded directly into the
+ * char buffer of the tokener, without an intermediate {@code InputStreamReader}. Malformed
+ * sequences are replaced by <code>U+FFFD</code>.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class UTF8JSONTokener extends JSONTokener {
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final InputStream is;
+    private final byte[] bytes;
+    private int pos;
+    private int limit;
+
+    /**
+     * Construct a UTF8JSONTokener from an input stream.
+     *
+     * @param is the input stream
+     */
+    public UTF8JSONTokener(final InputStream is) {
+        super(BUFFER_SIZE);
+        if(is == null) {
+            throw new IllegalArgumentException("null input stream");
+        }
+        this.is = is;
+        this.bytes = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Construct a UTF8JSONTokener from a byte array.
+     *
+     * @param bytes the UTF-8 encoded text
+     */
+    public UTF8JSONTokener(final byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Construct a UTF8JSONTokener from a byte array.
+     *
+     * @param bytes the bytes
+     * @param off the offset of the UTF-8 encoded text
+     * @param len the length of the text
+     */
+    public UTF8JSONTokener(final byte[] bytes, final int off, final int len) {
+        super(Math.min(len, BUFFER_SIZE));
+        if(bytes == null) {
+            throw new IllegalArgumentException("null bytes");
+        }
+        if(off < 0 || len < 0 || off + len > bytes.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.is = null;
+        this.bytes = bytes;
+        this.pos = off;
+        this.limit = off + len;
+    }
+
+    @Override
+    protected int read(final char[] cbuf, final int off, final int len) throws IOException {
+        final byte[] b = bytes;
+        final int end = off + len;
+        int n = off;
+        for(;;) {
+            // ASCII
+            int p = pos;
+            final int l = Math.min(limit, p + end - n);
+            while(p < l && b[p] >= 0) {
+                cbuf[n++] = (char) b[p++];
+            }
+            pos = p;
+            if(n == end) {
+                return len;
+            }
+            final int available = limit - pos;
+            if(available == 0) {
+                if(n > off) {
+                    return n - off;
+                }
+                if(refill() == false) {
+                    return -1;
+                }
+                continue;
+            }
+            final int b1 = b[pos] & 0xff;
+            final int needed;
+            if(b1 >= 0xC2 && b1 <= 0xDF) {
+                needed = 2;
+            } else if(b1 >= 0xE0 && b1 <= 0xEF) {
+                needed = 3;
+            } else if(b1 >= 0xF0 && b1 <= 0xF4) {
+                needed = 4;
+            } else {
+                cbuf[n++] = REPLACEMENT;
+                pos++;
+                continue;
+            }
+            if(available < needed) {
+                if(n > off) {
+                    return n - off;
+                }
+                if(refill() == false) {
+                    // truncated sequence at the end of the input
+                    cbuf[n++] = REPLACEMENT;
+                    pos = limit;
+                    return n - off;
+                }
+                continue;
+            }
+            if(needed == 4 && end - n < 2) {
+                return n - off;
+            }
+            n = decode(b1, needed, cbuf, n);
+        }
+    }
+
+    /**
+     * Decode a multi-byte sequence.
+     *
+     * @return the new position in the char buffer
+     */
+    private int decode(final int b1, final int needed, final char[] cbuf, int n) {
+        final byte[] b = bytes;
+        int c = b1 & (0xFF >> (needed + 1));
+        for(int i = 1; i < needed; i++) {
+            final int next = b[pos + i];
+            if((next & 0xC0) != 0x80) {
+                // consume the lead byte only
+                pos++;
+                cbuf[n++] = REPLACEMENT;
+                return n;
+            }
+            c = (c << 6) | (next & 0x3F);
+        }
+        pos += needed;
+        if(needed == 3 && c < 0x800 || needed == 4 && (c < 0x10000 || c > 0x10FFFF)) {
+            cbuf[n++] = REPLACEMENT;
+        } else if(needed == 4) {
+            c -= 0x10000;
+            cbuf[n++] = (char) (0xD800 | (c >> 10));
+            cbuf[n++] = (char) (0xDC00 | (c & 0x3FF));
+        } else {
+            cbuf[n++] = (char) c;
+        }
+        return n;
+    }
+
+    /**
+     * Read more bytes from the input stream, keeping an incomplete sequence.
+     *
+     * @return false at the end of the input
+     */
+    private boolean refill() throws IOException {
+        if(is == null) {
+            return false;
+        }
+        final int remaining = limit - pos;
+        System.arraycopy(bytes, pos, bytes, 0, remaining);
+        pos = 0;
+        limit = remaining;
+        final int n = is.read(bytes, limit, bytes.length - limit);
+        if(n < 0) {
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+}
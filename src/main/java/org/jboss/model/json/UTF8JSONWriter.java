@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@link JSONWriter} writing UTF-8 encoded bytes. The text is encoded directly into a byte
+ * buffer, which is reused for the whole output and written to the {@code OutputStream} or
+ * {@code WritableByteChannel} when full. Strings are escaped in place and numbers are formatted
+ * without intermediate Strings where possible.
+ * <p>
+ * The output is buffered, {@link #flush()} has to be called once the JSON text is complete.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class UTF8JSONWriter extends JSONWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final UTF8Writer out;
+
+    /**
+     * Make a fresh UTF8JSONWriter. It can be used to build one JSON text.
+     *
+     * @param os the output stream
+     */
+    public UTF8JSONWriter(final OutputStream os) {
+        this(new UTF8Writer(os, BUFFER_SIZE));
+    }
+
+    /**
+     * Make a fresh UTF8JSONWriter. It can be used to build one JSON text.
+     *
+     * @param os the output stream
+     * @param bufferSize the buffer size, at least 32 bytes are used
+     */
+    public UTF8JSONWriter(final OutputStream os, final int bufferSize) {
+        this(new UTF8Writer(os, bufferSize));
+    }
+
+    /**
+     * Make a fresh UTF8JSONWriter. It can be used to build one JSON text.
+     *
+     * @param channel the channel
+     */
+    public UTF8JSONWriter(final WritableByteChannel channel) {
+        this(new UTF8Writer(channel, BUFFER_SIZE));
+    }
+
+    private UTF8JSONWriter(final UTF8Writer out) {
+        super(out);
+        this.out = out;
+    }
+
+    @Override
+    protected void write(final char c) throws IOException {
+        out.write(c);
+    }
+
+    @Override
+    protected void write(final String s) throws IOException {
+        out.write(s, 0, s.length());
+    }
+
+    @Override
+    protected void writeQuoted(final String s) throws IOException {
+        out.writeQuoted(s);
+    }
+
+    @Override
+    protected void writeLong(final long l) throws IOException {
+        out.writeLong(l);
+    }
+
+    @Override
+    protected void writeDouble(final double d) throws IOException, JSONException {
+        out.writeDouble(d);
+    }
+
+    /**
+     * Write the buffered bytes to the underlying output.
+     *
+     * @throws JSONException
+     */
+    public void flush() throws JSONException {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Flush and close the underlying output.
+     *
+     * @throws JSONException
+     */
+    public void close() throws JSONException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+}
@@ -0,0 +1,378 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@code Writer} encoding UTF-8 directly into a reusable byte buffer, which is flushed to an
+ * {@code OutputStream} or a {@code WritableByteChannel} when full. Besides the plain writer methods
+ * it can write quoted JSON strings and numbers, without creating intermediate Strings. Malformed
+ * surrogates are written as <code>'?'</code>, the same as an {@code OutputStreamWriter}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class UTF8Writer extends Writer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes();
+    /** The minimum buffer size, which has to hold the longest number written in one go. */
+    private static final int MIN_BUFFER_SIZE = 32;
+
+    private final OutputStream os;
+    private final WritableByteChannel channel;
+    private final byte[] buffer;
+    private final ByteBuffer byteBuffer;
+    private int position;
+    /** A high surrogate waiting for the low surrogate, or 0. */
+    private char highSurrogate;
+
+    UTF8Writer(final OutputStream os, final int bufferSize) {
+        if(os == null) {
+            throw new IllegalArgumentException("null output stream");
+        }
+        this.os = os;
+        this.channel = null;
+        this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+        this.byteBuffer = null;
+    }
+
+    UTF8Writer(final WritableByteChannel channel, final int bufferSize) {
+        if(channel == null) {
+            throw new IllegalArgumentException("null channel");
+        }
+        this.os = null;
+        this.channel = channel;
+        this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+        this.byteBuffer = ByteBuffer.wrap(buffer);
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        if(c < 0x80 && highSurrogate == 0) {
+            if(position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) c;
+        } else {
+            writeChar((char) c);
+        }
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        final int end = off + len;
+        int i = off;
+        while(i < end) {
+            // ASCII
+            final byte[] b = buffer;
+            int p = position;
+            final int l = Math.min(b.length, p + end - i);
+            if(highSurrogate == 0) {
+                char c;
+                while(p < l && (c = str.charAt(i)) < 0x80) {
+                    b[p++] = (byte) c;
+                    i++;
+                }
+            }
+            position = p;
+            if(i < end) {
+                if(p == b.length) {
+                    drain();
+                } else {
+                    writeChar(str.charAt(i++));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        final int end = off + len;
+        int i = off;
+        while(i < end) {
+            final byte[] b = buffer;
+            int p = position;
+            final int l = Math.min(b.length, p + end - i);
+            if(highSurrogate == 0) {
+                char c;
+                while(p < l && (c = cbuf[i]) < 0x80) {
+                    b[p++] = (byte) c;
+                    i++;
+                }
+            }
+            position = p;
+            if(i < end) {
+                if(p == b.length) {
+                    drain();
+                } else {
+                    writeChar(cbuf[i++]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a quoted JSON string, escaped the same as {@link JSONObject#quote(String)}.
+     *
+     * @param string the string
+     * @throws IOException
+     */
+    void writeQuoted(final String string) throws IOException {
+        if(string == null || string.length() == 0) {
+            write('"');
+            write('"');
+            return;
+        }
+        write('"');
+        final int len = string.length();
+        char c = 0;
+        int i = 0;
+        while(i < len) {
+            // characters which need no escaping
+            final byte[] b = buffer;
+            int p = position;
+            final int l = Math.min(b.length, p + len - i);
+            if(highSurrogate == 0) {
+                while(p < l) {
+                    c = string.charAt(i);
+                    if(c < ' ' || c >= 0x80 || c == '"' || c == '\\' || c == '/') {
+                        break;
+                    }
+                    b[p++] = (byte) c;
+                    i++;
+                }
+            }
+            position = p;
+            if(i == len) {
+                break;
+            }
+            if(p == b.length) {
+                drain();
+                continue;
+            }
+            final char previous = i > 0 ? string.charAt(i - 1) : 0;
+            c = string.charAt(i++);
+            switch(c) {
+            case '\\':
+            case '"':
+                write('\\');
+                write(c);
+                break;
+            case '/':
+                if(previous == '<') {
+                    write('\\');
+                }
+                write(c);
+                break;
+            case '\b':
+                writeEscape('b');
+                break;
+            case '\t':
+                writeEscape('t');
+                break;
+            case '\n':
+                writeEscape('n');
+                break;
+            case '\f':
+                writeEscape('f');
+                break;
+            case '\r':
+                writeEscape('r');
+                break;
+            default:
+                if(c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                    writeEscape('u');
+                    write(HEX[(c >> 12) & 0xF]);
+                    write(HEX[(c >> 8) & 0xF]);
+                    write(HEX[(c >> 4) & 0xF]);
+                    write(HEX[c & 0xF]);
+                } else {
+                    writeChar(c);
+                }
+            }
+        }
+        write('"');
+    }
+
+    /**
+     * Write a long in decimal notation.
+     *
+     * @param value the value
+     * @throws IOException
+     */
+    void writeLong(long value) throws IOException {
+        if(value == Long.MIN_VALUE) {
+            for(final byte b : LONG_MIN_VALUE) {
+                write(b);
+            }
+            return;
+        }
+        if(buffer.length - position < 20) {
+            drain();
+        }
+        if(value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for(long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int p = position + digits;
+        position = p;
+        do {
+            buffer[--p] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while(value != 0);
+    }
+
+    /**
+     * Write a double, the same as {@link JSONObject#numberToString(Number)}.
+     *
+     * @param value the value
+     * @throws IOException
+     * @throws JSONException for a non-finite number
+     */
+    void writeDouble(final double value) throws IOException, JSONException {
+        // integral values below 10^7 are written by Double.toString as "n.0"
+        if(value == (long) value && Math.abs(value) < 1e7 && (value != 0 || 1 / value > 0)) {
+            writeLong((long) value);
+        } else {
+            write(JSONObject.numberToString(Double.valueOf(value)));
+        }
+    }
+
+    /**
+     * Write bytes which are already UTF-8 encoded.
+     *
+     * @param bytes the encoded bytes
+     * @throws IOException
+     */
+    void writeEncoded(final byte[] bytes) throws IOException {
+        if(highSurrogate != 0) {
+            highSurrogate = 0;
+            write('?');
+        }
+        int off = 0;
+        while(off < bytes.length) {
+            if(position == buffer.length) {
+                drain();
+            }
+            final int len = Math.min(bytes.length - off, buffer.length - position);
+            System.arraycopy(bytes, off, buffer, position, len);
+            position += len;
+            off += len;
+        }
+    }
+
+    private void writeEscape(final char c) throws IOException {
+        write('\\');
+        write(c);
+    }
+
+    /**
+     * Encode a single char.
+     */
+    private void writeChar(final char c) throws IOException {
+        if(buffer.length - position < 4) {
+            drain();
+        }
+        final byte[] b = buffer;
+        if(highSurrogate != 0) {
+            final char high = highSurrogate;
+            highSurrogate = 0;
+            if(Character.isLowSurrogate(c)) {
+                final int cp = Character.toCodePoint(high, c);
+                b[position++] = (byte) (0xF0 | (cp >> 18));
+                b[position++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[position++] = (byte) (0x80 | (cp & 0x3F));
+                return;
+            }
+            b[position++] = '?';
+            writeChar(c);
+            return;
+        }
+        if(c < 0x80) {
+            b[position++] = (byte) c;
+        } else if(c < 0x800) {
+            b[position++] = (byte) (0xC0 | (c >> 6));
+            b[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if(Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if(Character.isLowSurrogate(c)) {
+            b[position++] = '?';
+        } else {
+            b[position++] = (byte) (0xE0 | (c >> 12));
+            b[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            b[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Write the buffered bytes to the target.
+     */
+    private void drain() throws IOException {
+        if(position == 0) {
+            return;
+        }
+        if(os != null) {
+            os.write(buffer, 0, position);
+        } else {
+            byteBuffer.clear();
+            byteBuffer.limit(position);
+            while(byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+        }
+        position = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if(os != null) {
+            os.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(highSurrogate != 0) {
+            highSurrogate = 0;
+            write('?');
+        }
+        flush();
+        if(os != null) {
+            os.close();
+        } else {
+            channel.close();
+        }
+    }
+
+}
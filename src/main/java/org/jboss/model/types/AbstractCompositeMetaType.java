@@ -23,7 +23,9 @@
 package org.jboss.model.types;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -31,6 +33,9 @@ import org.jboss.model.values.CompositeValue;
 
 /**
  * AbstractCompositeMetaType.
+ * <p>
+ * Besides the {@link CompositeMetaType} contract the items are assigned fixed slot indexes,
+ * which are exposed through {@link CompositeMetaTypeSlots}.
  *
  * @author <a href="adrian@jboss.com">Adrian Brock</a>
  */
@@ -48,6 +53,9 @@ abstract class AbstractCompositeMetaType extends AbstractMetaType implements Com
     /** The keys */
     private Set<String> keys;
 
+    /** The item slots */
+    private transient volatile Slots slots;
+
     /**
      * Construct a composite meta type. The parameters are checked for validity.
      * <p>
@@ -172,8 +180,11 @@ abstract class AbstractCompositeMetaType extends AbstractMetaType implements Com
         if (itemType == null) {
             throw new IllegalArgumentException("null item type");
         }
+        // Existing slots are kept, new items are appended
+        final Slots appended = getSlots().append(itemName, itemType);
         nameToDescription.put(itemName, itemDescription);
         nameToType.put(itemName, itemType);
+        slots = appended;
     }
 
     public boolean containsItem(String itemName) {
@@ -202,6 +213,55 @@ abstract class AbstractCompositeMetaType extends AbstractMetaType implements Com
         return nameToType.get(itemName);
     }
 
+    /**
+     * Retrieve the slot index of an item. Each item is assigned a fixed index in
+     * the range <code>0</code> to <code>itemSet().size() - 1</code>, which does not
+     * change once assigned.
+     *
+     * @param itemName the item name
+     * @return the index or -1 when there is no such item name
+     */
+    int indexOf(String itemName) {
+        if (itemName == null) {
+            return -1;
+        }
+        final Integer index = getSlots().indexes.get(itemName);
+        return index == null ? -1 : index.intValue();
+    }
+
+    /**
+     * Retrieve the meta type for a slot index
+     *
+     * @param index the slot index
+     * @return the meta type or null when there is no such index
+     * @see #indexOf(String)
+     */
+    MetaType getType(int index) {
+        final MetaType[] types = getSlots().types;
+        if (index < 0 || index >= types.length) {
+            return null;
+        }
+        return types[index];
+    }
+
+    private Slots getSlots() {
+        Slots current = slots;
+        if (current == null) {
+            // Not yet created or deserialized
+            synchronized (this) {
+                current = slots;
+                if (current == null) {
+                    current = Slots.EMPTY;
+                    for (Map.Entry<String, MetaType> entry : nameToType.entrySet()) {
+                        current = current.append(entry.getKey(), entry.getValue());
+                    }
+                    slots = current;
+                }
+            }
+        }
+        return current;
+    }
+
     public Set<String> itemSet() {
         return Collections.unmodifiableSet(nameToDescription.keySet());
     }
@@ -295,4 +355,30 @@ abstract class AbstractCompositeMetaType extends AbstractMetaType implements Com
         buffer.append('}');
         return buffer.toString();
     }
+
+    /**
+     * The slot layout, assigning each item a fixed index.
+     */
+    private static final class Slots {
+
+        static final Slots EMPTY = new Slots(Collections.<String, Integer>emptyMap(), new MetaType[0]);
+
+        final Map<String, Integer> indexes;
+        final MetaType[] types;
+
+        Slots(final Map<String, Integer> indexes, final MetaType[] types) {
+            this.indexes = indexes;
+            this.types = types;
+        }
+
+        Slots append(final String itemName, final MetaType itemType) {
+            final int index = types.length;
+            final Map<String, Integer> indexes = new HashMap<String, Integer>(this.indexes);
+            indexes.put(itemName, Integer.valueOf(index));
+            final MetaType[] types = new MetaType[index + 1];
+            System.arraycopy(this.types, 0, types, 0, index);
+            types[index] = itemType;
+            return new Slots(indexes, types);
+        }
+    }
 }
@@ -57,6 +57,9 @@ public abstract class AbstractMetaType implements MetaType {
     /** Whether the class is an array */
     private transient boolean array = false;
 
+    /** The compiled validator */
+    private transient volatile MetaTypeValidator validator;
+
     /**
      * Construct a new MetaType.
      * <p>
@@ -250,6 +253,20 @@ public abstract class AbstractMetaType implements MetaType {
         return equals(metaValue.getMetaType());
     }
 
+    /**
+     * Get the compiled validator for this meta type.
+     *
+     * @return the validator
+     */
+    MetaTypeValidator getValidator() {
+        MetaTypeValidator validator = this.validator;
+        if(validator == null) {
+            validator = MetaTypeValidators.compile(this);
+            this.validator = validator;
+        }
+        return validator;
+    }
+
     /**
      * Read the object from a stream.
      *
@@ -49,6 +49,9 @@ public class ArrayMetaType extends AbstractMetaType {
     /** Cached string representation */
     private transient String cachedToString = null;
 
+    /** The resolved array class */
+    private transient volatile Class<?> arrayClass;
+
     private static final int PRIMITIVE_WRAPPER_NAME_INDEX = 0;
     private static final int PRIMITIVE_TYPE_NAME_INDEX = 1;
     private static final int PRIMITIVE_TYPE_ENCODING_INDEX = 2;
@@ -331,13 +334,17 @@ public class ArrayMetaType extends AbstractMetaType {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public boolean isValue(Object obj) {
         if (obj == null) {
             return false;
         }
+        // If this is an ArrayValue check its MetaType
+        if (obj instanceof ArrayValue) {
+            ArrayValue av = (ArrayValue) obj;
+            return this.equals(av.getMetaType());
+        }
         Class<?> clazz = obj.getClass();
-        if (clazz.isArray() == false && (obj instanceof ArrayValue) == false) {
+        if (clazz.isArray() == false) {
             return false;
         }
         if (elementType instanceof SimpleMetaType) {
@@ -345,21 +352,9 @@ public class ArrayMetaType extends AbstractMetaType {
         }
         if (elementType instanceof TableMetaType
                 || elementType instanceof CompositeMetaType) {
-            // If this is an ArrayValue check its MetaType
-            if (obj instanceof ArrayValue) {
-                ArrayValue av = (ArrayValue) obj;
-                return this.equals(av.getMetaType());
-            }
             // Check the element classes
-            Class<?> thisClass;
-            try {
-                // FIXME usage of TCL
-                ClassLoader loader = Thread.currentThread() .getContextClassLoader();
-                thisClass = Class.forName(getClassName(), false, loader);
-            } catch (ClassNotFoundException e) {
-                return false;
-            }
-            if (thisClass.isAssignableFrom(clazz) == false) {
+            Class<?> thisClass = getArrayClass();
+            if (thisClass == null || thisClass.isAssignableFrom(clazz) == false) {
                 return false;
             }
             return recursiveCheck((Object[]) obj, dimension);
@@ -367,6 +362,29 @@ public class ArrayMetaType extends AbstractMetaType {
         return false;
     }
 
+    /**
+     * Get the array class, which is resolved once.
+     *
+     * @return the array class, <code>null</code> if it cannot be loaded
+     */
+    Class<?> getArrayClass() {
+        Class<?> arrayClass = this.arrayClass;
+        if (arrayClass == null) {
+            try {
+                arrayClass = Class.forName(getClassName(), false, ArrayMetaType.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                try {
+                    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                    arrayClass = Class.forName(getClassName(), false, loader);
+                } catch (ClassNotFoundException ignore) {
+                    return null;
+                }
+            }
+            this.arrayClass = arrayClass;
+        }
+        return arrayClass;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -415,8 +433,9 @@ public class ArrayMetaType extends AbstractMetaType {
         // Reached the end
         if (dimension == 1) {
             // Check each element is the correct type
+            final MetaTypeValidator validator = MetaTypeValidators.get(elementType);
             for (int i = 0; i < elements.length; i++) {
-                if (elements[i] != null && elementType.isValue(elements[i]) == false) {
+                if (elements[i] != null && validator.isValue(elements[i]) == false) {
                     return false;
                 }
             }
@@ -108,8 +108,9 @@ public class CollectionMetaType extends AbstractMetaType {
         }
 
         Collection collection = (Collection) obj;
+        MetaTypeValidator validator = MetaTypeValidators.get(elementType);
         for (Object element : collection) {
-            if (elementType.isValue(element) == false) {
+            if (validator.isValue(element) == false) {
                 return false;
             }
         }
@@ -0,0 +1,71 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.model.types;
+
+/**
+ * Access to the item slot indexes of the built-in composite meta types, used by
+ * {@link org.jboss.model.values.CompactCompositeValueSupport}. This is an internal helper,
+ * the slots are not part of the {@link CompositeMetaType} contract.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class CompositeMetaTypeSlots {
+
+    private CompositeMetaTypeSlots() {
+        //
+    }
+
+    /**
+     * Check whether a composite meta type assigns slot indexes to its items.
+     *
+     * @param metaType the composite meta type
+     * @return <code>true</code> for the built-in composite meta types
+     */
+    public static boolean hasSlots(final CompositeMetaType metaType) {
+        return metaType instanceof AbstractCompositeMetaType;
+    }
+
+    /**
+     * Retrieve the slot index of an item. Each item is assigned a fixed index in
+     * the range <code>0</code> to <code>itemSet().size() - 1</code>, which does not
+     * change once assigned.
+     *
+     * @param metaType the composite meta type, which {@link #hasSlots(CompositeMetaType) has slots}
+     * @param itemName the item name
+     * @return the index or -1 when there is no such item name
+     */
+    public static int indexOf(final CompositeMetaType metaType, final String itemName) {
+        return ((AbstractCompositeMetaType) metaType).indexOf(itemName);
+    }
+
+    /**
+     * Retrieve the meta type for a slot index.
+     *
+     * @param metaType the composite meta type, which {@link #hasSlots(CompositeMetaType) has slots}
+     * @param index the slot index
+     * @return the meta type or null when there is no such index
+     */
+    public static MetaType getType(final CompositeMetaType metaType, final int index) {
+        return ((AbstractCompositeMetaType) metaType).getType(index);
+    }
+
+}
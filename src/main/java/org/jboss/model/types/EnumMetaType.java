@@ -136,6 +136,11 @@ public class EnumMetaType extends AbstractMetaType {
         return getTypeName().equals(other.getTypeName()) && getValidValues().equals(other.getValidValues());
     }
 
+    @Override
+    public int hashCode() {
+        return getTypeName().hashCode() + getValidValues().hashCode();
+    }
+
     @Override
     public String toString() {
         return getTypeName() + "{" + validValues + "}";
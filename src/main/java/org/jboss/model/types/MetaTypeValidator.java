@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.types;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * A reusable check whether a value is valid for a given {@code MetaType}. Validators are obtained
+ * through {@link MetaTypeValidators#get(MetaType)} and are safe to share between threads.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public interface MetaTypeValidator {
+
+    /**
+     * Get the meta type this validator checks against.
+     *
+     * @return the meta type
+     */
+    MetaType getMetaType();
+
+    /**
+     * Whether the meta value is a valid value for the meta type.
+     *
+     * @param value the meta value
+     * @return true when valid, false otherwise or for a <code>null</code> value
+     * @see MetaType#isValue(MetaValue)
+     */
+    boolean isValue(MetaValue value);
+
+    /**
+     * Whether the object is a valid value for the meta type.
+     *
+     * @param obj the object
+     * @return true when valid, false otherwise or for a <code>null</code> object
+     * @see MetaType#isValue(Object)
+     */
+    boolean isValue(Object obj);
+
+}
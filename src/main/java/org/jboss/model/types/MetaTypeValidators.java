@@ -0,0 +1,256 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.types;
+
+import java.util.Collection;
+
+import org.jboss.model.values.MetaValue;
+
+/**
+ * Factory for {@code MetaTypeValidator}s.
+ * <p>
+ * A validator is compiled once per meta type instance and cached on the type itself.
+ * <p>
+ * A meta value is valid if its meta type equals the validated type. Besides an identity check the
+ * validator memoizes the last accepted value type, so that validating many values of an equal but
+ * distinct type, e.g. composite values created from a deserialized type, does not repeat the
+ * structural equality check of the meta types.
+ * <p>
+ * Array and collection validators hold the compiled validator of their element type and check
+ * plain arrays and collections element by element, arrays of composite or table values against
+ * the array class resolved by the {@link ArrayMetaType}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class MetaTypeValidators {
+
+    private MetaTypeValidators() {
+        //
+    }
+
+    /**
+     * Get the validator for a meta type.
+     *
+     * @param metaType the meta type
+     * @return the validator
+     */
+    public static MetaTypeValidator get(final MetaType metaType) {
+        if(metaType == null) {
+            throw new IllegalArgumentException("null meta type");
+        }
+        if(metaType instanceof AbstractMetaType) {
+            return ((AbstractMetaType) metaType).getValidator();
+        }
+        return compile(metaType);
+    }
+
+    /**
+     * Compile a new validator.
+     *
+     * @param metaType the meta type
+     * @return the validator
+     */
+    static MetaTypeValidator compile(final MetaType metaType) {
+        if(metaType.isEnum()) {
+            return new EnumValidator(metaType);
+        }
+        if(metaType instanceof ArrayMetaType) {
+            return new ArrayValidator((ArrayMetaType) metaType);
+        }
+        if(metaType instanceof CollectionMetaType) {
+            return new CollectionValidator((CollectionMetaType) metaType);
+        }
+        return new TypeValidator(metaType);
+    }
+
+    /**
+     * Whether the equality of a meta type can change later on, in which case it must
+     * not be remembered as accepted.
+     *
+     * @param metaType the meta type
+     * @return true if the meta type is not going to change
+     */
+    public static boolean isStable(final MetaType metaType) {
+        if(metaType instanceof MutableCompositeMetaType) {
+            if(((MutableCompositeMetaType) metaType).isFrozen() == false) {
+                return false;
+            }
+        }
+        if(metaType instanceof CompositeMetaType) {
+            final CompositeMetaType composite = (CompositeMetaType) metaType;
+            for(final String itemName : composite.itemSet()) {
+                if(isStable(composite.getType(itemName)) == false) {
+                    return false;
+                }
+            }
+        } else if(metaType instanceof ArrayMetaType) {
+            return isStable(((ArrayMetaType) metaType).getElementType());
+        } else if(metaType instanceof CollectionMetaType) {
+            return isStable(((CollectionMetaType) metaType).getElementType());
+        } else if(metaType instanceof TableMetaType) {
+            return isStable(((TableMetaType) metaType).getRowType());
+        } else if(metaType instanceof MapMetaType) {
+            return isStable(((MapMetaType) metaType).getEntryType());
+        } else if(metaType instanceof CompositeMapMetaType) {
+            final CompositeMapMetaType map = (CompositeMapMetaType) metaType;
+            return isStable(map.getIndexType()) && isStable(map.getEntryType());
+        }
+        return true;
+    }
+
+    static class TypeValidator implements MetaTypeValidator {
+
+        private final MetaType metaType;
+
+        /** The last accepted value type, other than the meta type itself. */
+        private volatile MetaType accepted;
+
+        TypeValidator(final MetaType metaType) {
+            this.metaType = metaType;
+        }
+
+        public MetaType getMetaType() {
+            return metaType;
+        }
+
+        public boolean isValue(final MetaValue value) {
+            if(value == null) {
+                return false;
+            }
+            final MetaType valueType = value.getMetaType();
+            if(valueType == metaType || (valueType != null && valueType == accepted)) {
+                return true;
+            }
+            if(metaType.isValue(value)) {
+                if(isStable(valueType)) {
+                    accepted = valueType;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isValue(final Object obj) {
+            if(obj instanceof MetaValue) {
+                return isValue((MetaValue) obj);
+            }
+            return metaType.isValue(obj);
+        }
+    }
+
+    /**
+     * Checks plain arrays with the precompiled element validator.
+     */
+    static class ArrayValidator extends TypeValidator {
+
+        private final ArrayMetaType arrayType;
+        private final MetaTypeValidator elementValidator;
+        private final boolean checkClass;
+
+        ArrayValidator(final ArrayMetaType metaType) {
+            super(metaType);
+            final MetaType elementType = metaType.getElementType();
+            this.arrayType = metaType;
+            this.elementValidator = get(elementType);
+            this.checkClass = elementType instanceof CompositeMetaType || elementType instanceof TableMetaType;
+        }
+
+        public boolean isValue(final Object obj) {
+            if(obj instanceof MetaValue) {
+                return isValue((MetaValue) obj);
+            }
+            if(obj instanceof Object[] == false || arrayType.isPrimitiveArray()) {
+                return arrayType.isValue(obj);
+            }
+            if(checkClass) {
+                final Class<?> arrayClass = arrayType.getArrayClass();
+                if(arrayClass == null || arrayClass.isInstance(obj) == false) {
+                    return false;
+                }
+            } else if(arrayType.getElementType() instanceof SimpleMetaType == false) {
+                return false;
+            }
+            return isElements((Object[]) obj, arrayType.getDimension());
+        }
+
+        private boolean isElements(final Object[] elements, final int dimension) {
+            if(dimension == 1) {
+                for(final Object element : elements) {
+                    if(element != null && elementValidator.isValue(element) == false) {
+                        return false;
+                    }
+                }
+            } else {
+                for(final Object element : elements) {
+                    if(isElements((Object[]) element, dimension - 1) == false) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks plain collections with the precompiled element validator.
+     */
+    static class CollectionValidator extends TypeValidator {
+
+        private final MetaTypeValidator elementValidator;
+
+        CollectionValidator(final CollectionMetaType metaType) {
+            super(metaType);
+            this.elementValidator = get(metaType.getElementType());
+        }
+
+        public boolean isValue(final Object obj) {
+            if(obj instanceof MetaValue) {
+                return isValue((MetaValue) obj);
+            }
+            if(obj instanceof Collection<?> == false) {
+                return false;
+            }
+            for(final Object element : (Collection<?>) obj) {
+                if(elementValidator.isValue(element) == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Enum values are checked against the valid values, which does not depend on the value type only.
+     */
+    static class EnumValidator extends TypeValidator {
+
+        EnumValidator(final MetaType metaType) {
+            super(metaType);
+        }
+
+        public boolean isValue(final Object obj) {
+            return getMetaType().isValue(obj);
+        }
+    }
+
+}
@@ -80,6 +80,15 @@ public class MutableCompositeMetaType extends AbstractCompositeMetaType {
         frozen = true;
     }
 
+    /**
+     * Whether the metatype is frozen
+     *
+     * @return true when frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
     @Override
     public boolean equals(Object obj) {
         // If we aren't frozen yet, use identity
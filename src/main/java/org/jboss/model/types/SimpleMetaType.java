@@ -292,6 +292,15 @@ public class SimpleMetaType extends AbstractMetaType {
         return primitiveType != '\0' && this.getTypeName().startsWith("java.lang") == false;
     }
 
+    /**
+     * Whether this is a primitive type or the wrapper type of a primitive.
+     *
+     * @return true for the primitive and wrapper types
+     */
+    public boolean hasPrimitive() {
+        return primitiveType != '\0';
+    }
+
     @Override
     public boolean isValue(Object obj) {
         if (obj == null || obj instanceof SimpleValue == false) {
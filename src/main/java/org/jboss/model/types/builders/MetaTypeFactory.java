@@ -163,7 +163,7 @@ public class MetaTypeFactory implements SimpleTypes {
             throw new IllegalArgumentException("null entity info");
         }
         final MutableCompositeMetaType composite = new MutableCompositeMetaType(info.getIdentifierType().getElementName(), info.getDescription());
-        for(final ManagedResourceAttributeInfo attribute : info.getAttributes()) {
+        for(final ManagedResourceAttributeInfo attribute : info.getAttributeList()) {
             composite.addItem(attribute.getName(), attribute.getDescription(), attribute.getType());
         }
         composite.freeze();
@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.jboss.model.types.ArrayMetaType;
+
+/**
+ * Base class for the {@link ArrayValue}s backed by a one-dimensional primitive array. The subclasses
+ * provide unboxed indexed access and bulk copies; only the generic {@link ArrayValue} methods box
+ * the elements.
+ *
+ * @author Emanuel Muckenhuber
+ */
+abstract class AbstractPrimitiveArrayValue extends AbstractMetaValue implements ArrayValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = -3941950612542375032L;
+
+    /** The array meta type */
+    private final ArrayMetaType metaType;
+
+    /**
+     * Create a new primitive array value.
+     *
+     * @param metaType the array meta type
+     * @param componentType the primitive component type
+     * @throws IllegalArgumentException if the meta type does not describe a one-dimensional array of the component type
+     */
+    AbstractPrimitiveArrayValue(final ArrayMetaType metaType, final Class<?> componentType) {
+        if (metaType == null) {
+            throw new IllegalArgumentException("Null array meta type");
+        }
+        if (isArrayOf(metaType, componentType) == false) {
+            throw new IllegalArgumentException("meta type " + metaType + " is not a " + componentType.getName() + "[]");
+        }
+        this.metaType = metaType;
+    }
+
+    /**
+     * Whether the meta type describes a one-dimensional array of the component type.
+     *
+     * @param metaType the array meta type
+     * @param componentType the primitive component type
+     * @return true if it does, false otherwise
+     */
+    static boolean isArrayOf(final ArrayMetaType metaType, final Class<?> componentType) {
+        return metaType.getDimension() == 1
+                && componentType.getName().equals(ArrayMetaType.getPrimitiveName(metaType.getElementType().getTypeName()));
+    }
+
+    public ArrayMetaType getMetaType() {
+        return metaType;
+    }
+
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private int index;
+
+            public boolean hasNext() {
+                return index < getLength();
+            }
+
+            public Object next() {
+                if (index >= getLength()) {
+                    throw new NoSuchElementException();
+                }
+                return getValue(index++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Compare the backing array with the value of another array value.
+     *
+     * @param otherValue the other array value, may be <code>null</code>
+     * @return true if the elements are equal
+     */
+    abstract boolean valueEquals(Object otherValue);
+
+    /**
+     * Get the string representation of the elements.
+     *
+     * @return the elements as string
+     */
+    abstract String valueToString();
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj instanceof ArrayValue == false) {
+            return false;
+        }
+        ArrayValue other = (ArrayValue) obj;
+        if (metaType.equals(other.getMetaType()) == false) {
+            return false;
+        }
+        return valueEquals(other.getValue());
+    }
+
+    @Override
+    public String toString() {
+        return metaType + ":" + valueToString();
+    }
+
+}
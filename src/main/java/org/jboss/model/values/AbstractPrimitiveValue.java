@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * Base class for the {@link SimpleValue}s holding a primitive value. The subclasses keep the raw
+ * primitive and only box it when {@link #getValue()} is called.
+ *
+ * @author Emanuel Muckenhuber
+ */
+abstract class AbstractPrimitiveValue extends AbstractMetaValue implements SimpleValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = 3307213683502366407L;
+
+    /** The simple meta type */
+    private final SimpleMetaType metaType;
+
+    /**
+     * Create a new primitive value.
+     *
+     * @param metaType the meta type
+     * @param type the wrapper type
+     * @param primitiveType the primitive type
+     * @throws IllegalArgumentException if the meta type is neither the wrapper nor the primitive type
+     */
+    AbstractPrimitiveValue(final SimpleMetaType metaType, final SimpleMetaType type, final SimpleMetaType primitiveType) {
+        if (metaType == null) {
+            throw new IllegalArgumentException("Null simple meta type");
+        }
+        if (metaType != type && metaType != primitiveType) {
+            throw new IllegalArgumentException("meta type " + metaType + " is not a " + primitiveType);
+        }
+        this.metaType = metaType;
+    }
+
+    public SimpleMetaType getMetaType() {
+        return metaType;
+    }
+
+    public String asString() {
+        return SimpleValueSupport.asString(getValue());
+    }
+
+    public Number asNumber() {
+        return SimpleValueSupport.asNumber(getValue(), metaType);
+    }
+
+    public Integer asInteger() {
+        return Integer.valueOf(intValue());
+    }
+
+    public Float asFloat() {
+        return Float.valueOf(floatValue());
+    }
+
+    public Short asShort() {
+        return Short.valueOf((short) intValue());
+    }
+
+    public Byte asByte() {
+        return Byte.valueOf((byte) intValue());
+    }
+
+    public Boolean asBoolean() {
+        return SimpleValueSupport.asBoolean(getValue());
+    }
+
+    public int intValue() {
+        return asNumber().intValue();
+    }
+
+    public long longValue() {
+        return asNumber().longValue();
+    }
+
+    public float floatValue() {
+        return asNumber().floatValue();
+    }
+
+    public double doubleValue() {
+        return asNumber().doubleValue();
+    }
+
+    public boolean booleanValue() {
+        return asBoolean().booleanValue();
+    }
+
+    public int compareTo(SimpleValue sv) {
+        if (metaType.isValue(sv)) {
+            return metaType.compare(getValue(), sv.getValue());
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj instanceof SimpleValue == false) {
+            return false;
+        }
+        SimpleValue other = (SimpleValue) obj;
+        if (metaType.equalsIgnorePrimitive(other.getMetaType()) == false) {
+            return false;
+        }
+        return getValue().equals(other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return getValue().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return metaType + ":" + asString();
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.model.values;
+
+import java.io.Serializable;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * Base class for the {@link SimpleValue}s holding a boxed value. The conversions, equality and
+ * ordering only depend on {@link #getMetaType()} and {@link #getValue()}, the subclasses keep the
+ * fields so that their serialized form is not affected.
+ *
+ * @author Emanuel Muckenhuber
+ */
+abstract class AbstractSimpleValue extends AbstractMetaValue implements SimpleValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = -6079457112462370187L;
+
+    public abstract SimpleMetaType getMetaType();
+
+    public abstract Serializable getValue();
+
+    public String asString() {
+        return SimpleValueSupport.asString(getValue());
+    }
+
+    public Integer asInteger() {
+        if(getValue() == null) {
+            return null;
+        }
+        return asNumber().intValue();
+    }
+
+    public Float asFloat() {
+        if(getValue() == null) {
+            return null;
+        }
+        return asNumber().floatValue();
+    }
+
+    public Short asShort() {
+        if(getValue() == null) {
+            return null;
+        }
+        return asNumber().shortValue();
+    }
+
+    public Boolean asBoolean() {
+        return SimpleValueSupport.asBoolean(getValue());
+    }
+
+    public Byte asByte() {
+        if(getValue() == null) {
+            return null;
+        }
+        return asNumber().byteValue();
+    }
+
+    public Number asNumber() {
+        return SimpleValueSupport.asNumber(getValue(), getMetaType());
+    }
+
+    public int intValue() {
+        return SimpleValueSupport.notNull(asNumber()).intValue();
+    }
+
+    public long longValue() {
+        return SimpleValueSupport.notNull(asNumber()).longValue();
+    }
+
+    public float floatValue() {
+        return SimpleValueSupport.notNull(asNumber()).floatValue();
+    }
+
+    public double doubleValue() {
+        return SimpleValueSupport.notNull(asNumber()).doubleValue();
+    }
+
+    public boolean booleanValue() {
+        return SimpleValueSupport.notNull(asBoolean()).booleanValue();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj instanceof SimpleValue == false) {
+            return false;
+        }
+        SimpleValue other = (SimpleValue) obj;
+        final SimpleMetaType metaType = getMetaType();
+        if (metaType.equals(other.getMetaType()) == false) {
+            // Check equivalent types
+            if (metaType.equalsIgnorePrimitive(other.getMetaType()) == false) {
+                return false;
+            }
+        }
+        final Object value = getValue();
+        final Object otherValue = other.getValue();
+        if (value == null) {
+            return otherValue == null;
+        }
+        return value.equals(otherValue);
+    }
+
+    @Override
+    public int hashCode() {
+        final Object value = getValue();
+        if (value == null) {
+            return 0;
+        }
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getMetaType() + ":" + getValue();
+    }
+
+    public int compareTo(SimpleValue sv) {
+        final SimpleMetaType metaType = getMetaType();
+        if(metaType.isValue(sv)) {
+            return metaType.compare(getValue(), sv.getValue());
+        }
+        return -1;
+    }
+
+}
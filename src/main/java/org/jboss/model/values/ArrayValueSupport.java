@@ -90,10 +90,16 @@ public class ArrayValueSupport extends AbstractMetaValue implements ArrayValue {
      * @return length of the array.
      */
     public int getLength() {
+        if (value instanceof Object[]) {
+            return ((Object[]) value).length;
+        }
         return Array.getLength(value);
     }
 
     public Object getValue(int index) {
+        if (value instanceof Object[]) {
+            return ((Object[]) value)[index];
+        }
         return Array.get(value, index);
     }
 
@@ -157,10 +163,31 @@ public class ArrayValueSupport extends AbstractMetaValue implements ArrayValue {
 
     @Override
     public int hashCode() {
+        int hashCode;
         if (value == null) {
-            return 0;
+            hashCode = 0;
+        } else if (value instanceof byte[]) {
+            hashCode = Arrays.hashCode((byte[]) value);
+        } else if (value instanceof short[]) {
+            hashCode = Arrays.hashCode((short[]) value);
+        } else if (value instanceof int[]) {
+            hashCode = Arrays.hashCode((int[]) value);
+        } else if (value instanceof long[]) {
+            hashCode = Arrays.hashCode((long[]) value);
+        } else if (value instanceof char[]) {
+            hashCode = Arrays.hashCode((char[]) value);
+        } else if (value instanceof float[]) {
+            hashCode = Arrays.hashCode((float[]) value);
+        } else if (value instanceof double[]) {
+            hashCode = Arrays.hashCode((double[]) value);
+        } else if (value instanceof boolean[]) {
+            hashCode = Arrays.hashCode((boolean[]) value);
+        } else if (value instanceof Object[]) {
+            hashCode = Arrays.deepHashCode((Object[]) value);
+        } else {
+            hashCode = value.hashCode();
         }
-        return value.hashCode();
+        return hashCode;
     }
 
     @Override
@@ -171,10 +198,10 @@ public class ArrayValueSupport extends AbstractMetaValue implements ArrayValue {
     @Override
     public MetaValue clone() {
         ArrayValueSupport result = (ArrayValueSupport) super.clone();
-        int length = getLength();
-        if (value != null && length > 0) {
-            // TODO: This is wrong as value is not an Object[] in general
-            result.value = new Object[length];
+        if (value != null) {
+            // keep the component type of the array
+            int length = getLength();
+            result.value = Array.newInstance(value.getClass().getComponentType(), length);
             System.arraycopy(value, 0, result.value, 0, length);
         }
         return result;
@@ -228,6 +255,9 @@ public class ArrayValueSupport extends AbstractMetaValue implements ArrayValue {
         }
 
         public Object next() {
+            if (array instanceof Object[]) {
+                return ((Object[]) array)[index++];
+            }
             return Array.get(array, index++);
         }
 
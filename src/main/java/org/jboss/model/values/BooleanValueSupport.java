@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * A {@link SimpleValue} holding a primitive {@code boolean}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class BooleanValueSupport extends AbstractPrimitiveValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = -7723591893316425035L;
+
+    /** The value */
+    private final boolean value;
+
+    /**
+     * Create a new BooleanValueSupport.
+     *
+     * @param value the value
+     */
+    public BooleanValueSupport(boolean value) {
+        this(SimpleMetaType.BOOLEAN_PRIMITIVE, value);
+    }
+
+    /**
+     * Create a new BooleanValueSupport.
+     *
+     * @param metaType the meta type, either {@link SimpleMetaType#BOOLEAN} or {@link SimpleMetaType#BOOLEAN_PRIMITIVE}
+     * @param value the value
+     * @throws IllegalArgumentException for an invalid meta type
+     */
+    public BooleanValueSupport(SimpleMetaType metaType, boolean value) {
+        super(metaType, SimpleMetaType.BOOLEAN, SimpleMetaType.BOOLEAN_PRIMITIVE);
+        this.value = value;
+    }
+
+    public Boolean getValue() {
+        return Boolean.valueOf(value);
+    }
+
+    @Override
+    public String asString() {
+        return value ? "true" : "false";
+    }
+
+    @Override
+    public Boolean asBoolean() {
+        return Boolean.valueOf(value);
+    }
+
+    @Override
+    public boolean booleanValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(SimpleValue sv) {
+        if (sv instanceof BooleanValueSupport) {
+            final boolean other = ((BooleanValueSupport) sv).value;
+            return value == other ? 0 : (value ? 1 : -1);
+        }
+        return super.compareTo(sv);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof BooleanValueSupport) {
+            return value == ((BooleanValueSupport) obj).value;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return value ? 1231 : 1237;
+    }
+
+}
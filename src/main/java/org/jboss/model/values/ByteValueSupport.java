@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * A {@link SimpleValue} holding a primitive {@code byte}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class ByteValueSupport extends AbstractPrimitiveValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = -6021137339312251761L;
+
+    /** The value */
+    private final byte value;
+
+    /**
+     * Create a new ByteValueSupport.
+     *
+     * @param value the value
+     */
+    public ByteValueSupport(byte value) {
+        this(SimpleMetaType.BYTE_PRIMITIVE, value);
+    }
+
+    /**
+     * Create a new ByteValueSupport.
+     *
+     * @param metaType the meta type, either {@link SimpleMetaType#BYTE} or {@link SimpleMetaType#BYTE_PRIMITIVE}
+     * @param value the value
+     * @throws IllegalArgumentException for an invalid meta type
+     */
+    public ByteValueSupport(SimpleMetaType metaType, byte value) {
+        super(metaType, SimpleMetaType.BYTE, SimpleMetaType.BYTE_PRIMITIVE);
+        this.value = value;
+    }
+
+    public Byte getValue() {
+        return Byte.valueOf(value);
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    @Override
+    public Number asNumber() {
+        return getValue();
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(SimpleValue sv) {
+        if (sv instanceof ByteValueSupport) {
+            final byte other = ((ByteValueSupport) sv).value;
+            return value < other ? -1 : (value == other ? 0 : 1);
+        }
+        return super.compareTo(sv);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ByteValueSupport) {
+            final byte other = ((ByteValueSupport) obj).value;
+            return value == other;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * A {@link SimpleValue} holding a primitive {@code char}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class CharacterValueSupport extends AbstractPrimitiveValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = 4651250340271632229L;
+
+    /** The value */
+    private final char value;
+
+    /**
+     * Create a new CharacterValueSupport.
+     *
+     * @param value the value
+     */
+    public CharacterValueSupport(char value) {
+        this(SimpleMetaType.CHARACTER_PRIMITIVE, value);
+    }
+
+    /**
+     * Create a new CharacterValueSupport.
+     *
+     * @param metaType the meta type, either {@link SimpleMetaType#CHARACTER} or {@link SimpleMetaType#CHARACTER_PRIMITIVE}
+     * @param value the value
+     * @throws IllegalArgumentException for an invalid meta type
+     */
+    public CharacterValueSupport(SimpleMetaType metaType, char value) {
+        super(metaType, SimpleMetaType.CHARACTER, SimpleMetaType.CHARACTER_PRIMITIVE);
+        this.value = value;
+    }
+
+    public Character getValue() {
+        return Character.valueOf(value);
+    }
+
+    /**
+     * Get the value.
+     *
+     * @return the value
+     */
+    public char charValue() {
+        return value;
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    @Override
+    public int compareTo(SimpleValue sv) {
+        if (sv instanceof CharacterValueSupport) {
+            return value - ((CharacterValueSupport) sv).value;
+        }
+        return super.compareTo(sv);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CharacterValueSupport) {
+            return value == ((CharacterValueSupport) obj).value;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+}
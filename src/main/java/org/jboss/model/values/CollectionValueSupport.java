@@ -28,6 +28,7 @@ import java.util.Iterator;
 
 import org.jboss.model.types.CollectionMetaType;
 import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
 
 /**
  * CollectionValueSupport.
@@ -94,7 +95,7 @@ public class CollectionValueSupport extends AbstractMetaValue implements Collect
             throw new IllegalArgumentException("null value");
         }
         final MetaType elementType = metaType.getElementType();
-        if(! elementType.isValue(e)) {
+        if(! MetaTypeValidators.get(elementType).isValue(e)) {
             throw new IllegalArgumentException("value " + e + " is not a " + elementType);
         }
         return delegate.add(e);
@@ -0,0 +1,409 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.CompositeMetaTypeSlots;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
+
+/**
+ * A compact {@link CompositeValue}. The item values are held in a plain array, using the
+ * slot indexes assigned by the built-in composite types (see {@link CompositeMetaTypeSlots}),
+ * which makes {@link #get(String)} and {@link #set(String, MetaValue)} constant time operations
+ * and avoids a map per value.
+ * <p>
+ * Other {@code CompositeMetaType} implementations don't assign slots. For those the sorted item
+ * names are captured when the value is created and the slot of an item is looked up by binary
+ * search, so items added to such a type later on cannot be set on existing values.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class CompactCompositeValueSupport extends AbstractMetaValue implements CompositeValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = -3316409472658620711L;
+
+    /** The serialized form, same as for {@link CompositeValueSupport} */
+    private static final ObjectStreamField[] serialPersistentFields = new ObjectStreamField[] {
+            new ObjectStreamField("contents", SortedMap.class),
+            new ObjectStreamField("metaType", CompositeMetaType.class)
+            };
+
+    private static final MetaValue[] NO_VALUES = new MetaValue[0];
+
+    /** The composite type */
+    private CompositeMetaType metaType;
+
+    /** The item values, indexed by slot */
+    private MetaValue[] values;
+
+    /** The sorted item names, if the meta type does not assign slots */
+    private transient String[] itemNames;
+
+    /** cached hashCode */
+    private transient int cachedHashCode = Integer.MIN_VALUE;
+
+    /**
+     * Construct Composite Value
+     *
+     * @param metaType the composite meta type of the data
+     * @throws IllegalArgumentException for a null metaType
+     */
+    public CompactCompositeValueSupport(CompositeMetaType metaType) {
+        if (metaType == null) {
+            throw new IllegalArgumentException("null meta type");
+        }
+        this.metaType = metaType;
+        this.values = NO_VALUES;
+    }
+
+    /**
+     * Construct Composite Value
+     *
+     * @param metaType the composite meta type of the data
+     * @param itemNames the names of the values
+     * @param itemValues the values
+     * @throws IllegalArgumentException for a null metaType
+     */
+    public CompactCompositeValueSupport(CompositeMetaType metaType, String[] itemNames, MetaValue[] itemValues) {
+        this(metaType);
+        if (itemNames == null) {
+            itemNames = new String[0];
+        }
+        if (itemValues == null) {
+            itemValues = NO_VALUES;
+        }
+        if (itemNames.length != itemValues.length) {
+            throw new IllegalArgumentException("for " + metaType
+                    + ", itemNames has size " + itemNames.length
+                    + ", but itemValues has size " + itemValues.length);
+        }
+        final boolean[] seen = new boolean[slotCount()];
+        for (int i = 0; i < itemNames.length; i++) {
+            if (itemNames[i] == null || itemNames[i].length() == 0) {
+                throw new IllegalArgumentException("for " + metaType
+                        + ", item name " + i + " is null or empty");
+            }
+            final int index = indexOf(itemNames[i]);
+            if (index < 0 || index >= seen.length) {
+                throw new IllegalArgumentException("for " + metaType
+                        + ", item name not in composite type: " + itemNames[i]);
+            }
+            if (seen[index]) {
+                throw new IllegalArgumentException("for " + metaType
+                        + ", duplicate item name: " + itemNames[i]);
+            }
+            seen[index] = true;
+            setValue(index, itemNames[i], itemValues[i]);
+        }
+    }
+
+    /**
+     * Construct Composite Value
+     *
+     * @param metaType the composite type of the data
+     * @param items map of strings to values
+     * @throws IllegalArgumentException for a null metaType
+     */
+    public CompactCompositeValueSupport(CompositeMetaType metaType, Map<String, MetaValue> items) {
+        this(metaType);
+        init(items);
+    }
+
+    public CompositeMetaType getMetaType() {
+        return metaType;
+    }
+
+    public MetaValue get(String key) {
+        final int index = validateKey(key);
+        return index < values.length ? values[index] : null;
+    }
+
+    /**
+     * Set an item value
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void set(String key, MetaValue value) {
+        setValue(validateKey(key), key, value);
+    }
+
+    public MetaValue[] getAll(String[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Null keys");
+        }
+        MetaValue[] result = new MetaValue[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            result[i] = get(keys[i]);
+        }
+        return result;
+    }
+
+    public boolean containsKey(String key) {
+        if (key == null || key.length() == 0) {
+            return false;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    public boolean containsValue(MetaValue value) {
+        final int size = slotCount();
+        for (int i = 0; i < size; i++) {
+            final MetaValue item = i < values.length ? values[i] : null;
+            if (value == null ? item == null : value.equals(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the item values, in ascending order of the item names.
+     *
+     * @return the values
+     */
+    public Collection<MetaValue> values() {
+        final Set<String> names = metaType.itemSet();
+        final List<MetaValue> result = new ArrayList<MetaValue>(names.size());
+        for (final String name : names) {
+            final int index = indexOf(name);
+            result.add(index >= 0 && index < values.length ? values[index] : null);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj instanceof CompositeValue == false) {
+            return false;
+        }
+        CompositeValue other = (CompositeValue) obj;
+        if (getMetaType().equals(other.getMetaType()) == false) {
+            return false;
+        }
+        for (String key : getMetaType().keySet()) {
+            Object thisValue = this.get(key);
+            Object otherValue = other.get(key);
+
+            if ((thisValue == null && otherValue == null || thisValue != null && thisValue.equals(otherValue)) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (cachedHashCode != Integer.MIN_VALUE) {
+            return cachedHashCode;
+        }
+        int hashCode = getMetaType().hashCode();
+        for (String key : getMetaType().keySet()) {
+            Object value = get(key);
+            if (value != null) {
+                hashCode += value.hashCode();
+            }
+        }
+        cachedHashCode = hashCode;
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        CompositeMetaType metaType = getMetaType();
+        StringBuilder buffer = new StringBuilder(getClass().getSimpleName());
+        buffer.append(": metaType=[");
+        buffer.append(metaType);
+        buffer.append("] items=[");
+        Iterator<String> keys = metaType.keySet().iterator();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            buffer.append(key).append("=");
+            buffer.append(get(key));
+            if (keys.hasNext()) {
+                buffer.append(",");
+            }
+        }
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    @Override
+    public CompactCompositeValueSupport clone() {
+        final CompactCompositeValueSupport clone = (CompactCompositeValueSupport) super.clone();
+        clone.values = values.length == 0 ? NO_VALUES : values.clone();
+        return clone;
+    }
+
+    /**
+     * Validates the key against the composite type
+     *
+     * @param key the key to check
+     * @return the slot index
+     * @throws IllegalArgumentException for a null or empty key or when the key not a valid item name
+     *         for the composite type
+     */
+    private int validateKey(String key) {
+        if (key == null || key.length() == 0) {
+            throw new IllegalArgumentException("null or empty key");
+        }
+        final int index = indexOf(key);
+        if (index < 0) {
+            throw new IllegalArgumentException("no such item name " + key
+                    + " for composite type " + metaType);
+        }
+        return index;
+    }
+
+    /**
+     * Get the slot index of an item.
+     *
+     * @param key the item name
+     * @return the index or -1 when there is no such item
+     */
+    private int indexOf(final String key) {
+        if (CompositeMetaTypeSlots.hasSlots(metaType)) {
+            return CompositeMetaTypeSlots.indexOf(metaType, key);
+        }
+        final int index = Arrays.binarySearch(getItemNames(), key);
+        return index < 0 ? -1 : index;
+    }
+
+    private MetaType typeOf(final int index, final String key) {
+        if (CompositeMetaTypeSlots.hasSlots(metaType)) {
+            return CompositeMetaTypeSlots.getType(metaType, index);
+        }
+        return metaType.getType(key);
+    }
+
+    private int slotCount() {
+        if (CompositeMetaTypeSlots.hasSlots(metaType)) {
+            return metaType.itemSet().size();
+        }
+        return getItemNames().length;
+    }
+
+    private String[] getItemNames() {
+        String[] names = itemNames;
+        if (names == null) {
+            final Set<String> itemSet = metaType.itemSet();
+            names = itemSet.toArray(new String[itemSet.size()]);
+            itemNames = names;
+        }
+        return names;
+    }
+
+    private void setValue(final int index, final String key, final MetaValue value) {
+        if (value != null) {
+            final MetaType itemType = typeOf(index, key);
+            if (MetaTypeValidators.get(itemType).isValue(value) == false) {
+                throw new IllegalArgumentException("for " + metaType
+                        + ", item value " + value + " for item name "
+                        + key + " is not a " + itemType);
+            }
+        }
+        if (index >= values.length) {
+            if (value == null) {
+                return;
+            }
+            final MetaValue[] values = new MetaValue[slotCount()];
+            System.arraycopy(this.values, 0, values, 0, this.values.length);
+            this.values = values;
+        }
+        values[index] = value;
+        cachedHashCode = Integer.MIN_VALUE;
+    }
+
+    private void init(Map<String, MetaValue> items) {
+        if (items == null) {
+            return;
+        }
+        final int compositeNameSize = slotCount();
+        if (items.size() > compositeNameSize) {
+            throw new IllegalArgumentException("items has size " + items.size()
+                    + " but composite type has size " + compositeNameSize);
+        }
+        for (Entry<String, MetaValue> entry : items.entrySet()) {
+            String key = entry.getKey();
+            if (key == null || key.length() == 0) {
+                throw new IllegalArgumentException("Key is null or empty");
+            }
+            final int index = indexOf(key);
+            if (index < 0) {
+                throw new IllegalArgumentException("item name not in composite type " + key);
+            }
+            setValue(index, key, entry.getValue());
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        final SortedMap<String, MetaValue> contents = new TreeMap<String, MetaValue>();
+        for (final String name : metaType.itemSet()) {
+            contents.put(name, get(name));
+        }
+        ObjectOutputStream.PutField putField = out.putFields();
+        putField.put("contents", contents);
+        putField.put("metaType", metaType);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField getField = in.readFields();
+        SortedMap contents = (SortedMap) getField.get("contents", null);
+        CompositeMetaType compositeType = (CompositeMetaType) getField.get("metaType", null);
+        if (compositeType == null) {
+            throw new RuntimeException("Error deserializing composite value", new IllegalArgumentException("null meta type"));
+        }
+        this.metaType = compositeType;
+        this.values = NO_VALUES;
+        this.itemNames = null;
+        this.cachedHashCode = Integer.MIN_VALUE;
+        try {
+            init(contents);
+        } catch (Exception e) {
+            throw new RuntimeException("Error deserializing composite value", e);
+        }
+    }
+}
@@ -39,6 +39,7 @@ import java.util.TreeMap;
 import org.jboss.model.types.CompositeMetaType;
 import org.jboss.model.types.ImmutableCompositeMetaType;
 import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
 
 /**
  * A {@link CompositeValue} representing a
@@ -129,7 +130,7 @@ public class CompositeValueSupport extends AbstractMetaValue implements Composit
                 throw new IllegalArgumentException("for " + this.metaType
                         + ", item name not in composite type: " + itemNames[i]);
             }
-            if (itemValues[i] != null && itemType.isValue(itemValues[i]) == false) {
+            if (itemValues[i] != null && MetaTypeValidators.get(itemType).isValue(itemValues[i]) == false) {
                 throw new IllegalArgumentException("for " + this.metaType
                         + ", item value " + itemValues[i] + " for item name "
                         + itemNames[i] + " is not a " + itemType);
@@ -182,7 +183,7 @@ public class CompositeValueSupport extends AbstractMetaValue implements Composit
      */
     public void set(String key, MetaValue value) {
         MetaType itemType = validateKey(key);
-        if (value != null && itemType.isValue(value) == false) {
+        if (value != null && MetaTypeValidators.get(itemType).isValue(value) == false) {
             throw new IllegalArgumentException("item value " + value
                     + " for item name " + key + " is not a " + itemType);
         }
@@ -330,7 +331,7 @@ public class CompositeValueSupport extends AbstractMetaValue implements Composit
                 throw new IllegalArgumentException("item name not in composite type " + key);
             }
             MetaValue value = items.get(key);
-            if (value != null && itemType.isValue(value) == false) {
+            if (value != null && MetaTypeValidators.get(itemType).isValue(value) == false) {
                 throw new IllegalArgumentException("item value " + value
                         + " for item name " + key + " is not a " + itemType);
             }
@@ -0,0 +1,141 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import java.util.Arrays;
+
+import org.jboss.model.types.ArrayMetaType;
+
+/**
+ * An {@link ArrayValue} backed by a {@code double[]}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class DoubleArrayValueSupport extends AbstractPrimitiveArrayValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = -2510757190821055705L;
+
+    /** The double[] meta type */
+    public static final ArrayMetaType META_TYPE = ArrayMetaType.getPrimitiveArrayType(double[].class);
+
+    /** The value */
+    private double[] value;
+
+    /**
+     * Create a new DoubleArrayValueSupport.
+     *
+     * @param value the value
+     * @throws IllegalArgumentException for a null value
+     */
+    public DoubleArrayValueSupport(double[] value) {
+        this(META_TYPE, value);
+    }
+
+    /**
+     * Create a new DoubleArrayValueSupport.
+     *
+     * @param metaType the meta type of a one-dimensional double array
+     * @param value the value
+     * @throws IllegalArgumentException for an invalid meta type or a null value
+     */
+    public DoubleArrayValueSupport(ArrayMetaType metaType, double[] value) {
+        super(metaType, double.class);
+        if (value == null) {
+            throw new IllegalArgumentException("null value");
+        }
+        this.value = value;
+    }
+
+    /**
+     * Get the backing array.
+     *
+     * @return the backing array
+     */
+    public double[] getValue() {
+        return value;
+    }
+
+    public int getLength() {
+        return value.length;
+    }
+
+    public Object getValue(int index) {
+        return Double.valueOf(value[index]);
+    }
+
+    /**
+     * Get the element at index.
+     *
+     * @param index the index
+     * @return the element
+     */
+    public double getDouble(int index) {
+        return value[index];
+    }
+
+    /**
+     * Get a copy of the elements.
+     *
+     * @return the copy
+     */
+    public double[] toArray() {
+        return value.clone();
+    }
+
+    /**
+     * Copy a range of elements.
+     *
+     * @param srcPos the first element to copy
+     * @param dest the destination array
+     * @param destPos the position in the destination array
+     * @param length the number of elements to copy
+     * @throws IndexOutOfBoundsException if a range is out of bounds
+     */
+    public void copyTo(int srcPos, double[] dest, int destPos, int length) {
+        System.arraycopy(value, srcPos, dest, destPos, length);
+    }
+
+    @Override
+    boolean valueEquals(Object otherValue) {
+        return otherValue instanceof double[] && Arrays.equals(value, (double[]) otherValue);
+    }
+
+    @Override
+    String valueToString() {
+        return Arrays.toString(value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(value);
+    }
+
+    @Override
+    public MetaValue clone() {
+        DoubleArrayValueSupport result = (DoubleArrayValueSupport) super.clone();
+        result.value = value.clone();
+        return result;
+    }
+
+}
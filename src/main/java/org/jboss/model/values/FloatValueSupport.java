@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * A {@link SimpleValue} holding a primitive {@code float}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class FloatValueSupport extends AbstractPrimitiveValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = 1573629447812339087L;
+
+    /** The value */
+    private final float value;
+
+    /**
+     * Create a new FloatValueSupport.
+     *
+     * @param value the value
+     */
+    public FloatValueSupport(float value) {
+        this(SimpleMetaType.FLOAT_PRIMITIVE, value);
+    }
+
+    /**
+     * Create a new FloatValueSupport.
+     *
+     * @param metaType the meta type, either {@link SimpleMetaType#FLOAT} or {@link SimpleMetaType#FLOAT_PRIMITIVE}
+     * @param value the value
+     * @throws IllegalArgumentException for an invalid meta type
+     */
+    public FloatValueSupport(SimpleMetaType metaType, float value) {
+        super(metaType, SimpleMetaType.FLOAT, SimpleMetaType.FLOAT_PRIMITIVE);
+        this.value = value;
+    }
+
+    public Float getValue() {
+        return Float.valueOf(value);
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    @Override
+    public Number asNumber() {
+        return getValue();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        return (long) value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(SimpleValue sv) {
+        if (sv instanceof FloatValueSupport) {
+            final float other = ((FloatValueSupport) sv).value;
+            return Float.compare(value, other);
+        }
+        return super.compareTo(sv);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof FloatValueSupport) {
+            final float other = ((FloatValueSupport) obj).value;
+            return Float.floatToIntBits(value) == Float.floatToIntBits(other);
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Float.floatToIntBits(value);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import java.io.Serializable;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * An immutable {@link SimpleValue}. Unlike {@link SimpleValueSupport} the value cannot be changed
+ * after creation, so instances can safely be shared.
+ *
+ * @see SimpleValue.Factory#createImmutable(Object, SimpleMetaType)
+ * @author Emanuel Muckenhuber
+ */
+public final class ImmutableSimpleValueSupport extends AbstractSimpleValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = -1958419407125218431L;
+
+    /** The simple meta type */
+    private final SimpleMetaType metaType;
+
+    /** The value */
+    private final Serializable value;
+
+    /**
+     * Create a new ImmutableSimpleValueSupport.
+     *
+     * @param metaType the simple meta type
+     * @param value the value
+     * @throws IllegalArgumentException for a null simpleMetaType
+     */
+    public ImmutableSimpleValueSupport(SimpleMetaType metaType, Serializable value) {
+        if (metaType == null) {
+            throw new IllegalArgumentException("Null simple meta type");
+        }
+        this.metaType = metaType;
+        this.value = value;
+    }
+
+    public SimpleMetaType getMetaType() {
+        return metaType;
+    }
+
+    public Serializable getValue() {
+        return value;
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * A {@link SimpleValue} holding a primitive {@code long}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class LongValueSupport extends AbstractPrimitiveValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = 7112096652813260341L;
+
+    /** The value */
+    private final long value;
+
+    /**
+     * Create a new LongValueSupport.
+     *
+     * @param value the value
+     */
+    public LongValueSupport(long value) {
+        this(SimpleMetaType.LONG_PRIMITIVE, value);
+    }
+
+    /**
+     * Create a new LongValueSupport.
+     *
+     * @param metaType the meta type, either {@link SimpleMetaType#LONG} or {@link SimpleMetaType#LONG_PRIMITIVE}
+     * @param value the value
+     * @throws IllegalArgumentException for an invalid meta type
+     */
+    public LongValueSupport(SimpleMetaType metaType, long value) {
+        super(metaType, SimpleMetaType.LONG, SimpleMetaType.LONG_PRIMITIVE);
+        this.value = value;
+    }
+
+    public Long getValue() {
+        return Long.valueOf(value);
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    @Override
+    public Number asNumber() {
+        return getValue();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(SimpleValue sv) {
+        if (sv instanceof LongValueSupport) {
+            final long other = ((LongValueSupport) sv).value;
+            return value < other ? -1 : (value == other ? 0 : 1);
+        }
+        return super.compareTo(sv);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof LongValueSupport) {
+            final long other = ((LongValueSupport) obj).value;
+            return value == other;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (value ^ (value >>> 32));
+    }
+
+}
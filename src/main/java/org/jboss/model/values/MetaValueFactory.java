@@ -85,6 +85,28 @@ public class MetaValueFactory extends SimpleValue.Factory {
      * @return the array value
      */
     public static ArrayValue createArray(final Object value, final ArrayMetaType metaType) {
+        final Class<?> componentType = value != null ? value.getClass().getComponentType() : null;
+        // primitive arrays use the typed implementations
+        if (metaType != null && componentType != null && componentType.isPrimitive()
+                && AbstractPrimitiveArrayValue.isArrayOf(metaType, componentType)) {
+            if (value instanceof int[]) {
+                return new IntArrayValueSupport(metaType, (int[]) value);
+            } else if (value instanceof long[]) {
+                return new LongArrayValueSupport(metaType, (long[]) value);
+            } else if (value instanceof double[]) {
+                return new DoubleArrayValueSupport(metaType, (double[]) value);
+            } else if (value instanceof byte[]) {
+                return new ByteArrayValueSupport(metaType, (byte[]) value);
+            } else if (value instanceof float[]) {
+                return new FloatArrayValueSupport(metaType, (float[]) value);
+            } else if (value instanceof short[]) {
+                return new ShortArrayValueSupport(metaType, (short[]) value);
+            } else if (value instanceof char[]) {
+                return new CharArrayValueSupport(metaType, (char[]) value);
+            } else if (value instanceof boolean[]) {
+                return new BooleanArrayValueSupport(metaType, (boolean[]) value);
+            }
+        }
         return new ArrayValueSupport(metaType, value);
     }
 
@@ -165,7 +187,7 @@ public class MetaValueFactory extends SimpleValue.Factory {
         final ManagedResourceInfo entityInfo = entity.getEntityInfo();
         final CompositeMetaType metaType = MetaTypeFactory.createCompositeType(entityInfo);
         final CompositeValue value = create(metaType);
-        for(final ManagedResourceAttributeInfo attribute : entityInfo.getAttributes()) {
+        for(final ManagedResourceAttributeInfo attribute : entityInfo.getAttributeList()) {
             final String attributeName = attribute.getName();
             final MetaValue attributeValue = entity.getAttribute(attributeName);
             if(attributeValue != null) {
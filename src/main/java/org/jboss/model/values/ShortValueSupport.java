@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * A {@link SimpleValue} holding a primitive {@code short}.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public final class ShortValueSupport extends AbstractPrimitiveValue {
+
+    /** The serialVersionUID */
+    private static final long serialVersionUID = 2749417150186012243L;
+
+    /** The value */
+    private final short value;
+
+    /**
+     * Create a new ShortValueSupport.
+     *
+     * @param value the value
+     */
+    public ShortValueSupport(short value) {
+        this(SimpleMetaType.SHORT_PRIMITIVE, value);
+    }
+
+    /**
+     * Create a new ShortValueSupport.
+     *
+     * @param metaType the meta type, either {@link SimpleMetaType#SHORT} or {@link SimpleMetaType#SHORT_PRIMITIVE}
+     * @param value the value
+     * @throws IllegalArgumentException for an invalid meta type
+     */
+    public ShortValueSupport(SimpleMetaType metaType, short value) {
+        super(metaType, SimpleMetaType.SHORT, SimpleMetaType.SHORT_PRIMITIVE);
+        this.value = value;
+    }
+
+    public Short getValue() {
+        return Short.valueOf(value);
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    @Override
+    public Number asNumber() {
+        return getValue();
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(SimpleValue sv) {
+        if (sv instanceof ShortValueSupport) {
+            final short other = ((ShortValueSupport) sv).value;
+            return value < other ? -1 : (value == other ? 0 : 1);
+        }
+        return super.compareTo(sv);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ShortValueSupport) {
+            final short other = ((ShortValueSupport) obj).value;
+            return value == other;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+}
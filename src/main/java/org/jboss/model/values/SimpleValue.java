@@ -108,6 +108,50 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
      */
     Number asNumber();
 
+    /**
+     * Get the underlying value as primitive {@code int}.
+     *
+     * @return the value
+     * @throws IllegalStateException if the value is <code>null</code>
+     * @throws NumberFormatException if the type cannot be converted to an integer
+     */
+    int intValue();
+
+    /**
+     * Get the underlying value as primitive {@code long}.
+     *
+     * @return the value
+     * @throws IllegalStateException if the value is <code>null</code>
+     * @throws NumberFormatException if the type cannot be converted to a long
+     */
+    long longValue();
+
+    /**
+     * Get the underlying value as primitive {@code float}.
+     *
+     * @return the value
+     * @throws IllegalStateException if the value is <code>null</code>
+     * @throws NumberFormatException if the type cannot be converted to a float
+     */
+    float floatValue();
+
+    /**
+     * Get the underlying value as primitive {@code double}.
+     *
+     * @return the value
+     * @throws IllegalStateException if the value is <code>null</code>
+     * @throws NumberFormatException if the type cannot be converted to a double
+     */
+    double doubleValue();
+
+    /**
+     * Get the underlying value as primitive {@code boolean}.
+     *
+     * @return the value
+     * @throws IllegalStateException if the value is <code>null</code>
+     */
+    boolean booleanValue();
+
     /**
      * A value factory for simple types.
      */
@@ -130,7 +174,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(boolean value) {
-            return new SimpleValueSupport(SimpleMetaType.BOOLEAN_PRIMITIVE, value);
+            return new BooleanValueSupport(value);
         }
 
         /**
@@ -150,7 +194,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(byte value) {
-            return new SimpleValueSupport(SimpleMetaType.BYTE_PRIMITIVE, value);
+            return new ByteValueSupport(value);
         }
 
         /**
@@ -170,7 +214,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(char value) {
-            return new SimpleValueSupport(SimpleMetaType.CHARACTER_PRIMITIVE, value);
+            return new CharacterValueSupport(value);
         }
 
         /**
@@ -190,7 +234,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(short value) {
-            return new SimpleValueSupport(SimpleMetaType.SHORT_PRIMITIVE, value);
+            return new ShortValueSupport(value);
         }
 
         /**
@@ -210,7 +254,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(int value) {
-            return new SimpleValueSupport(SimpleMetaType.INTEGER_PRIMITIVE, value);
+            return new IntValueSupport(value);
         }
 
         /**
@@ -230,7 +274,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(long value) {
-            return new SimpleValueSupport(SimpleMetaType.LONG_PRIMITIVE, value);
+            return new LongValueSupport(value);
         }
 
         /**
@@ -250,7 +294,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(float value) {
-            return new SimpleValueSupport(SimpleMetaType.FLOAT_PRIMITIVE, value);
+            return new FloatValueSupport(value);
         }
 
         /**
@@ -270,7 +314,7 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
          * @return the created simple value
          */
         public static SimpleValue create(double value) {
-            return new SimpleValueSupport(SimpleMetaType.DOUBLE_PRIMITIVE, value);
+            return new DoubleValueSupport(value);
         }
 
         /**
@@ -315,6 +359,124 @@ public interface SimpleValue extends MetaValue, SimpleTypes, Comparable<SimpleVa
             return SimpleValueSupport.create(o, metaType);
         }
 
+        /**
+         * Create a numeric simple value, converting the long directly to the expected type.
+         *
+         * @param value the long value
+         * @param metaType the expected type
+         * @return the simple value
+         * @throws IllegalArgumentException if the value cannot be converted to a simple value.
+         */
+        public static SimpleValue create(long value, SimpleMetaType metaType) {
+            if(metaType == null) {
+                throw new IllegalArgumentException("null meta type");
+            }
+            return SimpleValueSupport.create(value, metaType);
+        }
+
+        /**
+         * Create a numeric simple value, converting the double directly to the expected type.
+         *
+         * @param value the double value
+         * @param metaType the expected type
+         * @return the simple value
+         * @throws IllegalArgumentException if the value cannot be converted to a simple value.
+         */
+        public static SimpleValue create(double value, SimpleMetaType metaType) {
+            if(metaType == null) {
+                throw new IllegalArgumentException("null meta type");
+            }
+            return SimpleValueSupport.create(value, metaType);
+        }
+
+        /**
+         * Create an immutable simple value. Common values like booleans, small numbers and short
+         * strings are shared instances.
+         *
+         * @param value the String value
+         * @return the immutable simple value
+         */
+        public static SimpleValue createImmutable(String value) {
+            return SimpleValueCache.get(value);
+        }
+
+        /**
+         * Create an immutable simple value.
+         *
+         * @param value the boolean value
+         * @return the immutable simple value
+         */
+        public static SimpleValue createImmutable(boolean value) {
+            return SimpleValueCache.get(value, SimpleMetaType.BOOLEAN_PRIMITIVE);
+        }
+
+        /**
+         * Create an immutable simple value.
+         *
+         * @param value the int value
+         * @return the immutable simple value
+         */
+        public static SimpleValue createImmutable(int value) {
+            return SimpleValueCache.get(value, SimpleMetaType.INTEGER_PRIMITIVE);
+        }
+
+        /**
+         * Create an immutable simple value.
+         *
+         * @param value the long value
+         * @return the immutable simple value
+         */
+        public static SimpleValue createImmutable(long value) {
+            return SimpleValueCache.get(value, SimpleMetaType.LONG_PRIMITIVE);
+        }
+
+        /**
+         * Create an immutable simple value.
+         *
+         * @param o the object
+         * @param metaType the expected type
+         * @return the immutable simple value
+         * @throws IllegalArgumentException if the object cannot be converted to a simple value.
+         */
+        public static SimpleValue createImmutable(Object o, SimpleMetaType metaType) {
+            if(metaType == null) {
+                throw new IllegalArgumentException("null meta type");
+            }
+            return SimpleValueCache.get(o, metaType);
+        }
+
+
+        /**
+         * Create an immutable numeric simple value, converting the long directly to the
+         * expected type.
+         *
+         * @param value the long value
+         * @param metaType the expected type
+         * @return the immutable simple value
+         * @throws IllegalArgumentException if the value cannot be converted to a simple value.
+         */
+        public static SimpleValue createImmutable(long value, SimpleMetaType metaType) {
+            if(metaType == null) {
+                throw new IllegalArgumentException("null meta type");
+            }
+            return SimpleValueCache.getNumber(value, metaType);
+        }
+
+        /**
+         * Create an immutable numeric simple value, converting the double directly to the
+         * expected type.
+         *
+         * @param value the double value
+         * @param metaType the expected type
+         * @return the immutable simple value
+         * @throws IllegalArgumentException if the value cannot be converted to a simple value.
+         */
+        public static SimpleValue createImmutable(double value, SimpleMetaType metaType) {
+            if(metaType == null) {
+                throw new IllegalArgumentException("null meta type");
+            }
+            return SimpleValueCache.getNumber(value, metaType);
+        }
     }
 
 }
@@ -0,0 +1,193 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.model.values;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.SimpleTypes;
+
+/**
+ * Shared immutable {@link SimpleValue} instances. Booleans and small integers and longs are
+ * cached eagerly, short strings (names, enum-like values) are cached on first use until the
+ * string cache is full.
+ *
+ * @author Emanuel Muckenhuber
+ */
+final class SimpleValueCache implements SimpleTypes {
+
+    /** The lowest cached integer / long */
+    static final int LOW = -128;
+
+    /** The highest cached integer / long */
+    static final int HIGH = 127;
+
+    /** The maximum length of a cached string */
+    static final int MAX_STRING_LENGTH = 32;
+
+    /** The maximum number of cached strings */
+    static final int MAX_STRINGS = 1024;
+
+    private static final SimpleValue TRUE = new BooleanValueSupport(BOOLEAN_PRIMITIVE, true);
+    private static final SimpleValue FALSE = new BooleanValueSupport(BOOLEAN_PRIMITIVE, false);
+    private static final SimpleValue BOXED_TRUE = new BooleanValueSupport(BOOLEAN, true);
+    private static final SimpleValue BOXED_FALSE = new BooleanValueSupport(BOOLEAN, false);
+
+    private static final SimpleValue[] INTS = new SimpleValue[HIGH - LOW + 1];
+    private static final SimpleValue[] BOXED_INTS = new SimpleValue[HIGH - LOW + 1];
+    private static final SimpleValue[] LONGS = new SimpleValue[HIGH - LOW + 1];
+    private static final SimpleValue[] BOXED_LONGS = new SimpleValue[HIGH - LOW + 1];
+
+    private static final ConcurrentMap<String, SimpleValue> STRINGS = new ConcurrentHashMap<String, SimpleValue>();
+
+    static {
+        for(int i = 0; i < INTS.length; i++) {
+            INTS[i] = new IntValueSupport(INTEGER_PRIMITIVE, i + LOW);
+            BOXED_INTS[i] = new IntValueSupport(INTEGER, i + LOW);
+            LONGS[i] = new LongValueSupport(LONG_PRIMITIVE, i + LOW);
+            BOXED_LONGS[i] = new LongValueSupport(LONG, i + LOW);
+        }
+        STRINGS.put("", new ImmutableSimpleValueSupport(STRING, ""));
+    }
+
+    private SimpleValueCache() {
+        //
+    }
+
+    static SimpleValue get(final boolean value, final SimpleMetaType metaType) {
+        if(metaType == BOOLEAN_PRIMITIVE) {
+            return value ? TRUE : FALSE;
+        }
+        return value ? BOXED_TRUE : BOXED_FALSE;
+    }
+
+    static SimpleValue get(final int value, final SimpleMetaType metaType) {
+        if(value >= LOW && value <= HIGH) {
+            return (metaType == INTEGER_PRIMITIVE ? INTS : BOXED_INTS)[value - LOW];
+        }
+        return new IntValueSupport(metaType, value);
+    }
+
+    static SimpleValue get(final long value, final SimpleMetaType metaType) {
+        if(value >= LOW && value <= HIGH) {
+            return (metaType == LONG_PRIMITIVE ? LONGS : BOXED_LONGS)[(int) value - LOW];
+        }
+        return new LongValueSupport(metaType, value);
+    }
+
+    static SimpleValue getNumber(final long value, final SimpleMetaType metaType) {
+        if(metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            return get((int) value, metaType);
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            return get(value, metaType);
+        }
+        return get(SimpleValueSupport.create(value, metaType));
+    }
+
+    static SimpleValue getNumber(final double value, final SimpleMetaType metaType) {
+        if(metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            return get((int) value, metaType);
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            return get((long) value, metaType);
+        }
+        return get(SimpleValueSupport.create(value, metaType));
+    }
+
+    static SimpleValue get(final String value) {
+        if(value == null || value.length() > MAX_STRING_LENGTH) {
+            return new ImmutableSimpleValueSupport(STRING, value);
+        }
+        SimpleValue cached = STRINGS.get(value);
+        if(cached == null) {
+            cached = new ImmutableSimpleValueSupport(STRING, value);
+            if(STRINGS.size() < MAX_STRINGS) {
+                final SimpleValue existing = STRINGS.putIfAbsent(value, cached);
+                if(existing != null) {
+                    cached = existing;
+                }
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Get an immutable, possibly shared, value for a plain object.
+     *
+     * @param o the object
+     * @param metaType the expected type
+     * @return the immutable value
+     * @throws IllegalArgumentException if the object cannot be converted to a simple value.
+     */
+    static SimpleValue get(final Object o, final SimpleMetaType metaType) {
+        if(o instanceof String && metaType == STRING) {
+            return get((String) o);
+        } else if (o instanceof Boolean && (metaType == BOOLEAN || metaType == BOOLEAN_PRIMITIVE)) {
+            return get(((Boolean) o).booleanValue(), metaType);
+        } else if (o instanceof Integer && (metaType == INTEGER || metaType == INTEGER_PRIMITIVE)) {
+            return get(((Integer) o).intValue(), metaType);
+        } else if (o instanceof Long && (metaType == LONG || metaType == LONG_PRIMITIVE)) {
+            return get(((Long) o).longValue(), metaType);
+        }
+        return get(SimpleValueSupport.create(o, metaType));
+    }
+
+    /**
+     * Get an immutable, possibly shared, value equal to the given value.
+     *
+     * @param value the simple value
+     * @return the immutable value
+     */
+    static SimpleValue get(final SimpleValue value) {
+        final SimpleMetaType metaType = value.getMetaType();
+        if(value instanceof AbstractPrimitiveValue) {
+            if(metaType == BOOLEAN || metaType == BOOLEAN_PRIMITIVE) {
+                return get(value.booleanValue(), metaType);
+            } else if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+                final int i = value.intValue();
+                return i >= LOW && i <= HIGH ? get(i, metaType) : value;
+            } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+                final long l = value.longValue();
+                return l >= LOW && l <= HIGH ? get(l, metaType) : value;
+            }
+            return value;
+        }
+        if(metaType == STRING) {
+            final String s = (String) value.getValue();
+            if(s != null && s.length() <= MAX_STRING_LENGTH) {
+                return get(s);
+            }
+        }
+        if(value instanceof ImmutableSimpleValueSupport) {
+            return value;
+        }
+        final Serializable raw = value.getValue();
+        // only the primitive and wrapper types have a primitive representation
+        if(raw == null || metaType.hasPrimitive() == false) {
+            return new ImmutableSimpleValueSupport(metaType, raw);
+        }
+        return get(SimpleValueSupport.create(raw, metaType));
+    }
+
+}
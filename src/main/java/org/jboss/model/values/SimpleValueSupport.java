@@ -34,7 +34,7 @@ import org.jboss.model.types.SimpleMetaType;
  * @author <a href="adrian@jboss.com">Adrian Brock</a>
  * @author Emanuel Muckenhuber
  */
-public final class SimpleValueSupport extends AbstractMetaValue implements SimpleValue {
+public final class SimpleValueSupport extends AbstractSimpleValue {
 
     /** The serialVersionUID */
     private static final long serialVersionUID = 8473043036261557127L;
@@ -55,45 +55,40 @@ public final class SimpleValueSupport extends AbstractMetaValue implements Simpl
         if (object == null) {
             return null;
         }
-        String className = object.getClass().getName();
-        return wrap(object, className);
-    }
-
-    private static SimpleValue wrap(Serializable object, String className) {
-        SimpleMetaType metaType = SimpleMetaType.resolve(className);
+        SimpleMetaType metaType = SimpleMetaType.resolve(object.getClass().getName());
         return new SimpleValueSupport(metaType, object);
     }
 
     public static SimpleValue wrap(boolean value) {
-        return wrap(value, boolean.class.getName());
+        return new BooleanValueSupport(value);
     }
 
     public static SimpleValue wrap(byte value) {
-        return wrap(value, byte.class.getName());
+        return new ByteValueSupport(value);
     }
 
     public static SimpleValue wrap(char value) {
-        return wrap(value, char.class.getName());
+        return new CharacterValueSupport(value);
     }
 
     public static SimpleValue wrap(short value) {
-        return wrap(value, short.class.getName());
+        return new ShortValueSupport(value);
     }
 
     public static SimpleValue wrap(int value) {
-        return wrap(value, int.class.getName());
+        return new IntValueSupport(value);
     }
 
     public static SimpleValue wrap(long value) {
-        return wrap(value, long.class.getName());
+        return new LongValueSupport(value);
     }
 
     public static SimpleValue wrap(float value) {
-        return wrap(value, float.class.getName());
+        return new FloatValueSupport(value);
     }
 
     public static SimpleValue wrap(double value) {
-        return wrap(value, double.class.getName());
+        return new DoubleValueSupport(value);
     }
 
     public static SimpleValue create(Object o, final SimpleMetaType metaType) {
@@ -117,21 +112,21 @@ public final class SimpleValueSupport extends AbstractMetaValue implements Simpl
         if(metaType == STRING) {
             return new SimpleValueSupport(metaType, asString(o));
         } else if (metaType == SHORT || metaType == SHORT_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asNumber(o, metaType).shortValue());
+            return new ShortValueSupport(metaType, asNumber(o, metaType).shortValue());
         } else if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asNumber(o, metaType).intValue());
+            return new IntValueSupport(metaType, asNumber(o, metaType).intValue());
         } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asNumber(o, metaType).longValue());
+            return new LongValueSupport(metaType, asNumber(o, metaType).longValue());
         } else if (metaType == DOUBLE || metaType == DOUBLE_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asNumber(o, metaType).doubleValue());
+            return new DoubleValueSupport(metaType, asNumber(o, metaType).doubleValue());
         } else if (metaType == FLOAT || metaType == FLOAT_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asNumber(o, metaType).floatValue());
+            return new FloatValueSupport(metaType, asNumber(o, metaType).floatValue());
         } else if (metaType == BYTE || metaType == BYTE_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asNumber(o, metaType).byteValue());
+            return new ByteValueSupport(metaType, asNumber(o, metaType).byteValue());
         } else if (metaType == BOOLEAN || metaType == BOOLEAN_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asBoolean(o));
+            return new BooleanValueSupport(metaType, asBoolean(o).booleanValue());
         } else if (metaType == CHARACTER || metaType == CHARACTER_PRIMITIVE) {
-            return new SimpleValueSupport(metaType, asCharacter(o));
+            return new CharacterValueSupport(metaType, asCharacter(o).charValue());
         } else if (metaType == BIGINTEGER) {
             return new SimpleValueSupport(metaType, asNumber(o, metaType));
         } else if (metaType == BIGDECIMAL) {
@@ -141,6 +136,58 @@ public final class SimpleValueSupport extends AbstractMetaValue implements Simpl
         }
     }
 
+    /**
+     * Create a simple value from a {@code long}, converting it directly to the primitive of
+     * the meta type. Other types are converted like the boxed value.
+     *
+     * @param value the value
+     * @param metaType the expected type
+     * @return the simple value
+     * @throws IllegalArgumentException if the value cannot be converted to the meta type
+     */
+    public static SimpleValue create(final long value, final SimpleMetaType metaType) {
+        if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            return new IntValueSupport(metaType, (int) value);
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            return new LongValueSupport(metaType, value);
+        } else if (metaType == DOUBLE || metaType == DOUBLE_PRIMITIVE) {
+            return new DoubleValueSupport(metaType, value);
+        } else if (metaType == FLOAT || metaType == FLOAT_PRIMITIVE) {
+            return new FloatValueSupport(metaType, value);
+        } else if (metaType == SHORT || metaType == SHORT_PRIMITIVE) {
+            return new ShortValueSupport(metaType, (short) value);
+        } else if (metaType == BYTE || metaType == BYTE_PRIMITIVE) {
+            return new ByteValueSupport(metaType, (byte) value);
+        }
+        return create(Long.valueOf(value), metaType);
+    }
+
+    /**
+     * Create a simple value from a {@code double}, converting it directly to the primitive of
+     * the meta type. Other types are converted like the boxed value.
+     *
+     * @param value the value
+     * @param metaType the expected type
+     * @return the simple value
+     * @throws IllegalArgumentException if the value cannot be converted to the meta type
+     */
+    public static SimpleValue create(final double value, final SimpleMetaType metaType) {
+        if (metaType == DOUBLE || metaType == DOUBLE_PRIMITIVE) {
+            return new DoubleValueSupport(metaType, value);
+        } else if (metaType == FLOAT || metaType == FLOAT_PRIMITIVE) {
+            return new FloatValueSupport(metaType, (float) value);
+        } else if (metaType == INTEGER || metaType == INTEGER_PRIMITIVE) {
+            return new IntValueSupport(metaType, (int) value);
+        } else if (metaType == LONG || metaType == LONG_PRIMITIVE) {
+            return new LongValueSupport(metaType, (long) value);
+        } else if (metaType == SHORT || metaType == SHORT_PRIMITIVE) {
+            return new ShortValueSupport(metaType, (short) (int) value);
+        } else if (metaType == BYTE || metaType == BYTE_PRIMITIVE) {
+            return new ByteValueSupport(metaType, (byte) (int) value);
+        }
+        return create(Double.valueOf(value), metaType);
+    }
+
     /**
      * Create a new SimpleValueSupport.
      *
@@ -178,89 +225,11 @@ public final class SimpleValueSupport extends AbstractMetaValue implements Simpl
         this.value = value;
     }
 
-    public String asString() {
-        return asString(value);
-    }
-
-    public Integer asInteger() {
+    static <T> T notNull(final T value) {
         if(value == null) {
-            return null;
+            throw new IllegalStateException("null value");
         }
-       return asNumber().intValue();
-    }
-
-    public Float asFloat() {
-        if(value == null) {
-            return null;
-        }
-        return asNumber().floatValue();
-    }
-
-    public Short asShort() {
-        if(value == null) {
-            return null;
-        }
-        return asNumber().shortValue();
-    }
-
-    public Boolean asBoolean() {
-        return asBoolean(value);
-    }
-
-    public Byte asByte() {
-        if(value == null) {
-            return null;
-        }
-        return asNumber().byteValue();
-    }
-
-    public Number asNumber() {
-        return asNumber(value, metaType);
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (obj == this) {
-            return true;
-        }
-        if (obj == null || obj instanceof SimpleValue == false) {
-            return false;
-        }
-        SimpleValue other = (SimpleValue) obj;
-        if (metaType.equals(other.getMetaType()) == false) {
-            // Check equivalent types
-            if (metaType.equalsIgnorePrimitive(other.getMetaType()) == false) {
-                return false;
-            }
-        }
-        Object otherValue = other.getValue();
-        if (value == null && otherValue == null) {
-            return true;
-        }
-        if (value == null && otherValue != null) {
-            return false;
-        }
-        return value.equals(otherValue);
-    }
-
-    @Override
-    public int hashCode() {
-        if (value == null) {
-            return 0;
-        }
-        return value.hashCode();
-    }
-
-    @Override
-    public String toString() {
-        return metaType + ":" + value;
-    }
-
-    public int compareTo(SimpleValue sv) {
-        if(metaType.isValue(sv)) {
-            return metaType.compare(getValue(), sv.getValue());
-        }
-        return -1;
+        return value;
     }
 
     static String asString(final Object obj) {
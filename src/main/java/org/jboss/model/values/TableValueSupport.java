@@ -36,6 +36,7 @@ import java.util.Set;
 
 import org.jboss.model.types.CompositeMetaType;
 import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidators;
 import org.jboss.model.types.TableMetaType;
 
 /**
@@ -274,7 +275,7 @@ public final class TableValueSupport extends AbstractMetaValue implements TableV
         if (value == null) {
             throw new IllegalArgumentException("null value");
         }
-        if (value.getMetaType().equals(tableType.getRowType()) == false) {
+        if (MetaTypeValidators.get(tableType.getRowType()).isValue(value) == false) {
             throw new IllegalArgumentException("value has composite type "
                     + value.getMetaType() + " expected row type "
                     + tableType.getRowType());
@@ -298,7 +299,7 @@ public final class TableValueSupport extends AbstractMetaValue implements TableV
         }
         for (int i = 0; i < key.length; i++) {
             MetaType metaType = tableType.getRowType().getType(indexNames[i]);
-            if (key[i] != null && metaType.isValue(key[i]) == false) {
+            if (key[i] != null && MetaTypeValidators.get(metaType).isValue(key[i]) == false) {
                 throw new IllegalArgumentException("key element " + i + " "
                         + key + " is not a value for " + metaType);
             }
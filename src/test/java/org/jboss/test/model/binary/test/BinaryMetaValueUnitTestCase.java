@@ -0,0 +1,256 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.binary.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+
+import org.jboss.model.binary.BinaryMetaValueReader;
+import org.jboss.model.binary.MetaValueBinaryWriter;
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.CollectionMetaType;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.EnumMetaType;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MutableCompositeMetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.TableMetaType;
+import org.jboss.model.types.builders.MetaTypeFactory;
+import org.jboss.model.values.ArrayValueSupport;
+import org.jboss.model.values.CollectionValue;
+import org.jboss.model.values.CompositeMapValue;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.EnumValueSupport;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.MetaValueFactory;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.model.values.TableValue;
+import org.jboss.test.model.AbstractMetaTypeTest;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class BinaryMetaValueUnitTestCase extends AbstractMetaTypeTest {
+
+    static enum Protocol {
+        HTTP, AJP
+    }
+
+    public BinaryMetaValueUnitTestCase(String name) {
+        super(name);
+    }
+
+    public void testSimpleValues() throws Exception {
+        assertRoundTrip(SimpleValue.Factory.create(true));
+        assertRoundTrip(SimpleValue.Factory.create(Boolean.FALSE));
+        assertRoundTrip(SimpleValue.Factory.create((byte) -3));
+        assertRoundTrip(SimpleValue.Factory.create('x'));
+        assertRoundTrip(SimpleValue.Factory.create((short) 300));
+        assertRoundTrip(SimpleValue.Factory.create(Integer.MIN_VALUE));
+        assertRoundTrip(SimpleValue.Factory.create(Long.valueOf(-1L)));
+        assertRoundTrip(SimpleValue.Factory.create(Long.MAX_VALUE));
+        assertRoundTrip(SimpleValue.Factory.create(1.5f));
+        assertRoundTrip(SimpleValue.Factory.create(Double.NaN));
+        assertRoundTrip(SimpleValue.Factory.create("ä€ text"));
+        assertRoundTrip(SimpleValue.Factory.create(new BigDecimal("-12.345")));
+        assertRoundTrip(new SimpleValueSupport(SimpleMetaType.DATE, new Date(1234567L)));
+        assertRoundTrip(new SimpleValueSupport(SimpleMetaType.STRING, null));
+        assertNull(roundTrip(null));
+    }
+
+    public void testComposite() throws Exception {
+        final CompositeMetaType type = createCompositeType();
+        final CompositeValue value = MetaValueFactory.create(type);
+        value.set("name", SimpleValue.Factory.create("test"));
+        value.set("port", SimpleValue.Factory.create(8080));
+        value.set("protocol", new EnumValueSupport(type.getType("protocol").as(EnumMetaType.class), Protocol.AJP));
+        assertRoundTrip(value);
+
+        final MutableCompositeMetaType mutable = new MutableCompositeMetaType("mutable", "mutable");
+        mutable.addItem("b", "b", SimpleMetaType.STRING);
+        mutable.addItem("a", "a", type);
+        mutable.setKeys(Collections.singleton("b"));
+        mutable.freeze();
+        final CompositeValue nested = MetaValueFactory.create(mutable);
+        nested.set("a", value);
+        final CompositeValue result = (CompositeValue) assertRoundTrip(nested);
+        assertEquals(Collections.singleton("b"), result.getMetaType().keySet());
+        assertEquals(value, result.get("a"));
+    }
+
+    public void testTable() throws Exception {
+        final TableMetaType tableType = MetaTypeFactory.tableTypeBuilder("table", "table")
+            .addIndexColumn("id", MetaTypeFactory.INTEGER_PRIMITIVE)
+            .addColumn("name", MetaTypeFactory.STRING)
+            .addColumn("count", MetaTypeFactory.LONG_PRIMITIVE)
+            .create();
+        final TableValue table = MetaValueFactory.create(tableType);
+        for(int i = 0; i < 100; i++) {
+            final CompositeValue row = MetaValueFactory.create(tableType.getRowType());
+            row.set("id", SimpleValue.Factory.create(i));
+            row.set("name", SimpleValue.Factory.create("row" + i));
+            row.set("count", SimpleValue.Factory.create(i * 1000L));
+            table.put(row);
+        }
+        assertRoundTrip(table);
+
+        final CompositeMapValue map = MetaValueFactory.createCompositeMapValue(tableType.getRowType(), "id");
+        map.put(table.iterator().next());
+        final MetaValue result = roundTrip(map);
+        assertEquals(map.getMetaType(), result.getMetaType());
+        assertEquals(new HashMap<MetaValue, CompositeValue>(map), new HashMap<MetaValue, CompositeValue>((CompositeMapValue) result));
+    }
+
+    public void testCollectionAndArrays() throws Exception {
+        final CollectionMetaType collectionType = MetaTypeFactory.createCollectionType("java.util.List", SimpleMetaType.STRING);
+        final CollectionValue collection = MetaValueFactory.create(collectionType);
+        collection.add(SimpleValue.Factory.create("a"));
+        collection.add(SimpleValue.Factory.create("b"));
+        assertRoundTrip(collection);
+
+        assertRoundTrip(MetaValueFactory.createSimpleArray(new Object[] { 1, 2, 3 }, SimpleMetaType.INTEGER));
+        assertRoundTrip(new ArrayValueSupport(new ArrayMetaType(SimpleMetaType.LONG_PRIMITIVE, true), new long[] { 1L, -2L, Long.MIN_VALUE }));
+        assertRoundTrip(new ArrayValueSupport(new ArrayMetaType(2, SimpleMetaType.STRING), new Object[][] { { "a", null }, { "b" } }));
+    }
+
+    public void testTypeDictionary() throws Exception {
+        final CompositeMetaType type = createCompositeType();
+        final CompositeValue value = MetaValueFactory.create(type);
+        value.set("name", SimpleValue.Factory.create("test"));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        MetaValueBinaryWriter writer = new MetaValueBinaryWriter(new DataOutputStream(os));
+        writer.write(value);
+        final int first = os.size();
+        writer.write(value);
+        final int second = os.size() - first;
+        assertTrue(second < first / 4);
+
+        final BinaryMetaValueReader reader = new BinaryMetaValueReader(new DataInputStream(new ByteArrayInputStream(os.toByteArray())));
+        final MetaValue one = reader.read();
+        final MetaValue two = reader.read();
+        assertEquals(value, one);
+        assertEquals(value, two);
+        assertSame(one.getMetaType(), two.getMetaType());
+    }
+
+    public void testEqualTypes() throws Exception {
+        final CompositeMetaType type = createCompositeType();
+        final CompositeMetaType other = createCompositeType();
+        assertNotSame(type, other);
+        assertEquals(type, other);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        MetaValueBinaryWriter writer = new MetaValueBinaryWriter(new DataOutputStream(os));
+        writer.writeMetaType(type);
+        final int first = os.size();
+        writer.writeMetaType(other);
+        assertTrue(os.size() - first < first / 4);
+
+        BinaryMetaValueReader reader = new BinaryMetaValueReader(new DataInputStream(new ByteArrayInputStream(os.toByteArray())));
+        final MetaType one = reader.readMetaType();
+        assertEquals(type, one);
+        assertSame(one, reader.readMetaType());
+
+        // mutable types which are not frozen are matched by identity
+        final MutableCompositeMetaType mutable = new MutableCompositeMetaType("mutable", "mutable");
+        mutable.addItem("name", "name", SimpleMetaType.STRING);
+        final MutableCompositeMetaType otherMutable = new MutableCompositeMetaType("mutable", "mutable");
+        otherMutable.addItem("name", "name", SimpleMetaType.STRING);
+        os = new ByteArrayOutputStream();
+        writer = new MetaValueBinaryWriter(new DataOutputStream(os));
+        writer.writeMetaType(mutable);
+        writer.writeMetaType(otherMutable);
+        writer.writeMetaType(mutable);
+        reader = new BinaryMetaValueReader(new DataInputStream(new ByteArrayInputStream(os.toByteArray())));
+        final MetaType firstMutable = reader.readMetaType();
+        assertNotSame(firstMutable, reader.readMetaType());
+        assertSame(firstMutable, reader.readMetaType());
+    }
+
+    public void testTypes() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        MetaValueBinaryWriter writer = new MetaValueBinaryWriter(new DataOutputStream(os));
+        final MetaType[] types = new MetaType[] { SimpleMetaType.VOID, createCompositeType(),
+                MetaTypeFactory.createArrayMetaType(2, SimpleMetaType.DOUBLE),
+                EnumMetaType.create(Protocol.class), null };
+        for(final MetaType type : types) {
+            writer.writeMetaType(type);
+        }
+        final BinaryMetaValueReader reader = new BinaryMetaValueReader(new DataInputStream(new ByteArrayInputStream(os.toByteArray())));
+        for(final MetaType type : types) {
+            assertEquals(type, reader.readMetaType());
+        }
+    }
+
+    public void testInvalidStream() throws Exception {
+        try {
+            new BinaryMetaValueReader(new DataInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3 })));
+            fail("invalid header");
+        } catch (StreamCorruptedException expected) {
+            //
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new MetaValueBinaryWriter(new DataOutputStream(os));
+        os.write(2); // T_REF
+        os.write(5);
+        try {
+            new BinaryMetaValueReader(new DataInputStream(new ByteArrayInputStream(os.toByteArray()))).read();
+            fail("invalid reference");
+        } catch (StreamCorruptedException expected) {
+            //
+        }
+    }
+
+    CompositeMetaType createCompositeType() {
+        return MetaTypeFactory.compositeTypeBuilder("composite", "composite")
+            .addItem("name", MetaTypeFactory.STRING)
+            .addItem("port", MetaTypeFactory.INTEGER_PRIMITIVE)
+            .addItem("protocol", MetaTypeFactory.createEnumType(Protocol.class))
+            .create();
+    }
+
+    MetaValue assertRoundTrip(final MetaValue value) throws IOException {
+        final MetaValue result = roundTrip(value);
+        assertEquals(value, result);
+        assertEquals(value.getMetaType(), result.getMetaType());
+        return result;
+    }
+
+    static MetaValue roundTrip(final MetaValue value) throws IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new MetaValueBinaryWriter(new DataOutputStream(os)).write(value);
+        final BinaryMetaValueReader reader = new BinaryMetaValueReader(new DataInputStream(new ByteArrayInputStream(os.toByteArray())));
+        return reader.read();
+    }
+
+}
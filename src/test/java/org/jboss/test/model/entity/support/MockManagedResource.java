@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.support;
+
+import org.jboss.model.entity.EntityId;
+import org.jboss.model.entity.ManagedResource;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.jboss.model.entity.info.MockManagedResourceInfo;
+import org.jboss.model.values.MetaValue;
+
+/**
+ * A {@code ManagedResource} using a {@link MockManagedResourceInfo}, exposing the
+ * protected mutators to build test trees.
+ *
+ * @author Emanuel Muckenhuber
+ */
+public class MockManagedResource extends ManagedResource {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create a detached resource.
+     *
+     * @param address the absolute address
+     * @return the resource
+     */
+    public static MockManagedResource create(final String address) {
+        return new MockManagedResource(ManagedResourceAddress.fromString(address));
+    }
+
+    public MockManagedResource(final ManagedResourceAddress address) {
+        this(address, false);
+    }
+
+    public MockManagedResource(final ManagedResourceAddress address, final boolean idOnly) {
+        super(address, MockManagedResourceInfo.create(address.getLastElement().getElementName()), idOnly);
+    }
+
+    /**
+     * Create an editable copy of a resource, e.g. of a projection.
+     *
+     * @param toClone the resource to copy
+     */
+    public MockManagedResource(final ManagedResource toClone) {
+        super(toClone);
+    }
+
+    public MockManagedResource add(final String id) {
+        final MockManagedResource child = new MockManagedResource(ManagedResourceAddress.fromRelativeElements(getAddress(), EntityId.fromString(id)));
+        addChildEntity(child);
+        return child;
+    }
+
+    public MockManagedResource addIdOnly(final String id) {
+        final MockManagedResource child = new MockManagedResource(ManagedResourceAddress.fromRelativeElements(getAddress(), EntityId.fromString(id)), true);
+        addChildEntity(child);
+        return child;
+    }
+
+    public MockManagedResource set(final String name, final MetaValue value) {
+        setAttribute(name, value);
+        return this;
+    }
+
+    public MockManagedResource undefine(final String name) {
+        undefineAttribute(name);
+        return this;
+    }
+
+    public void addChild(final ManagedResource child) {
+        addChildEntity(child);
+    }
+
+    public boolean removeChild(final EntityId id) {
+        return removeChildEntity(id);
+    }
+
+}
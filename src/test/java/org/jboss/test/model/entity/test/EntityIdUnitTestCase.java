@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityId;
+import org.jboss.model.entity.EntityIdType;
+import org.jboss.model.entity.ManagedResourceAddress;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class EntityIdUnitTestCase extends TestCase {
+
+    public void testCanonicalIds() throws Exception {
+        final EntityId id = EntityId.create("subsystem", "name", "web");
+        assertSame(id, EntityId.create("subsystem", "name", "web"));
+        assertSame(id, EntityId.fromString("subsystem[@name='web']"));
+        assertSame(id, new EntityId("subsystem", "name", "web").intern());
+        assertNotSame(id, EntityId.create("subsystem", "name", "jca"));
+
+        final EntityId other = new EntityId("subsystem", "name", "web");
+        assertNotSame(id, other);
+        assertEquals(id, other);
+        assertEquals(id.hashCode(), other.hashCode());
+    }
+
+    public void testCanonicalTypes() throws Exception {
+        final EntityIdType type = EntityIdType.create("subsystem");
+        assertSame(type, EntityIdType.create("subsystem", null));
+        assertSame(type, EntityId.fromString("subsystem[@name='web']").getElementType());
+        assertSame(type, EntityId.fromString("subsystem").getElementType());
+        assertNotSame(type, EntityIdType.create("subsystem", "name"));
+        assertEquals(new EntityIdType("subsystem"), type);
+    }
+
+    public void testAddressElementsShared() throws Exception {
+        final ManagedResourceAddress a = ManagedResourceAddress.fromString("/server[@name='default']/subsystem[@name='web']");
+        final ManagedResourceAddress b = ManagedResourceAddress.fromString("server[@name='default']/subsystem[@name='web']");
+        assertEquals(a, b);
+        for(int i = 0; i < a.size(); i++) {
+            assertSame(a.get(i), b.get(i));
+        }
+        assertSame(a.getEntityIdTypes().get(1), EntityIdType.create("subsystem", "name"));
+    }
+
+    public void testSerialization() throws Exception {
+        final EntityId id = EntityId.create("connector", "name", "http");
+        final EntityIdType type = EntityIdType.create("connector", "name");
+        assertSame(id, serialize(id));
+        assertSame(type, serialize(type));
+        assertEquals(id.hashCode(), serialize(new EntityId("connector", "name", "http")).hashCode());
+    }
+
+    static Object serialize(final Object o) throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(o);
+        oos.close();
+        final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        return ois.readObject();
+    }
+
+}
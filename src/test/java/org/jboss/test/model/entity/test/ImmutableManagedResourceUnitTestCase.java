@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityId;
+import org.jboss.model.entity.EntityIdType;
+import org.jboss.model.entity.ImmutableManagedResource;
+import org.jboss.model.entity.ManagedResource;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.jboss.model.entity.info.MockManagedResourceInfo;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.entity.support.MockManagedResource;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ImmutableManagedResourceUnitTestCase extends TestCase {
+
+    public void testPathCopying() throws Exception {
+        final ImmutableManagedResource server = createTree();
+        final ImmutableManagedResource web = server.getChildEntity(relative("subsystem[@name='web']"));
+        final ImmutableManagedResource jca = server.getChildEntity(relative("subsystem[@name='jca']"));
+        final ImmutableManagedResource http = server.getChildEntity(relative("subsystem[@name='web']/connector[@name='http']"));
+        assertNotNull(http);
+
+        final ImmutableManagedResource updated = server.setAttribute(relative("subsystem[@name='web']/connector[@name='http']"), "port", SimpleValueSupport.wrap("8081"));
+        assertNotSame(server, updated);
+        // the snapshot is unchanged
+        assertEquals("8080", http.getAttribute("port", SimpleValue.class).getValue());
+        assertEquals("8081", updated.getChildEntity(relative("subsystem[@name='web']/connector[@name='http']")).getAttribute("port", SimpleValue.class).getValue());
+        // the path is copied, everything else is shared
+        assertNotSame(web, updated.getChildEntity(relative("subsystem[@name='web']")));
+        assertSame(jca, updated.getChildEntity(relative("subsystem[@name='jca']")));
+        assertSame(web.getChildEntity(id("connector[@name='ajp']")), updated.getChildEntity(relative("subsystem[@name='web']/connector[@name='ajp']")));
+        assertSame(web.getAttribute("name"), updated.getChildEntity(relative("subsystem[@name='web']")).getAttribute("name"));
+    }
+
+    public void testAddRemove() throws Exception {
+        final ImmutableManagedResource server = createTree();
+        final ManagedResourceAddress address = ManagedResourceAddress.fromString("server[@name='default']/subsystem[@name='jca']/pool[@name='default']");
+        final ImmutableManagedResource pool = ImmutableManagedResource.create(address, MockManagedResourceInfo.create("pool"));
+
+        final ImmutableManagedResource added = server.addChildEntity(relative("subsystem[@name='jca']"), pool);
+        assertNull(server.getChildEntity(relative("subsystem[@name='jca']/pool[@name='default']")));
+        assertSame(pool, added.getChildEntity(relative("subsystem[@name='jca']/pool[@name='default']")));
+        assertSame(added.getChildEntity(relative("subsystem[@name='web']")), server.getChildEntity(relative("subsystem[@name='web']")));
+
+        final ImmutableManagedResource removed = added.removeChildEntity(relative("subsystem[@name='web']"));
+        assertNull(removed.getChildEntity(relative("subsystem[@name='web']")));
+        assertNotNull(added.getChildEntity(relative("subsystem[@name='web']")));
+        assertEquals(1, removed.getChildren(EntityIdType.create("subsystem")).size());
+        assertSame(removed, removed.removeChildEntity(relative("subsystem[@name='ee']")));
+        assertSame(removed, removed.removeChildEntity(relative("subsystem[@name='ee']/pool[@name='default']")));
+
+        try {
+            server.setAttribute(relative("subsystem[@name='ee']"), "name", SimpleValueSupport.wrap("ee"));
+            fail("no such entity");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    public void testWideFanOut() throws Exception {
+        final EntityIdType connector = EntityIdType.create("connector");
+        final int count = 2000;
+        ImmutableManagedResource web = create("server[@name='default']/subsystem[@name='web']");
+        final ImmutableManagedResource empty = web;
+        for(int i = 0; i < count; i++) {
+            web = web.addChildEntity(create("server[@name='default']/subsystem[@name='web']/connector[@name='c" + i + "']"));
+        }
+        // equal hash codes
+        web = web.addChildEntity(create("server[@name='default']/subsystem[@name='web']/connector[@name='Aa']"));
+        web = web.addChildEntity(create("server[@name='default']/subsystem[@name='web']/connector[@name='BB']"));
+        assertEquals(id("connector[@name='Aa']").hashCode(), id("connector[@name='BB']").hashCode());
+        assertEquals(count + 2, web.getChildren(connector).size());
+        assertTrue(empty.getChildren(connector).isEmpty());
+
+        final ImmutableManagedResource full = web;
+        for(int i = 0; i < count; i += 2) {
+            web = web.removeChildEntity(id("connector[@name='c" + i + "']"));
+        }
+        web = web.removeChildEntity(id("connector[@name='Aa']"));
+        assertEquals(count / 2 + 1, web.getChildren(connector).size());
+        assertEquals(count + 2, full.getChildren(connector).size());
+        for(int i = 0; i < count; i++) {
+            final EntityId id = id("connector[@name='c" + i + "']");
+            assertNotNull(full.getChildEntity(id));
+            assertEquals(i % 2 != 0, web.getChildEntity(id) != null);
+            if(i % 2 != 0) {
+                assertSame(full.getChildEntity(id), web.getChildEntity(id));
+            }
+        }
+        assertNull(web.getChildEntity(id("connector[@name='Aa']")));
+        assertNotNull(web.getChildEntity(id("connector[@name='BB']")));
+        assertNotNull(full.getChildEntity(id("connector[@name='Aa']")));
+
+        int iterated = 0;
+        for(final ImmutableManagedResource child : web.getChildren(connector)) {
+            assertSame(child, web.getChildEntity(child.getAddress().getLastElement()));
+            iterated++;
+        }
+        assertEquals(count / 2 + 1, iterated);
+    }
+
+    public void testAttributeValuesAreCopied() throws Exception {
+        final SimpleValueSupport value = new SimpleValueSupport(SimpleMetaType.STRING, "a");
+        final ImmutableManagedResource server = createTree().setAttribute("name", value);
+        value.setValue("b");
+        assertEquals("a", server.getAttribute("name", SimpleValue.class).getValue());
+    }
+
+    public void testConversion() throws Exception {
+        final MockManagedResource server = MockManagedResource.create("server[@name='default']");
+        final MockManagedResource web = server.add("subsystem[@name='web']");
+        web.add("connector[@name='http']");
+
+        final ImmutableManagedResource copy = ImmutableManagedResource.copyOf(server);
+        assertNotNull(copy.getChildEntity(relative("subsystem[@name='web']/connector[@name='http']")));
+
+        final ManagedResource resource = copy.setAttribute(relative("subsystem[@name='web']"), "name", SimpleValueSupport.wrap("web")).toManagedResource();
+        final ManagedResource mutableWeb = resource.getChildEntity(relative("subsystem[@name='web']"));
+        assertEquals("web", mutableWeb.getAttribute("name", SimpleValue.class).getValue());
+        assertNotNull(mutableWeb.getChildEntity(id("connector[@name='http']")));
+        assertNull(web.getAttribute("name"));
+    }
+
+    static ImmutableManagedResource createTree() {
+        ImmutableManagedResource server = create("server[@name='default']");
+        final ImmutableManagedResource web = create("server[@name='default']/subsystem[@name='web']")
+                .setAttribute("name", SimpleValueSupport.wrap("web"))
+                .addChildEntity(create("server[@name='default']/subsystem[@name='web']/connector[@name='http']").setAttribute("port", SimpleValueSupport.wrap("8080")))
+                .addChildEntity(create("server[@name='default']/subsystem[@name='web']/connector[@name='ajp']").setAttribute("port", SimpleValueSupport.wrap("8009")));
+        server = server.addChildEntity(web);
+        server = server.addChildEntity(create("server[@name='default']/subsystem[@name='jca']"));
+        return server;
+    }
+
+    static ImmutableManagedResource create(final String address) {
+        final ManagedResourceAddress a = ManagedResourceAddress.fromString(address);
+        return ImmutableManagedResource.create(a, MockManagedResourceInfo.create(a.getLastElement().getElementName()));
+    }
+
+    static ManagedResourceAddress relative(final String address) {
+        return ManagedResourceAddress.fromString(address);
+    }
+
+    static EntityId id(final String id) {
+        return EntityId.fromString(id);
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityId;
+import org.jboss.model.entity.ManagedResourceAddress;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceAddressParserUnitTestCase extends TestCase {
+
+    public void testParse() throws Exception {
+        final ManagedResourceAddress address = ManagedResourceAddress.fromString("/server[@name='default']/subsystem[@name='web']/connector");
+        assertEquals(3, address.size());
+        assertSame(EntityId.create("server", "name", "default"), address.get(0));
+        assertSame(EntityId.create("subsystem", "name", "web"), address.get(1));
+        assertSame(EntityId.create("connector", null, null), address.get(2));
+        assertEquals(address, ManagedResourceAddress.fromString(address.toString()));
+        assertEquals(address, ManagedResourceAddress.parse(new StringBuilder(address.toString())));
+    }
+
+    public void testSeparators() throws Exception {
+        assertSame(ManagedResourceAddress.ROOT, ManagedResourceAddress.fromString(null));
+        assertSame(ManagedResourceAddress.ROOT, ManagedResourceAddress.fromString(""));
+        assertSame(ManagedResourceAddress.ROOT, ManagedResourceAddress.fromString("/"));
+        assertTrue(ManagedResourceAddress.parse("//").isRoot());
+        assertEquals(ManagedResourceAddress.fromElements(id("a"), id("b")), ManagedResourceAddress.fromString("a/b/"));
+        assertEquals(ManagedResourceAddress.fromElements(id("a"), id("b")), ManagedResourceAddress.fromString("/a/b//"));
+        assertEquals(ManagedResourceAddress.fromElements(id("a"), id(""), id("b")), ManagedResourceAddress.fromString("a//b"));
+    }
+
+    public void testValueWithSeparator() throws Exception {
+        final ManagedResourceAddress address = ManagedResourceAddress.fromString("deployment[@name='a/b.war']/servlet[@name='x']");
+        assertEquals(2, address.size());
+        assertEquals("a/b.war", address.get(0).getIdAttributeValue());
+        assertEquals(address, ManagedResourceAddress.fromString(address.toString()));
+    }
+
+    public void testInvalid() throws Exception {
+        assertInvalid("a[@");
+        assertInvalid("a[@name='x'");
+        assertInvalid("a[@name]");
+        assertInvalid("a[@name='']");
+        assertInvalid("a[@name='x']b");
+        assertInvalid("a/b[@name=x]/c");
+    }
+
+    public void testBytes() throws Exception {
+        final String s = "server[@name='default']/subsystem[@name='web']";
+        final byte[] bytes = ("xx" + s + "yy").getBytes("UTF-8");
+        assertEquals(ManagedResourceAddress.fromString(s), ManagedResourceAddress.parse(bytes, 2, bytes.length - 4));
+
+        final ByteBuffer heap = ByteBuffer.wrap(bytes, 2, bytes.length - 4).slice();
+        assertEquals(ManagedResourceAddress.fromString(s), ManagedResourceAddress.parse(heap));
+        assertEquals(0, heap.position());
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        direct.position(2).limit(bytes.length - 2);
+        assertEquals(ManagedResourceAddress.fromString(s), ManagedResourceAddress.parse(direct));
+
+        final String unicode = "server[@name='défaut']/subsystem[@name='网']";
+        final byte[] utf8 = unicode.getBytes("UTF-8");
+        final ManagedResourceAddress address = ManagedResourceAddress.parse(utf8, 0, utf8.length);
+        assertEquals("défaut", address.get(0).getIdAttributeValue());
+        assertEquals(ManagedResourceAddress.fromString(unicode), address);
+    }
+
+    public void testCache() throws Exception {
+        final String s = "server[@name='default']/subsystem[@name='cached']";
+        assertSame(ManagedResourceAddress.fromString(s), ManagedResourceAddress.fromString(new String(s)));
+    }
+
+    public void testCacheEviction() throws Exception {
+        final String hot = "server[@name='default']/subsystem[@name='hot']";
+        final ManagedResourceAddress address = ManagedResourceAddress.fromString(hot);
+        final String cold = "server[@name='default']/subsystem[@name='cold']";
+        final ManagedResourceAddress evicted = ManagedResourceAddress.fromString(cold);
+        for(int i = 0; i < 5000; i++) {
+            ManagedResourceAddress.fromString("server[@name='default']/subsystem[@name='s" + i + "']");
+            // referenced entries get a second chance
+            assertSame(address, ManagedResourceAddress.fromString(hot));
+        }
+        final ManagedResourceAddress reparsed = ManagedResourceAddress.fromString(cold);
+        assertEquals(evicted, reparsed);
+        assertNotSame(evicted, reparsed);
+    }
+
+    public void testEntityId() throws Exception {
+        assertSame(EntityId.create("a", "b", "c"), EntityId.fromString("a[@b='c']"));
+        assertSame(EntityId.create("a", null, null), EntityId.fromString("a"));
+        assertEquals("x='y", EntityId.fromString("a[@b='x='y']").getIdAttributeValue());
+        try {
+            EntityId.fromString("a[@b]");
+            fail("invalid id");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    static void assertInvalid(final String address) {
+        try {
+            ManagedResourceAddress.fromString(address);
+            fail(address);
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    static EntityId id(final String id) {
+        return EntityId.fromString(id);
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityIdType;
+import org.jboss.model.entity.ImmutableManagedResource;
+import org.jboss.model.entity.ManagedResource;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.jboss.model.entity.ManagedResourceChange;
+import org.jboss.model.entity.ManagedResourceDiff;
+import org.jboss.model.entity.ManagedResourceProjection;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.entity.support.MockManagedResource;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceDiffUnitTestCase extends TestCase {
+
+    public void testNoChanges() throws Exception {
+        assertTrue(ManagedResourceDiff.diff(createCurrent(), createCurrent()).isEmpty());
+
+        // placeholders stand for unchanged subtrees
+        final MockManagedResource updated = MockManagedResource.create("server[@name='default']");
+        updated.set("name", SimpleValueSupport.wrap("default"));
+        updated.addIdOnly("subsystem[@name='web']");
+        updated.addIdOnly("subsystem[@name='jca']");
+        assertTrue(ManagedResourceDiff.diff(createCurrent(), updated).isEmpty());
+    }
+
+    public void testDiffAndApply() throws Exception {
+        final MockManagedResource current = createCurrent();
+        final MockManagedResource updated = MockManagedResource.create("server[@name='default']");
+        updated.undefine("name");
+        final MockManagedResource web = updated.add("subsystem[@name='web']");
+        web.add("connector[@name='http']").set("port", SimpleValueSupport.wrap("8081"));
+        web.addIdOnly("connector[@name='ajp']");
+        web.add("connector[@name='https']").set("port", SimpleValueSupport.wrap("8443"));
+        // subsystem jca removed
+
+        final List<ManagedResourceChange> changes = ManagedResourceDiff.diff(current, updated);
+        assertEquals(4, changes.size());
+        assertChange(changes.get(0), ManagedResourceChange.Type.WRITE_ATTRIBUTE, "server[@name='default']");
+        assertNull(changes.get(0).getValue());
+        assertChange(changes.get(1), ManagedResourceChange.Type.REMOVE, "server[@name='default']/subsystem[@name='jca']");
+        assertChange(changes.get(2), ManagedResourceChange.Type.ADD, "server[@name='default']/subsystem[@name='web']/connector[@name='https']");
+        assertChange(changes.get(3), ManagedResourceChange.Type.WRITE_ATTRIBUTE, "server[@name='default']/subsystem[@name='web']/connector[@name='http']");
+        assertEquals("8081", changes.get(3).getValue().as(SimpleValue.class).getValue());
+
+        final ImmutableManagedResource snapshot = ImmutableManagedResource.copyOf(current);
+        ManagedResourceDiff.apply(current, changes);
+        assertNull(current.getAttribute("name"));
+        assertNull(current.getChildEntity(relative("subsystem[@name='jca']")));
+        assertEquals("8443", current.getChildEntity(relative("subsystem[@name='web']/connector[@name='https']")).getAttribute("port", SimpleValue.class).getValue());
+        assertEquals("8081", current.getChildEntity(relative("subsystem[@name='web']/connector[@name='http']")).getAttribute("port", SimpleValue.class).getValue());
+        assertEquals("8009", current.getChildEntity(relative("subsystem[@name='web']/connector[@name='ajp']")).getAttribute("port", SimpleValue.class).getValue());
+        // applied, nothing left
+        assertTrue(ManagedResourceDiff.diff(current, updated).isEmpty());
+
+        final ImmutableManagedResource applied = ManagedResourceDiff.apply(snapshot, changes);
+        assertNotNull(snapshot.getChildEntity(relative("subsystem[@name='jca']")));
+        assertNull(applied.getChildEntity(relative("subsystem[@name='jca']")));
+        assertNull(applied.getAttribute("name"));
+        assertEquals("8081", applied.getChildEntity(relative("subsystem[@name='web']/connector[@name='http']")).getAttribute("port", SimpleValue.class).getValue());
+        assertEquals(3, applied.getChildEntity(relative("subsystem[@name='web']")).getChildren(EntityIdType.create("connector")).size());
+
+        // both paths keep the undefined attribute as an explicit null
+        final List<ManagedResourceChange> mutable = ManagedResourceDiff.diff(createCurrent(), current);
+        final List<ManagedResourceChange> immutable = ManagedResourceDiff.diff(createCurrent(), applied.toManagedResource());
+        assertEquals(changes.size(), mutable.size());
+        assertEquals(changes.size(), immutable.size());
+        assertChange(immutable.get(0), ManagedResourceChange.Type.WRITE_ATTRIBUTE, "server[@name='default']");
+        assertNull(immutable.get(0).getValue());
+    }
+
+    public void testPartialView() throws Exception {
+        final MockManagedResource current = createCurrent();
+        current.set("version", SimpleValueSupport.wrap("1.0"));
+        final ManagedResource projected = ManagedResourceProjection.create().addAttribute("name").setMaxDepth(0).project(current);
+        final MockManagedResource updated = new MockManagedResource(projected);
+        updated.set("name", SimpleValueSupport.wrap("renamed"));
+
+        // version is not part of the view and left unchanged
+        final List<ManagedResourceChange> changes = ManagedResourceDiff.diff(current, updated);
+        assertEquals(1, changes.size());
+        assertChange(changes.get(0), ManagedResourceChange.Type.WRITE_ATTRIBUTE, "server[@name='default']");
+        assertEquals("name", changes.get(0).getAttributeName());
+
+        ManagedResourceDiff.apply(current, changes);
+        assertEquals("renamed", current.getAttribute("name", SimpleValue.class).getValue());
+        assertEquals("1.0", current.getAttribute("version", SimpleValue.class).getValue());
+        assertNotNull(current.getChildEntity(relative("subsystem[@name='jca']")));
+    }
+
+    public void testPlaceholderForMissingResource() throws Exception {
+        final MockManagedResource updated = MockManagedResource.create("server[@name='default']");
+        updated.addIdOnly("subsystem[@name='web']");
+        updated.addIdOnly("subsystem[@name='jca']");
+        updated.addIdOnly("subsystem[@name='ejb']");
+        try {
+            ManagedResourceDiff.diff(createCurrent(), updated);
+            fail("placeholder cannot be added");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+
+        final MockManagedResource nested = MockManagedResource.create("server[@name='default']");
+        nested.addIdOnly("subsystem[@name='web']");
+        nested.addIdOnly("subsystem[@name='jca']");
+        nested.add("subsystem[@name='ejb']").addIdOnly("pool[@name='default']");
+        try {
+            ManagedResourceDiff.diff(createCurrent(), nested);
+            fail("placeholder within an added subtree");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    public void testApplyInvalid() throws Exception {
+        final MockManagedResource current = createCurrent();
+        // removes all children
+        final List<ManagedResourceChange> changes = ManagedResourceDiff.diff(createCurrent(), MockManagedResource.create("server[@name='default']"));
+        ManagedResourceDiff.apply(current, changes);
+        try {
+            ManagedResourceDiff.apply(current, changes);
+            fail("already removed");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+        try {
+            ManagedResourceDiff.diff(current, MockManagedResource.create("server[@name='other']"));
+            fail("different roots");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    static void assertChange(final ManagedResourceChange change, final ManagedResourceChange.Type type, final String address) {
+        assertEquals(type, change.getType());
+        assertEquals(ManagedResourceAddress.fromString(address), change.getAddress());
+    }
+
+    static ManagedResourceAddress relative(final String address) {
+        return ManagedResourceAddress.fromString(address);
+    }
+
+    static MockManagedResource createCurrent() {
+        final MockManagedResource server = MockManagedResource.create("server[@name='default']");
+        server.set("name", SimpleValueSupport.wrap("default"));
+        final MockManagedResource web = server.add("subsystem[@name='web']");
+        web.add("connector[@name='http']").set("port", SimpleValueSupport.wrap("8080"));
+        web.add("connector[@name='ajp']").set("port", SimpleValueSupport.wrap("8009"));
+        server.add("subsystem[@name='jca']");
+        return server;
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityIdType;
+import org.jboss.model.entity.info.ManagedResourceAdderInfo;
+import org.jboss.model.entity.info.ManagedResourceInfo;
+import org.jboss.model.entity.info.ManagedResourceInfoUtils;
+import org.jboss.model.entity.info.ManagedResourceOperationInfo;
+import org.jboss.model.entity.info.builder.EntityAdderInfoBuilder;
+import org.jboss.model.entity.info.builder.EntityOperationBuilder;
+import org.jboss.model.entity.info.builder.ModelEntityInfoBuilder;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValueSupport;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceDispatchUnitTestCase extends TestCase {
+
+    public void testResolveByParameterNames() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        final ManagedResourceOperationInfo[] operations = info.getOperations();
+
+        assertSame(operations[0], ManagedResourceInfoUtils.resolveOperationInfo(info, params()));
+        assertSame(operations[1], ManagedResourceInfoUtils.resolveOperationInfo(info, params("timeout", SimpleValueSupport.wrap(10))));
+        assertSame(operations[2], ManagedResourceInfoUtils.resolveOperationInfo(info, params("host", SimpleValueSupport.wrap("localhost"), "port", SimpleValueSupport.wrap(8080))));
+        assertNull(ManagedResourceInfoUtils.resolveOperationInfo(info, params("unknown", SimpleValueSupport.wrap(10))));
+    }
+
+    public void testResolveByType() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        final ManagedResourceOperationInfo[] operations = info.getOperations();
+
+        // same parameter names, different types
+        assertSame(operations[1], ManagedResourceInfoUtils.resolveOperationInfo(info, "stop", params("timeout", SimpleValueSupport.wrap(10))));
+        assertSame(operations[3], ManagedResourceInfoUtils.resolveOperationInfo(info, "stop", params("timeout", SimpleValueSupport.wrap("10s"))));
+        assertNull(ManagedResourceInfoUtils.resolveOperationInfo(info, "stop", params("timeout", SimpleValueSupport.wrap(true))));
+    }
+
+    public void testResolveByName() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        final ManagedResourceOperationInfo[] operations = info.getOperations();
+
+        assertSame(operations[0], ManagedResourceInfoUtils.resolveOperationInfo(info, "start", params()));
+        assertSame(operations[4], ManagedResourceInfoUtils.resolveOperationInfo(info, "reload", params()));
+        assertNull(ManagedResourceInfoUtils.resolveOperationInfo(info, "unknown", params()));
+        assertNull(ManagedResourceInfoUtils.resolveOperationInfo(info, "start", params("timeout", SimpleValueSupport.wrap(10))));
+    }
+
+    public void testResolvePositional() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        final ManagedResourceOperationInfo[] operations = info.getOperations();
+
+        assertSame(operations[0], ManagedResourceInfoUtils.resolveOperationInfo(info, "start", new MetaValue[0]));
+        assertSame(operations[1], ManagedResourceInfoUtils.resolveOperationInfo(info, "stop", new MetaValue[] { SimpleValueSupport.wrap(10) }));
+        assertSame(operations[3], ManagedResourceInfoUtils.resolveOperationInfo(info, "stop", new MetaValue[] { SimpleValueSupport.wrap("10s") }));
+        assertSame(operations[2], ManagedResourceInfoUtils.resolveOperationInfo(info, "connect", new MetaValue[] { null, SimpleValueSupport.wrap(8080) }));
+        assertNull(ManagedResourceInfoUtils.resolveOperationInfo(info, "connect", new MetaValue[] { SimpleValueSupport.wrap(8080), null }));
+        assertNull(ManagedResourceInfoUtils.resolveOperationInfo(info, "stop", new MetaValue[0]));
+    }
+
+    public void testNillableParameters() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        final ManagedResourceOperationInfo[] operations = info.getOperations();
+
+        assertSame(operations[2], ManagedResourceInfoUtils.resolveOperationInfo(info, "connect", params("host", null, "port", SimpleValueSupport.wrap(8080))));
+        // a missing nillable parameter still matches a parameter list of the same size
+        assertSame(operations[2], ManagedResourceInfoUtils.resolveOperationInfo(info, "connect", params("other", SimpleValueSupport.wrap("x"), "port", SimpleValueSupport.wrap(8080))));
+        assertNull(ManagedResourceInfoUtils.resolveOperationInfo(info, "connect", params("host", SimpleValueSupport.wrap("localhost"), "other", SimpleValueSupport.wrap(8080))));
+    }
+
+    public void testDeclarationOrder() throws Exception {
+        final ModelEntityInfoBuilder builder = ModelEntityInfoBuilder.create(EntityIdType.create("connector"));
+        final EntityOperationBuilder bindAddress = builder.addOperation("bind").setReturnType(SimpleMetaType.VOID);
+        bindAddress.addParamter("address").setParameterType(SimpleMetaType.STRING).setNillable(true);
+        bindAddress.addParamter("port").setParameterType(SimpleMetaType.INTEGER);
+        final EntityOperationBuilder bindInterface = builder.addOperation("bind").setReturnType(SimpleMetaType.VOID);
+        bindInterface.addParamter("interface").setParameterType(SimpleMetaType.STRING);
+        bindInterface.addParamter("port").setParameterType(SimpleMetaType.INTEGER);
+        final ManagedResourceInfo info = builder.create();
+        final ManagedResourceOperationInfo[] operations = info.getOperations();
+
+        // the earlier declared nillable signature wins over the later exact match
+        final Map<String, MetaValue> params = params("interface", SimpleValueSupport.wrap("eth0"), "port", SimpleValueSupport.wrap(8080));
+        assertSame(operations[0], ManagedResourceInfoUtils.resolveOperationInfo(info, params));
+        assertSame(operations[0], ManagedResourceInfoUtils.resolveOperationInfo(info, "bind", params));
+    }
+
+    public void testResolveAdder() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        final ManagedResourceAdderInfo[] adders = info.getAdders();
+
+        assertSame(adders[0], ManagedResourceInfoUtils.resolveAdderInfo(info, params("name", SimpleValueSupport.wrap("a"))));
+        assertSame(adders[0], ManagedResourceInfoUtils.resolveAdderInfo(info, "add", params("name", SimpleValueSupport.wrap("a"))));
+        assertNull(ManagedResourceInfoUtils.resolveAdderInfo(info, "other", params("name", SimpleValueSupport.wrap("a"))));
+        assertNull(ManagedResourceInfoUtils.resolveAdderInfo(info, params("name", SimpleValueSupport.wrap(1))));
+    }
+
+    public void testResolveMatchesSignature() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        final Map<String, MetaValue> params = params("host", SimpleValueSupport.wrap("localhost"), "port", SimpleValueSupport.wrap(8080));
+        final ManagedResourceOperationInfo operation = ManagedResourceInfoUtils.resolveOperationInfo(info, params);
+        assertTrue(ManagedResourceInfoUtils.matches(operation, params));
+    }
+
+    static Map<String, MetaValue> params(final Object... pairs) {
+        final Map<String, MetaValue> params = new HashMap<String, MetaValue>();
+        for(int i = 0; i < pairs.length; i += 2) {
+            params.put((String) pairs[i], (MetaValue) pairs[i + 1]);
+        }
+        return params;
+    }
+
+    static ManagedResourceInfo createInfo() {
+        final ModelEntityInfoBuilder builder = ModelEntityInfoBuilder.create(EntityIdType.create("connector"));
+        builder.addOperation("start").setReturnType(SimpleMetaType.VOID);
+
+        final EntityOperationBuilder stop = builder.addOperation("stop").setReturnType(SimpleMetaType.VOID);
+        stop.addParamter("timeout").setParameterType(SimpleMetaType.INTEGER);
+
+        final EntityOperationBuilder connect = builder.addOperation("connect").setReturnType(SimpleMetaType.BOOLEAN);
+        connect.addParamter("host").setParameterType(SimpleMetaType.STRING).setNillable(true);
+        connect.addParamter("port").setParameterType(SimpleMetaType.INTEGER);
+
+        final EntityOperationBuilder stopByString = builder.addOperation("stop").setReturnType(SimpleMetaType.VOID);
+        stopByString.addParamter("timeout").setParameterType(SimpleMetaType.STRING);
+
+        builder.addOperation("reload").setReturnType(SimpleMetaType.VOID);
+
+        final EntityAdderInfoBuilder adder = builder.addAdderInfo("add");
+        adder.addParamter("name").setParameterType(SimpleMetaType.STRING);
+        return builder.create();
+    }
+
+}
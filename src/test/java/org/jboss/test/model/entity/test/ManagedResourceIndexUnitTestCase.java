@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityId;
+import org.jboss.model.entity.ManagedResource;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.jboss.model.entity.ManagedResourceIndex;
+import org.jboss.model.entity.info.MockManagedResourceInfo;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceIndexUnitTestCase extends TestCase {
+
+    public void testLookup() throws Exception {
+        final TestResource server = create("server[@name='default']");
+        final TestResource web = server.add("subsystem[@name='web']");
+        final TestResource http = web.add("connector[@name='http']");
+        final TestResource jca = server.add("subsystem[@name='jca']");
+
+        final ManagedResourceIndex index = new ManagedResourceIndex(server);
+        assertEquals(4, index.size());
+        assertSame(index, http.getIndex());
+        assertSame(server, index.get(server.getAddress()));
+        assertSame(http, index.get(address("server[@name='default']/subsystem[@name='web']/connector[@name='http']")));
+        assertSame(jca, index.get(address("server[@name='default']/subsystem[@name='jca']")));
+        assertNull(index.get(address("server[@name='default']/subsystem[@name='ee']")));
+        assertNull(index.get(ManagedResourceAddress.ROOT));
+
+        final List<ManagedResource> subtree = index.getSubtree(web.getAddress());
+        assertEquals(2, subtree.size());
+        assertSame(web, subtree.get(0));
+        assertSame(http, subtree.get(1));
+        assertEquals(4, index.getSubtree(ManagedResourceAddress.ROOT).size());
+    }
+
+    public void testSync() throws Exception {
+        final TestResource server = create("server[@name='default']");
+        final TestResource web = server.add("subsystem[@name='web']");
+        final ManagedResourceIndex index = new ManagedResourceIndex(server);
+
+        final TestResource http = web.add("connector[@name='http']");
+        assertEquals(3, index.size());
+        assertSame(http, index.get(http.getAddress()));
+        assertSame(index, http.getIndex());
+
+        // a detached subtree added later is indexed as a whole
+        final TestResource jca = create("server[@name='default']/subsystem[@name='jca']");
+        final TestResource pool = jca.add("pool[@name='default']");
+        server.addChild(jca);
+        assertEquals(5, index.size());
+        assertSame(pool, index.get(pool.getAddress()));
+
+        assertTrue(server.removeChild(web.getAddress().getLastElement()));
+        assertEquals(3, index.size());
+        assertNull(index.get(web.getAddress()));
+        assertNull(index.get(http.getAddress()));
+        assertNull(http.getIndex());
+        assertEquals(0, index.getSubtree(web.getAddress()).size());
+        assertFalse(server.removeChild(web.getAddress().getLastElement()));
+    }
+
+    public void testChildLookup() throws Exception {
+        final TestResource server = create("server[@name='default']");
+        final TestResource web = server.add("subsystem[@name='web']");
+        final TestResource http = web.add("connector[@name='http']");
+        final TestResource acceptor = http.add("acceptor[@name='default']");
+        new ManagedResourceIndex(server);
+
+        // nested lookups on indexed resources don't walk the children
+        web.indexOnly = http.indexOnly = true;
+        assertSame(acceptor, web.getChildEntity(address("connector[@name='http']/acceptor[@name='default']")));
+        assertSame(acceptor, server.getChildEntity(address("subsystem[@name='web']/connector[@name='http']/acceptor[@name='default']")));
+        assertNull(web.getChildEntity(address("connector[@name='ajp']/acceptor[@name='default']")));
+        assertSame(web, server.getChildEntity(address("subsystem[@name='web']")));
+    }
+
+    static ManagedResourceAddress address(final String address) {
+        return ManagedResourceAddress.fromString(address);
+    }
+
+    static TestResource create(final String address) {
+        final ManagedResourceAddress a = address(address);
+        return new TestResource(a);
+    }
+
+    static class TestResource extends ManagedResource {
+
+        private static final long serialVersionUID = 1L;
+
+        boolean indexOnly;
+
+        TestResource(final ManagedResourceAddress address) {
+            super(address, MockManagedResourceInfo.create(address.getLastElement().getElementName()));
+        }
+
+        TestResource add(final String id) {
+            final TestResource child = new TestResource(ManagedResourceAddress.fromRelativeElements(getAddress(), EntityId.fromString(id)));
+            addChildEntity(child);
+            return child;
+        }
+
+        @Override
+        public ManagedResource getChildEntity(final EntityId id) {
+            if(indexOnly) {
+                throw new IllegalStateException("index bypassed");
+            }
+            return super.getChildEntity(id);
+        }
+
+        void addChild(final ManagedResource child) {
+            addChildEntity(child);
+        }
+
+        boolean removeChild(final EntityId id) {
+            return removeChildEntity(id);
+        }
+    }
+
+}
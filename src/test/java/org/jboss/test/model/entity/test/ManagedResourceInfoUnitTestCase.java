@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityIdType;
+import org.jboss.model.entity.info.ManagedResourceInfo;
+import org.jboss.model.entity.info.builder.ModelEntityInfoBuilder;
+import org.jboss.model.types.SimpleMetaType;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceInfoUnitTestCase extends TestCase {
+
+    public void testAttributeLookup() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+
+        assertSame(info.getAttributeList().get(1), info.getAttributeInfo("port"));
+        assertNull(info.getAttributeInfo("unknown"));
+
+        final Set<String> names = info.getAttributeNames();
+        assertEquals(3, names.size());
+        assertTrue(names.contains("name"));
+        assertTrue(names.contains("port"));
+        assertTrue(names.contains("interface"));
+        assertSame(names, info.getAttributeNames());
+        try {
+            names.add("other");
+            fail("attribute names should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            //
+        }
+    }
+
+    public void testReadOnlyViews() throws Exception {
+        final ManagedResourceInfo info = createInfo();
+        assertEquals(3, info.getAttributeList().size());
+        assertEquals(1, info.getOperationList().size());
+        assertEquals(0, info.getAdderList().size());
+        assertSame(info.getOperationList(), info.getOperationList());
+        try {
+            info.getAttributeList().remove(0);
+            fail("attributes should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            //
+        }
+    }
+
+    public void testSerialization() throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(createInfo());
+        oos.close();
+        final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        final ManagedResourceInfo info = (ManagedResourceInfo) ois.readObject();
+        assertNotNull(info.getAttributeInfo("name"));
+        assertEquals(3, info.getAttributeNames().size());
+        assertEquals(1, info.getOperationList().size());
+    }
+
+    static ManagedResourceInfo createInfo() {
+        final ModelEntityInfoBuilder builder = ModelEntityInfoBuilder.create(EntityIdType.create("socket-binding"));
+        builder.addAttribute("name", SimpleMetaType.STRING);
+        builder.addAttribute("port", SimpleMetaType.INTEGER);
+        builder.addAttribute("interface", SimpleMetaType.STRING);
+        builder.addOperation("restart").setReturnType(SimpleMetaType.VOID);
+        return builder.create();
+    }
+
+}
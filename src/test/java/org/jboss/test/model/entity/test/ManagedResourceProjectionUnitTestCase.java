@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityIdType;
+import org.jboss.model.entity.ManagedResource;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.jboss.model.entity.ManagedResourceProjection;
+import org.jboss.model.entity.ManagedResourceStore;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.entity.support.MockManagedResource;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceProjectionUnitTestCase extends TestCase {
+
+    public void testFullProjection() throws Exception {
+        final MockManagedResource source = createTree();
+        final ManagedResource projected = ManagedResourceProjection.create().project(source);
+        assertNotSame(source, projected);
+        assertFalse(projected.isIdOnly());
+        final ManagedResource http = projected.getChildEntity(relative("subsystem[@name='web']/connector[@name='http']"));
+        assertFalse(http.isIdOnly());
+        assertEquals("8080", http.getAttribute("port", SimpleValue.class).getValue());
+        assertNotSame(source.getChildEntity(relative("subsystem[@name='web']/connector[@name='http']")).getAttribute("port"), http.getAttribute("port"));
+    }
+
+    public void testMaxDepth() throws Exception {
+        final ManagedResource projected = ManagedResourceProjection.create().setMaxDepth(1).project(createTree());
+        final ManagedResource web = projected.getChildEntity(relative("subsystem[@name='web']"));
+        assertFalse(web.isIdOnly());
+        assertEquals("web", web.getAttribute("name", SimpleValue.class).getValue());
+        final ManagedResource http = web.getChildEntity(relative("connector[@name='http']").getLastElement());
+        assertTrue(http.isIdOnly());
+        assertTrue(http.getChildren(EntityIdType.create("acceptor")).isEmpty());
+        try {
+            http.getAttribute("port");
+            fail("placeholder");
+        } catch (IllegalStateException expected) {
+            //
+        }
+
+        final ManagedResource root = ManagedResourceProjection.create().setMaxDepth(0).project(createTree());
+        assertEquals("default", root.getAttribute("name", SimpleValue.class).getValue());
+        assertTrue(root.getChildEntity(relative("subsystem[@name='web']")).isIdOnly());
+    }
+
+    public void testFilters() throws Exception {
+        final ManagedResource projected = ManagedResourceProjection.create()
+                .addChildType(EntityIdType.create("subsystem"))
+                .addAttribute("name")
+                .project(createTree());
+        assertEquals("default", projected.getAttribute("name", SimpleValue.class).getValue());
+        assertNull(projected.getAttribute("description"));
+        assertTrue(projected.getChildEntity(relative("interface[@name='public']")).isIdOnly());
+        final ManagedResource web = projected.getChildEntity(relative("subsystem[@name='web']"));
+        assertFalse(web.isIdOnly());
+        assertTrue(web.getChildEntity(relative("connector[@name='http']").getLastElement()).isIdOnly());
+    }
+
+    public void testStoreRead() throws Exception {
+        final ManagedResourceStore store = new ManagedResourceStore(createTree());
+        final ManagedResource web = store.read(relative("subsystem[@name='web']"), ManagedResourceProjection.create().setMaxDepth(0));
+        assertEquals("web", web.getAttribute("name", SimpleValue.class).getValue());
+        assertTrue(web.getChildEntity(relative("connector[@name='http']").getLastElement()).isIdOnly());
+    }
+
+    static ManagedResourceAddress relative(final String address) {
+        return ManagedResourceAddress.fromString(address);
+    }
+
+    static MockManagedResource createTree() {
+        final MockManagedResource server = MockManagedResource.create("server[@name='default']");
+        server.set("name", SimpleValueSupport.wrap("default"));
+        server.set("description", SimpleValueSupport.wrap("the default server"));
+        server.add("interface[@name='public']");
+        final MockManagedResource web = server.add("subsystem[@name='web']").set("name", SimpleValueSupport.wrap("web"));
+        final MockManagedResource http = web.add("connector[@name='http']").set("port", SimpleValueSupport.wrap("8080"));
+        http.add("acceptor[@name='default']");
+        return server;
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.ImmutableManagedResource;
+import org.jboss.model.entity.ManagedResource;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.jboss.model.entity.ManagedResourceStore;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.entity.support.MockManagedResource;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagedResourceStoreUnitTestCase extends TestCase {
+
+    private static final ManagedResourceAddress WEB = ManagedResourceAddress.fromString("subsystem[@name='web']");
+    private static final ManagedResourceAddress HTTP = ManagedResourceAddress.fromString("subsystem[@name='web']/connector[@name='http']");
+    private static final ManagedResourceAddress JCA = ManagedResourceAddress.fromString("subsystem[@name='jca']");
+
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    public void testReadWrite() throws Exception {
+        final ManagedResourceStore store = createStore();
+        assertNull(store.getAttribute(HTTP, "port"));
+        final SimpleValueSupport value = new SimpleValueSupport(SimpleMetaType.STRING, "8080");
+        store.setAttribute(HTTP, "port", value);
+        value.setValue("8081");
+        assertEquals("8080", store.getAttribute(HTTP, "port").as(SimpleValue.class).getValue());
+
+        assertTrue(store.contains(HTTP));
+        assertTrue(store.removeChildEntity(HTTP));
+        assertFalse(store.contains(HTTP));
+        assertFalse(store.removeChildEntity(HTTP));
+        try {
+            store.getAttribute(HTTP, "port");
+            fail("no such entity");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    public void testSnapshot() throws Exception {
+        final ManagedResourceStore store = createStore();
+        store.setAttribute(HTTP, "port", SimpleValueSupport.wrap("8080"));
+        final ImmutableManagedResource snapshot = store.snapshot(ManagedResourceAddress.ROOT);
+        store.setAttribute(HTTP, "port", SimpleValueSupport.wrap("8081"));
+        assertEquals("8080", snapshot.getChildEntity(HTTP).getAttribute("port", SimpleValue.class).getValue());
+    }
+
+    public void testSnapshotVersions() throws Exception {
+        final ManagedResourceStore store = createStore();
+        final ImmutableManagedResource initial = store.snapshot(ManagedResourceAddress.ROOT);
+        // no copy without writes
+        assertSame(initial, store.snapshot(ManagedResourceAddress.ROOT));
+        assertSame(initial.getChildEntity(WEB), store.snapshot(WEB));
+
+        store.setAttribute(HTTP, "port", SimpleValueSupport.wrap("8080"));
+        final ImmutableManagedResource updated = store.snapshot(ManagedResourceAddress.ROOT);
+        assertNotSame(initial, updated);
+        assertNull(initial.getChildEntity(HTTP).getAttribute("port"));
+        assertEquals("8080", updated.getChildEntity(HTTP).getAttribute("port", SimpleValue.class).getValue());
+        // untouched subtrees are shared
+        assertSame(initial.getChildEntity(JCA), updated.getChildEntity(JCA));
+
+        // arbitrary write actions are published as well
+        store.write(WEB, new ManagedResourceStore.Action<Void>() {
+            public Void execute(final ManagedResource resource) {
+                ((MockManagedResource) resource.getChildEntity(HTTP.getLastElement())).set("port", SimpleValueSupport.wrap("8081"));
+                return null;
+            }
+        });
+        assertEquals("8081", store.snapshot(HTTP).getAttribute("port", SimpleValue.class).getValue());
+        assertSame(updated.getChildEntity(JCA), store.snapshot(JCA));
+
+        assertTrue(store.removeChildEntity(HTTP));
+        try {
+            store.snapshot(HTTP);
+            fail("no such entity");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+        assertNotNull(updated.getChildEntity(HTTP));
+    }
+
+    public void testWriteActionChanges() throws Exception {
+        final ManagedResourceStore store = createStore();
+        store.setAttribute(WEB, "name", SimpleValueSupport.wrap("web"));
+        final MetaValue name = store.snapshot(WEB).getAttribute("name");
+        final ManagedResourceAddress ajp = ManagedResourceAddress.fromString("subsystem[@name='web']/connector[@name='ajp']");
+
+        store.write(WEB, new ManagedResourceStore.Action<Void>() {
+            public Void execute(final ManagedResource resource) {
+                final MockManagedResource web = (MockManagedResource) resource;
+                ((MockManagedResource) web.getChildEntity(HTTP.getLastElement())).set("port", SimpleValueSupport.wrap("8080"));
+                web.add("connector[@name='ajp']").set("port", SimpleValueSupport.wrap("8009"));
+                // published once the action completes
+                assertNull(store.snapshot(HTTP).getAttribute("port"));
+                assertNull(store.snapshot(WEB).getChildEntity(ajp.getLastElement()));
+                return null;
+            }
+        });
+        assertEquals("8080", store.snapshot(HTTP).getAttribute("port", SimpleValue.class).getValue());
+        assertEquals("8009", store.snapshot(ajp).getAttribute("port", SimpleValue.class).getValue());
+        // only the changes are applied, untouched values are not copied
+        assertSame(name, store.snapshot(WEB).getAttribute("name"));
+
+        // changes to a removed resource are not published
+        store.write(WEB, new ManagedResourceStore.Action<Void>() {
+            public Void execute(final ManagedResource resource) {
+                final MockManagedResource web = (MockManagedResource) resource;
+                final MockManagedResource removed = (MockManagedResource) web.getChildEntity(ajp.getLastElement());
+                assertTrue(web.removeChild(ajp.getLastElement()));
+                removed.set("port", SimpleValueSupport.wrap("8010"));
+                return null;
+            }
+        });
+        assertNull(store.snapshot(WEB).getChildEntity(ajp.getLastElement()));
+        assertEquals("8080", store.snapshot(HTTP).getAttribute("port", SimpleValue.class).getValue());
+    }
+
+    public void testDisjointSubtrees() throws Exception {
+        final ManagedResourceStore store = createStore();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<?> writer = executor.submit(new Callable<Void>() {
+            public Void call() throws Exception {
+                store.write(WEB, new ManagedResourceStore.Action<Void>() {
+                    public Void execute(final ManagedResource resource) {
+                        locked.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return null;
+                    }
+                });
+                return null;
+            }
+        });
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        // a write on another subsystem does not wait
+        final Future<MetaValue> other = executor.submit(new Callable<MetaValue>() {
+            public MetaValue call() throws Exception {
+                store.setAttribute(JCA, "name", SimpleValueSupport.wrap("jca"));
+                return store.getAttribute(JCA, "name");
+            }
+        });
+        assertEquals("jca", other.get(10, TimeUnit.SECONDS).as(SimpleValue.class).getValue());
+
+        // a read within the locked subtree waits
+        final Future<MetaValue> blocked = executor.submit(new Callable<MetaValue>() {
+            public MetaValue call() throws Exception {
+                return store.getAttribute(HTTP, "port");
+            }
+        });
+        try {
+            blocked.get(200, TimeUnit.MILLISECONDS);
+            fail("read should wait for the write lock");
+        } catch (TimeoutException expected) {
+            //
+        }
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        assertNull(blocked.get(10, TimeUnit.SECONDS));
+    }
+
+    public void testConcurrentMultiLock() throws Exception {
+        final ManagedResourceStore store = createStore();
+        final int threads = 8;
+        final Future<?>[] futures = new Future<?>[threads];
+        for(int t = 0; t < threads; t++) {
+            // lock the subtrees in different orders
+            final boolean reverse = t % 2 == 0;
+            futures[t] = executor.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    for(int i = 0; i < 500; i++) {
+                        store.execute(Collections.<ManagedResourceAddress>emptySet(), reverse ? Arrays.asList(JCA, HTTP) : Arrays.asList(HTTP, JCA),
+                                new ManagedResourceStore.Action<Void>() {
+                            public Void execute(final ManagedResource root) {
+                                return null;
+                            }
+                        });
+                        store.getAttribute(WEB, "name");
+                    }
+                    return null;
+                }
+            });
+        }
+        for(final Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    static ManagedResourceStore createStore() {
+        final MockManagedResource server = MockManagedResource.create("server[@name='default']");
+        final MockManagedResource web = server.add("subsystem[@name='web']");
+        web.add("connector[@name='http']");
+        server.add("subsystem[@name='jca']");
+        return new ManagedResourceStore(server);
+    }
+
+}
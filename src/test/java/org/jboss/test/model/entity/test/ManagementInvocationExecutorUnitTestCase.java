@@ -0,0 +1,172 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.entity.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.entity.EntityIdType;
+import org.jboss.model.entity.ManagedResource;
+import org.jboss.model.entity.ManagedResourceAddress;
+import org.jboss.model.entity.ManagedResourceStore;
+import org.jboss.model.entity.ManagementInvocation;
+import org.jboss.model.entity.ManagementInvocationExecutor;
+import org.jboss.model.entity.ManagementInvocationResult;
+import org.jboss.model.entity.ManagementOperationHandler;
+import org.jboss.model.entity.info.Impact;
+import org.jboss.model.entity.info.ManagedResourceInfo;
+import org.jboss.model.entity.info.ManagedResourceOperationInfo;
+import org.jboss.model.entity.info.builder.ModelEntityInfoBuilder;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.entity.support.MockManagedResource;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ManagementInvocationExecutorUnitTestCase extends TestCase {
+
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    public void testBatch() throws Exception {
+        final RecordingHandler handler = new RecordingHandler();
+        final ManagementInvocationExecutor invocationExecutor = new ManagementInvocationExecutor(createStore(8), handler, executor);
+
+        final List<ManagementInvocation> batch = new ArrayList<ManagementInvocation>();
+        for(int i = 0; i < 100; i++) {
+            batch.add(new ManagementInvocation(connector(i % 8), "echo", SimpleValueSupport.wrap(i)));
+        }
+        batch.add(new ManagementInvocation(connector(0), "echo", SimpleValueSupport.wrap("invalid")));
+        batch.add(new ManagementInvocation(connector(0), "unknown"));
+        batch.add(new ManagementInvocation(connector(9), "echo", SimpleValueSupport.wrap(1)));
+        batch.add(new ManagementInvocation(connector(1), "fail"));
+
+        final List<ManagementInvocationResult> results = invocationExecutor.execute(batch);
+        assertEquals(batch.size(), results.size());
+        for(int i = 0; i < 100; i++) {
+            final ManagementInvocationResult result = results.get(i);
+            assertTrue(result.isSuccess());
+            assertSame(batch.get(i), result.getInvocation());
+            assertEquals(i, result.getResult().as(SimpleValue.class).intValue());
+        }
+        // no matching signature
+        assertTrue(results.get(100).getFailure() instanceof IllegalArgumentException);
+        assertTrue(results.get(101).getFailure() instanceof IllegalArgumentException);
+        // no such entity
+        assertTrue(results.get(102).getFailure() instanceof IllegalArgumentException);
+        // failed in the handler
+        assertTrue(results.get(103).getFailure() instanceof UnsupportedOperationException);
+
+        assertEquals(101, handler.invocations.get());
+    }
+
+    public void testOrderWithinGroup() throws Exception {
+        final RecordingHandler handler = new RecordingHandler();
+        final ManagementInvocationExecutor invocationExecutor = new ManagementInvocationExecutor(createStore(1), handler, executor);
+        final List<ManagementInvocation> batch = new ArrayList<ManagementInvocation>();
+        for(int i = 0; i < 10; i++) {
+            batch.add(new ManagementInvocation(connector(0), "echo", SimpleValueSupport.wrap(i)));
+        }
+        invocationExecutor.execute(batch);
+        assertEquals(10, handler.order.size());
+        for(int i = 0; i < 10; i++) {
+            assertEquals(i, handler.order.get(i).intValue());
+        }
+        assertTrue(invocationExecutor.execute(Collections.<ManagementInvocation>emptyList()).isEmpty());
+    }
+
+    public void testErrors() throws Exception {
+        final RecordingHandler handler = new RecordingHandler();
+        final ManagementInvocationExecutor invocationExecutor = new ManagementInvocationExecutor(createStore(4), handler, executor);
+        final List<ManagementInvocation> batch = new ArrayList<ManagementInvocation>();
+        // the first group runs on the calling thread, the others on the executor
+        for(int i = 0; i < 4; i++) {
+            batch.add(new ManagementInvocation(connector(i), "error"));
+            batch.add(new ManagementInvocation(connector(i), "echo", SimpleValueSupport.wrap(i)));
+        }
+        final List<ManagementInvocationResult> results = invocationExecutor.execute(batch);
+        for(int i = 0; i < 4; i++) {
+            assertTrue(results.get(2 * i).getFailure() instanceof AssertionError);
+            assertTrue(results.get(2 * i + 1).isSuccess());
+            assertEquals(i, results.get(2 * i + 1).getResult().as(SimpleValue.class).intValue());
+        }
+        assertEquals(8, handler.invocations.get());
+    }
+
+    static ManagedResourceAddress connector(final int i) {
+        return ManagedResourceAddress.fromString("connector[@name='c" + i + "']");
+    }
+
+    static ManagedResourceStore createStore(final int connectors) {
+        final ModelEntityInfoBuilder builder = ModelEntityInfoBuilder.create(EntityIdType.create("connector"));
+        builder.addOperation("echo").setReturnType(SimpleMetaType.INTEGER).setImpact(Impact.READ_ONLY)
+                .addParamter("value").setParameterType(SimpleMetaType.INTEGER);
+        builder.addOperation("fail").setReturnType(SimpleMetaType.VOID).setImpact(Impact.WRITE_ONLY);
+        builder.addOperation("error").setReturnType(SimpleMetaType.VOID).setImpact(Impact.WRITE_ONLY);
+        final ManagedResourceInfo info = builder.create();
+
+        final MockManagedResource server = MockManagedResource.create("server[@name='default']");
+        for(int i = 0; i < connectors; i++) {
+            server.addChild(new ManagedResource(ManagedResourceAddress.fromRelativeAddress(server.getAddress(), connector(i)), info));
+        }
+        return new ManagedResourceStore(server);
+    }
+
+    static class RecordingHandler implements ManagementOperationHandler {
+
+        final AtomicInteger invocations = new AtomicInteger();
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+
+        public MetaValue invoke(final ManagedResource resource, final ManagedResourceOperationInfo operation, final MetaValue[] params) {
+            invocations.incrementAndGet();
+            if("fail".equals(operation.getName())) {
+                throw new UnsupportedOperationException();
+            }
+            if("error".equals(operation.getName())) {
+                throw new AssertionError("error");
+            }
+            final int value = params[0].as(SimpleValue.class).intValue();
+            order.add(Integer.valueOf(value));
+            return SimpleValueSupport.wrap(value);
+        }
+    }
+
+}
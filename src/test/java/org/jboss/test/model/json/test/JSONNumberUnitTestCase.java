@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.json.test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.json.JSONArray;
+import org.jboss.model.json.JSONMetaValueReader;
+import org.jboss.model.json.JSONMetaValueTransformer;
+import org.jboss.model.json.JSONObject;
+import org.jboss.model.json.JSONTokener;
+import org.jboss.model.types.CollectionMetaType;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.types.builders.MetaTypeFactory;
+import org.jboss.model.values.CollectionValue;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.test.model.json.test.JSONTokenerUnitTestCase.SlowReader;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class JSONNumberUnitTestCase extends TestCase {
+
+    static final String[] TOKENS = new String[] {
+        "0", "-0", "1", "-1", "007", "123456789", "2147483647", "2147483648", "-2147483649",
+        "123456789012345678", "1234567890123456789", "9223372036854775807", "99999999999999999999",
+        "1.5", "-1.5", "0.1", "-0.0", "1e5", "1E-5", "1.e3", "1.", "2.5e+10", "1e999", "1e-999",
+        "1.7976931348623157e308", "4.9e-324", "123456789.123456789", "0.30000000000000004",
+        "0x1F", "12abc", "1 2", "1 ", "-", "1e", "1e+", "-.5", "1.5d",
+    };
+
+    public void testTokens() throws Exception {
+        for(final String token : TOKENS) {
+            final Object expected = JSONObject.stringToValue(token.trim());
+            final String text = "[" + token + "]";
+            assertEquals(token, expected, new JSONArray(new JSONTokener(text)).get(0));
+            assertEquals(token, expected, new JSONArray(new JSONTokener(new SlowReader(text))).get(0));
+            assertEquals(token, expected, new JSONTokener(token).nextValue());
+        }
+    }
+
+    public void testRandomDoubles() throws Exception {
+        final Random random = new Random(42);
+        for(int i = 0; i < 10000; i++) {
+            final String s;
+            if(i % 2 == 0) {
+                s = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+            } else {
+                s = BigDecimal.valueOf(random.nextInt()).movePointLeft(random.nextInt(12)).toPlainString();
+            }
+            final Object expected = JSONObject.stringToValue(s);
+            assertEquals(s, expected, new JSONTokener(s).nextValue());
+        }
+    }
+
+    public void testTypedReader() throws Exception {
+        final CompositeMetaType type = MetaTypeFactory.compositeTypeBuilder("numbers", "numbers")
+            .addItem("i", SimpleMetaType.INTEGER_PRIMITIVE)
+            .addItem("l", SimpleMetaType.LONG)
+            .addItem("d", SimpleMetaType.DOUBLE_PRIMITIVE)
+            .addItem("f", SimpleMetaType.FLOAT)
+            .addItem("s", SimpleMetaType.SHORT)
+            .addItem("b", SimpleMetaType.BYTE_PRIMITIVE)
+            .addItem("str", SimpleMetaType.STRING)
+            .addItem("dl", SimpleMetaType.LONG)
+            .addItem("big", SimpleMetaType.LONG)
+            .create();
+        final String text = "{\"i\":42,\"l\":5000000000,\"d\":1.25,\"f\":0.5,\"s\":-7,\"b\":3,\"str\":12,\"dl\":2.0,\"big\":-9223372036854775808}";
+        final CompositeValue value = new JSONMetaValueReader(text).read(type).as(CompositeValue.class);
+        final CompositeValue transformed = JSONMetaValueTransformer.getInstance().transform(new JSONObject(text), type).as(CompositeValue.class);
+        for(final CompositeValue v : new CompositeValue[] { value, transformed }) {
+            assertSimple(SimpleMetaType.INTEGER_PRIMITIVE, Integer.valueOf(42), v.get("i"));
+            assertSimple(SimpleMetaType.LONG, Long.valueOf(5000000000L), v.get("l"));
+            assertSimple(SimpleMetaType.DOUBLE_PRIMITIVE, Double.valueOf(1.25), v.get("d"));
+            assertSimple(SimpleMetaType.FLOAT, Float.valueOf(0.5f), v.get("f"));
+            assertSimple(SimpleMetaType.SHORT, Short.valueOf((short) -7), v.get("s"));
+            assertSimple(SimpleMetaType.BYTE_PRIMITIVE, Byte.valueOf((byte) 3), v.get("b"));
+            assertSimple(SimpleMetaType.STRING, "12", v.get("str"));
+            assertSimple(SimpleMetaType.LONG, Long.valueOf(2), v.get("dl"));
+            assertSimple(SimpleMetaType.LONG, Long.valueOf(Long.MIN_VALUE), v.get("big"));
+        }
+    }
+
+    public void testTypedCollection() throws Exception {
+        final CollectionMetaType type = MetaTypeFactory.createCollectionType("samples", SimpleMetaType.DOUBLE_PRIMITIVE);
+        final StringBuilder builder = new StringBuilder("[");
+        for(int i = 0; i < 1000; i++) {
+            if(i > 0) {
+                builder.append(", ");
+            }
+            builder.append(i).append('.').append(i % 10);
+        }
+        builder.append(']');
+        final CollectionValue value = new JSONMetaValueReader(new SlowReader(builder.toString())).read(type).as(CollectionValue.class);
+        assertEquals(1000, value.size());
+        int i = 0;
+        for(final MetaValue element : value) {
+            assertSimple(SimpleMetaType.DOUBLE_PRIMITIVE, Double.valueOf(i + "." + (i % 10)), element);
+            i++;
+        }
+    }
+
+    static void assertSimple(final SimpleMetaType type, final Object expected, final MetaValue value) {
+        assertNotNull(value);
+        assertEquals(type, value.getMetaType());
+        assertEquals(expected, value.as(SimpleValue.class).getValue());
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.json.test;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.json.JSONObject;
+import org.jboss.model.json.MetaValueJSONTransformer;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.builders.MetaTypeFactory;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.MetaValueFactory;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class JSONObjectOrderUnitTestCase extends TestCase {
+
+    public void testInsertionOrder() throws Exception {
+        final JSONObject json = new JSONObject();
+        for(int i = 20; i > 0; i--) {
+            json.put("key" + i, i);
+        }
+        assertEquals(20, json.length());
+        final Iterator<?> keys = json.keys();
+        for(int i = 20; i > 0; i--) {
+            assertEquals("key" + i, keys.next());
+            assertEquals(i, json.getInt("key" + i));
+        }
+        assertFalse(keys.hasNext());
+
+        // replacing keeps the position
+        json.put("key20", "x");
+        assertEquals("key20", json.keys().next());
+
+        // remove, small and large
+        for(int i = 1; i <= 15; i++) {
+            assertEquals(Integer.valueOf(i), json.remove("key" + i));
+            assertFalse(json.has("key" + i));
+        }
+        assertEquals(5, json.length());
+        assertEquals("{\"key20\":\"x\",\"key19\":19,\"key18\":18,\"key17\":17,\"key16\":16}", json.toString());
+        assertNull(json.remove("key1"));
+    }
+
+    public void testIteratorRemove() throws Exception {
+        final JSONObject json = new JSONObject("{\"a\":1,\"b\":2,\"c\":3}");
+        final Iterator<?> keys = json.keys();
+        assertEquals("a", keys.next());
+        assertEquals("b", keys.next());
+        keys.remove();
+        assertEquals("c", keys.next());
+        assertFalse(keys.hasNext());
+        assertEquals("{\"a\":1,\"c\":3}", json.toString());
+    }
+
+    public void testCompositeOrder() throws Exception {
+        final CompositeMetaType type = MetaTypeFactory.compositeTypeBuilder("test", "test")
+            .addItem("b", MetaTypeFactory.STRING)
+            .addItem("a", MetaTypeFactory.INTEGER)
+            .addItem("c", MetaTypeFactory.BOOLEAN)
+            .create();
+        final CompositeValue value = MetaValueFactory.create(type);
+        value.set("a", MetaValueFactory.create(1));
+        value.set("b", MetaValueFactory.create("b"));
+        value.set("c", MetaValueFactory.create(true));
+        final JSONObject json = (JSONObject) MetaValueJSONTransformer.getInstance().transform(value, type);
+        final Iterator<?> keys = json.keys();
+        for(final String itemName : type.itemSet()) {
+            assertEquals(itemName, keys.next());
+        }
+        assertFalse(keys.hasNext());
+    }
+
+}
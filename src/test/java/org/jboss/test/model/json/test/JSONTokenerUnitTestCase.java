@@ -0,0 +1,180 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.json.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.json.JSONArray;
+import org.jboss.model.json.JSONException;
+import org.jboss.model.json.JSONObject;
+import org.jboss.model.json.JSONTokener;
+import org.jboss.model.json.UTF8JSONTokener;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class JSONTokenerUnitTestCase extends TestCase {
+
+    private static final String TEXT = "{\"name\" : \"caf\\u00e9 \\\"x\\\"\", 'port': 8080, \"list\": [1, 2.5, true, null, \"\u00fc\u20ac\ud83d\ude00\"], key : value}";
+
+    public void testString() throws Exception {
+        assertParsed(new JSONObject(new JSONTokener(TEXT)));
+    }
+
+    public void testReader() throws Exception {
+        // a reader returning one char at a time crosses every buffer boundary
+        assertParsed(new JSONObject(new JSONTokener(new SlowReader(TEXT))));
+    }
+
+    public void testUTF8() throws Exception {
+        final byte[] bytes = TEXT.getBytes("UTF-8");
+        assertParsed(new JSONObject(new UTF8JSONTokener(bytes)));
+        assertParsed(new JSONObject(new UTF8JSONTokener(new ByteArrayInputStream(bytes))));
+        assertParsed(new JSONObject(new UTF8JSONTokener(new SlowInputStream(bytes))));
+    }
+
+    public void testMalformedUTF8() throws Exception {
+        final byte[] bytes = { '[', '"', 'a', (byte) 0xC3, (byte) 0xFF, '"', ']' };
+        final JSONArray array = new JSONArray(new UTF8JSONTokener(bytes));
+        assertEquals("a\ufffd\ufffd", array.getString(0));
+    }
+
+    public void testInternedKeys() throws Exception {
+        final JSONArray array = new JSONArray(new JSONTokener("[{\"name\":1},{\"name\":2}]"));
+        final String first = (String) array.getJSONObject(0).keys().next();
+        final String second = (String) array.getJSONObject(1).keys().next();
+        assertEquals("name", first);
+        assertSame(first, second);
+    }
+
+    public void testLongString() throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < 20000; i++) {
+            builder.append((char) ('a' + i % 26));
+            if(i % 1000 == 0) {
+                builder.append("\\n");
+            }
+        }
+        final String value = builder.toString();
+        final JSONArray array = new JSONArray(new JSONTokener(new SlowReader("[\"" + value + "\"]")));
+        assertEquals(value.replace("\\n", "\n"), array.getString(0));
+    }
+
+    public void testErrors() throws Exception {
+        try {
+            new JSONObject(new JSONTokener("{\"a\":\"b"));
+            fail("unterminated string");
+        } catch (JSONException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Unterminated string"));
+        }
+        try {
+            new JSONObject(new JSONTokener("{\n\"a\":\"b\n\"}"));
+            fail("unterminated string");
+        } catch (JSONException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("line 3]"));
+        }
+        try {
+            new JSONArray(new JSONTokener("[1,"));
+            fail("missing value");
+        } catch (JSONException e) {
+            //
+        }
+    }
+
+    public void testBack() throws Exception {
+        final JSONTokener x = new JSONTokener(new SlowReader("ab\ncd"));
+        assertEquals('a', x.next());
+        x.back();
+        try {
+            x.back();
+            fail("two steps");
+        } catch (JSONException e) {
+            //
+        }
+        assertEquals('a', x.next());
+        assertEquals('d', x.skipTo('d'));
+        assertEquals('d', x.next());
+        assertEquals(0, x.next());
+        assertTrue(x.end());
+        x.back();
+        assertFalse(x.end());
+        assertEquals(0, x.skipTo('x'));
+        assertFalse(x.more());
+    }
+
+    static void assertParsed(final JSONObject object) throws JSONException {
+        assertEquals("caf\u00e9 \"x\"", object.getString("name"));
+        assertEquals(8080, object.getInt("port"));
+        assertEquals("value", object.getString("key"));
+        final JSONArray list = object.getJSONArray("list");
+        assertEquals(5, list.length());
+        assertEquals(1, list.getInt(0));
+        assertEquals(2.5, list.getDouble(1));
+        assertTrue(list.getBoolean(2));
+        assertTrue(list.isNull(3));
+        assertEquals("\u00fc\u20ac\ud83d\ude00", list.getString(4));
+    }
+
+    static class SlowReader extends Reader {
+        private final StringReader delegate;
+
+        SlowReader(final String s) {
+            this.delegate = new StringReader(s);
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            return delegate.read(cbuf, off, Math.min(len, 1));
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    static class SlowInputStream extends InputStream {
+        private final ByteArrayInputStream delegate;
+
+        SlowInputStream(final byte[] bytes) {
+            this.delegate = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            return delegate.read(b, off, Math.min(len, 1));
+        }
+    }
+
+}
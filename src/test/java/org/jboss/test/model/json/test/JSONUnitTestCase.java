@@ -22,16 +22,38 @@
 
 package org.jboss.test.model.json.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
 import junit.framework.TestCase;
 
+import org.jboss.model.json.JSONArray;
+import org.jboss.model.json.JSONException;
+import org.jboss.model.json.JSONMetaValueReader;
 import org.jboss.model.json.JSONMetaValueTransformer;
 import org.jboss.model.json.JSONObject;
 import org.jboss.model.json.MetaValueJSONTransformer;
+import org.jboss.model.json.MetaValueJSONWriter;
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.CollectionMetaType;
 import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MutableCompositeMetaType;
+import org.jboss.model.types.TableMetaType;
 import org.jboss.model.types.builders.MetaTypeFactory;
+import org.jboss.model.values.ArrayValue;
+import org.jboss.model.values.CollectionValue;
 import org.jboss.model.values.CompositeValue;
 import org.jboss.model.values.MetaValue;
 import org.jboss.model.values.MetaValueFactory;
+import org.jboss.model.values.TableValue;
 
 /**
  * @author Emanuel Muckenhuber
@@ -92,5 +114,203 @@ public class JSONUnitTestCase extends TestCase {
         assertEquals(MetaValueFactory.create("public"), rValues.get("interface-name"));
     }
 
+    public void testStreamingComposite() throws Exception {
+        final CompositeValue value = createBinding("http", 8080);
+        value.set("interface-name", null);
+
+        final String jsonText = write(value, TYPE);
+        assertEquals("{\"fixed-port\":false,\"name\":\"http\",\"port\":8080}", jsonText);
+
+        final MetaValue recreated = JSONMetaValueTransformer.getInstance().transform(new JSONObject(jsonText), TYPE);
+        assertEquals(value, recreated);
+    }
+
+    public void testStreamingTable() throws Exception {
+        final TableMetaType type = MetaTypeFactory.tableTypeBuilder("socket-bindings")
+            .addIndexColumn("name", MetaTypeFactory.STRING)
+            .addColumn("port", MetaTypeFactory.INTEGER)
+            .addColumn("fixed-port", MetaTypeFactory.BOOLEAN)
+            .addColumn("interface-name", MetaTypeFactory.STRING)
+            .create();
+        final TableValue table = MetaValueFactory.create(type);
+        for(int i = 0; i < 10; i++) {
+            final CompositeValue row = MetaValueFactory.create(type.getRowType());
+            row.set("name", MetaValueFactory.create("binding-" + i));
+            row.set("port", MetaValueFactory.create(8080 + i));
+            row.set("fixed-port", MetaValueFactory.create(i % 2 == 0));
+            row.set("interface-name", MetaValueFactory.create("public \"" + i + "\""));
+            table.put(row);
+        }
+
+        final String jsonText = write(table, type);
+        final JSONArray expected = (JSONArray) MetaValueJSONTransformer.getInstance().transform(table, type);
+        assertEquals(expected.length(), new JSONArray(jsonText).length());
+
+        final MetaValue recreated = JSONMetaValueTransformer.getInstance().transform(new JSONArray(jsonText), type);
+        assertEquals(table, recreated);
+    }
+
+    public void testStreamingCollectionAndArray() throws Exception {
+        final CollectionMetaType collectionType = MetaTypeFactory.createCollectionType("bindings", TYPE);
+        final CollectionValue collection = MetaValueFactory.create(collectionType);
+        collection.add(createBinding("http", 8080));
+        collection.add(createBinding("https", 8443));
+        final String collectionText = write(collection, collectionType);
+        assertEquals(MetaValueJSONTransformer.getInstance().transform(collection, collectionType).toString().length(), collectionText.length());
+        assertEquals(collection, JSONMetaValueTransformer.getInstance().transform(new JSONArray(collectionText), collectionType));
+
+        final ArrayValue array = MetaValueFactory.createSimpleArray(new Object[] { 1.5d, 2d, 3.25d }, MetaTypeFactory.DOUBLE);
+        final ArrayMetaType arrayType = array.getMetaType();
+        assertEquals("[1.5,2,3.25]", write(array, arrayType));
+        assertEquals(MetaValueJSONTransformer.getInstance().transform(array, arrayType).toString(), write(array, arrayType));
+    }
+
+    public void testStreamingBytes() throws Exception {
+        final TableMetaType type = MetaTypeFactory.tableTypeBuilder("escaped")
+            .addIndexColumn("na\"me", MetaTypeFactory.STRING)
+            .addColumn("gr\u00fc\u00dfe", MetaTypeFactory.INTEGER)
+            .addColumn("</tag>", MetaTypeFactory.DOUBLE)
+            .create();
+        final TableValue table = MetaValueFactory.create(type);
+        for(int i = 0; i < 1000; i++) {
+            final CompositeValue row = MetaValueFactory.create(type.getRowType());
+            row.set("na\"me", MetaValueFactory.create("row-\u20ac" + i));
+            row.set("gr\u00fc\u00dfe", MetaValueFactory.create(i));
+            row.set("</tag>", MetaValueFactory.create(i / 4d));
+            table.put(row);
+        }
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new MetaValueJSONWriter(os).write(table, type).flush();
+        final String jsonText = os.toString("UTF-8");
+        assertEquals(write(table, type), jsonText);
+        assertEquals(MetaValueJSONTransformer.getInstance().transform(table, type).toString(), jsonText);
+        assertEquals(table, new JSONMetaValueReader(new ByteArrayInputStream(os.toByteArray())).read(type));
+    }
+
+    public void testParallel() throws Exception {
+        final TableMetaType type = MetaTypeFactory.tableTypeBuilder("metrics")
+            .addIndexColumn("name", MetaTypeFactory.STRING)
+            .addColumn("value", MetaTypeFactory.DOUBLE)
+            .create();
+        final TableValue table = MetaValueFactory.create(type);
+        final CollectionMetaType collectionType = MetaTypeFactory.createCollectionType("names", MetaTypeFactory.STRING);
+        final CollectionValue collection = MetaValueFactory.create(collectionType);
+        for(int i = 0; i < 1050; i++) {
+            final CompositeValue row = MetaValueFactory.create(type.getRowType());
+            row.set("name", MetaValueFactory.create("metric-\u00e4" + i));
+            row.set("value", MetaValueFactory.create(i * 1.5d));
+            table.put(row);
+            collection.add(MetaValueFactory.create("name-" + i));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for(final int threshold : new int[] { 1, 100, 1050, 2000 }) {
+                final StringWriter writer = new StringWriter();
+                new MetaValueJSONWriter(writer).setExecutor(executor, threshold).write(table, type).flush();
+                assertEquals(write(table, type), writer.toString());
+
+                final ByteArrayOutputStream os = new ByteArrayOutputStream();
+                new MetaValueJSONWriter(os).setExecutor(executor, threshold).write(collection, collectionType).flush();
+                assertEquals(write(collection, collectionType), os.toString("UTF-8"));
+            }
+            for(final int chunkSize : new int[] { 1, 7, 100, 2000 }) {
+                final StringWriter writer = new StringWriter();
+                new MetaValueJSONWriter(writer).setExecutor(executor, 1, chunkSize, 2).write(table, type).flush();
+                assertEquals(write(table, type), writer.toString());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // rejected chunks are encoded by the writing thread
+        final Executor rejecting = new Executor() {
+            public void execute(final Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        };
+        final StringWriter rejected = new StringWriter();
+        new MetaValueJSONWriter(rejected).setExecutor(rejecting, 1, 10, 2).write(table, type).flush();
+        assertEquals(write(table, type), rejected.toString());
+
+        // as are chunks not started by a saturated executor
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        final Executor saturated = new Executor() {
+            public void execute(final Runnable command) {
+                queued.add(command);
+            }
+        };
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new MetaValueJSONWriter(os).setExecutor(saturated, 1, 10, 2).write(collection, collectionType).flush();
+        assertEquals(write(collection, collectionType), os.toString("UTF-8"));
+        assertEquals(105, queued.size());
+    }
+
+    public void testMutableComposite() throws Exception {
+        final MutableCompositeMetaType type = new MutableCompositeMetaType("mutable", "mutable");
+        type.addItem("a", "a", MetaTypeFactory.STRING);
+        final CompositeValue value = MetaValueFactory.create(type);
+        value.set("a", MetaValueFactory.create("a"));
+        assertEquals("{\"a\":\"a\"}", write(value, type));
+
+        // items added later on are picked up, as long as the type is not frozen
+        type.addItem("b", "b", MetaTypeFactory.INTEGER);
+        final CompositeValue other = MetaValueFactory.create(type);
+        other.set("a", MetaValueFactory.create("a"));
+        other.set("b", MetaValueFactory.create(1));
+        assertEquals("{\"a\":\"a\",\"b\":1}", write(other, type));
+        assertEquals("{\"a\":\"a\",\"b\":1}", MetaValueJSONTransformer.getInstance().transform(other, type).toString());
+    }
+
+    public void testReaderComposite() throws Exception {
+        final String jsonText = "{\"name\":\"http\", \"port\":8080, \"fixed-port\":false, 'interface-name':\"public\"}";
+        final MetaValue value = new JSONMetaValueReader(jsonText).read(TYPE);
+        assertEquals(createBinding("http", 8080), value);
+
+        final CompositeValue partial = new JSONMetaValueReader("{\"name\":\"http\",\"port\":null}").read(TYPE).as(CompositeValue.class);
+        assertEquals(MetaValueFactory.create("http"), partial.get("name"));
+        assertNull(partial.get("port"));
+    }
+
+    public void testReaderRoundTrip() throws Exception {
+        final CollectionMetaType type = MetaTypeFactory.createCollectionType("bindings", TYPE);
+        final CollectionValue collection = MetaValueFactory.create(type);
+        for(int i = 0; i < 10; i++) {
+            collection.add(createBinding("binding-" + i, 8080 + i));
+        }
+        final MetaValue recreated = new JSONMetaValueReader(write(collection, type)).read(type);
+        assertEquals(collection, recreated);
+    }
+
+    public void testReaderRejectsInvalidInput() throws Exception {
+        assertRejected("{\"name\":\"http\",\"unknown\":1}", TYPE);
+        assertRejected("{\"name\":\"http\",\"name\":\"https\"}", TYPE);
+        assertRejected("{\"name\":{\"nested\":true}}", TYPE);
+        assertRejected("{\"port\":\"http\"}", TYPE);
+        assertRejected("[1,2,3]", TYPE);
+    }
+
+    static void assertRejected(final String jsonText, final MetaType metaType) {
+        try {
+            new JSONMetaValueReader(jsonText).read(metaType);
+            fail("should have rejected " + jsonText);
+        } catch(JSONException expected) {
+            //
+        }
+    }
+
+    static CompositeValue createBinding(final String name, final int port) {
+        final CompositeValue value = MetaValueFactory.create(TYPE);
+        value.set("name", MetaValueFactory.create(name));
+        value.set("port", MetaValueFactory.create(port));
+        value.set("fixed-port", MetaValueFactory.create(false));
+        value.set("interface-name", MetaValueFactory.create("public"));
+        return value;
+    }
+
+    static String write(final MetaValue value, final MetaType metaType) throws Exception {
+        final StringWriter writer = new StringWriter();
+        new MetaValueJSONWriter(writer).write(value, metaType).flush();
+        return writer.toString();
+    }
 
 }
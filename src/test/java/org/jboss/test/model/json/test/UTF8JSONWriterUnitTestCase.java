@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.json.test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.json.JSONException;
+import org.jboss.model.json.JSONStringer;
+import org.jboss.model.json.JSONWriter;
+import org.jboss.model.json.UTF8JSONWriter;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class UTF8JSONWriterUnitTestCase extends TestCase {
+
+    static final String[] STRINGS = new String[] {
+        "", "simple", "quote\"back\\slash/", "</script>", "\b\f\n\r\t\u0001\u001f",
+        "gr\u00fc\u00dfe", "\u0085\u009f\u2028", "\u20ac\u4e2d", "\ud83d\ude00",
+    };
+
+    static final long[] LONGS = new long[] {
+        0, 1, -1, 9, 10, -10, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE
+    };
+
+    static final double[] DOUBLES = new double[] {
+        0.0, 1.5, -1.5, 5.0, -5.0, 9999999.0, 1e7, 1e21, 1.0E-5, 0.1, -0.0, Double.MIN_VALUE, Double.MAX_VALUE
+    };
+
+    public void testStrings() throws Exception {
+        for(final String s : STRINGS) {
+            compare(s);
+        }
+    }
+
+    public void testNumbers() throws Exception {
+        for(final long l : LONGS) {
+            compare(Long.valueOf(l));
+            compare(Integer.valueOf((int) l));
+        }
+        for(final double d : DOUBLES) {
+            compare(Double.valueOf(d));
+            if(Float.isInfinite((float) d) == false) {
+                compare(Float.valueOf((float) d));
+            }
+        }
+    }
+
+    public void testStructure() throws Exception {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        final UTF8JSONWriter utf8 = new UTF8JSONWriter(os);
+        write(utf8);
+        utf8.flush();
+
+        final JSONStringer stringer = new JSONStringer();
+        write(stringer);
+        assertEquals(stringer.toString(), os.toString("UTF-8"));
+    }
+
+    public void testChannel() throws Exception {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        final UTF8JSONWriter utf8 = new UTF8JSONWriter(Channels.newChannel(os));
+        write(utf8);
+        utf8.close();
+
+        final JSONStringer stringer = new JSONStringer();
+        write(stringer);
+        assertEquals(stringer.toString(), os.toString("UTF-8"));
+    }
+
+    public void testLargeOutput() throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < 5000; i++) {
+            builder.append("\u00e4bc\u20ac\ud83d\ude00");
+        }
+        compare(builder.toString());
+    }
+
+    public void testSmallBuffer() throws Exception {
+        for(final int bufferSize : new int[] { 0, 1, 16, 21 }) {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            final UTF8JSONWriter utf8 = new UTF8JSONWriter(os, bufferSize);
+            write(utf8);
+            utf8.flush();
+
+            final JSONStringer stringer = new JSONStringer();
+            write(stringer);
+            assertEquals(stringer.toString(), os.toString("UTF-8"));
+        }
+    }
+
+    public void testUnpairedSurrogate() throws Exception {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        final UTF8JSONWriter utf8 = new UTF8JSONWriter(os);
+        utf8.array().value("x\ud800y").value("\udc00").endArray();
+        utf8.flush();
+        assertEquals("[\"x?y\",\"?\"]", os.toString("UTF-8"));
+    }
+
+    public void testNonFinite() throws Exception {
+        final UTF8JSONWriter utf8 = new UTF8JSONWriter(new ByteArrayOutputStream());
+        utf8.array();
+        try {
+            utf8.value(Double.NaN);
+            fail("non-finite");
+        } catch (JSONException expected) {
+            //
+        }
+    }
+
+    static void write(final JSONWriter writer) throws JSONException {
+        writer.object();
+        writer.key("strings").array();
+        for(final String s : STRINGS) {
+            writer.value(s);
+        }
+        writer.endArray();
+        writer.key("longs").array();
+        for(final long l : LONGS) {
+            writer.value(l);
+        }
+        writer.endArray();
+        writer.key("doubles").array();
+        for(final double d : DOUBLES) {
+            writer.value(d);
+        }
+        writer.endArray();
+        writer.key("bool").value(true);
+        writer.key("null").value(null);
+        writer.key("\u00fcber").object().key("nested").array().array().endArray().endArray().endObject();
+        writer.endObject();
+    }
+
+    static void compare(final Object value) throws Exception {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        final UTF8JSONWriter utf8 = new UTF8JSONWriter(os);
+        utf8.array().value(value).endArray();
+        utf8.flush();
+        final String expected = new JSONStringer().array().value(value).endArray().toString();
+        assertEquals(expected, os.toString("UTF-8"));
+    }
+
+}
@@ -96,4 +96,29 @@ public class MockSimpleValue extends MockMetaValue implements SimpleValue {
     public Number asNumber() {
         return null;
     }
+
+    /** {@inheritDocs} */
+    public int intValue() {
+        return 0;
+    }
+
+    /** {@inheritDocs} */
+    public long longValue() {
+        return 0;
+    }
+
+    /** {@inheritDocs} */
+    public float floatValue() {
+        return 0;
+    }
+
+    /** {@inheritDocs} */
+    public double doubleValue() {
+        return 0;
+    }
+
+    /** {@inheritDocs} */
+    public boolean booleanValue() {
+        return false;
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.types.test;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.CollectionMetaType;
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.EnumMetaType;
+import org.jboss.model.types.ImmutableCompositeMetaType;
+import org.jboss.model.types.MetaType;
+import org.jboss.model.types.MetaTypeValidator;
+import org.jboss.model.types.MetaTypeValidators;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.CollectionValueSupport;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.CompositeValueSupport;
+import org.jboss.model.values.EnumValueSupport;
+import org.jboss.model.values.SimpleValueSupport;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class MetaTypeValidatorUnitTestCase extends TestCase {
+
+    public void testCached() {
+        final MetaTypeValidator validator = MetaTypeValidators.get(SimpleMetaType.STRING);
+        assertSame(validator, MetaTypeValidators.get(SimpleMetaType.STRING));
+        assertSame(SimpleMetaType.STRING, validator.getMetaType());
+        final CompositeMetaType type = createComposite("test");
+        assertSame(MetaTypeValidators.get(type), MetaTypeValidators.get(type));
+    }
+
+    public void testSimple() {
+        final MetaTypeValidator validator = MetaTypeValidators.get(SimpleMetaType.STRING);
+        assertTrue(validator.isValue(SimpleValueSupport.wrap("test")));
+        assertTrue(validator.isValue((Object) SimpleValueSupport.wrap("test")));
+        assertFalse(validator.isValue(SimpleValueSupport.wrap(1)));
+        assertFalse(validator.isValue(null));
+        assertFalse(validator.isValue("test"));
+    }
+
+    public void testComposite() {
+        final CompositeMetaType type = createComposite("test");
+        final MetaTypeValidator validator = MetaTypeValidators.get(type);
+        // equal, but not the same type
+        final CompositeMetaType other = createComposite("test");
+        for(int i = 0; i < 2; i++) {
+            assertTrue(validator.isValue(createValue(other)));
+            assertTrue(validator.isValue(createValue(type)));
+            assertFalse(validator.isValue(createValue(createComposite("other"))));
+        }
+    }
+
+    public void testArray() {
+        final CompositeMetaType type = createComposite("test");
+        final ArrayMetaType arrayType = new ArrayMetaType(1, type);
+        final MetaTypeValidator validator = MetaTypeValidators.get(arrayType);
+        assertTrue(validator.isValue(new CompositeValue[] { createValue(type), null }));
+        assertFalse(validator.isValue(new CompositeValue[] { createValue(createComposite("other")) }));
+        assertFalse(validator.isValue(new Object[] { createValue(type) }));
+        assertFalse(validator.isValue(createValue(type)));
+    }
+
+    public void testNestedArray() {
+        final ArrayMetaType arrayType = new ArrayMetaType(2, SimpleMetaType.STRING);
+        final MetaTypeValidator validator = MetaTypeValidators.get(arrayType);
+        final Object[][] valid = new Object[][] { { SimpleValueSupport.wrap("a"), null }, { SimpleValueSupport.wrap("b") } };
+        final Object[][] invalid = new Object[][] { { SimpleValueSupport.wrap("a") }, { SimpleValueSupport.wrap(1) } };
+        for(int i = 0; i < 2; i++) {
+            assertTrue(validator.isValue(valid));
+            assertFalse(validator.isValue(invalid));
+            assertEquals(arrayType.isValue(valid), validator.isValue(valid));
+            assertEquals(arrayType.isValue(invalid), validator.isValue(invalid));
+        }
+        assertFalse(validator.isValue("a"));
+        assertFalse(validator.isValue(SimpleValueSupport.wrap("a")));
+    }
+
+    public void testEnum() {
+        final EnumMetaType type = new EnumMetaType(String.class.getName(), Arrays.asList("a", "b"));
+        final MetaTypeValidator validator = MetaTypeValidators.get(type);
+        assertTrue(validator.isValue((Object) new EnumValueSupport(type, "a")));
+        assertTrue(validator.isValue((Object) SimpleValueSupport.wrap("b")));
+        assertFalse(validator.isValue((Object) SimpleValueSupport.wrap("c")));
+    }
+
+    public void testCollection() {
+        final CollectionMetaType type = new CollectionMetaType("java.util.List", SimpleMetaType.INTEGER);
+        final CollectionValueSupport value = new CollectionValueSupport(type);
+        value.add(SimpleValueSupport.wrap(1));
+        try {
+            value.add(SimpleValueSupport.wrap("1"));
+            fail("invalid element");
+        } catch (IllegalArgumentException ok) {
+            //
+        }
+        assertTrue(MetaTypeValidators.get(type).isValue(value));
+        assertTrue(MetaTypeValidators.get(type).isValue(Arrays.asList(SimpleValueSupport.wrap(2))));
+        assertFalse(MetaTypeValidators.get(type).isValue(Arrays.asList(SimpleValueSupport.wrap("2"))));
+    }
+
+    static CompositeMetaType createComposite(final String name) {
+        return new ImmutableCompositeMetaType(name, "description", new String[] { "name", "value" },
+                new String[] { "name", "value" }, new MetaType[] { SimpleMetaType.STRING, SimpleMetaType.INTEGER });
+    }
+
+    static CompositeValue createValue(final CompositeMetaType type) {
+        final CompositeValueSupport value = new CompositeValueSupport(type);
+        value.set("name", SimpleValueSupport.wrap("test"));
+        value.set("value", SimpleValueSupport.wrap(1));
+        return value;
+    }
+
+}
@@ -227,6 +227,16 @@ public class SimpleMetaTypeUnitTestCase extends AbstractMetaTypeTest
       }
    }
 
+   public void testHasPrimitive() throws Exception {
+      assertTrue(SimpleMetaType.INTEGER_PRIMITIVE.hasPrimitive());
+      assertTrue(SimpleMetaType.INTEGER.hasPrimitive());
+      assertTrue(SimpleMetaType.BOOLEAN.hasPrimitive());
+      assertFalse(SimpleMetaType.INTEGER.isPrimitive());
+      assertFalse(SimpleMetaType.STRING.hasPrimitive());
+      assertFalse(SimpleMetaType.BIGDECIMAL.hasPrimitive());
+      assertFalse(SimpleMetaType.DATE.hasPrimitive());
+   }
+
    public void testBytePrimitives() throws Exception {
       assertEquals(SimpleMetaType.BYTE_PRIMITIVE, SimpleMetaType.isSimpleType(byte.class.getName()));
       SimpleMetaType byteType = SimpleMetaType.resolve("byte");
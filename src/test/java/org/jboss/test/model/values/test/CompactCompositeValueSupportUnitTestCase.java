@@ -0,0 +1,180 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.values.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.jboss.model.types.CompositeMetaType;
+import org.jboss.model.types.CompositeMetaTypeSlots;
+import org.jboss.model.types.MutableCompositeMetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.CompactCompositeValueSupport;
+import org.jboss.model.values.CompositeValue;
+import org.jboss.model.values.CompositeValueSupport;
+import org.jboss.model.values.MetaValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.AbstractMetaTypeTest;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class CompactCompositeValueSupportUnitTestCase extends AbstractMetaTypeTest {
+
+    public CompactCompositeValueSupportUnitTestCase(String name) {
+        super(name);
+    }
+
+    public void testSlots() throws Exception {
+        CompositeMetaType compositeMetaType = initCompositeMetaType();
+        assertTrue(CompositeMetaTypeSlots.hasSlots(compositeMetaType));
+        assertEquals(0, CompositeMetaTypeSlots.indexOf(compositeMetaType, "name1"));
+        assertEquals(1, CompositeMetaTypeSlots.indexOf(compositeMetaType, "name2"));
+        assertEquals(-1, CompositeMetaTypeSlots.indexOf(compositeMetaType, "unknown"));
+        assertEquals(SimpleMetaType.STRING, CompositeMetaTypeSlots.getType(compositeMetaType, 0));
+        assertEquals(SimpleMetaType.INTEGER, CompositeMetaTypeSlots.getType(compositeMetaType, 1));
+        assertNull(CompositeMetaTypeSlots.getType(compositeMetaType, 2));
+    }
+
+    public void testGetSet() throws Exception {
+        CompositeMetaType compositeMetaType = initCompositeMetaType();
+        CompactCompositeValueSupport v = new CompactCompositeValueSupport(compositeMetaType);
+        assertNull(v.get("name1"));
+        assertNull(v.get("name2"));
+        assertTrue(v.containsValue(null));
+
+        v.set("name2", initInteger2());
+        assertEquals(initInteger2(), v.get("name2"));
+        assertNull(v.get("name1"));
+        v.set("name1", initStringValue1());
+        assertEquals(initStringValue1(), v.get("name1"));
+        assertTrue(v.containsKey("name1"));
+        assertFalse(v.containsKey("unknown"));
+        assertTrue(v.containsValue(initInteger2()));
+        assertFalse(v.containsValue(null));
+
+        try {
+            v.get("unknown");
+            fail("unknown item");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+        try {
+            v.set("name1", initInteger2());
+            fail("wrong item type");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    public void testEquals() throws Exception {
+        CompositeMetaType compositeMetaType = initCompositeMetaType();
+        Map<String, MetaValue> map = initMapValues();
+        CompositeValue compact = new CompactCompositeValueSupport(compositeMetaType, map);
+        CompositeValue support = new CompositeValueSupport(compositeMetaType, map);
+        assertEquals(support, compact);
+        assertEquals(compact, support);
+        assertEquals(support.hashCode(), compact.hashCode());
+        assertEquals(new ArrayList<MetaValue>(support.values()), compact.values());
+        assertEquals(compact, new CompactCompositeValueSupport(compositeMetaType, initKeys(), initValues()));
+
+        compact.set("name2", initInteger3());
+        assertFalse(compact.equals(support));
+        assertFalse(compact.hashCode() == support.hashCode());
+    }
+
+    public void testMutableType() throws Exception {
+        MutableCompositeMetaType compositeMetaType = new MutableCompositeMetaType("mutable", "mutable");
+        compositeMetaType.addItem("b", "b", SimpleMetaType.STRING);
+        CompactCompositeValueSupport v = new CompactCompositeValueSupport(compositeMetaType);
+        v.set("b", SimpleValueSupport.wrap("b"));
+
+        compositeMetaType.addItem("a", "a", SimpleMetaType.INTEGER);
+        assertEquals(0, CompositeMetaTypeSlots.indexOf(compositeMetaType, "b"));
+        assertEquals(1, CompositeMetaTypeSlots.indexOf(compositeMetaType, "a"));
+        assertNull(v.get("a"));
+        v.set("a", SimpleValueSupport.wrap(1));
+        assertEquals(SimpleValueSupport.wrap("b"), v.get("b"));
+        assertEquals(SimpleValueSupport.wrap(1), v.get("a"));
+        // values are in item name order
+        assertEquals(SimpleValueSupport.wrap(1), v.values().iterator().next());
+    }
+
+    public void testClone() throws Exception {
+        CompositeMetaType compositeMetaType = initCompositeMetaType();
+        CompactCompositeValueSupport v = new CompactCompositeValueSupport(compositeMetaType, initMapValues());
+        CompactCompositeValueSupport clone = v.clone();
+        assertEquals(v, clone);
+        clone.set("name2", initInteger3());
+        assertEquals(initInteger2(), v.get("name2"));
+        assertEquals(initInteger3(), clone.get("name2"));
+    }
+
+    public void testSerialization() throws Exception {
+        CompositeMetaType compositeMetaType = initCompositeMetaType();
+        CompactCompositeValueSupport v = new CompactCompositeValueSupport(compositeMetaType);
+        v.set("name1", initStringValue1());
+        CompactCompositeValueSupport result = serializeDeserialize(v, CompactCompositeValueSupport.class);
+        assertEquals(v, result);
+        assertNull(result.get("name2"));
+        assertEquals(1, CompositeMetaTypeSlots.indexOf(result.getMetaType(), "name2"));
+    }
+
+    public void testOtherMetaType() throws Exception {
+        final CompositeMetaType delegate = initCompositeMetaType();
+        // a composite type which does not assign slots
+        final CompositeMetaType compositeMetaType = (CompositeMetaType) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { CompositeMetaType.class }, new InvocationHandler() {
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                try {
+                    return method.invoke(delegate, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+        assertFalse(CompositeMetaTypeSlots.hasSlots(compositeMetaType));
+        CompactCompositeValueSupport v = new CompactCompositeValueSupport(compositeMetaType);
+        v.set("name2", initInteger2());
+        assertNull(v.get("name1"));
+        assertEquals(initInteger2(), v.get("name2"));
+        assertTrue(v.containsKey("name1"));
+        assertFalse(v.containsKey("unknown"));
+        try {
+            v.set("name1", initInteger2());
+            fail("invalid item type");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+        try {
+            v.get("unknown");
+            fail("no such item");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.values.test;
+
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.ImmutableSimpleValueSupport;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.AbstractMetaTypeTest;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class ImmutableSimpleValueUnitTestCase extends AbstractMetaTypeTest {
+
+    public ImmutableSimpleValueUnitTestCase(String name) {
+        super(name);
+    }
+
+    public void testSharedValues() throws Exception {
+        assertSame(SimpleValue.Factory.createImmutable(true), SimpleValue.Factory.createImmutable(true));
+        assertSame(SimpleValue.Factory.createImmutable(0), SimpleValue.Factory.createImmutable(0));
+        assertSame(SimpleValue.Factory.createImmutable(-128L), SimpleValue.Factory.createImmutable(-128L));
+        assertSame(SimpleValue.Factory.createImmutable(""), SimpleValue.Factory.createImmutable(""));
+        assertSame(SimpleValue.Factory.createImmutable("RUNNING"), SimpleValue.Factory.createImmutable("RUNNING"));
+        assertNotSame(SimpleValue.Factory.createImmutable(128), SimpleValue.Factory.createImmutable(128));
+
+        assertSame(SimpleValue.Factory.createImmutable(1L), SimpleValue.Factory.createImmutable("1", SimpleMetaType.LONG_PRIMITIVE));
+        assertSame(SimpleValue.Factory.createImmutable(false), SimpleValue.Factory.createImmutable(SimpleValue.Factory.create(false), SimpleMetaType.BOOLEAN_PRIMITIVE));
+
+        SimpleValue boxed = SimpleValue.Factory.createImmutable(Integer.valueOf(1), SimpleMetaType.INTEGER);
+        assertEquals(SimpleMetaType.INTEGER, boxed.getMetaType());
+        assertSame(boxed, SimpleValue.Factory.createImmutable("1", SimpleMetaType.INTEGER));
+        assertNotSame(boxed, SimpleValue.Factory.createImmutable(1));
+    }
+
+    public void testEquals() throws Exception {
+        assertEquals(SimpleValueSupport.wrap("value1"), SimpleValue.Factory.createImmutable("value1"));
+        assertEquals(SimpleValue.Factory.createImmutable("value1"), SimpleValueSupport.wrap("value1"));
+        assertEquals(SimpleValueSupport.wrap("value1").hashCode(), SimpleValue.Factory.createImmutable("value1").hashCode());
+        assertEquals(SimpleValue.Factory.create(5), SimpleValue.Factory.createImmutable(5));
+    }
+
+    public void testImmutable() throws Exception {
+        SimpleValueSupport mutable = new SimpleValueSupport(SimpleMetaType.STRING, "value1");
+        SimpleValue immutable = SimpleValue.Factory.createImmutable(mutable, SimpleMetaType.STRING);
+        assertInstanceOf(immutable, ImmutableSimpleValueSupport.class);
+        mutable.setValue("value2");
+        assertEquals("value1", immutable.getValue());
+
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < 64; i++) {
+            builder.append('x');
+        }
+        SimpleValue longString = SimpleValue.Factory.createImmutable(builder.toString());
+        assertInstanceOf(longString, ImmutableSimpleValueSupport.class);
+        assertNotSame(longString, SimpleValue.Factory.createImmutable(builder.toString()));
+
+        SimpleValue nullValue = SimpleValue.Factory.createImmutable(null, SimpleMetaType.DATE);
+        assertNull(nullValue.getValue());
+        assertEquals(SimpleMetaType.DATE, nullValue.getMetaType());
+    }
+
+    public void testSerialization() throws Exception {
+        SimpleValue value = SimpleValue.Factory.createImmutable("value1");
+        ImmutableSimpleValueSupport result = serializeDeserialize(value, ImmutableSimpleValueSupport.class);
+        assertEquals(value, result);
+    }
+
+}
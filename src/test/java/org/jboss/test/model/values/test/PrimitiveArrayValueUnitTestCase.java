@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.values.test;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+import org.jboss.model.types.ArrayMetaType;
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.ArrayValue;
+import org.jboss.model.values.ArrayValueSupport;
+import org.jboss.model.values.CharArrayValueSupport;
+import org.jboss.model.values.DoubleArrayValueSupport;
+import org.jboss.model.values.IntArrayValueSupport;
+import org.jboss.model.values.LongArrayValueSupport;
+import org.jboss.model.values.MetaValueFactory;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class PrimitiveArrayValueUnitTestCase extends TestCase {
+
+    public void testIndexedAccess() {
+        final long[] buckets = { 1L, 2L, 3L, Long.MAX_VALUE };
+        final LongArrayValueSupport value = new LongArrayValueSupport(buckets);
+        assertEquals(4, value.getLength());
+        assertSame(buckets, value.getValue());
+        for(int i = 0; i < buckets.length; i++) {
+            assertEquals(buckets[i], value.getLong(i));
+            assertEquals(Long.valueOf(buckets[i]), value.getValue(i));
+        }
+        final Iterator<Object> i = value.iterator();
+        for(final long bucket : buckets) {
+            assertTrue(i.hasNext());
+            assertEquals(Long.valueOf(bucket), i.next());
+        }
+        assertFalse(i.hasNext());
+    }
+
+    public void testBulkCopy() {
+        final IntArrayValueSupport value = new IntArrayValueSupport(new int[] { 1, 2, 3, 4 });
+        final int[] copy = value.toArray();
+        assertNotSame(value.getValue(), copy);
+        copy[0] = 5;
+        assertEquals(1, value.getInt(0));
+
+        final int[] range = new int[3];
+        value.copyTo(1, range, 1, 2);
+        assertEquals(0, range[0]);
+        assertEquals(2, range[1]);
+        assertEquals(3, range[2]);
+        try {
+            value.copyTo(3, range, 0, 2);
+            fail("out of bounds");
+        } catch (IndexOutOfBoundsException ok) {
+            //
+        }
+    }
+
+    public void testClone() {
+        final DoubleArrayValueSupport value = new DoubleArrayValueSupport(new double[] { 1.5, 2.5 });
+        final DoubleArrayValueSupport clone = (DoubleArrayValueSupport) value.clone();
+        assertEquals(value, clone);
+        assertNotSame(value.getValue(), clone.getValue());
+        clone.getValue()[0] = 0;
+        assertEquals(1.5, value.getDouble(0));
+
+        // the generic implementation keeps the component type
+        final ArrayValueSupport generic = new ArrayValueSupport(IntArrayValueSupport.META_TYPE, new int[] { 1, 2 });
+        final ArrayValue genericClone = (ArrayValue) generic.clone();
+        assertTrue(genericClone.getValue() instanceof int[]);
+        assertNotSame(generic.getValue(), genericClone.getValue());
+        assertEquals(generic, genericClone);
+    }
+
+    public void testEquals() {
+        final ArrayMetaType type = new ArrayMetaType(1, SimpleMetaType.CHARACTER);
+        final char[] chars = { 'a', 'b' };
+        final CharArrayValueSupport typed = new CharArrayValueSupport(type, chars);
+        final ArrayValueSupport generic = new ArrayValueSupport(type, chars.clone());
+        assertEquals(typed, generic);
+        assertEquals(generic, typed);
+        assertEquals(typed.hashCode(), generic.hashCode());
+        assertFalse(typed.equals(new CharArrayValueSupport(new char[] { 'a' })));
+        assertEquals(type + ":[a, b]", typed.toString());
+    }
+
+    public void testMetaType() {
+        try {
+            new IntArrayValueSupport(LongArrayValueSupport.META_TYPE, new int[0]);
+            fail("invalid meta type");
+        } catch (IllegalArgumentException ok) {
+            //
+        }
+        try {
+            new IntArrayValueSupport(new ArrayMetaType(2, SimpleMetaType.INTEGER, true), new int[0]);
+            fail("invalid dimension");
+        } catch (IllegalArgumentException ok) {
+            //
+        }
+        assertTrue(IntArrayValueSupport.META_TYPE.isValue(new IntArrayValueSupport(new int[0])));
+    }
+
+    public void testFactory() {
+        assertTrue(MetaValueFactory.createArray(new int[] { 1 }, IntArrayValueSupport.META_TYPE) instanceof IntArrayValueSupport);
+        assertTrue(MetaValueFactory.createArray(new long[] { 1 }, LongArrayValueSupport.META_TYPE) instanceof LongArrayValueSupport);
+        final ArrayMetaType type = new ArrayMetaType(1, SimpleMetaType.INTEGER);
+        assertTrue(MetaValueFactory.createArray(new Integer[] { 1 }, type) instanceof ArrayValueSupport);
+        assertTrue(MetaValueFactory.createArray(null, type) instanceof ArrayValueSupport);
+    }
+
+}
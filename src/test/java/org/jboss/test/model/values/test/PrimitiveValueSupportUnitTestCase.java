@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.model.values.test;
+
+import org.jboss.model.types.SimpleMetaType;
+import org.jboss.model.values.BooleanValueSupport;
+import org.jboss.model.values.DoubleValueSupport;
+import org.jboss.model.values.IntValueSupport;
+import org.jboss.model.values.LongValueSupport;
+import org.jboss.model.values.SimpleValue;
+import org.jboss.model.values.SimpleValueSupport;
+import org.jboss.test.model.AbstractMetaTypeTest;
+
+/**
+ * @author Emanuel Muckenhuber
+ */
+public class PrimitiveValueSupportUnitTestCase extends AbstractMetaTypeTest {
+
+    public PrimitiveValueSupportUnitTestCase(String name) {
+        super(name);
+    }
+
+    public void testFactory() throws Exception {
+        assertInstanceOf(SimpleValue.Factory.create(1), IntValueSupport.class);
+        assertInstanceOf(SimpleValue.Factory.create(1L), LongValueSupport.class);
+        assertInstanceOf(SimpleValue.Factory.create(1.0d), DoubleValueSupport.class);
+        assertInstanceOf(SimpleValue.Factory.create(true), BooleanValueSupport.class);
+        assertInstanceOf(SimpleValueSupport.wrap(1L), LongValueSupport.class);
+
+        assertEquals(SimpleMetaType.LONG_PRIMITIVE, SimpleValue.Factory.create(1L).getMetaType());
+        SimpleValue value = SimpleValue.Factory.create("42", SimpleMetaType.LONG);
+        assertInstanceOf(value, LongValueSupport.class);
+        assertEquals(SimpleMetaType.LONG, value.getMetaType());
+        assertEquals(42L, value.longValue());
+        assertNull(SimpleValue.Factory.create(null, SimpleMetaType.LONG).getValue());
+    }
+
+    public void testAccessors() throws Exception {
+        SimpleValue value = SimpleValue.Factory.create(3.5d);
+        assertEquals(3.5d, value.doubleValue());
+        assertEquals(3.5f, value.floatValue());
+        assertEquals(3L, value.longValue());
+        assertEquals(3, value.intValue());
+        assertEquals(Integer.valueOf(3), value.asInteger());
+        assertEquals(Double.valueOf(3.5d), value.asNumber());
+        assertEquals("3.5", value.asString());
+
+        value = SimpleValue.Factory.create(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, value.longValue());
+        assertEquals(Long.valueOf(Long.MAX_VALUE).intValue(), value.intValue());
+        assertEquals(Long.valueOf(Long.MAX_VALUE), value.getValue());
+
+        value = SimpleValue.Factory.create(true);
+        assertTrue(value.booleanValue());
+        assertEquals(Boolean.TRUE, value.asBoolean());
+        assertEquals("true", value.asString());
+
+        assertEquals(1, SimpleValueSupport.wrap(Integer.valueOf(1)).intValue());
+        try {
+            new SimpleValueSupport(SimpleMetaType.INTEGER, null).intValue();
+            fail("null value");
+        } catch (IllegalStateException expected) {
+            //
+        }
+    }
+
+    public void testEquals() throws Exception {
+        SimpleValue primitive = SimpleValue.Factory.create(5L);
+        SimpleValue boxed = new SimpleValueSupport(SimpleMetaType.LONG, Long.valueOf(5L));
+        assertEquals(primitive, boxed);
+        assertEquals(boxed, primitive);
+        assertEquals(boxed.hashCode(), primitive.hashCode());
+        assertEquals(primitive, new LongValueSupport(SimpleMetaType.LONG, 5L));
+        assertFalse(primitive.equals(SimpleValue.Factory.create(5)));
+        assertFalse(primitive.equals(SimpleValue.Factory.create(6L)));
+
+        SimpleValue d = SimpleValue.Factory.create(-0.25d);
+        assertEquals(new SimpleValueSupport(SimpleMetaType.DOUBLE, Double.valueOf(-0.25d)).hashCode(), d.hashCode());
+        assertEquals(Boolean.TRUE.hashCode(), SimpleValue.Factory.create(true).hashCode());
+    }
+
+    public void testCompare() throws Exception {
+        assertTrue(SimpleValue.Factory.create(1L).compareTo(SimpleValue.Factory.create(2L)) < 0);
+        assertTrue(SimpleValue.Factory.create(2L).compareTo(SimpleValue.Factory.create(1L)) > 0);
+        assertEquals(0, SimpleValue.Factory.create(2L).compareTo(new SimpleValueSupport(SimpleMetaType.LONG, 2L)));
+        assertTrue(SimpleValue.Factory.create(false).compareTo(SimpleValue.Factory.create(true)) < 0);
+    }
+
+    public void testInvalidMetaType() throws Exception {
+        try {
+            new LongValueSupport(SimpleMetaType.INTEGER, 1L);
+            fail("invalid meta type");
+        } catch (IllegalArgumentException expected) {
+            //
+        }
+    }
+
+    public void testSerialization() throws Exception {
+        SimpleValue value = new LongValueSupport(SimpleMetaType.LONG, 7L);
+        LongValueSupport result = serializeDeserialize(value, LongValueSupport.class);
+        assertEquals(value, result);
+        assertSame(SimpleMetaType.LONG, result.getMetaType());
+    }
+
+}